@@ -108,6 +108,7 @@ public class Runner implements AutoCloseable {
       LOG.info("Starting Ethereum main loop ... ");
       metrics.ifPresent(service -> waitForServiceToStart("metrics", service.start()));
       natService.start();
+      besuController.startBackgroundServices();
       networkRunner.start();
       if (networkRunner.getNetwork().isP2pEnabled()) {
         besuController.getSynchronizer().start();
@@ -53,6 +53,7 @@ import org.hyperledger.besu.cli.options.stable.P2PTLSConfigOptions;
 import org.hyperledger.besu.cli.options.unstable.DataStorageOptions;
 import org.hyperledger.besu.cli.options.unstable.DnsOptions;
 import org.hyperledger.besu.cli.options.unstable.EthProtocolOptions;
+import org.hyperledger.besu.cli.options.unstable.EvmOptions;
 import org.hyperledger.besu.cli.options.unstable.LauncherOptions;
 import org.hyperledger.besu.cli.options.unstable.MetricsCLIOptions;
 import org.hyperledger.besu.cli.options.unstable.MiningOptions;
@@ -61,6 +62,7 @@ import org.hyperledger.besu.cli.options.unstable.NativeLibraryOptions;
 import org.hyperledger.besu.cli.options.unstable.NetworkingOptions;
 import org.hyperledger.besu.cli.options.unstable.PkiBlockCreationOptions;
 import org.hyperledger.besu.cli.options.unstable.PrivacyPluginOptions;
+import org.hyperledger.besu.cli.options.unstable.PruningOptions;
 import org.hyperledger.besu.cli.options.unstable.RPCOptions;
 import org.hyperledger.besu.cli.options.unstable.SynchronizerOptions;
 import org.hyperledger.besu.cli.options.unstable.TransactionPoolOptions;
@@ -262,6 +264,8 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
   private final MiningOptions unstableMiningOptions = MiningOptions.create();
   private final NatOptions unstableNatOptions = NatOptions.create();
   private final NativeLibraryOptions unstableNativeLibraryOptions = NativeLibraryOptions.create();
+  final EvmOptions unstableEvmOptions = EvmOptions.create();
+  final PruningOptions unstablePruningOptions = PruningOptions.create();
   private final RPCOptions unstableRPCOptions = RPCOptions.create();
   final LauncherOptions unstableLauncherOptions = LauncherOptions.create();
   private final PrivacyPluginOptions unstablePrivacyPluginOptions = PrivacyPluginOptions.create();
@@ -1294,7 +1298,9 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
             .put("TransactionPool", unstableTransactionPoolOptions)
             .put("Mining", unstableMiningOptions)
             .put("Native Library", unstableNativeLibraryOptions)
+            .put("EVM", unstableEvmOptions)
             .put("Data Storage Options", unstableDataStorageOptions)
+            .put("Pruning", unstablePruningOptions)
             .put("Launcher", unstableLauncherOptions)
             .build();
 
@@ -1727,8 +1733,7 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
         .isRevertReasonEnabled(isRevertReasonEnabled)
         .storageProvider(storageProvider)
         .isPruningEnabled(isPruningEnabled())
-        .pruningConfiguration(
-            new PrunerConfiguration(pruningBlockConfirmations, pruningBlocksRetained))
+        .pruningConfiguration(buildPrunerConfiguration())
         .genesisConfigOverrides(genesisConfigOverrides)
         .gasLimitCalculator(
             Optional.ofNullable(targetGasLimit)
@@ -1736,7 +1741,8 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
                 .orElse(GasLimitCalculator.constant()))
         .requiredBlocks(requiredBlocks)
         .reorgLoggingThreshold(reorgLoggingThreshold)
-        .dataStorageConfiguration(unstableDataStorageOptions.toDomainObject());
+        .dataStorageConfiguration(unstableDataStorageOptions.toDomainObject())
+        .evmParameters(unstableEvmOptions.toDomainObject());
   }
 
   private GraphQLConfiguration graphQLConfiguration() {
@@ -2308,6 +2314,16 @@ public class BesuCommand implements DefaultCommandValues, Runnable {
         .build();
   }
 
+  private PrunerConfiguration buildPrunerConfiguration() {
+    final PrunerConfiguration unstablePrunerConfiguration =
+        unstablePruningOptions.toDomainObject();
+    return new PrunerConfiguration(
+        pruningBlockConfirmations,
+        pruningBlocksRetained,
+        unstablePrunerConfiguration.getMarkingThreads(),
+        unstablePrunerConfiguration.getSweepRate());
+  }
+
   private boolean isPruningEnabled() {
     return pruningEnabled;
   }
@@ -16,7 +16,12 @@
 
 package org.hyperledger.besu.cli.options.unstable;
 
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BLOCKCHAIN_CACHE_SIZE;
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BLOCKCHAIN_FREEZER_RETENTION;
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BONSAI_LAYER_CACHE_CAPACITY;
 import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BONSAI_MAX_LAYERS_TO_LOAD;
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BONSAI_TRIE_LOG_RETENTION;
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_TRIE_NODE_CACHE_SIZE;
 
 import org.hyperledger.besu.cli.options.CLIOptions;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
@@ -34,6 +39,23 @@ public class DataStorageOptions implements CLIOptions<DataStorageConfiguration>
   private static final String BONSAI_STORAGE_FORMAT_MAX_LAYERS_TO_LOAD =
       "--Xbonsai-maximum-back-layers-to-load";
 
+  private static final String BONSAI_STATE_PREFETCH_ENABLED = "--Xbonsai-state-prefetch-enabled";
+
+  private static final String BONSAI_LAYER_CACHE_CAPACITY = "--Xbonsai-layer-cache-capacity";
+
+  private static final String BONSAI_TRIE_LOG_PRUNING_ENABLED =
+      "--Xbonsai-trie-log-pruning-enabled";
+
+  private static final String BONSAI_TRIE_LOG_RETENTION = "--Xbonsai-trie-log-retention";
+
+  private static final String BLOCKCHAIN_CACHE_SIZE = "--Xblockchain-cache-size";
+
+  private static final String BLOCKCHAIN_FREEZER_ENABLED = "--Xblockchain-freezer-enabled";
+
+  private static final String BLOCKCHAIN_FREEZER_RETENTION = "--Xblockchain-freezer-retention";
+
+  private static final String TRIE_NODE_CACHE_SIZE = "--Xtrie-node-cache-size";
+
   // Use Bonsai DB
   @Option(
       names = {DATA_STORAGE_FORMAT},
@@ -51,6 +73,81 @@ public class DataStorageOptions implements CLIOptions<DataStorageConfiguration>
       arity = "1")
   private final Long bonsaiMaxLayersToLoad = DEFAULT_BONSAI_MAX_LAYERS_TO_LOAD;
 
+  @Option(
+      names = {BONSAI_STATE_PREFETCH_ENABLED},
+      hidden = true,
+      description =
+          "Read the state touched by a block ahead of its execution with BONSAI"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Boolean bonsaiStatePrefetchEnabled = false;
+
+  @Option(
+      names = {BONSAI_LAYER_CACHE_CAPACITY},
+      hidden = true,
+      description =
+          "Estimated bytes of layered world state changes kept in memory with BONSAI, the"
+              + " changes of older layers are read back from the database"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Long bonsaiLayerCacheCapacity = DEFAULT_BONSAI_LAYER_CACHE_CAPACITY;
+
+  @Option(
+      names = {BONSAI_TRIE_LOG_PRUNING_ENABLED},
+      hidden = true,
+      description =
+          "Remove the trie logs of old blocks in the background with BONSAI"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Boolean bonsaiTrieLogPruningEnabled = false;
+
+  @Option(
+      names = {BONSAI_TRIE_LOG_RETENTION},
+      hidden = true,
+      description =
+          "Number of recent blocks whose trie logs are retained when pruning trie logs with BONSAI,"
+              + " never less than the limit of back layers that can be loaded"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Long bonsaiTrieLogRetention = DEFAULT_BONSAI_TRIE_LOG_RETENTION;
+
+  @Option(
+      names = {BLOCKCHAIN_CACHE_SIZE},
+      hidden = true,
+      description =
+          "Number of recently used blocks whose decoded headers, bodies and receipts are kept in"
+              + " memory, 0 to disable (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Long blockchainCacheSize = DEFAULT_BLOCKCHAIN_CACHE_SIZE;
+
+  @Option(
+      names = {BLOCKCHAIN_FREEZER_ENABLED},
+      hidden = true,
+      description =
+          "Move the bodies and receipts of old blocks out of the database to append-only files"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Boolean blockchainFreezerEnabled = false;
+
+  @Option(
+      names = {BLOCKCHAIN_FREEZER_RETENTION},
+      hidden = true,
+      description =
+          "Number of recent blocks whose bodies and receipts are kept in the database when the"
+              + " freezer is enabled, must exceed the depth of any reorg"
+              + " (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Long blockchainFreezerRetention = DEFAULT_BLOCKCHAIN_FREEZER_RETENTION;
+
+  @Option(
+      names = {TRIE_NODE_CACHE_SIZE},
+      hidden = true,
+      description =
+          "Estimated bytes of world state trie nodes kept in memory, shared by all the tries read"
+              + " from the database, 0 to disable (default: ${DEFAULT-VALUE}).",
+      arity = "1")
+  private final Long trieNodeCacheSize = DEFAULT_TRIE_NODE_CACHE_SIZE;
+
   public static DataStorageOptions create() {
     return new DataStorageOptions();
   }
@@ -60,6 +157,14 @@ public class DataStorageOptions implements CLIOptions<DataStorageConfiguration>
     return ImmutableDataStorageConfiguration.builder()
         .dataStorageFormat(dataStorageFormat)
         .bonsaiMaxLayersToLoad(bonsaiMaxLayersToLoad)
+        .bonsaiStatePrefetchEnabled(bonsaiStatePrefetchEnabled)
+        .bonsaiLayerCacheCapacity(bonsaiLayerCacheCapacity)
+        .bonsaiTrieLogPruningEnabled(bonsaiTrieLogPruningEnabled)
+        .bonsaiTrieLogRetention(bonsaiTrieLogRetention)
+        .blockchainCacheSize(blockchainCacheSize)
+        .blockchainFreezerEnabled(blockchainFreezerEnabled)
+        .blockchainFreezerRetention(blockchainFreezerRetention)
+        .trieNodeCacheSize(trieNodeCacheSize)
         .build();
   }
 
@@ -69,6 +174,22 @@ public class DataStorageOptions implements CLIOptions<DataStorageConfiguration>
         DATA_STORAGE_FORMAT,
         dataStorageFormat.toString(),
         BONSAI_STORAGE_FORMAT_MAX_LAYERS_TO_LOAD,
-        bonsaiMaxLayersToLoad.toString());
+        bonsaiMaxLayersToLoad.toString(),
+        BONSAI_STATE_PREFETCH_ENABLED,
+        bonsaiStatePrefetchEnabled.toString(),
+        BONSAI_LAYER_CACHE_CAPACITY,
+        bonsaiLayerCacheCapacity.toString(),
+        BONSAI_TRIE_LOG_PRUNING_ENABLED,
+        bonsaiTrieLogPruningEnabled.toString(),
+        BONSAI_TRIE_LOG_RETENTION,
+        bonsaiTrieLogRetention.toString(),
+        BLOCKCHAIN_CACHE_SIZE,
+        blockchainCacheSize.toString(),
+        BLOCKCHAIN_FREEZER_ENABLED,
+        blockchainFreezerEnabled.toString(),
+        BLOCKCHAIN_FREEZER_RETENTION,
+        blockchainFreezerRetention.toString(),
+        TRIE_NODE_CACHE_SIZE,
+        trieNodeCacheSize.toString());
   }
 }
@@ -32,6 +32,7 @@ public class EthProtocolOptions implements CLIOptions<EthProtocolConfiguration>
   private static final String MAX_GET_POOLED_TRANSACTIONS = "--Xewp-max-get-pooled-transactions";
   private static final String LEGACY_ETH_64_FORK_ID_ENABLED =
       "--compatibility-eth64-forkid-enabled";
+  private static final String SNAP_SERVER_ENABLED_FLAG = "--Xsnap-server-enabled";
 
   @CommandLine.Option(
       hidden = true,
@@ -85,6 +86,14 @@ public class EthProtocolOptions implements CLIOptions<EthProtocolConfiguration>
   private Boolean legacyEth64ForkIdEnabled =
       EthProtocolConfiguration.DEFAULT_LEGACY_ETH_64_FORK_ID_ENABLED;
 
+  @CommandLine.Option(
+      hidden = true,
+      names = {SNAP_SERVER_ENABLED_FLAG},
+      paramLabel = "<Boolean>",
+      description =
+          "Serve account and storage ranges of the world state to peers with the snap protocol. (default: ${DEFAULT-VALUE})")
+  private Boolean snapServerEnabled = EthProtocolConfiguration.DEFAULT_SNAP_SERVER_ENABLED;
+
   private EthProtocolOptions() {}
 
   public static EthProtocolOptions create() {
@@ -99,6 +108,7 @@ public class EthProtocolOptions implements CLIOptions<EthProtocolConfiguration>
     options.maxGetNodeData = PositiveNumber.fromInt(config.getMaxGetNodeData());
     options.maxGetPooledTransactions = PositiveNumber.fromInt(config.getMaxGetPooledTransactions());
     options.legacyEth64ForkIdEnabled = config.isLegacyEth64ForkIdEnabled();
+    options.snapServerEnabled = config.isSnapServerEnabled();
     return options;
   }
 
@@ -111,6 +121,7 @@ public class EthProtocolOptions implements CLIOptions<EthProtocolConfiguration>
         .maxGetNodeData(maxGetNodeData)
         .maxGetPooledTransactions(maxGetPooledTransactions)
         .legacyEth64ForkIdEnabled(legacyEth64ForkIdEnabled)
+        .snapServerEnabled(snapServerEnabled)
         .build();
   }
 
@@ -127,6 +138,7 @@ public class EthProtocolOptions implements CLIOptions<EthProtocolConfiguration>
         OptionParser.format(maxGetNodeData.getValue()),
         MAX_GET_POOLED_TRANSACTIONS,
         OptionParser.format(maxGetPooledTransactions.getValue()),
-        LEGACY_ETH_64_FORK_ID_ENABLED + "=" + legacyEth64ForkIdEnabled);
+        LEGACY_ETH_64_FORK_ID_ENABLED + "=" + legacyEth64ForkIdEnabled,
+        SNAP_SERVER_ENABLED_FLAG + "=" + snapServerEnabled);
   }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.options.unstable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.cli.options.CLIOptions;
+import org.hyperledger.besu.cli.options.OptionParser;
+import org.hyperledger.besu.ethereum.mainnet.EvmParameters;
+import org.hyperledger.besu.ethereum.mainnet.ImmutableEvmParameters;
+
+import java.util.Arrays;
+import java.util.List;
+
+import picocli.CommandLine;
+
+public class EvmOptions implements CLIOptions<EvmParameters> {
+  private static final String LIMB_STACK_ENABLED_FLAG = "--Xevm-limb-stack-enabled";
+  private static final String PARALLEL_TX_EXECUTION_ENABLED_FLAG =
+      "--Xevm-parallel-tx-execution-enabled";
+  private static final String PARALLEL_TX_EXECUTION_THREADS_FLAG =
+      "--Xevm-parallel-tx-execution-threads";
+
+  @CommandLine.Option(
+      hidden = true,
+      names = {LIMB_STACK_ENABLED_FLAG},
+      description =
+          "Store EVM operand stack words as primitive 64-bit limbs instead of UInt256 objects (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private Boolean limbOperandStack = Boolean.FALSE;
+
+  @CommandLine.Option(
+      hidden = true,
+      names = {PARALLEL_TX_EXECUTION_ENABLED_FLAG},
+      description =
+          "Execute the transactions of imported blocks speculatively in parallel, re-executing those that conflict (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private Boolean parallelTransactionExecution = Boolean.FALSE;
+
+  @CommandLine.Option(
+      hidden = true,
+      names = {PARALLEL_TX_EXECUTION_THREADS_FLAG},
+      description =
+          "Number of threads executing transactions speculatively when parallel execution is enabled (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private Integer parallelTransactionExecutionThreads =
+      EvmParameters.DEFAULT_PARALLEL_TRANSACTION_EXECUTION_THREADS;
+
+  private EvmOptions() {}
+
+  public static EvmOptions create() {
+    return new EvmOptions();
+  }
+
+  public static EvmOptions fromConfig(final EvmParameters config) {
+    final EvmOptions options = create();
+    options.limbOperandStack = config.getLimbOperandStackEnabled();
+    options.parallelTransactionExecution = config.getParallelTransactionExecutionEnabled();
+    options.parallelTransactionExecutionThreads = config.getParallelTransactionExecutionThreads();
+    return options;
+  }
+
+  @Override
+  public EvmParameters toDomainObject() {
+    checkArgument(
+        !parallelTransactionExecution || parallelTransactionExecutionThreads >= 1,
+        PARALLEL_TX_EXECUTION_THREADS_FLAG + " must be at least 1");
+    return ImmutableEvmParameters.builder()
+        .limbOperandStackEnabled(limbOperandStack)
+        .parallelTransactionExecutionEnabled(parallelTransactionExecution)
+        .parallelTransactionExecutionThreads(parallelTransactionExecutionThreads)
+        .build();
+  }
+
+  @Override
+  public List<String> getCLIOptions() {
+    return Arrays.asList(
+        LIMB_STACK_ENABLED_FLAG + "=" + limbOperandStack,
+        PARALLEL_TX_EXECUTION_ENABLED_FLAG + "=" + parallelTransactionExecution,
+        PARALLEL_TX_EXECUTION_THREADS_FLAG,
+        OptionParser.format(parallelTransactionExecutionThreads));
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.options.unstable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.cli.options.CLIOptions;
+import org.hyperledger.besu.cli.options.OptionParser;
+import org.hyperledger.besu.ethereum.worldstate.PrunerConfiguration;
+
+import java.util.Arrays;
+import java.util.List;
+
+import picocli.CommandLine;
+
+public class PruningOptions implements CLIOptions<PrunerConfiguration> {
+  private static final String MARKING_THREADS_FLAG = "--Xpruning-marking-threads";
+  private static final String SWEEP_RATE_FLAG = "--Xpruning-sweep-rate";
+
+  @CommandLine.Option(
+      hidden = true,
+      names = {MARKING_THREADS_FLAG},
+      paramLabel = "<INTEGER>",
+      description =
+          "Number of threads marking the nodes in use when pruning (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private Integer markingThreads = PrunerConfiguration.DEFAULT_PRUNING_MARKING_THREADS;
+
+  @CommandLine.Option(
+      hidden = true,
+      names = {SWEEP_RATE_FLAG},
+      paramLabel = "<INTEGER>",
+      description =
+          "Maximum number of keys checked per second when sweeping unused nodes, 0 for no limit (default: ${DEFAULT-VALUE})",
+      arity = "1")
+  private Integer sweepRate = PrunerConfiguration.DEFAULT_PRUNING_SWEEP_RATE;
+
+  private PruningOptions() {}
+
+  public static PruningOptions create() {
+    return new PruningOptions();
+  }
+
+  public static PruningOptions fromConfig(final PrunerConfiguration config) {
+    final PruningOptions options = create();
+    options.markingThreads = config.getMarkingThreads();
+    options.sweepRate = config.getSweepRate();
+    return options;
+  }
+
+  /**
+   * The block confirmations and blocks retained are stable options of the command, so they are
+   * left at their defaults here.
+   *
+   * @return the pruner configuration with the unstable options applied
+   */
+  @Override
+  public PrunerConfiguration toDomainObject() {
+    checkArgument(markingThreads >= 1, MARKING_THREADS_FLAG + " must be at least 1");
+    checkArgument(sweepRate >= 0, SWEEP_RATE_FLAG + " must not be negative");
+    return new PrunerConfiguration(
+        PrunerConfiguration.DEFAULT_PRUNING_BLOCK_CONFIRMATIONS,
+        PrunerConfiguration.DEFAULT_PRUNING_BLOCKS_RETAINED,
+        markingThreads,
+        sweepRate);
+  }
+
+  @Override
+  public List<String> getCLIOptions() {
+    return Arrays.asList(
+        MARKING_THREADS_FLAG,
+        OptionParser.format(markingThreads),
+        SWEEP_RATE_FLAG,
+        OptionParser.format(sweepRate));
+  }
+}
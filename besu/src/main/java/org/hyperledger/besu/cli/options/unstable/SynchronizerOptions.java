@@ -58,6 +58,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
       "--Xsynchronizer-world-state-min-millis-before-stalling";
   private static final String WORLD_STATE_TASK_CACHE_SIZE_FLAG =
       "--Xsynchronizer-world-state-task-cache-size";
+  private static final String SNAP_SYNC_ENABLED_FLAG = "--Xsynchronizer-snap-sync-enabled";
 
   @CommandLine.Option(
       names = BLOCK_PROPAGATION_RANGE_FLAG,
@@ -212,6 +213,16 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
   private int worldStateTaskCacheSize =
       SynchronizerConfiguration.DEFAULT_WORLD_STATE_TASK_CACHE_SIZE;
 
+  @CommandLine.Option(
+      names = SNAP_SYNC_ENABLED_FLAG,
+      hidden = true,
+      defaultValue = "false",
+      paramLabel = "<BOOLEAN>",
+      arity = "1",
+      description =
+          "Download the fast sync world state by ranges from peers supporting the snap protocol (default: ${DEFAULT-VALUE})")
+  private boolean snapSyncEnabled = false;
+
   private SynchronizerOptions() {}
 
   public static SynchronizerOptions create() {
@@ -238,6 +249,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
     options.worldStateMaxRequestsWithoutProgress = config.getWorldStateMaxRequestsWithoutProgress();
     options.worldStateMinMillisBeforeStalling = config.getWorldStateMinMillisBeforeStalling();
     options.worldStateTaskCacheSize = config.getWorldStateTaskCacheSize();
+    options.snapSyncEnabled = config.isSnapSyncEnabled();
     return options;
   }
 
@@ -260,6 +272,7 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
     builder.worldStateMaxRequestsWithoutProgress(worldStateMaxRequestsWithoutProgress);
     builder.worldStateMinMillisBeforeStalling(worldStateMinMillisBeforeStalling);
     builder.worldStateTaskCacheSize(worldStateTaskCacheSize);
+    builder.snapSyncEnabled(snapSyncEnabled);
     return builder;
   }
 
@@ -297,6 +310,8 @@ public class SynchronizerOptions implements CLIOptions<SynchronizerConfiguration
         WORLD_STATE_MIN_MILLIS_BEFORE_STALLING_FLAG,
         OptionParser.format(worldStateMinMillisBeforeStalling),
         WORLD_STATE_TASK_CACHE_SIZE_FLAG,
-        OptionParser.format(worldStateTaskCacheSize));
+        OptionParser.format(worldStateTaskCacheSize),
+        SNAP_SYNC_ENABLED_FLAG,
+        Boolean.toString(snapSyncEnabled));
   }
 }
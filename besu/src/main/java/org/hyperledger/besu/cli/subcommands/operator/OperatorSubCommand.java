@@ -34,7 +34,8 @@ import picocli.CommandLine.Spec;
       GenerateBlockchainConfig.class,
       GenerateLogBloomCache.class,
       BackupState.class,
-      RestoreState.class
+      RestoreState.class,
+      PruneTrieLogs.class
     })
 public class OperatorSubCommand implements Runnable {
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.cli.subcommands.operator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static org.hyperledger.besu.cli.DefaultCommandValues.MANDATORY_LONG_FORMAT_HELP;
+import static org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration.DEFAULT_BONSAI_TRIE_LOG_RETENTION;
+
+import org.hyperledger.besu.controller.BesuController;
+import org.hyperledger.besu.ethereum.bonsai.BonsaiTrieLogPruner;
+import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateArchive;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParentCommand;
+
+@Command(
+    name = "x-prune-trie-logs",
+    description = "Removes the Bonsai trie logs of the blocks older than the retained blocks.",
+    mixinStandardHelpOptions = true)
+public class PruneTrieLogs implements Runnable {
+
+  @Option(
+      names = "--retained-blocks",
+      paramLabel = MANDATORY_LONG_FORMAT_HELP,
+      description =
+          "Number of recent blocks whose trie logs are retained (default: ${DEFAULT-VALUE})",
+      arity = "1..1")
+  private final Long retainedBlocks = DEFAULT_BONSAI_TRIE_LOG_RETENTION;
+
+  @ParentCommand private OperatorSubCommand parentCommand;
+
+  @Override
+  public void run() {
+    checkArgument(
+        parentCommand.parentCommand.dataDir().toFile().exists(),
+        "DataDir (the database being pruned) does not exist.");
+
+    final BesuController besuController = createBesuController();
+    try {
+      final WorldStateArchive worldStateArchive =
+          besuController.getProtocolContext().getWorldStateArchive();
+      checkState(
+          worldStateArchive instanceof BonsaiWorldStateArchive,
+          "Trie logs are only stored with the BONSAI data storage format.");
+      try (final BonsaiTrieLogPruner pruner =
+          new BonsaiTrieLogPruner(
+              ((BonsaiWorldStateArchive) worldStateArchive).getWorldStateStorage(),
+              besuController.getProtocolContext().getBlockchain(),
+              retainedBlocks,
+              new NoOpMetricsSystem())) {
+        final long pruned = pruner.pruneAll();
+        System.out.printf("Pruned %,d trie logs%n", pruned);
+      }
+    } finally {
+      besuController.close();
+    }
+  }
+
+  private BesuController createBesuController() {
+    return parentCommand.parentCommand.buildController();
+  }
+}
@@ -60,6 +60,7 @@ public class BesuController implements java.io.Closeable {
   private final TransactionPool transactionPool;
   private final MiningCoordinator miningCoordinator;
   private final PrivacyParameters privacyParameters;
+  private final List<Runnable> backgroundServices;
   private final List<Closeable> closeables;
   private final MiningParameters miningParameters;
   private final PluginServiceFactory additionalPluginServices;
@@ -79,6 +80,7 @@ public class BesuController implements java.io.Closeable {
       final MiningParameters miningParameters,
       final JsonRpcMethods additionalJsonRpcMethodsFactory,
       final NodeKey nodeKey,
+      final List<Runnable> backgroundServices,
       final List<Closeable> closeables,
       final PluginServiceFactory additionalPluginServices) {
     this.protocolSchedule = protocolSchedule;
@@ -93,6 +95,7 @@ public class BesuController implements java.io.Closeable {
     this.transactionPool = transactionPool;
     this.miningCoordinator = miningCoordinator;
     this.privacyParameters = privacyParameters;
+    this.backgroundServices = backgroundServices;
     this.closeables = closeables;
     this.miningParameters = miningParameters;
     this.additionalPluginServices = additionalPluginServices;
@@ -134,6 +137,14 @@ public class BesuController implements java.io.Closeable {
     return miningCoordinator;
   }
 
+  /**
+   * Starts the storage maintenance services, such as the trie log pruner and the blockchain
+   * freezer. They only run for a node, not while the controller is used by a subcommand.
+   */
+  public void startBackgroundServices() {
+    backgroundServices.forEach(Runnable::run);
+  }
+
   @Override
   public void close() {
     closeables.forEach(this::tryClose);
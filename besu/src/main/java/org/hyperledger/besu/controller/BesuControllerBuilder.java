@@ -23,7 +23,10 @@ import org.hyperledger.besu.ethereum.GasLimitCalculator;
 import org.hyperledger.besu.ethereum.ProtocolContext;
 import org.hyperledger.besu.ethereum.api.jsonrpc.methods.JsonRpcMethods;
 import org.hyperledger.besu.ethereum.blockcreation.MiningCoordinator;
+import org.hyperledger.besu.ethereum.bonsai.BonsaiStatePrefetcher;
+import org.hyperledger.besu.ethereum.bonsai.BonsaiTrieLogPruner;
 import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateArchive;
+import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateKeyValueStorage;
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.chain.DefaultBlockchain;
@@ -35,11 +38,13 @@ import org.hyperledger.besu.ethereum.core.PrivacyParameters;
 import org.hyperledger.besu.ethereum.core.Synchronizer;
 import org.hyperledger.besu.ethereum.eth.EthProtocol;
 import org.hyperledger.besu.ethereum.eth.EthProtocolConfiguration;
+import org.hyperledger.besu.ethereum.eth.SnapProtocol;
 import org.hyperledger.besu.ethereum.eth.manager.EthContext;
 import org.hyperledger.besu.ethereum.eth.manager.EthMessages;
 import org.hyperledger.besu.ethereum.eth.manager.EthPeers;
 import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManager;
 import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.ethereum.eth.manager.SnapProtocolManager;
 import org.hyperledger.besu.ethereum.eth.peervalidation.ClassicForkPeerValidator;
 import org.hyperledger.besu.ethereum.eth.peervalidation.DaoForkPeerValidator;
 import org.hyperledger.besu.ethereum.eth.peervalidation.PeerValidator;
@@ -51,10 +56,20 @@ import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolConfiguration;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolFactory;
+import org.hyperledger.besu.ethereum.mainnet.EvmConfiguration;
+import org.hyperledger.besu.ethereum.mainnet.EvmParameters;
+import org.hyperledger.besu.ethereum.mainnet.ImmutableEvmConfiguration;
+import org.hyperledger.besu.ethereum.mainnet.ParallelTransactionExecutor;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.storage.keyvalue.BlockFreezer;
+import org.hyperledger.besu.ethereum.storage.keyvalue.BlockchainFreezer;
 import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
+import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueStoragePrefixedKeyBlockchainStorage;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
+import org.hyperledger.besu.ethereum.vm.CodeCache;
+import org.hyperledger.besu.ethereum.vm.LimbOperandStack;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageFormat;
 import org.hyperledger.besu.ethereum.worldstate.DefaultWorldStateArchive;
@@ -64,11 +79,14 @@ import org.hyperledger.besu.ethereum.worldstate.PrunerConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.LabelledGauge;
 import org.hyperledger.besu.plugin.services.permissioning.NodeMessagePermissioningProvider;
 
 import java.io.Closeable;
 import java.math.BigInteger;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Clock;
 import java.util.ArrayList;
@@ -77,6 +95,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -109,6 +128,7 @@ public abstract class BesuControllerBuilder {
       DataStorageConfiguration.DEFAULT_CONFIG;
   private List<NodeMessagePermissioningProvider> messagePermissioningProviders =
       Collections.emptyList();
+  private EvmParameters evmParameters = EvmParameters.DEFAULT;
 
   public BesuControllerBuilder storageProvider(final StorageProvider storageProvider) {
     this.storageProvider = storageProvider;
@@ -227,6 +247,11 @@ public abstract class BesuControllerBuilder {
     return this;
   }
 
+  public BesuControllerBuilder evmParameters(final EvmParameters evmParameters) {
+    this.evmParameters = evmParameters;
+    return this;
+  }
+
   public BesuController build() {
     checkNotNull(genesisConfig, "Missing genesis config");
     checkNotNull(syncConfig, "Missing sync config");
@@ -244,20 +269,35 @@ public abstract class BesuControllerBuilder {
 
     prepForBuild();
 
-    final ProtocolSchedule protocolSchedule = createProtocolSchedule();
+    final List<Closeable> closeables = new ArrayList<>();
+    final EvmConfiguration evmConfiguration = createEvmConfiguration(closeables);
+    final ProtocolSchedule protocolSchedule = createProtocolSchedule(evmConfiguration);
     final GenesisState genesisState = GenesisState.fromConfig(genesisConfig, protocolSchedule);
+    final TrieNodeCache trieNodeCache = createTrieNodeCache();
     final WorldStateStorage worldStateStorage =
-        storageProvider.createWorldStateStorage(dataStorageConfiguration.getDataStorageFormat());
+        storageProvider.createWorldStateStorage(
+            dataStorageConfiguration.getDataStorageFormat(), trieNodeCache);
 
+    final Optional<BlockFreezer> blockFreezer = createBlockFreezer();
     final BlockchainStorage blockchainStorage =
-        storageProvider.createBlockchainStorage(protocolSchedule);
+        blockFreezer
+            .map(freezer -> storageProvider.createBlockchainStorage(protocolSchedule, freezer))
+            .orElseGet(() -> storageProvider.createBlockchainStorage(protocolSchedule));
 
     final MutableBlockchain blockchain =
         DefaultBlockchain.createMutable(
-            genesisState.getBlock(), blockchainStorage, metricsSystem, reorgLoggingThreshold);
+            genesisState.getBlock(),
+            blockchainStorage,
+            metricsSystem,
+            reorgLoggingThreshold,
+            dataStorageConfiguration.getBlockchainCacheSize());
 
+    final ForkJoinPool trieHashingPool =
+        new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    closeables.add(trieHashingPool::shutdownNow);
     final WorldStateArchive worldStateArchive =
-        createWorldStateArchive(worldStateStorage, blockchain);
+        createWorldStateArchive(
+            worldStateStorage, blockchain, trieNodeCache, trieHashingPool, closeables);
     final ProtocolContext protocolContext =
         ProtocolContext.init(
             blockchain,
@@ -287,7 +327,8 @@ public abstract class BesuControllerBuilder {
                         blockchain,
                         storageProvider.getStorageBySegmentIdentifier(
                             KeyValueSegmentIdentifier.PRUNING_STATE),
-                        metricsSystem),
+                        metricsSystem,
+                        prunerConfiguration),
                     blockchain,
                     prunerConfiguration));
       }
@@ -357,11 +398,42 @@ public abstract class BesuControllerBuilder {
 
     final SubProtocolConfiguration subProtocolConfiguration =
         createSubProtocolConfiguration(ethProtocolManager);
+    if (syncConfig.isSnapSyncEnabled() || ethereumWireProtocolConfiguration.isSnapServerEnabled()) {
+      subProtocolConfiguration.withSubProtocol(
+          SnapProtocol.get(),
+          new SnapProtocolManager(
+              ethPeers,
+              worldStateArchive,
+              ethereumWireProtocolConfiguration.isSnapServerEnabled()));
+    }
 
     final JsonRpcMethods additionalJsonRpcMethodFactory =
         createAdditionalJsonRpcMethodFactory(protocolContext);
 
-    final List<Closeable> closeables = new ArrayList<>();
+    final List<Runnable> backgroundServices = new ArrayList<>();
+    createTrieLogPruner(worldStateStorage, blockchain)
+        .ifPresent(
+            trieLogPruner -> {
+              backgroundServices.add(trieLogPruner::start);
+              closeables.add(trieLogPruner);
+            });
+    blockFreezer.ifPresent(
+        freezer -> {
+          if (!dataStorageConfiguration.getBlockchainFreezerEnabled()) {
+            // The blocks already frozen are still read from the freezer.
+            closeables.add(freezer);
+            return;
+          }
+          final BlockchainFreezer blockchainFreezer =
+              new BlockchainFreezer(
+                  (KeyValueStoragePrefixedKeyBlockchainStorage) blockchainStorage,
+                  freezer,
+                  blockchain,
+                  dataStorageConfiguration.getBlockchainFreezerRetention(),
+                  metricsSystem);
+          backgroundServices.add(blockchainFreezer::start);
+          closeables.add(blockchainFreezer);
+        });
     closeables.add(storageProvider);
     if (privacyParameters.getPrivateStorageProvider() != null) {
       closeables.add(privacyParameters.getPrivateStorageProvider());
@@ -381,6 +453,7 @@ public abstract class BesuControllerBuilder {
         miningParameters,
         additionalJsonRpcMethodFactory,
         nodeKey,
+        backgroundServices,
         closeables,
         additionalPluginServices);
   }
@@ -405,7 +478,7 @@ public abstract class BesuControllerBuilder {
       SyncState syncState,
       EthProtocolManager ethProtocolManager);
 
-  protected abstract ProtocolSchedule createProtocolSchedule();
+  protected abstract ProtocolSchedule createProtocolSchedule(EvmConfiguration evmConfiguration);
 
   protected void validateContext(final ProtocolContext context) {}
 
@@ -444,17 +517,96 @@ public abstract class BesuControllerBuilder {
   }
 
   private WorldStateArchive createWorldStateArchive(
-      final WorldStateStorage worldStateStorage, final Blockchain blockchain) {
+      final WorldStateStorage worldStateStorage,
+      final Blockchain blockchain,
+      final TrieNodeCache trieNodeCache,
+      final ForkJoinPool trieHashingPool,
+      final List<Closeable> closeables) {
     switch (dataStorageConfiguration.getDataStorageFormat()) {
       case BONSAI:
-        return new BonsaiWorldStateArchive(
-            storageProvider, blockchain, dataStorageConfiguration.getBonsaiMaxLayersToLoad());
+        final BonsaiWorldStateArchive.Builder builder =
+            BonsaiWorldStateArchive.builder(storageProvider, blockchain)
+                .maxLayersToLoad(dataStorageConfiguration.getBonsaiMaxLayersToLoad())
+                .layerCacheCapacity(dataStorageConfiguration.getBonsaiLayerCacheCapacity())
+                .trieNodeCache(trieNodeCache)
+                .trieHashingPool(trieHashingPool)
+                .metricsSystem(metricsSystem);
+        if (dataStorageConfiguration.getBonsaiStatePrefetchEnabled()) {
+          final BonsaiStatePrefetcher statePrefetcher =
+              new BonsaiStatePrefetcher(metricsSystem, Runtime.getRuntime().availableProcessors());
+          closeables.add(statePrefetcher);
+          builder.statePrefetcher(statePrefetcher);
+        }
+        return builder.build();
       case FOREST:
       default:
         final WorldStatePreimageStorage preimageStorage =
             storageProvider.createWorldStatePreimageStorage();
-        return new DefaultWorldStateArchive(worldStateStorage, preimageStorage);
+        return new DefaultWorldStateArchive(worldStateStorage, preimageStorage, trieHashingPool);
+    }
+  }
+
+  private TrieNodeCache createTrieNodeCache() {
+    final TrieNodeCache trieNodeCache =
+        new TrieNodeCache(dataStorageConfiguration.getTrieNodeCacheSize());
+    if (trieNodeCache.isEnabled()) {
+      final LabelledGauge hitRatio =
+          metricsSystem.createLabelledGauge(
+              BesuMetricCategory.BLOCKCHAIN,
+              "trie_node_cache_hit_ratio",
+              "Ratio of the world state trie node lookups served from the trie node cache, by level"
+                  + " of the trie",
+              "level");
+      for (int level = 0; level <= TrieNodeCache.MAX_LEVEL; level++) {
+        final int trieLevel = level;
+        hitRatio.labels(() -> trieNodeCache.getHitRatio(trieLevel), Integer.toString(level));
+      }
     }
+    return trieNodeCache;
+  }
+
+  private EvmConfiguration createEvmConfiguration(final List<Closeable> closeables) {
+    final ImmutableEvmConfiguration.Builder builder =
+        ImmutableEvmConfiguration.builder().codeCache(new CodeCache(metricsSystem));
+    if (evmParameters.getLimbOperandStackEnabled()) {
+      builder.operandStackFactory(LimbOperandStack::new);
+      LOG.info("Using the limb based EVM operand stack");
+    }
+    if (evmParameters.getParallelTransactionExecutionEnabled()) {
+      final int threads = evmParameters.getParallelTransactionExecutionThreads();
+      final ParallelTransactionExecutor parallelTransactionExecutor =
+          new ParallelTransactionExecutor(threads);
+      closeables.add(parallelTransactionExecutor);
+      builder.parallelTransactionExecutor(parallelTransactionExecutor);
+      LOG.info("Executing block transactions speculatively on {} threads", threads);
+    }
+    return builder.build();
+  }
+
+  private Optional<BlockFreezer> createBlockFreezer() {
+    final Path freezerDirectory = dataDirectory.resolve(BlockFreezer.DIRECTORY_NAME);
+    // Once blocks have been frozen, the freezer is opened even if freezing was disabled since.
+    if (!dataStorageConfiguration.getBlockchainFreezerEnabled()
+        && !Files.exists(freezerDirectory)) {
+      return Optional.empty();
+    }
+    return Optional.of(BlockFreezer.open(freezerDirectory));
+  }
+
+  private Optional<BonsaiTrieLogPruner> createTrieLogPruner(
+      final WorldStateStorage worldStateStorage, final Blockchain blockchain) {
+    if (!dataStorageConfiguration.getDataStorageFormat().equals(DataStorageFormat.BONSAI)
+        || !dataStorageConfiguration.getBonsaiTrieLogPruningEnabled()) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        new BonsaiTrieLogPruner(
+            (BonsaiWorldStateKeyValueStorage) worldStateStorage,
+            blockchain,
+            Math.max(
+                dataStorageConfiguration.getBonsaiTrieLogRetention(),
+                dataStorageConfiguration.getBonsaiMaxLayersToLoad()),
+            metricsSystem));
   }
 
   private List<PeerValidator> createPeerValidators(final ProtocolSchedule protocolSchedule) {
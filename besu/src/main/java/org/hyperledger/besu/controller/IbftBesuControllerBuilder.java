@@ -65,6 +65,7 @@ import org.hyperledger.besu.ethereum.eth.EthProtocol;
 import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManager;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
+import org.hyperledger.besu.ethereum.mainnet.EvmConfiguration;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
@@ -229,13 +230,14 @@ public class IbftBesuControllerBuilder extends BftBesuControllerBuilder {
   }
 
   @Override
-  protected ProtocolSchedule createProtocolSchedule() {
+  protected ProtocolSchedule createProtocolSchedule(final EvmConfiguration evmConfiguration) {
     return BftProtocolSchedule.create(
         genesisConfig.getConfigOptions(genesisConfigOverrides),
         privacyParameters,
         isRevertReasonEnabled,
         IbftBlockHeaderValidationRulesetFactory::blockHeaderValidator,
-        bftExtraDataCodec().get());
+        bftExtraDataCodec().get(),
+        evmConfiguration);
   }
 
   @Override
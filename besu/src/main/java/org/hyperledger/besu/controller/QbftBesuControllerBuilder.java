@@ -70,6 +70,7 @@ import org.hyperledger.besu.ethereum.eth.EthProtocol;
 import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManager;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
+import org.hyperledger.besu.ethereum.mainnet.EvmConfiguration;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.p2p.config.SubProtocolConfiguration;
 import org.hyperledger.besu.ethereum.transaction.TransactionSimulator;
@@ -249,7 +250,7 @@ public class QbftBesuControllerBuilder extends BftBesuControllerBuilder {
   }
 
   @Override
-  protected ProtocolSchedule createProtocolSchedule() {
+  protected ProtocolSchedule createProtocolSchedule(final EvmConfiguration evmConfiguration) {
     final QbftBlockHeaderValidationRulesetFactory qbftBlockHeaderValidationRulesetFactory =
         new QbftBlockHeaderValidationRulesetFactory(
             qbftConfig.getValidatorContractAddress().isPresent());
@@ -259,7 +260,8 @@ public class QbftBesuControllerBuilder extends BftBesuControllerBuilder {
         privacyParameters,
         isRevertReasonEnabled,
         qbftBlockHeaderValidationRulesetFactory::blockHeaderValidator,
-        bftExtraDataCodec().get());
+        bftExtraDataCodec().get(),
+        evmConfiguration);
   }
 
   @Override
@@ -3117,6 +3117,33 @@ public class BesuCommandTest extends CommandTestAbstract {
     assertThat(pruningArg.getValue().getBlockConfirmations()).isEqualTo(4);
   }
 
+  @Test
+  public void pruningMarkingThreadsAndSweepRateAreCaptured() {
+    parseCommand(
+        "--pruning-enabled", "--Xpruning-marking-threads=3", "--Xpruning-sweep-rate=50000");
+
+    final ArgumentCaptor<PrunerConfiguration> pruningArg =
+        ArgumentCaptor.forClass(PrunerConfiguration.class);
+
+    verify(mockControllerBuilder).pruningConfiguration(pruningArg.capture());
+    verify(mockControllerBuilder).build();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+    assertThat(pruningArg.getValue().getMarkingThreads()).isEqualTo(3);
+    assertThat(pruningArg.getValue().getSweepRate()).isEqualTo(50000);
+  }
+
+  @Test
+  public void pruningMarkingThreadsMustBePositive() {
+    parseCommand("--pruning-enabled", "--Xpruning-marking-threads=0");
+
+    verifyNoInteractions(mockRunnerBuilder);
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString())
+        .contains("--Xpruning-marking-threads must be at least 1");
+  }
+
   @Test
   public void devModeOptionMustBeUsed() throws Exception {
     parseCommand("--network", "dev");
@@ -134,6 +134,7 @@ public class EthProtocolOptionsTest
         .maxGetPooledTransactions(
             PositiveNumber.fromInt(
                 EthProtocolConfiguration.DEFAULT_MAX_GET_POOLED_TRANSACTIONS + 2))
+        .snapServerEnabled(true)
         .build();
   }
 
@@ -0,0 +1,77 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.options;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.cli.options.unstable.EvmOptions;
+import org.hyperledger.besu.ethereum.mainnet.EvmParameters;
+import org.hyperledger.besu.ethereum.mainnet.ImmutableEvmParameters;
+
+import org.junit.Test;
+
+public class EvmOptionsTest extends AbstractCLIOptionsTest<EvmParameters, EvmOptions> {
+
+  @Test
+  public void parallelTransactionExecutionFlags_areSet() {
+    final TestBesuCommand cmd =
+        parseCommand(
+            "--Xevm-parallel-tx-execution-enabled=true",
+            "--Xevm-parallel-tx-execution-threads",
+            "3");
+
+    final EvmParameters evmParameters = cmd.getEvmOptions().toDomainObject();
+    assertThat(evmParameters.getParallelTransactionExecutionEnabled()).isTrue();
+    assertThat(evmParameters.getParallelTransactionExecutionThreads()).isEqualTo(3);
+
+    assertThat(commandErrorOutput.toString()).isEmpty();
+    assertThat(commandOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void zeroThreadsAreRejectedWhenParallelExecutionIsEnabled() {
+    parseCommand(
+        "--Xevm-parallel-tx-execution-enabled=true", "--Xevm-parallel-tx-execution-threads", "0");
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString())
+        .contains("--Xevm-parallel-tx-execution-threads must be at least 1");
+  }
+
+  @Override
+  EvmParameters createDefaultDomainObject() {
+    return EvmParameters.DEFAULT;
+  }
+
+  @Override
+  EvmParameters createCustomizedDomainObject() {
+    return ImmutableEvmParameters.builder()
+        .limbOperandStackEnabled(true)
+        .parallelTransactionExecutionEnabled(true)
+        .parallelTransactionExecutionThreads(
+            EvmParameters.DEFAULT_PARALLEL_TRANSACTION_EXECUTION_THREADS + 2)
+        .build();
+  }
+
+  @Override
+  EvmOptions optionsFromDomainObject(final EvmParameters domainObject) {
+    return EvmOptions.fromConfig(domainObject);
+  }
+
+  @Override
+  EvmOptions getOptionsFromBesuCommand(final TestBesuCommand besuCommand) {
+    return besuCommand.getEvmOptions();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.cli.options;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.cli.options.unstable.PruningOptions;
+import org.hyperledger.besu.ethereum.worldstate.PrunerConfiguration;
+
+import org.junit.Test;
+
+public class PruningOptionsTest
+    extends AbstractCLIOptionsTest<PrunerConfiguration, PruningOptions> {
+
+  @Test
+  public void sweepRateFlag_isSet() {
+    final TestBesuCommand cmd = parseCommand("--Xpruning-sweep-rate", "1000");
+
+    final PruningOptions options = cmd.getPruningOptions();
+    final PrunerConfiguration config = options.toDomainObject();
+    assertThat(config.getSweepRate()).isEqualTo(1000);
+
+    assertThat(commandErrorOutput.toString()).isEmpty();
+    assertThat(commandOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void negativeSweepRateIsRejected() {
+    parseCommand("--pruning-enabled", "--Xpruning-sweep-rate", "-1");
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString())
+        .contains("--Xpruning-sweep-rate must not be negative");
+  }
+
+  @Override
+  PrunerConfiguration createDefaultDomainObject() {
+    return PrunerConfiguration.getDefault();
+  }
+
+  @Override
+  PrunerConfiguration createCustomizedDomainObject() {
+    return new PrunerConfiguration(
+        PrunerConfiguration.DEFAULT_PRUNING_BLOCK_CONFIRMATIONS,
+        PrunerConfiguration.DEFAULT_PRUNING_BLOCKS_RETAINED,
+        PrunerConfiguration.DEFAULT_PRUNING_MARKING_THREADS + 2,
+        PrunerConfiguration.DEFAULT_PRUNING_SWEEP_RATE + 10_000);
+  }
+
+  @Override
+  PruningOptions optionsFromDomainObject(final PrunerConfiguration domainObject) {
+    return PruningOptions.fromConfig(domainObject);
+  }
+
+  @Override
+  PruningOptions getOptionsFromBesuCommand(final TestBesuCommand besuCommand) {
+    return besuCommand.getPruningOptions();
+  }
+}
@@ -16,6 +16,7 @@ package org.hyperledger.besu.controller;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -115,8 +116,10 @@ public class BesuControllerBuilderTest {
     when(observableMetricsSystem.createLabelledCounter(
             any(), anyString(), anyString(), anyString()))
         .thenReturn(labels -> null);
+    when(observableMetricsSystem.createLabelledGauge(any(), anyString(), anyString(), anyString()))
+        .thenReturn((valueSupplier, labelValues) -> {});
 
-    when(storageProvider.createWorldStateStorage(DataStorageFormat.FOREST))
+    when(storageProvider.createWorldStateStorage(eq(DataStorageFormat.FOREST), any()))
         .thenReturn(worldStateStorage);
     when(storageProvider.createWorldStatePreimageStorage()).thenReturn(worldStatePreimageStorage);
     when(storageProvider.isWorldStateIterable()).thenReturn(true);
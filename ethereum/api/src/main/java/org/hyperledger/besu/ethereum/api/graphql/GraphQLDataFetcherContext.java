@@ -18,9 +18,12 @@ import org.hyperledger.besu.ethereum.api.handlers.IsAliveHandler;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.blockcreation.MiningCoordinator;
 import org.hyperledger.besu.ethereum.core.Synchronizer;
+import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 
+import java.util.Optional;
+
 public interface GraphQLDataFetcherContext {
 
   TransactionPool getTransactionPool();
@@ -36,4 +39,15 @@ public interface GraphQLDataFetcherContext {
   default IsAliveHandler getIsAliveHandler() {
     return new IsAliveHandler(true);
   }
+
+  /**
+   * Returns the world state at a block. The accounts read from it are resolved lazily, so it is
+   * kept open until the request is processed.
+   *
+   * @param blockNumber the block number
+   * @return the world state at the block number
+   */
+  default Optional<WorldState> getWorldState(final long blockNumber) {
+    return getBlockchainQueries().getWorldState(blockNumber);
+  }
 }
@@ -18,10 +18,15 @@ import org.hyperledger.besu.ethereum.api.handlers.IsAliveHandler;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
 import org.hyperledger.besu.ethereum.blockcreation.MiningCoordinator;
 import org.hyperledger.besu.ethereum.core.Synchronizer;
+import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 
-public class GraphQLDataFetcherContextImpl implements GraphQLDataFetcherContext {
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+public class GraphQLDataFetcherContextImpl implements GraphQLDataFetcherContext, AutoCloseable {
 
   private final BlockchainQueries blockchainQueries;
   private final MiningCoordinator miningCoordinator;
@@ -29,6 +34,7 @@ public class GraphQLDataFetcherContextImpl implements GraphQLDataFetcherContext
   private final ProtocolSchedule protocolSchedule;
   private final TransactionPool transactionPool;
   private final IsAliveHandler isAliveHandler;
+  private final Queue<WorldState> worldStates = new ConcurrentLinkedQueue<>();
 
   public GraphQLDataFetcherContextImpl(
       final GraphQLDataFetcherContext context, final IsAliveHandler isAliveHandler) {
@@ -100,4 +106,20 @@ public class GraphQLDataFetcherContextImpl implements GraphQLDataFetcherContext
   public IsAliveHandler getIsAliveHandler() {
     return isAliveHandler;
   }
+
+  @Override
+  public Optional<WorldState> getWorldState(final long blockNumber) {
+    final Optional<WorldState> worldState = blockchainQueries.getWorldState(blockNumber);
+    worldState.ifPresent(worldStates::add);
+    return worldState;
+  }
+
+  /** Releases the world states read while processing the request. */
+  @Override
+  public void close() {
+    WorldState worldState;
+    while ((worldState = worldStates.poll()) != null) {
+      worldState.close();
+    }
+  }
 }
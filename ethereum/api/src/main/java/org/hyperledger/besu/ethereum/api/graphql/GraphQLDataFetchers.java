@@ -195,12 +195,12 @@ public class GraphQLDataFetchers {
 
   DataFetcher<Optional<AccountAdapter>> getAccountDataFetcher() {
     return dataFetchingEnvironment -> {
-      final BlockchainQueries blockchainQuery =
-          ((GraphQLDataFetcherContext) dataFetchingEnvironment.getContext()).getBlockchainQueries();
+      final GraphQLDataFetcherContext context = dataFetchingEnvironment.getContext();
+      final BlockchainQueries blockchainQuery = context.getBlockchainQueries();
       final Address addr = dataFetchingEnvironment.getArgument("address");
       final Long bn = dataFetchingEnvironment.getArgument("blockNumber");
       if (bn != null) {
-        final Optional<WorldState> ws = blockchainQuery.getWorldState(bn);
+        final Optional<WorldState> ws = context.getWorldState(bn);
         if (ws.isPresent()) {
           final Account account = ws.get().get(addr);
           if (account == null) {
@@ -217,7 +217,7 @@ public class GraphQLDataFetchers {
       } else {
         // return account on latest block
         final long latestBn = blockchainQuery.latestBlock().get().getHeader().getNumber();
-        final Optional<WorldState> ows = blockchainQuery.getWorldState(latestBn);
+        final Optional<WorldState> ows = context.getWorldState(latestBn);
         return ows.flatMap(
             ws -> {
               Account account = ws.get(addr);
@@ -387,22 +387,24 @@ public class GraphQLHttpService {
 
   private GraphQLResponse process(
       final String requestJson, final String operationName, final Map<String, Object> variables) {
-    final ExecutionInput executionInput =
-        ExecutionInput.newExecutionInput()
-            .query(requestJson)
-            .operationName(operationName)
-            .variables(variables)
-            .context(
-                new GraphQLDataFetcherContextImpl(
-                    dataFetcherContext, new IsAliveHandler(scheduler, config.getHttpTimeoutSec())))
-            .build();
-    final ExecutionResult result = graphQL.execute(executionInput);
-    final Map<String, Object> toSpecificationResult = result.toSpecification();
-    final List<GraphQLError> errors = result.getErrors();
-    if (errors.size() == 0) {
-      return new GraphQLSuccessResponse(toSpecificationResult);
-    } else {
-      return new GraphQLErrorResponse(toSpecificationResult);
+    try (final GraphQLDataFetcherContextImpl context =
+        new GraphQLDataFetcherContextImpl(
+            dataFetcherContext, new IsAliveHandler(scheduler, config.getHttpTimeoutSec()))) {
+      final ExecutionInput executionInput =
+          ExecutionInput.newExecutionInput()
+              .query(requestJson)
+              .operationName(operationName)
+              .variables(variables)
+              .context(context)
+              .build();
+      final ExecutionResult result = graphQL.execute(executionInput);
+      final Map<String, Object> toSpecificationResult = result.toSpecification();
+      final List<GraphQLError> errors = result.getErrors();
+      if (errors.size() == 0) {
+        return new GraphQLSuccessResponse(toSpecificationResult);
+      } else {
+        return new GraphQLErrorResponse(toSpecificationResult);
+      }
     }
   }
 
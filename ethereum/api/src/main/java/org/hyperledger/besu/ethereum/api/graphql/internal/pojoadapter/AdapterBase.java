@@ -16,6 +16,9 @@ package org.hyperledger.besu.ethereum.api.graphql.internal.pojoadapter;
 
 import org.hyperledger.besu.ethereum.api.graphql.GraphQLDataFetcherContext;
 import org.hyperledger.besu.ethereum.api.query.BlockchainQueries;
+import org.hyperledger.besu.ethereum.core.WorldState;
+
+import java.util.Optional;
 
 import graphql.schema.DataFetchingEnvironment;
 
@@ -23,4 +26,9 @@ abstract class AdapterBase {
   BlockchainQueries getBlockchainQueries(final DataFetchingEnvironment environment) {
     return ((GraphQLDataFetcherContext) environment.getContext()).getBlockchainQueries();
   }
+
+  Optional<WorldState> getWorldState(
+      final DataFetchingEnvironment environment, final long blockNumber) {
+    return ((GraphQLDataFetcherContext) environment.getContext()).getWorldState(blockNumber);
+  }
 }
@@ -87,14 +87,14 @@ public class BlockAdapterBase extends AdapterBase {
 
   public Optional<AdapterBase> getMiner(final DataFetchingEnvironment environment) {
 
-    final BlockchainQueries query = getBlockchainQueries(environment);
     long blockNumber = header.getNumber();
     final Long bn = environment.getArgument("block");
     if (bn != null) {
       blockNumber = bn;
     }
 
-    return Optional.ofNullable(query.getWorldState(blockNumber).get().get(header.getCoinbase()))
+    return Optional.ofNullable(
+            getWorldState(environment, blockNumber).get().get(header.getCoinbase()))
         .map(account -> (AdapterBase) new AccountAdapter(account))
         .or(() -> Optional.of(new EmptyAccountAdapter(header.getCoinbase())));
   }
@@ -138,9 +138,8 @@ public class BlockAdapterBase extends AdapterBase {
 
   public Optional<AccountAdapter> getAccount(final DataFetchingEnvironment environment) {
 
-    final BlockchainQueries query = getBlockchainQueries(environment);
     final long bn = header.getNumber();
-    final WorldState ws = query.getWorldState(bn).get();
+    final WorldState ws = getWorldState(environment, bn).get();
 
     if (ws != null) {
       final Address addr = environment.getArgument("address");
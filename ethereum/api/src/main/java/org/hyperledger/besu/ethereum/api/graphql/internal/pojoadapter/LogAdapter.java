@@ -56,15 +56,13 @@ public class LogAdapter extends AdapterBase {
   }
 
   public Optional<AccountAdapter> getAccount(final DataFetchingEnvironment environment) {
-    final BlockchainQueries query = getBlockchainQueries(environment);
     long blockNumber = logWithMetadata.getBlockNumber();
     final Long bn = environment.getArgument("block");
     if (bn != null) {
       blockNumber = bn;
     }
 
-    return query
-        .getWorldState(blockNumber)
+    return getWorldState(environment, blockNumber)
         .map(ws -> new AccountAdapter(ws.get(logWithMetadata.getLogger())));
   }
 }
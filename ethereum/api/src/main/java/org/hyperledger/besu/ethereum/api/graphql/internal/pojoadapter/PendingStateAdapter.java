@@ -66,7 +66,7 @@ public class PendingStateAdapter extends AdapterBase {
     final Long blockNumber = dataFetchingEnvironment.getArgument("blockNumber");
     final long latestBlockNumber = blockchainQuery.latestBlock().get().getHeader().getNumber();
     final Optional<WorldState> optionalWorldState =
-        blockchainQuery.getWorldState(latestBlockNumber);
+        getWorldState(dataFetchingEnvironment, latestBlockNumber);
     return optionalWorldState
         .flatMap(worldState -> Optional.ofNullable(worldState.get(addr)))
         .map(AccountAdapter::new);
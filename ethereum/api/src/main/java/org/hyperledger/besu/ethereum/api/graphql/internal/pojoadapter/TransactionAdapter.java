@@ -54,14 +54,12 @@ public class TransactionAdapter extends AdapterBase {
   }
 
   public Optional<AccountAdapter> getFrom(final DataFetchingEnvironment environment) {
-    final BlockchainQueries query = getBlockchainQueries(environment);
     final Optional<Long> txBlockNumber = transactionWithMetadata.getBlockNumber();
     final Optional<Long> bn = Optional.ofNullable(environment.getArgument("block"));
     if (!txBlockNumber.isPresent() && !bn.isPresent()) {
       return Optional.empty();
     }
-    return query
-        .getWorldState(bn.orElseGet(txBlockNumber::get))
+    return getWorldState(environment, bn.orElseGet(txBlockNumber::get))
         .map(
             mutableWorldState ->
                 new AccountAdapter(
@@ -69,15 +67,13 @@ public class TransactionAdapter extends AdapterBase {
   }
 
   public Optional<AccountAdapter> getTo(final DataFetchingEnvironment environment) {
-    final BlockchainQueries query = getBlockchainQueries(environment);
     final Optional<Long> txBlockNumber = transactionWithMetadata.getBlockNumber();
     final Optional<Long> bn = Optional.ofNullable(environment.getArgument("block"));
     if (!txBlockNumber.isPresent() && !bn.isPresent()) {
       return Optional.empty();
     }
 
-    return query
-        .getWorldState(bn.orElseGet(txBlockNumber::get))
+    return getWorldState(environment, bn.orElseGet(txBlockNumber::get))
         .flatMap(
             ws ->
                 transactionWithMetadata
@@ -147,7 +143,6 @@ public class TransactionAdapter extends AdapterBase {
       final Optional<Address> addr = transactionWithMetadata.getTransaction().contractAddress();
 
       if (addr.isPresent()) {
-        final BlockchainQueries query = getBlockchainQueries(environment);
         final Optional<Long> txBlockNumber = transactionWithMetadata.getBlockNumber();
         final Optional<Long> bn = Optional.ofNullable(environment.getArgument("block"));
         if (!txBlockNumber.isPresent() && !bn.isPresent()) {
@@ -155,7 +150,7 @@ public class TransactionAdapter extends AdapterBase {
         }
         final long blockNumber = bn.orElseGet(txBlockNumber::get);
 
-        final Optional<WorldState> ws = query.getWorldState(blockNumber);
+        final Optional<WorldState> ws = getWorldState(environment, blockNumber);
         if (ws.isPresent()) {
           return Optional.of(new AccountAdapter(ws.get().get(addr.get())));
         }
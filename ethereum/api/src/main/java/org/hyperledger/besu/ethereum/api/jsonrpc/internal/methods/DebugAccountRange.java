@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.common.base.Suppliers;
 import org.apache.tuweni.bytes.Bytes32;
@@ -81,11 +82,13 @@ public class DebugAccountRange implements JsonRpcMethod {
     if (state.isEmpty()) {
       return emptyResponse(requestContext);
     } else {
-      final List<StreamableAccount> accounts =
-          state
-              .get()
-              .streamAccounts(Bytes32.fromHexStringLenient(addressHash), maxResults + 1)
-              .collect(Collectors.toList());
+      final Bytes32 startKeyHash = Bytes32.fromHexStringLenient(addressHash);
+      final List<StreamableAccount> accounts;
+      try (final WorldState worldState = state.get();
+          final Stream<StreamableAccount> stream =
+              worldState.streamAccounts(startKeyHash, maxResults + 1)) {
+        accounts = stream.collect(Collectors.toList());
+      }
       Bytes32 nextKey = Bytes32.ZERO;
       if (accounts.size() == maxResults + 1) {
         nextKey = accounts.get(maxResults).getAddressHash();
@@ -102,14 +102,27 @@ public class DebugStorageRangeAt implements JsonRpcMethod {
                     .orElseGet(() -> emptyResponse(requestContext))))
         .orElseGet(
             () ->
-                blockchainQueries
-                    .get()
-                    .getWorldState(blockHeaderOptional.get().getNumber())
-                    .map(
-                        worldState ->
-                            extractStorageAt(
-                                requestContext, accountAddress, startKey, limit, worldState))
-                    .orElseGet(() -> emptyResponse(requestContext)));
+                extractStorageAtBlock(
+                    requestContext,
+                    blockHeaderOptional.get().getNumber(),
+                    accountAddress,
+                    startKey,
+                    limit));
+  }
+
+  private JsonRpcSuccessResponse extractStorageAtBlock(
+      final JsonRpcRequestContext requestContext,
+      final long blockNumber,
+      final Address accountAddress,
+      final Hash startKey,
+      final int limit) {
+    final Optional<WorldState> maybeWorldState = blockchainQueries.get().getWorldState(blockNumber);
+    if (maybeWorldState.isEmpty()) {
+      return emptyResponse(requestContext);
+    }
+    try (final WorldState worldState = maybeWorldState.get()) {
+      return extractStorageAt(requestContext, accountAddress, startKey, limit, worldState);
+    }
   }
 
   private Optional<Hash> hashFromParameter(final BlockParameterOrBlockHash blockParameter) {
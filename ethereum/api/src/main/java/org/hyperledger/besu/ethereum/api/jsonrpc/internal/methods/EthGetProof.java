@@ -61,10 +61,14 @@ public class EthGetProof extends AbstractBlockParameterOrBlockHashMethod {
     final Optional<WorldState> worldState = getBlockchainQueries().getWorldState(blockHash);
 
     if (worldState.isPresent()) {
+      final Hash worldStateRoot;
+      try (final WorldState state = worldState.get()) {
+        worldStateRoot = state.rootHash();
+      }
       Optional<WorldStateProof> proofOptional =
           getBlockchainQueries()
               .getWorldStateArchive()
-              .getAccountProof(worldState.get().rootHash(), address, storageKeys);
+              .getAccountProof(worldStateRoot, address, storageKeys);
       return proofOptional
           .map(
               proof ->
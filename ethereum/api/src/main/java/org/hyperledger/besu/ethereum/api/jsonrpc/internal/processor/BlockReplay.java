@@ -145,14 +145,15 @@ public class BlockReplay {
     if (previous == null) {
       return Optional.empty();
     }
-    final MutableWorldState mutableWorldState =
+    try (final MutableWorldState mutableWorldState =
         worldStateArchive
             .getMutable(previous.getStateRoot(), previous.getHash(), false)
-            .orElse(null);
-    if (mutableWorldState == null) {
-      return Optional.empty();
+            .orElse(null)) {
+      if (mutableWorldState == null) {
+        return Optional.empty();
+      }
+      return action.perform(body, header, blockchain, mutableWorldState, transactionProcessor);
     }
-    return action.perform(body, header, blockchain, mutableWorldState, transactionProcessor);
   }
 
   private Optional<Block> getBlock(final Hash blockHash) {
@@ -275,10 +275,7 @@ public class BlockchainQueries {
    * @return The number of transactions sent from the given address.
    */
   public long getTransactionCount(final Address address, final Hash blockHash) {
-    return getWorldState(blockHash)
-        .map(worldState -> worldState.get(address))
-        .map(Account::getNonce)
-        .orElse(0L);
+    return fromAccount(address, blockHash, Account::getNonce, 0L).orElse(0L);
   }
 
   /**
@@ -792,7 +789,7 @@ public class BlockchainQueries {
    * Returns the world state for the corresponding block number
    *
    * @param blockNumber the block number
-   * @return the world state at the block number
+   * @return the world state at the block number, to be closed once no longer used
    */
   public Optional<WorldState> getWorldState(final long blockNumber) {
     final Hash blockHash =
@@ -805,7 +802,7 @@ public class BlockchainQueries {
    * Returns the world state for the corresponding block hash
    *
    * @param blockHash the block hash
-   * @return the world state at the block hash
+   * @return the world state at the block hash, to be closed once no longer used
    */
   public Optional<WorldState> getWorldState(final Hash blockHash) {
     final Optional<BlockHeader> header = blockchain.getBlockHeader(blockHash);
@@ -846,7 +843,13 @@ public class BlockchainQueries {
 
   private <T> Optional<T> fromWorldState(
       final Hash blockHash, final Function<WorldState, T> getter) {
-    return getWorldState(blockHash).map(getter);
+    final Optional<WorldState> maybeWorldState = getWorldState(blockHash);
+    if (maybeWorldState.isEmpty()) {
+      return Optional.empty();
+    }
+    try (final WorldState worldState = maybeWorldState.get()) {
+      return Optional.ofNullable(getter.apply(worldState));
+    }
   }
 
   private <T> Optional<T> fromAccount(
@@ -73,7 +73,7 @@ public class BlockDataFetcherTest extends AbstractDataFetcherTest {
     when(query.blockByNumber(ArgumentMatchers.anyLong()))
         .thenReturn(Optional.of(new BlockWithMetadata<>(header, null, null, null, 0)));
     when(header.getCoinbase()).thenReturn(testAddress);
-    when(query.getWorldState(anyLong())).thenReturn(Optional.of(mutableWorldState));
+    when(context.getWorldState(anyLong())).thenReturn(Optional.of(mutableWorldState));
 
     final Optional<NormalBlockAdapter> maybeBlock = fetcher.get(environment);
     assertThat(maybeBlock).isPresent();
@@ -231,7 +231,7 @@ public abstract class AbstractBlockCreator implements AsyncBlockCreator {
 
   private MutableWorldState duplicateWorldStateAtParent() {
     final Hash parentStateRoot = parentHeader.getStateRoot();
-    final MutableWorldState worldState =
+    try (final MutableWorldState worldState =
         protocolContext
             .getWorldStateArchive()
             .getMutable(parentStateRoot, parentHeader.getHash(), false)
@@ -243,9 +243,9 @@ public abstract class AbstractBlockCreator implements AsyncBlockCreator {
                           + parentHeader.getNumber()
                           + " with state root "
                           + parentStateRoot);
-                });
-
-    return worldState.copy();
+                })) {
+      return worldState.copy();
+    }
   }
 
   private List<BlockHeader> selectOmmers() {
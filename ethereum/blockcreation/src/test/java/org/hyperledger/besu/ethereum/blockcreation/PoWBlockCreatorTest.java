@@ -31,6 +31,7 @@ import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPoolConfiguration;
 import org.hyperledger.besu.ethereum.eth.transactions.sorter.BaseFeePendingTransactionsSorter;
 import org.hyperledger.besu.ethereum.mainnet.EpochCalculator;
+import org.hyperledger.besu.ethereum.mainnet.EvmConfiguration;
 import org.hyperledger.besu.ethereum.mainnet.PoWHasher;
 import org.hyperledger.besu.ethereum.mainnet.PoWSolver;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolScheduleBuilder;
@@ -76,7 +77,8 @@ public class PoWBlockCreatorTest {
                         ProtocolSpecAdapters.create(0, Function.identity()),
                         PrivacyParameters.DEFAULT,
                         false,
-                        genesisConfigOptions.isQuorum())
+                        genesisConfigOptions.isQuorum(),
+                        EvmConfiguration.DEFAULT)
                     .createProtocolSchedule())
             .build();
 
@@ -137,7 +139,8 @@ public class PoWBlockCreatorTest {
                         ProtocolSpecAdapters.create(0, Function.identity()),
                         PrivacyParameters.DEFAULT,
                         false,
-                        genesisConfigOptions.isQuorum())
+                        genesisConfigOptions.isQuorum(),
+                        EvmConfiguration.DEFAULT)
                     .createProtocolSchedule())
             .build();
 
@@ -193,7 +196,8 @@ public class PoWBlockCreatorTest {
                         ProtocolSpecAdapters.create(0, Function.identity()),
                         PrivacyParameters.DEFAULT,
                         false,
-                        genesisConfigOptions.isQuorum())
+                        genesisConfigOptions.isQuorum(),
+                        EvmConfiguration.DEFAULT)
                     .createProtocolSchedule())
             .build();
 
@@ -265,7 +269,8 @@ public class PoWBlockCreatorTest {
                         ProtocolSpecAdapters.create(0, Function.identity()),
                         PrivacyParameters.DEFAULT,
                         false,
-                        genesisConfigOptions.isQuorum())
+                        genesisConfigOptions.isQuorum(),
+                        EvmConfiguration.DEFAULT)
                     .createProtocolSchedule())
             .build();
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm.operations;
+
+import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.mainnet.LondonGasCalculator;
+import org.hyperledger.besu.ethereum.vm.GasCalculator;
+import org.hyperledger.besu.ethereum.vm.MessageFrame;
+
+import java.util.Optional;
+
+import org.apache.tuweni.units.bigints.UInt256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Compares charging the MLOAD gas cost through the primitive accounting used by the
+ * interpreter with the equivalent boxed {@link Gas} arithmetic it replaced.
+ */
+@State(Scope.Thread)
+public class GasAccountingBenchmark {
+
+  @Param({
+    "0", // Memory already expanded, only the base cost is charged
+    "1048576" // Memory expansion cost is computed for every access
+  })
+  public long offset;
+
+  private OperationBenchmarkHelper operationBenchmarkHelper;
+  private GasCalculator gasCalculator;
+  private MessageFrame frame;
+  private UInt256 location;
+
+  @Setup
+  public void prepare() throws Exception {
+    operationBenchmarkHelper = OperationBenchmarkHelper.create();
+    gasCalculator = new LondonGasCalculator();
+    frame = operationBenchmarkHelper.createMessageFrame();
+    location = UInt256.valueOf(offset);
+    if (offset == 0) {
+      frame.expandMemory(UInt256.ZERO, UInt256.valueOf(32));
+    }
+  }
+
+  @TearDown
+  public void cleanUp() throws Exception {
+    operationBenchmarkHelper.cleanUp();
+  }
+
+  @Benchmark
+  public long primitiveCost() {
+    final long cost = gasCalculator.mLoadOperationGasCost(frame, location);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return -1;
+    }
+    frame.decrementRemainingGas(cost);
+    frame.incrementRemainingGas(cost);
+    return cost;
+  }
+
+  @Benchmark
+  public long boxedCost() {
+    final Gas cost = Gas.of(gasCalculator.mLoadOperationGasCost(frame, location));
+    final Optional<Gas> optionalCost = Optional.of(cost);
+    if (frame.getRemainingGas().compareTo(cost) < 0) {
+      return -1;
+    }
+    frame.decrementRemainingGas(optionalCost.get());
+    frame.incrementRemainingGas(optionalCost.get());
+    return cost.toLong();
+  }
+}
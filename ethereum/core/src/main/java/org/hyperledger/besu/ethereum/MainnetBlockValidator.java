@@ -27,6 +27,7 @@ import org.hyperledger.besu.ethereum.mainnet.BlockHeaderValidator;
 import org.hyperledger.besu.ethereum.mainnet.BlockProcessor;
 import org.hyperledger.besu.ethereum.mainnet.BlockProcessor.Result;
 import org.hyperledger.besu.ethereum.mainnet.HeaderValidationMode;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -104,9 +105,21 @@ public class MainnetBlockValidator implements BlockValidator {
       return Optional.empty();
     }
     final MutableWorldState worldState = maybeWorldState.get();
-
-    final Result result = processBlock(context, worldState, block);
+    final WorldStateArchive worldStateArchive = context.getWorldStateArchive();
+    worldStateArchive.prefetch(worldState, block);
+
+    final Result result;
+    try {
+      result = processBlock(context, worldState, block);
+    } catch (final RuntimeException e) {
+      worldState.close();
+      throw e;
+    } finally {
+      // the state read ahead only serves the execution of this block
+      worldStateArchive.discardPrefetchedState(worldState);
+    }
     if (result.isFailed()) {
+      worldState.close();
       badBlockManager.addBadBlock(block);
       return Optional.empty();
     }
@@ -114,6 +127,7 @@ public class MainnetBlockValidator implements BlockValidator {
     List<TransactionReceipt> receipts = result.getReceipts();
     if (!blockBodyValidator.validateBody(
         context, block, receipts, worldState.rootHash(), ommerValidationMode)) {
+      worldState.close();
       badBlockManager.addBadBlock(block);
       return Optional.empty();
     }
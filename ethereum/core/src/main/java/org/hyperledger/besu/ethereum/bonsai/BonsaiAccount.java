@@ -216,7 +216,7 @@ public class BonsaiAccount implements MutableAccount, EvmAccount {
   @Override
   public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
       final Bytes32 startKeyHash, final int limit) {
-    throw new RuntimeException("Bonsai Tries does not currently support enumerating storage");
+    return context.storageEntriesFrom(address, startKeyHash, limit);
   }
 
   Bytes serializeAccount() {
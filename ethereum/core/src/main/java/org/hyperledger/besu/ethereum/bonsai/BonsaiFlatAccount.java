@@ -0,0 +1,121 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import org.hyperledger.besu.ethereum.core.AccountState;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * An account streamed from the flat database, which only knows the hash of its address. Its code
+ * and storage are read by hash from the same storage the account was read from.
+ */
+class BonsaiFlatAccount implements AccountState {
+
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage;
+  private final Hash addressHash;
+  private final StateTrieAccountValue accountValue;
+
+  private BonsaiFlatAccount(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final Hash addressHash,
+      final StateTrieAccountValue accountValue) {
+    this.worldStateStorage = worldStateStorage;
+    this.addressHash = addressHash;
+    this.accountValue = accountValue;
+  }
+
+  static BonsaiFlatAccount fromRLP(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final Bytes32 addressHash,
+      final Bytes encoded) {
+    return new BonsaiFlatAccount(
+        worldStateStorage,
+        Hash.wrap(addressHash),
+        StateTrieAccountValue.readFrom(RLP.input(encoded)));
+  }
+
+  static NavigableMap<Bytes32, AccountStorageEntry> toStorageEntries(
+      final Map<Bytes32, Bytes> flatStorage) {
+    final NavigableMap<Bytes32, AccountStorageEntry> storageEntries = new TreeMap<>();
+    flatStorage.forEach(
+        (slotHash, value) ->
+            storageEntries.put(
+                slotHash,
+                AccountStorageEntry.create(UInt256.fromBytes(value), slotHash, Optional.empty())));
+    return storageEntries;
+  }
+
+  @Override
+  public Hash getAddressHash() {
+    return addressHash;
+  }
+
+  @Override
+  public long getNonce() {
+    return accountValue.getNonce();
+  }
+
+  @Override
+  public Wei getBalance() {
+    return accountValue.getBalance();
+  }
+
+  @Override
+  public Bytes getCode() {
+    if (accountValue.getCodeHash().equals(Hash.EMPTY)) {
+      return Bytes.EMPTY;
+    }
+    return worldStateStorage.getCode(accountValue.getCodeHash(), addressHash).orElse(Bytes.EMPTY);
+  }
+
+  @Override
+  public Hash getCodeHash() {
+    return accountValue.getCodeHash();
+  }
+
+  @Override
+  public UInt256 getStorageValue(final UInt256 key) {
+    return worldStateStorage
+        .getStorageValueBySlotHash(addressHash, Hash.hash(key))
+        .map(UInt256::fromBytes)
+        .orElse(UInt256.ZERO);
+  }
+
+  @Override
+  public UInt256 getOriginalStorageValue(final UInt256 key) {
+    return getStorageValue(key);
+  }
+
+  @Override
+  public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Bytes32 startKeyHash, final int limit) {
+    return toStorageEntries(worldStateStorage.storageEntriesFrom(addressHash, startKeyHash, limit));
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The layered world states kept in memory by the archive, bounded both in number of layers and in
+ * estimated bytes.
+ *
+ * <p>Layers older than the retained number of blocks are dropped. When the changes of the layers
+ * exceed the byte budget, the changes of the least recently used layers are spilled: they are
+ * dropped from memory, since every layer is also written to the trie log storage, and read back
+ * from there when a lookup needs them again. Spilled layers stay in the chain of layers so that the
+ * layers linked to them remain valid.
+ *
+ * <p>Runs of adjacent layers of the canonical chain are merged into a single diff, which lookups
+ * reaching the first layer of a run use to skip over the whole run.
+ */
+class BonsaiLayerCache {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  static final int MERGED_LAYERS = 16;
+
+  private final Map<Bytes32, BonsaiLayeredWorldState> layersByHash;
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage;
+  private final long capacity;
+  // estimated sizes of the layers whose changes are in memory, least recently used first
+  private final Map<Bytes32, Long> residentSizes = new LinkedHashMap<>(16, 0.75f, true);
+  private long residentBytes = 0;
+  // adjacent layers of the canonical chain not merged yet, oldest first
+  private final List<BonsaiLayeredWorldState> pendingRun = new ArrayList<>();
+
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private final Counter spillCounter;
+  private final Counter rehydrationCounter;
+  private final Counter mergeCounter;
+
+  BonsaiLayerCache(
+      final Map<Bytes32, BonsaiLayeredWorldState> layersByHash,
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final long capacity,
+      final MetricsSystem metricsSystem) {
+    this.layersByHash = layersByHash;
+    this.worldStateStorage = worldStateStorage;
+    this.capacity = capacity;
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.BLOCKCHAIN,
+        "bonsai_layer_cache_estimated_bytes",
+        "Estimated size of the layered world state changes kept in memory",
+        this::getResidentBytes);
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.BLOCKCHAIN,
+        "bonsai_layer_cache_resident_layers",
+        "Number of layered world states whose changes are kept in memory",
+        this::getResidentLayers);
+    hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "bonsai_layer_cache_hits_total",
+            "Total number of layered world states found in the layer cache");
+    missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "bonsai_layer_cache_misses_total",
+            "Total number of layered world states not found in the layer cache");
+    spillCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "bonsai_layer_cache_spills_total",
+            "Total number of layered world states whose changes were dropped from memory");
+    rehydrationCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "bonsai_layer_cache_rehydrations_total",
+            "Total number of spilled layered world states read back from the trie log storage");
+    mergeCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "bonsai_layer_cache_merges_total",
+            "Total number of runs of adjacent layered world states merged into a single diff");
+  }
+
+  synchronized Optional<BonsaiLayeredWorldState> get(final Bytes32 blockHash) {
+    if (!layersByHash.containsKey(blockHash)) {
+      missCounter.inc();
+      return Optional.empty();
+    }
+    hitCounter.inc();
+    residentSizes.get(blockHash); // marks the layer as recently used
+    return Optional.ofNullable(layersByHash.get(blockHash));
+  }
+
+  synchronized boolean contains(final Bytes32 blockHash) {
+    return layersByHash.containsKey(blockHash);
+  }
+
+  synchronized void put(final BonsaiLayeredWorldState layer) {
+    final BonsaiLayeredWorldState replaced = layersByHash.put(layer.blockHash(), layer);
+    if (replaced != null) {
+      forget(replaced.blockHash());
+    }
+    addResident(layer.blockHash(), layer.getTrieLog().estimateSize());
+    spillUntilWithinCapacity(layer.blockHash());
+  }
+
+  /**
+   * Links the layer of a block to the layer of its child on the canonical chain, merging the run of
+   * adjacent layers it belongs to once the run is long enough.
+   *
+   * @param parentHash the hash of the parent block
+   * @param childHash the hash of the block added to the canonical chain
+   */
+  synchronized void link(final Bytes32 parentHash, final Bytes32 childHash) {
+    if (!layersByHash.containsKey(parentHash) || !layersByHash.containsKey(childHash)) {
+      return;
+    }
+    final BonsaiLayeredWorldState parent = layersByHash.get(parentHash);
+    final BonsaiLayeredWorldState child = layersByHash.get(childHash);
+    final Optional<BonsaiWorldView> previousChild = parent.getNextWorldView();
+    if (previousChild.isPresent()
+        && previousChild.get() instanceof BonsaiLayeredWorldState
+        && previousChild.get() != child) {
+      // a reorg, the runs merged across the previous child are no longer valid
+      LOG.debug("Clearing the merged layers after a reorg at {}", parentHash);
+      layersByHash.values().forEach(BonsaiLayeredWorldState::clearMergedLayers);
+      pendingRun.clear();
+    }
+    parent.setNextWorldView(Optional.of(child));
+
+    if (pendingRun.isEmpty() || pendingRun.get(pendingRun.size() - 1) != parent) {
+      pendingRun.clear();
+      pendingRun.add(parent);
+    }
+    pendingRun.add(child);
+    // the last merged layer must already be linked to the view following it
+    if (pendingRun.size() > MERGED_LAYERS) {
+      final List<BonsaiLayeredWorldState> run = pendingRun.subList(0, MERGED_LAYERS);
+      merge(new ArrayList<>(run));
+      run.clear();
+    }
+  }
+
+  private void merge(final List<BonsaiLayeredWorldState> run) {
+    final BonsaiLayeredWorldState first = run.get(0);
+    if (run.stream().anyMatch(BonsaiLayeredWorldState::isSpilled)
+        || !residentSizes.containsKey(first.blockHash())) {
+      // not worth reading the spilled layers back
+      return;
+    }
+    final TrieLogLayer merged =
+        TrieLogLayer.merge(
+            run.stream().map(BonsaiLayeredWorldState::getTrieLog).collect(Collectors.toList()));
+    first.setMergedLayers(merged, run.get(run.size() - 1));
+    // the merged changes are dropped along with the changes of the first layer
+    addResident(first.blockHash(), residentSizes.get(first.blockHash()) + merged.estimateSize());
+    mergeCounter.inc();
+    spillUntilWithinCapacity(first.blockHash());
+  }
+
+  /**
+   * Reads the changes of a spilled layer back from the trie log storage.
+   *
+   * @param layer the spilled layer
+   * @return the changes of the layer
+   */
+  synchronized TrieLogLayer rehydrate(final BonsaiLayeredWorldState layer) {
+    if (!layer.isSpilled()) {
+      return layer.getTrieLog();
+    }
+    final Hash blockHash = layer.blockHash();
+    final TrieLogLayer trieLog =
+        worldStateStorage
+            .getTrieLog(blockHash)
+            .map(TrieLogLayer::fromBytes)
+            .orElseThrow(
+                () ->
+                    new IllegalStateException(
+                        "Trie log of block " + blockHash + " is no longer available"));
+    trieLog.freeze();
+    layer.rehydrate(trieLog);
+    rehydrationCounter.inc();
+    if (layersByHash.get(blockHash) == layer) {
+      addResident(blockHash, trieLog.estimateSize());
+      spillUntilWithinCapacity(blockHash);
+    }
+    return trieLog;
+  }
+
+  /**
+   * Drops the layers below the given height.
+   *
+   * @param waterline the height of the oldest layer to keep
+   */
+  synchronized void scrub(final long waterline) {
+    layersByHash
+        .entrySet()
+        .removeIf(
+            entry -> {
+              if (entry.getValue().getHeight() < waterline) {
+                forget(entry.getKey());
+                return true;
+              }
+              return false;
+            });
+    pendingRun.removeIf(layer -> layer.getHeight() < waterline);
+  }
+
+  private void addResident(final Bytes32 blockHash, final long size) {
+    final Long previousSize = residentSizes.put(blockHash, size);
+    residentBytes += size - (previousSize == null ? 0 : previousSize);
+  }
+
+  private void forget(final Bytes32 blockHash) {
+    final Long size = residentSizes.remove(blockHash);
+    if (size != null) {
+      residentBytes -= size;
+    }
+  }
+
+  private void spillUntilWithinCapacity(final Bytes32 keptBlockHash) {
+    final Iterator<Map.Entry<Bytes32, Long>> leastRecentlyUsed =
+        residentSizes.entrySet().iterator();
+    while (residentBytes > capacity && leastRecentlyUsed.hasNext()) {
+      final Map.Entry<Bytes32, Long> entry = leastRecentlyUsed.next();
+      final BonsaiLayeredWorldState layer = layersByHash.get(entry.getKey());
+      if (entry.getKey().equals(keptBlockHash)
+          || layer == null
+          || !worldStateStorage.hasTrieLog(layer.blockHash())) {
+        // the changes of a layer can only be dropped once its trie log is written
+        continue;
+      }
+      layer.spill();
+      residentBytes -= entry.getValue();
+      leastRecentlyUsed.remove();
+      spillCounter.inc();
+    }
+  }
+
+  synchronized long getResidentBytes() {
+    return residentBytes;
+  }
+
+  synchronized long getResidentLayers() {
+    return residentSizes.size();
+  }
+}
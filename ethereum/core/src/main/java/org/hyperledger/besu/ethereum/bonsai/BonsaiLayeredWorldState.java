@@ -18,6 +18,7 @@ package org.hyperledger.besu.ethereum.bonsai;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
@@ -28,9 +29,12 @@ import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.stream.Stream;
 
+import com.google.common.collect.Maps;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -40,7 +44,11 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
 
   private Optional<BonsaiWorldView> nextWorldView;
   protected final long height;
-  protected final TrieLogLayer trieLog;
+  private final Hash blockHash;
+  // null while spilled to the trie log storage by the layer cache of the archive
+  private volatile TrieLogLayer trieLog;
+  // the changes of this layer merged with those of the layers following it
+  private volatile MergedLayers mergedLayers;
   private final Hash worldStateRootHash;
 
   private final Blockchain blockchain;
@@ -58,6 +66,7 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
     this.nextWorldView = nextWorldView;
     this.height = height;
     this.worldStateRootHash = worldStateRootHash;
+    this.blockHash = trieLog.getBlockHash();
     this.trieLog = trieLog;
   }
 
@@ -66,7 +75,7 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
       final Optional<Hash> blockHashByNumber = blockchain.getBlockHashByNumber(height + 1);
       nextWorldView =
           blockHashByNumber
-              .map(hash -> archive.getMutable(null, hash, false).map(BonsaiWorldView.class::cast))
+              .map(archive::getLayeredWorldView)
               .orElseGet(() -> Optional.of(archive.getMutable()).map(BonsaiWorldView.class::cast));
     }
     return nextWorldView;
@@ -77,7 +86,49 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
   }
 
   public TrieLogLayer getTrieLog() {
-    return trieLog;
+    final TrieLogLayer layer = trieLog;
+    return layer != null ? layer : archive.rehydrateTrieLog(this);
+  }
+
+  boolean isSpilled() {
+    return trieLog == null;
+  }
+
+  /** Drops the changes of the layer, they are read back from the trie log storage when needed. */
+  void spill() {
+    trieLog = null;
+    mergedLayers = null;
+  }
+
+  void rehydrate(final TrieLogLayer trieLog) {
+    this.trieLog = trieLog;
+  }
+
+  /**
+   * Lets lookups reaching this layer from a later one skip to the view following the last of the
+   * merged layers.
+   *
+   * @param merged the changes of this layer merged with those of the following layers
+   * @param lastLayer the last of the merged layers
+   */
+  void setMergedLayers(final TrieLogLayer merged, final BonsaiLayeredWorldState lastLayer) {
+    mergedLayers = new MergedLayers(merged, lastLayer);
+  }
+
+  void clearMergedLayers() {
+    mergedLayers = null;
+  }
+
+  boolean hasMergedLayers() {
+    return mergedLayers != null;
+  }
+
+  /**
+   * Returns the merged layers starting at the given layer, if the lookup of this layer can use them.
+   * The updated values of this layer itself are needed, so its merge is never used.
+   */
+  private MergedLayers mergedLayersAt(final BonsaiLayeredWorldState layer) {
+    return layer == this ? null : layer.mergedLayers;
   }
 
   public long getHeight() {
@@ -88,8 +139,10 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
   public Optional<Bytes> getCode(final Address address) {
     BonsaiLayeredWorldState currentLayer = this;
     while (currentLayer != null) {
-      final Optional<Bytes> maybeCode = currentLayer.trieLog.getCode(address);
-      final Optional<Bytes> maybePriorCode = currentLayer.trieLog.getPriorCode(address);
+      final MergedLayers merged = mergedLayersAt(currentLayer);
+      final TrieLogLayer changes = merged == null ? currentLayer.getTrieLog() : merged.trieLog;
+      final Optional<Bytes> maybeCode = changes.getCode(address);
+      final Optional<Bytes> maybePriorCode = changes.getPriorCode(address);
       if (currentLayer == this && maybeCode.isPresent()) {
         return maybeCode;
       } else if (maybePriorCode.isPresent()) {
@@ -97,12 +150,14 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
       } else if (maybeCode.isPresent()) {
         return Optional.empty();
       }
-      if (currentLayer.getNextWorldView().isEmpty()) {
+      final Optional<BonsaiWorldView> next =
+          merged == null ? currentLayer.getNextWorldView() : merged.lastLayer.getNextWorldView();
+      if (next.isEmpty()) {
         currentLayer = null;
-      } else if (currentLayer.getNextWorldView().get() instanceof BonsaiLayeredWorldState) {
-        currentLayer = (BonsaiLayeredWorldState) currentLayer.getNextWorldView().get();
+      } else if (next.get() instanceof BonsaiLayeredWorldState) {
+        currentLayer = (BonsaiLayeredWorldState) next.get();
       } else {
-        return currentLayer.getNextWorldView().get().getCode(address);
+        return next.get().getCode(address);
       }
     }
     return Optional.empty();
@@ -114,12 +169,15 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
     // mainly because we don't have tail calls.
     BonsaiLayeredWorldState currentLayer = this;
     while (currentLayer != null) {
-      if (currentLayer.getNextWorldView().isEmpty()) {
+      final MergedLayers merged = mergedLayersAt(currentLayer);
+      final Optional<BonsaiWorldView> next =
+          merged == null ? currentLayer.getNextWorldView() : merged.lastLayer.getNextWorldView();
+      if (next.isEmpty()) {
         currentLayer = null;
-      } else if (currentLayer.getNextWorldView().get() instanceof BonsaiLayeredWorldState) {
-        currentLayer = (BonsaiLayeredWorldState) currentLayer.getNextWorldView().get();
+      } else if (next.get() instanceof BonsaiLayeredWorldState) {
+        currentLayer = (BonsaiLayeredWorldState) next.get();
       } else {
-        return currentLayer.getNextWorldView().get().getStateTrieNode(location);
+        return next.get().getStateTrieNode(location);
       }
     }
     return Optional.empty();
@@ -136,10 +194,11 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
     // mainly because we don't have tail calls.
     BonsaiLayeredWorldState currentLayer = this;
     while (currentLayer != null) {
-      final Optional<UInt256> maybeValue =
-          currentLayer.trieLog.getStorageBySlotHash(address, slotHash);
+      final MergedLayers merged = mergedLayersAt(currentLayer);
+      final TrieLogLayer changes = merged == null ? currentLayer.getTrieLog() : merged.trieLog;
+      final Optional<UInt256> maybeValue = changes.getStorageBySlotHash(address, slotHash);
       final Optional<UInt256> maybePriorValue =
-          currentLayer.trieLog.getPriorStorageBySlotHash(address, slotHash);
+          changes.getPriorStorageBySlotHash(address, slotHash);
       if (currentLayer == this && maybeValue.isPresent()) {
         return maybeValue;
       } else if (maybePriorValue.isPresent()) {
@@ -147,12 +206,14 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
       } else if (maybeValue.isPresent()) {
         return Optional.empty();
       }
-      if (currentLayer.getNextWorldView().isEmpty()) {
+      final Optional<BonsaiWorldView> next =
+          merged == null ? currentLayer.getNextWorldView() : merged.lastLayer.getNextWorldView();
+      if (next.isEmpty()) {
         currentLayer = null;
-      } else if (currentLayer.getNextWorldView().get() instanceof BonsaiLayeredWorldState) {
-        currentLayer = (BonsaiLayeredWorldState) currentLayer.getNextWorldView().get();
+      } else if (next.get() instanceof BonsaiLayeredWorldState) {
+        currentLayer = (BonsaiLayeredWorldState) next.get();
       } else {
-        return currentLayer.getNextWorldView().get().getStorageValueBySlotHash(address, slotHash);
+        return next.get().getStorageValueBySlotHash(address, slotHash);
       }
     }
     return Optional.empty();
@@ -171,9 +232,9 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
     final Map<Bytes32, Bytes> results = new HashMap<>();
     BonsaiLayeredWorldState currentLayer = this;
     while (currentLayer != null) {
-      if (currentLayer.trieLog.hasStorageChanges(address)) {
-        currentLayer
-            .trieLog
+      final TrieLogLayer changes = currentLayer.getTrieLog();
+      if (changes.hasStorageChanges(address)) {
+        changes
             .streamStorageChanges(address)
             .forEach(
                 entry -> {
@@ -212,10 +273,11 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
     // mainly because we don't have tail calls.
     BonsaiLayeredWorldState currentLayer = this;
     while (currentLayer != null) {
-      final Optional<StateTrieAccountValue> maybeStateTrieAccount =
-          currentLayer.trieLog.getAccount(address);
+      final MergedLayers merged = mergedLayersAt(currentLayer);
+      final TrieLogLayer changes = merged == null ? currentLayer.getTrieLog() : merged.trieLog;
+      final Optional<StateTrieAccountValue> maybeStateTrieAccount = changes.getAccount(address);
       final Optional<StateTrieAccountValue> maybePriorStateTrieAccount =
-          currentLayer.trieLog.getPriorAccount(address);
+          changes.getPriorAccount(address);
       if (currentLayer == this && maybeStateTrieAccount.isPresent()) {
         return new BonsaiAccount(
             BonsaiLayeredWorldState.this, address, maybeStateTrieAccount.get(), false);
@@ -225,12 +287,14 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
       } else if (maybeStateTrieAccount.isPresent()) {
         return null;
       }
-      if (currentLayer.getNextWorldView().isEmpty()) {
+      final Optional<BonsaiWorldView> next =
+          merged == null ? currentLayer.getNextWorldView() : merged.lastLayer.getNextWorldView();
+      if (next.isEmpty()) {
         currentLayer = null;
-      } else if (currentLayer.getNextWorldView().get() instanceof BonsaiLayeredWorldState) {
-        currentLayer = (BonsaiLayeredWorldState) currentLayer.getNextWorldView().get();
+      } else if (next.get() instanceof BonsaiLayeredWorldState) {
+        currentLayer = (BonsaiLayeredWorldState) next.get();
       } else {
-        return currentLayer.getNextWorldView().get().get(address);
+        return next.get().get(address);
       }
     }
     return null;
@@ -248,12 +312,65 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
   }
 
   public Hash blockHash() {
-    return trieLog.getBlockHash();
+    return blockHash;
   }
 
   @Override
   public Stream<StreamableAccount> streamAccounts(final Bytes32 startKeyHash, final int limit) {
-    throw new UnsupportedOperationException("Bonsai does not support pruning and debug RPCs");
+    // the trie logs only hold the changed accounts, the others are read from a snapshot of the
+    // persisted state rolled to this block by the trie logs
+    return blockchain
+        .getBlockHeader(blockHash)
+        .flatMap(archive::getSnapshotWorldState)
+        .map(
+            snapshotWorldState ->
+                snapshotWorldState
+                    .streamAccounts(startKeyHash, limit)
+                    .onClose(snapshotWorldState::close))
+        .orElseThrow(
+            () ->
+                new UnsupportedOperationException(
+                    "Unable to take a snapshot of the world state of block " + blockHash));
+  }
+
+  @Override
+  public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Address address, final Bytes32 startKeyHash, final int limit) {
+    // the newest change of a slot hides the older ones, null values are the deleted slots
+    final NavigableMap<Bytes32, UInt256> changedSlots = new TreeMap<>();
+    Optional<BonsaiWorldView> underlyingView = Optional.empty();
+    BonsaiLayeredWorldState currentLayer = this;
+    while (currentLayer != null) {
+      currentLayer
+          .getTrieLog()
+          .streamStorageChanges(address)
+          .filter(change -> change.getKey().compareTo(startKeyHash) >= 0)
+          .forEach(
+              change -> {
+                if (!changedSlots.containsKey(change.getKey())) {
+                  changedSlots.put(change.getKey(), change.getValue().getUpdated());
+                }
+              });
+      final Optional<BonsaiWorldView> next = currentLayer.getNextWorldView();
+      if (next.isPresent() && next.get() instanceof BonsaiLayeredWorldState) {
+        currentLayer = (BonsaiLayeredWorldState) next.get();
+      } else {
+        underlyingView = next;
+        currentLayer = null;
+      }
+    }
+    final Optional<BonsaiWorldView> view = underlyingView;
+    return TrieLogOverlay.storageEntriesFrom(
+        changedSlots,
+        startKeyHash,
+        limit,
+        viewLimit ->
+            view.<Map<Bytes32, UInt256>>map(
+                    worldView ->
+                        Maps.transformValues(
+                            worldView.storageEntriesFrom(address, startKeyHash, viewLimit),
+                            AccountStorageEntry::getValue))
+                .orElse(Map.of()));
   }
 
   @Override
@@ -279,4 +396,14 @@ public class BonsaiLayeredWorldState implements MutableWorldState, BonsaiWorldVi
   public WorldUpdater updater() {
     return new BonsaiWorldStateUpdater(this);
   }
+
+  private static class MergedLayers {
+    private final TrieLogLayer trieLog;
+    private final BonsaiLayeredWorldState lastLayer;
+
+    private MergedLayers(final TrieLogLayer trieLog, final BonsaiLayeredWorldState lastLayer) {
+      this.trieLog = trieLog;
+      this.lastLayer = lastLayer;
+    }
+  }
 }
@@ -21,20 +21,26 @@ import static org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateKeyValueStora
 import static org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateKeyValueStorage.WORLD_ROOT_HASH_KEY;
 
 import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
-import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
 import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
@@ -53,8 +59,12 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
   private final BonsaiWorldStateArchive archive;
   private final BonsaiWorldStateUpdater updater;
 
+  private final Object commitLock = new Object();
+
   private Hash worldStateRootHash;
   private Hash worldStateBlockHash;
+  private volatile Optional<BonsaiStatePrefetcher.PrefetchedState> prefetchedState =
+      Optional.empty();
 
   public BonsaiPersistedWorldState(
       final BonsaiWorldStateArchive archive,
@@ -87,7 +97,29 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
 
   @Override
   public Optional<Bytes> getCode(@Nonnull final Address address) {
-    return worldStateStorage.getCode(null, Hash.hash(address));
+    final Hash accountHash = Hash.hash(address);
+    return prefetchedState
+        .map(
+            prefetched ->
+                prefetched.getCode(accountHash, () -> worldStateStorage.getCode(null, accountHash)))
+        .orElseGet(() -> worldStateStorage.getCode(null, accountHash));
+  }
+
+  /**
+   * Serves reads from state prefetched for the next block, until the world state is next
+   * persisted.
+   *
+   * @param prefetchedState the state read ahead of the execution of the block
+   */
+  void usePrefetchedState(final BonsaiStatePrefetcher.PrefetchedState prefetchedState) {
+    this.prefetchedState.ifPresent(BonsaiStatePrefetcher.PrefetchedState::close);
+    this.prefetchedState = Optional.of(prefetchedState);
+  }
+
+  /** Stops serving reads from the prefetched state, if any. */
+  void discardPrefetchedState() {
+    prefetchedState.ifPresent(BonsaiStatePrefetcher.PrefetchedState::close);
+    prefetchedState = Optional.empty();
   }
 
   public void setArchiveStateUnSafe(final BlockHeader blockHeader) {
@@ -99,6 +131,17 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
     return worldStateStorage;
   }
 
+  /**
+   * Takes a snapshot of the persisted state, which is never in the middle of being updated.
+   *
+   * @return the snapshot, or empty if the storage does not support snapshots
+   */
+  Optional<BonsaiSnapshotWorldStateKeyValueStorage> takeSnapshot() {
+    synchronized (commitLock) {
+      return BonsaiSnapshotWorldStateKeyValueStorage.create(worldStateStorage);
+    }
+  }
+
   protected Hash calculateRootHash(final BonsaiWorldStateKeyValueStorage.Updater stateUpdater) {
     return calculateRootHash(stateUpdater, updater.copy());
   }
@@ -142,50 +185,32 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
     }
 
     // second update account storage state.  This must be done before updating the accounts so
-    // that we can get the storage state hash
-    for (final Map.Entry<Address, Map<Hash, BonsaiValue<UInt256>>> storageAccountUpdate :
-        worldStateUpdater.getStorageToUpdate().entrySet()) {
-      final Address updatedAddress = storageAccountUpdate.getKey();
-      final Hash updatedAddressHash = Hash.hash(updatedAddress);
-      if (worldStateUpdater.getAccountsToUpdate().containsKey(updatedAddress)) {
-        final BonsaiValue<BonsaiAccount> accountValue =
-            worldStateUpdater.getAccountsToUpdate().get(updatedAddress);
-        final BonsaiAccount accountOriginal = accountValue.getPrior();
-        final Hash storageRoot =
-            (accountOriginal == null) ? Hash.EMPTY_TRIE_HASH : accountOriginal.getStorageRoot();
-        final StoredMerklePatriciaTrie<Bytes, Bytes> storageTrie =
-            new StoredMerklePatriciaTrie<>(
-                (location, key) -> getStorageTrieNode(updatedAddressHash, location, key),
-                storageRoot,
-                Function.identity(),
-                Function.identity());
-
-        // for manicured tries and composting, collect branches here (not implemented)
-
-        for (final Map.Entry<Hash, BonsaiValue<UInt256>> storageUpdate :
-            storageAccountUpdate.getValue().entrySet()) {
-          final Hash keyHash = storageUpdate.getKey();
-          final UInt256 updatedStorage = storageUpdate.getValue().getUpdated();
-          if (updatedStorage == null || updatedStorage.equals(UInt256.ZERO)) {
-            stateUpdater.removeStorageValueBySlotHash(updatedAddressHash, keyHash);
-            storageTrie.remove(keyHash);
-          } else {
-            stateUpdater.putStorageValueBySlotHash(updatedAddressHash, keyHash, updatedStorage);
-            storageTrie.put(keyHash, BonsaiWorldView.encodeTrieValue(updatedStorage));
-          }
-        }
-
-        final BonsaiAccount accountUpdated = accountValue.getUpdated();
-        if (accountUpdated != null) {
-          storageTrie.commit(
-              (location, key, value) ->
-                  writeStorageTrieNode(stateUpdater, updatedAddressHash, location, key, value));
-          final Hash newStorageRoot = Hash.wrap(storageTrie.getRootHash());
-          accountUpdated.setStorageRoot(newStorageRoot);
-        }
-      }
-      // for manicured tries and composting, trim and compost here
+    // that we can get the storage state hash.  The storage tries of different accounts are
+    // independent, so they are updated and hashed in parallel and their writes are applied to the
+    // state updater afterwards, from this thread.
+    final List<Map.Entry<Address, Map<Hash, BonsaiValue<UInt256>>>> storageAccountUpdates =
+        worldStateUpdater.getStorageToUpdate().entrySet().stream()
+            .filter(entry -> worldStateUpdater.getAccountsToUpdate().containsKey(entry.getKey()))
+            .collect(Collectors.toList());
+    final List<StorageTrieUpdate> storageTrieUpdates;
+    if (storageAccountUpdates.size() < 2) {
+      storageTrieUpdates =
+          storageAccountUpdates.stream()
+              .map(update -> updateStorageTrie(worldStateUpdater, update))
+              .collect(Collectors.toList());
+    } else {
+      storageTrieUpdates =
+          archive
+              .getTrieHashingPool()
+              .submit(
+                  () ->
+                      storageAccountUpdates.parallelStream()
+                          .map(update -> updateStorageTrie(worldStateUpdater, update))
+                          .collect(Collectors.toList()))
+              .join();
     }
+    // for manicured tries and composting, trim and compost here
+    storageTrieUpdates.forEach(update -> update.applyTo(stateUpdater));
 
     // Third update the code.  This has the side effect of ensuring a code hash is calculated.
     for (final Map.Entry<Address, BonsaiValue<Bytes>> codeUpdate :
@@ -231,13 +256,62 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
     // DB tx updates.  Right now it is just DB updates.
     accountTrie.commit(
         (location, hash, value) ->
-            writeTrieNode(stateUpdater.getTrieBranchStorageTransaction(), location, value));
+            writeTrieNode(stateUpdater.getTrieBranchStorageTransaction(), location, value),
+        archive.getTrieHashingPool());
     final Bytes32 rootHash = accountTrie.getRootHash();
     return Hash.wrap(rootHash);
   }
 
+  private StorageTrieUpdate updateStorageTrie(
+      final BonsaiWorldStateUpdater worldStateUpdater,
+      final Map.Entry<Address, Map<Hash, BonsaiValue<UInt256>>> storageAccountUpdate) {
+    final Address updatedAddress = storageAccountUpdate.getKey();
+    final Hash updatedAddressHash = Hash.hash(updatedAddress);
+    final BonsaiValue<BonsaiAccount> accountValue =
+        worldStateUpdater.getAccountsToUpdate().get(updatedAddress);
+    final BonsaiAccount accountOriginal = accountValue.getPrior();
+    final Hash storageRoot =
+        (accountOriginal == null) ? Hash.EMPTY_TRIE_HASH : accountOriginal.getStorageRoot();
+    final StoredMerklePatriciaTrie<Bytes, Bytes> storageTrie =
+        new StoredMerklePatriciaTrie<>(
+            (location, key) -> getStorageTrieNode(updatedAddressHash, location, key),
+            storageRoot,
+            Function.identity(),
+            Function.identity());
+    final StorageTrieUpdate update =
+        new StorageTrieUpdate(updatedAddressHash, accountValue.getUpdated());
+
+    // for manicured tries and composting, collect branches here (not implemented)
+
+    final Map<Bytes, Optional<Bytes>> trieUpdates = new HashMap<>();
+    for (final Map.Entry<Hash, BonsaiValue<UInt256>> storageUpdate :
+        storageAccountUpdate.getValue().entrySet()) {
+      final Hash keyHash = storageUpdate.getKey();
+      final UInt256 updatedStorage = storageUpdate.getValue().getUpdated();
+      if (updatedStorage == null || updatedStorage.equals(UInt256.ZERO)) {
+        update.slotUpdates.put(keyHash, null);
+        trieUpdates.put(keyHash, Optional.empty());
+      } else {
+        update.slotUpdates.put(keyHash, updatedStorage);
+        trieUpdates.put(keyHash, Optional.of(BonsaiWorldView.encodeTrieValue(updatedStorage)));
+      }
+    }
+    storageTrie.updateAll(trieUpdates);
+
+    if (update.account != null) {
+      storageTrie.commit(
+          (location, key, value) -> update.trieNodes.add(new TrieNodeWrite(location, key, value)),
+          archive.getTrieHashingPool());
+      update.storageRoot = Hash.wrap(storageTrie.getRootHash());
+    }
+    return update;
+  }
+
   @Override
   public void persist(final BlockHeader blockHeader) {
+    // the prefetched state no longer matches the storage once it is updated
+    discardPrefetchedState();
+
     boolean success = false;
 
     final BonsaiWorldStateUpdater localUpdater = updater.copy();
@@ -272,12 +346,9 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
           final TrieLogLayer trieLog = localUpdater.generateTrieLog(worldStateBlockHash);
           trieLog.freeze();
           archive.addLayeredWorldState(this, blockHeader, worldStateRootHash, trieLog);
-          final BytesValueRLPOutput rlpLog = new BytesValueRLPOutput();
-          trieLog.writeTo(rlpLog);
-
           stateUpdater
               .getTrieLogStorageTransaction()
-              .put(worldStateBlockHash.toArrayUnsafe(), rlpLog.encoded().toArrayUnsafe());
+              .put(worldStateBlockHash.toArrayUnsafe(), trieLog.toBytes());
         }
       } else {
         stateUpdater.getTrieBranchStorageTransaction().remove(WORLD_BLOCK_HASH_KEY);
@@ -287,7 +358,9 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
       success = true;
     } finally {
       if (success) {
-        stateUpdater.commit();
+        synchronized (commitLock) {
+          stateUpdater.commit();
+        }
         updater.reset();
       } else {
         stateUpdater.rollback();
@@ -348,13 +421,40 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
 
   @Override
   public Stream<StreamableAccount> streamAccounts(final Bytes32 startKeyHash, final int limit) {
-    throw new RuntimeException("Bonsai Tries do not provide account streaming.");
+    // read from a snapshot so that the accounts and their storage stay consistent with each other
+    // while blocks are persisted, the snapshot is released when the stream is closed
+    final Optional<BonsaiSnapshotWorldStateKeyValueStorage> snapshot = takeSnapshot();
+    final BonsaiWorldStateKeyValueStorage storage =
+        snapshot
+            .<BonsaiWorldStateKeyValueStorage>map(snapshotStorage -> snapshotStorage)
+            .orElse(worldStateStorage);
+    final Stream<StreamableAccount> accounts;
+    try {
+      accounts =
+          storage.accountEntriesFrom(startKeyHash, limit).entrySet().stream()
+              .map(
+                  entry ->
+                      new StreamableAccount(
+                          Optional.empty(),
+                          BonsaiFlatAccount.fromRLP(storage, entry.getKey(), entry.getValue())));
+    } catch (final RuntimeException e) {
+      snapshot.ifPresent(BonsaiSnapshotWorldStateKeyValueStorage::close);
+      throw e;
+    }
+    return snapshot
+        .map(snapshotStorage -> accounts.onClose(snapshotStorage::close))
+        .orElse(accounts);
   }
 
   @Override
   public Account get(final Address address) {
-    return worldStateStorage
-        .getAccount(Hash.hash(address))
+    final Hash accountHash = Hash.hash(address);
+    return prefetchedState
+        .map(
+            prefetched ->
+                prefetched.getAccount(
+                    accountHash, () -> worldStateStorage.getAccount(accountHash)))
+        .orElseGet(() -> worldStateStorage.getAccount(accountHash))
         .map(bytes -> fromRLP(updater, address, bytes, true))
         .orElse(null);
   }
@@ -373,15 +473,6 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
     return worldStateStorage.getAccountStorageTrieNode(accountHash, location, nodeHash);
   }
 
-  private void writeStorageTrieNode(
-      final WorldStateStorage.Updater stateUpdater,
-      final Hash accountHash,
-      final Bytes location,
-      final Bytes32 nodeHash,
-      final Bytes value) {
-    stateUpdater.putAccountStorageTrieNode(accountHash, location, nodeHash, value);
-  }
-
   @Override
   public Optional<Bytes> getStateTrieNode(final Bytes location) {
     return worldStateStorage.getStateTrieNode(location);
@@ -394,8 +485,15 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
 
   @Override
   public Optional<UInt256> getStorageValueBySlotHash(final Address address, final Hash slotHash) {
-    return worldStateStorage
-        .getStorageValueBySlotHash(Hash.hash(address), slotHash)
+    final Hash accountHash = Hash.hash(address);
+    return prefetchedState
+        .map(
+            prefetched ->
+                prefetched.getStorageValueBySlotHash(
+                    accountHash,
+                    slotHash,
+                    () -> worldStateStorage.getStorageValueBySlotHash(accountHash, slotHash)))
+        .orElseGet(() -> worldStateStorage.getStorageValueBySlotHash(accountHash, slotHash))
         .map(UInt256::fromBytes);
   }
 
@@ -404,6 +502,13 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
     return getStorageValue(address, storageKey);
   }
 
+  @Override
+  public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Address address, final Bytes32 startKeyHash, final int limit) {
+    return BonsaiFlatAccount.toStorageEntries(
+        worldStateStorage.storageEntriesFrom(Hash.hash(address), startKeyHash, limit));
+  }
+
   @Override
   public Map<Bytes32, Bytes> getAllAccountStorage(final Address address, final Hash rootHash) {
     final StoredMerklePatriciaTrie<Bytes, Bytes> storageTrie =
@@ -414,4 +519,47 @@ public class BonsaiPersistedWorldState implements MutableWorldState, BonsaiWorld
             Function.identity());
     return storageTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE);
   }
+
+  /** The writes resulting from the update of the storage trie of one account. */
+  private static class StorageTrieUpdate {
+    private final Hash accountHash;
+    private final BonsaiAccount account;
+    private final Map<Hash, UInt256> slotUpdates = new LinkedHashMap<>();
+    private final List<TrieNodeWrite> trieNodes = new ArrayList<>();
+    private Hash storageRoot;
+
+    private StorageTrieUpdate(final Hash accountHash, final BonsaiAccount account) {
+      this.accountHash = accountHash;
+      this.account = account;
+    }
+
+    private void applyTo(final BonsaiWorldStateKeyValueStorage.Updater stateUpdater) {
+      slotUpdates.forEach(
+          (slotHash, value) -> {
+            if (value == null) {
+              stateUpdater.removeStorageValueBySlotHash(accountHash, slotHash);
+            } else {
+              stateUpdater.putStorageValueBySlotHash(accountHash, slotHash, value);
+            }
+          });
+      for (final TrieNodeWrite node : trieNodes) {
+        stateUpdater.putAccountStorageTrieNode(accountHash, node.location, node.hash, node.value);
+      }
+      if (account != null) {
+        account.setStorageRoot(storageRoot);
+      }
+    }
+  }
+
+  private static class TrieNodeWrite {
+    private final Bytes location;
+    private final Bytes32 hash;
+    private final Bytes value;
+
+    private TrieNodeWrite(final Bytes location, final Bytes32 hash, final Bytes value) {
+      this.location = location;
+      this.hash = hash;
+      this.value = value;
+    }
+  }
 }
@@ -0,0 +1,291 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Maps;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * A read-only world state at any block within reach of the persisted state, backed by a snapshot of
+ * the persisted flat state and by the trie logs separating the block from the persisted one.
+ *
+ * <p>The trie logs are merged into a single diff when the view is created: the persisted state is
+ * rolled back to the common ancestor with the prior values of the trie logs, then rolled forward to
+ * the block with their updated values. Nothing is ever written, so any number of views can be read
+ * concurrently while blocks keep being imported.
+ *
+ * <p>The view holds a subscription to the snapshot, it must be closed once it is no longer used.
+ */
+public class BonsaiSnapshotWorldState implements MutableWorldState, BonsaiWorldView, WorldState {
+
+  private final BonsaiWorldStateArchive archive;
+  private final BonsaiSnapshotWorldStateKeyValueStorage snapshot;
+  private final Hash worldStateRootHash;
+  private final Hash worldStateBlockHash;
+  private final AtomicBoolean closed = new AtomicBoolean();
+
+  // null values are deletions, they must hide the values of the snapshot
+  private final Map<Address, StateTrieAccountValue> accounts = new HashMap<>();
+  private final Map<Address, Bytes> code = new HashMap<>();
+  private final Map<Address, Map<Hash, UInt256>> storage = new HashMap<>();
+
+  /**
+   * Creates the view of the world state at a block.
+   *
+   * @param archive the archive the snapshot was taken from
+   * @param snapshot the snapshot of the persisted state, subscribed to on behalf of the view
+   * @param blockHeader the header of the block to view the world state at
+   * @param rollBacks the trie logs from the persisted block back to the common ancestor, excluded
+   * @param rollForwards the trie logs from the block back to the common ancestor, excluded
+   */
+  BonsaiSnapshotWorldState(
+      final BonsaiWorldStateArchive archive,
+      final BonsaiSnapshotWorldStateKeyValueStorage snapshot,
+      final BlockHeader blockHeader,
+      final List<TrieLogLayer> rollBacks,
+      final List<TrieLogLayer> rollForwards) {
+    this.archive = archive;
+    this.snapshot = snapshot;
+    this.worldStateRootHash = blockHeader.getStateRoot();
+    this.worldStateBlockHash = blockHeader.getHash();
+    // the oldest roll back is applied last and the newest roll forward is applied last
+    rollBacks.forEach(layer -> apply(layer, false));
+    for (int i = rollForwards.size() - 1; i >= 0; i--) {
+      apply(rollForwards.get(i), true);
+    }
+  }
+
+  private void apply(final TrieLogLayer layer, final boolean forward) {
+    layer
+        .streamAccountChanges()
+        .forEach(change -> accounts.put(change.getKey(), select(change.getValue(), forward)));
+    layer
+        .streamCodeChanges()
+        .forEach(change -> code.put(change.getKey(), select(change.getValue(), forward)));
+    layer
+        .streamStorageChanges()
+        .forEach(
+            change -> {
+              final Map<Hash, UInt256> slots =
+                  storage.computeIfAbsent(change.getKey(), __ -> new HashMap<>());
+              change
+                  .getValue()
+                  .forEach((slotHash, value) -> slots.put(slotHash, select(value, forward)));
+            });
+  }
+
+  private static <T> T select(final BonsaiValue<T> value, final boolean forward) {
+    return forward ? value.getUpdated() : value.getPrior();
+  }
+
+  @Override
+  public Account get(final Address address) {
+    if (accounts.containsKey(address)) {
+      final StateTrieAccountValue account = accounts.get(address);
+      return account == null ? null : new BonsaiAccount(this, address, account, false);
+    }
+    return snapshot
+        .getAccount(Hash.hash(address))
+        .map(bytes -> BonsaiAccount.fromRLP(this, address, bytes, false))
+        .orElse(null);
+  }
+
+  @Override
+  public Optional<Bytes> getCode(final Address address) {
+    if (code.containsKey(address)) {
+      return Optional.ofNullable(code.get(address)).filter(bytes -> !bytes.isEmpty());
+    }
+    return snapshot.getCode(null, Hash.hash(address));
+  }
+
+  @Override
+  public Optional<Bytes> getStateTrieNode(final Bytes location) {
+    // the trie branches of the snapshot are those of the persisted block only
+    return accounts.isEmpty() && storage.isEmpty()
+        ? snapshot.getStateTrieNode(location)
+        : Optional.empty();
+  }
+
+  @Override
+  public UInt256 getStorageValue(final Address address, final UInt256 key) {
+    return getStorageValueBySlotHash(address, Hash.hash(key)).orElse(UInt256.ZERO);
+  }
+
+  @Override
+  public Optional<UInt256> getStorageValueBySlotHash(final Address address, final Hash slotHash) {
+    final Map<Hash, UInt256> slots = storage.get(address);
+    if (slots != null && slots.containsKey(slotHash)) {
+      return Optional.ofNullable(slots.get(slotHash));
+    }
+    return snapshot
+        .getStorageValueBySlotHash(Hash.hash(address), slotHash)
+        .map(UInt256::fromBytes);
+  }
+
+  @Override
+  public UInt256 getPriorStorageValue(final Address address, final UInt256 key) {
+    return getStorageValue(address, key);
+  }
+
+  @Override
+  public Map<Bytes32, Bytes> getAllAccountStorage(final Address address, final Hash rootHash) {
+    // only the storage trie of the account at the persisted block is in the snapshot
+    final Hash accountHash = Hash.hash(address);
+    final Map<Bytes32, Bytes> results =
+        snapshot
+            .getAccount(accountHash)
+            .map(bytes -> StateTrieAccountValue.readFrom(RLP.input(bytes)).getStorageRoot())
+            .map(
+                persistedRoot ->
+                    new StoredMerklePatriciaTrie<Bytes, Bytes>(
+                            (location, nodeHash) ->
+                                snapshot.getAccountStorageTrieNode(
+                                    accountHash, location, nodeHash),
+                            persistedRoot,
+                            Function.identity(),
+                            Function.identity())
+                        .entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE))
+            .orElseGet(HashMap::new);
+    storage
+        .getOrDefault(address, Map.of())
+        .forEach(
+            (slotHash, value) -> {
+              if (value == null) {
+                results.remove(slotHash);
+              } else {
+                results.put(slotHash, BonsaiWorldView.encodeTrieValue(value));
+              }
+            });
+    return results;
+  }
+
+  @Override
+  public Hash rootHash() {
+    return worldStateRootHash;
+  }
+
+  @Override
+  public Hash frontierRootHash() {
+    return rootHash();
+  }
+
+  public Hash blockHash() {
+    return worldStateBlockHash;
+  }
+
+  @Override
+  public Stream<StreamableAccount> streamAccounts(final Bytes32 startKeyHash, final int limit) {
+    // the addresses of the accounts changed by the trie logs are known, those of the others are not
+    final NavigableMap<Bytes32, Address> changedAddresses = new TreeMap<>();
+    Stream.of(accounts.keySet(), code.keySet(), storage.keySet())
+        .flatMap(Set::stream)
+        .forEach(address -> changedAddresses.put(Hash.hash(address), address));
+    final NavigableMap<Bytes32, StreamableAccount> results = new TreeMap<>();
+    snapshot
+        .accountEntriesFrom(startKeyHash, TrieLogOverlay.withDeletions(limit, accounts.values()))
+        .forEach(
+            (addressHash, value) -> {
+              if (!changedAddresses.containsKey(addressHash)) {
+                results.put(
+                    addressHash,
+                    new StreamableAccount(
+                        Optional.empty(),
+                        BonsaiFlatAccount.fromRLP(snapshot, addressHash, value)));
+              }
+            });
+    changedAddresses
+        .tailMap(startKeyHash, true)
+        .forEach(
+            (addressHash, address) -> {
+              final Account account = get(address);
+              if (account != null) {
+                results.put(addressHash, new StreamableAccount(Optional.of(address), account));
+              }
+            });
+    return results.values().stream().limit(limit);
+  }
+
+  @Override
+  public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Address address, final Bytes32 startKeyHash, final int limit) {
+    return TrieLogOverlay.storageEntriesFrom(
+        storage.getOrDefault(address, Map.of()),
+        startKeyHash,
+        limit,
+        snapshotLimit ->
+            Maps.transformValues(
+                snapshot.storageEntriesFrom(Hash.hash(address), startKeyHash, snapshotLimit),
+                UInt256::fromBytes));
+  }
+
+  @Override
+  public MutableWorldState copy() {
+    final BonsaiWorldStateKeyValueStorage worldStateStorage =
+        ((BonsaiPersistedWorldState) archive.getMutable()).getWorldStateStorage();
+    return new BonsaiInMemoryWorldState(
+        archive,
+        new BonsaiInMemoryWorldStateKeyValueStorage(
+            worldStateStorage.accountStorage,
+            worldStateStorage.codeStorage,
+            worldStateStorage.storageStorage,
+            worldStateStorage.trieBranchStorage,
+            worldStateStorage.trieLogStorage));
+  }
+
+  @Override
+  public void persist(final BlockHeader blockHeader) {
+    throw new UnsupportedOperationException("Snapshot worldState can not be persisted.");
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      snapshot.unsubscribe();
+    }
+  }
+
+  @Override
+  public WorldUpdater updater() {
+    return new BonsaiWorldStateUpdater(this);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The flat state and trie branches of a Bonsai world state as they were when the snapshot was
+ * taken, unaffected by the blocks persisted afterwards. Trie logs are read from the live storage,
+ * they are only ever added for new blocks.
+ *
+ * <p>A snapshot is shared by all the views of the world state taken while the persisted state is
+ * at the same block. Each view subscribes to the snapshot, which is released once it is closed and
+ * all of its views have unsubscribed.
+ */
+public class BonsaiSnapshotWorldStateKeyValueStorage extends BonsaiWorldStateKeyValueStorage
+    implements AutoCloseable {
+
+  private final List<KeyValueStorage> snapshots;
+  private int subscribers = 0;
+  private boolean closed = false;
+  private boolean released = false;
+
+  private BonsaiSnapshotWorldStateKeyValueStorage(
+      final KeyValueStorage accountStorage,
+      final KeyValueStorage codeStorage,
+      final KeyValueStorage storageStorage,
+      final KeyValueStorage trieBranchStorage,
+      final KeyValueStorage trieLogStorage,
+      final TrieNodeCache trieNodeCache) {
+    super(
+        accountStorage,
+        codeStorage,
+        storageStorage,
+        trieBranchStorage,
+        trieLogStorage,
+        trieNodeCache);
+    snapshots = List.of(accountStorage, codeStorage, storageStorage, trieBranchStorage);
+  }
+
+  /**
+   * Takes a snapshot of the given world state storage. The caller is responsible for not
+   * persisting the world state while the snapshot is being taken, so that all of its segments
+   * reflect the same state.
+   *
+   * @param worldStateStorage the storage of the persisted world state
+   * @return the snapshot, or empty if the underlying storage does not support snapshots
+   */
+  static Optional<BonsaiSnapshotWorldStateKeyValueStorage> create(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage) {
+    final List<KeyValueStorage> snapshots = new ArrayList<>(4);
+    for (final KeyValueStorage storage :
+        List.of(
+            worldStateStorage.accountStorage,
+            worldStateStorage.codeStorage,
+            worldStateStorage.storageStorage,
+            worldStateStorage.trieBranchStorage)) {
+      final Optional<KeyValueStorage> snapshot = storage.takeSnapshot();
+      if (snapshot.isEmpty()) {
+        snapshots.forEach(BonsaiSnapshotWorldStateKeyValueStorage::closeSnapshot);
+        return Optional.empty();
+      }
+      snapshots.add(snapshot.get());
+    }
+    return Optional.of(
+        new BonsaiSnapshotWorldStateKeyValueStorage(
+            snapshots.get(0),
+            snapshots.get(1),
+            snapshots.get(2),
+            snapshots.get(3),
+            worldStateStorage.trieLogStorage,
+            worldStateStorage.trieNodeCache));
+  }
+
+  @Override
+  public Updater updater() {
+    throw new UnsupportedOperationException("Snapshots of the world state are read-only");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("Snapshots of the world state are read-only");
+  }
+
+  /**
+   * Keeps the snapshot open until {@link #unsubscribe()} is called.
+   *
+   * @throws IllegalStateException if the snapshot is already closed
+   */
+  synchronized void subscribe() {
+    checkState(!closed, "The snapshot of the world state is closed");
+    subscribers++;
+  }
+
+  /** Releases the snapshot if it is closed and this was its last subscriber. */
+  synchronized void unsubscribe() {
+    checkState(subscribers > 0, "The snapshot of the world state has no subscribers");
+    subscribers--;
+    releaseIfUnused();
+  }
+
+  /** Releases the snapshots of the flat state and trie branches once they have no subscribers. */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    releaseIfUnused();
+  }
+
+  private void releaseIfUnused() {
+    if (closed && subscribers == 0 && !released) {
+      released = true;
+      snapshots.forEach(BonsaiSnapshotWorldStateKeyValueStorage::closeSnapshot);
+    }
+  }
+
+  private static void closeSnapshot(final KeyValueStorage snapshot) {
+    try {
+      snapshot.close();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
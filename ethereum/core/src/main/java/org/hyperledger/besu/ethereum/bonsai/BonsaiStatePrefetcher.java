@@ -0,0 +1,254 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.core.AccessListEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.io.Closeable;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Warms the state a block is likely to touch before the block gets executed.
+ *
+ * <p>The accounts of the senders, recipients and access lists of the transactions, the code of the
+ * recipients, the storage slots of the access lists and the accounts and slots changed by the
+ * parent block are read concurrently from the flat database into a {@link PrefetchedState}. The
+ * persisted world state consults it before reading the database itself, a miss simply falls back
+ * to the database so that block execution never waits for the prefetch.
+ */
+public class BonsaiStatePrefetcher implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ExecutorService executorService;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+  private final Counter savedReadNanosCounter;
+
+  public BonsaiStatePrefetcher(final MetricsSystem metricsSystem, final int threads) {
+    this(metricsSystem, createExecutorService(threads));
+  }
+
+  @VisibleForTesting
+  BonsaiStatePrefetcher(final MetricsSystem metricsSystem, final ExecutorService executorService) {
+    this.executorService = executorService;
+    hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "state_prefetch_hits_total",
+            "Total number of state reads served by the block state prefetch");
+    missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "state_prefetch_misses_total",
+            "Total number of state reads not served by the block state prefetch");
+    savedReadNanosCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "state_prefetch_saved_read_nanoseconds_total",
+            "Total time spent by the block state prefetch on reads later served from it");
+  }
+
+  private static ExecutorService createExecutorService(final int threads) {
+    checkArgument(threads > 0, "number of threads must be positive");
+    return Executors.newFixedThreadPool(
+        threads,
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat(BonsaiStatePrefetcher.class.getSimpleName() + "-%d")
+            .build());
+  }
+
+  /**
+   * Starts reading the state touched by a block in the background.
+   *
+   * @param worldStateStorage the storage of the world state the block is executed on
+   * @param block the block about to be executed
+   * @param parentTrieLog the trie log of the parent block, if known
+   * @return the prefetched state, filled in as the reads complete
+   */
+  PrefetchedState prefetch(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final Block block,
+      final Optional<TrieLogLayer> parentTrieLog) {
+    final PrefetchedState prefetchedState = new PrefetchedState();
+    final Map<Address, Set<Hash>> slotsByAccount = new LinkedHashMap<>();
+    final Set<Address> contracts = new HashSet<>();
+
+    slotsByAccount.put(block.getHeader().getCoinbase(), new HashSet<>());
+    for (final Transaction transaction : block.getBody().getTransactions()) {
+      slotsByAccount.computeIfAbsent(transaction.getSender(), __ -> new HashSet<>());
+      transaction
+          .getTo()
+          .ifPresent(
+              to -> {
+                slotsByAccount.computeIfAbsent(to, __ -> new HashSet<>());
+                contracts.add(to);
+              });
+      for (final AccessListEntry entry : transaction.getAccessList().orElse(List.of())) {
+        final Set<Hash> slots =
+            slotsByAccount.computeIfAbsent(entry.getAddress(), __ -> new HashSet<>());
+        entry.getStorageKeys().forEach(key -> slots.add(Hash.hash(key)));
+      }
+    }
+    parentTrieLog.ifPresent(
+        trieLog -> {
+          trieLog
+              .streamAccountChanges()
+              .forEach(
+                  change -> slotsByAccount.computeIfAbsent(change.getKey(), __ -> new HashSet<>()));
+          trieLog
+              .streamStorageChanges()
+              .forEach(
+                  change ->
+                      slotsByAccount
+                          .computeIfAbsent(change.getKey(), __ -> new HashSet<>())
+                          .addAll(change.getValue().keySet()));
+        });
+
+    slotsByAccount.forEach(
+        (address, slots) -> {
+          final Hash accountHash = Hash.hash(address);
+          final boolean readCode = contracts.contains(address);
+          executorService.execute(
+              () -> {
+                prefetchedState.load(
+                    prefetchedState.accounts,
+                    accountHash,
+                    () -> worldStateStorage.getAccount(accountHash));
+                if (readCode) {
+                  prefetchedState.load(
+                      prefetchedState.code,
+                      accountHash,
+                      () -> worldStateStorage.getCode(null, accountHash));
+                }
+                for (final Hash slotHash : slots) {
+                  prefetchedState.load(
+                      prefetchedState.storage,
+                      Bytes.concatenate(accountHash, slotHash),
+                      () -> worldStateStorage.getStorageValueBySlotHash(accountHash, slotHash));
+                }
+              });
+        });
+    LOG.trace(
+        "Prefetching state of {} accounts for block {}",
+        slotsByAccount.size(),
+        block.getHeader().getNumber());
+    return prefetchedState;
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  /**
+   * The state read ahead of the execution of one block. It is only valid as long as the world
+   * state storage it was read from is not updated, and must be closed before that happens.
+   */
+  class PrefetchedState {
+
+    private final Map<Bytes, PrefetchedRead> accounts = new ConcurrentHashMap<>();
+    private final Map<Bytes, PrefetchedRead> code = new ConcurrentHashMap<>();
+    private final Map<Bytes, PrefetchedRead> storage = new ConcurrentHashMap<>();
+    private volatile boolean closed = false;
+
+    private PrefetchedState() {}
+
+    private void load(
+        final Map<Bytes, PrefetchedRead> reads,
+        final Bytes key,
+        final Supplier<Optional<Bytes>> loader) {
+      if (closed) {
+        return;
+      }
+      final long start = System.nanoTime();
+      final Optional<Bytes> value = loader.get();
+      reads.putIfAbsent(key, new PrefetchedRead(value, System.nanoTime() - start));
+    }
+
+    Optional<Bytes> getAccount(
+        final Hash accountHash, final Supplier<Optional<Bytes>> worldStateReader) {
+      return get(accounts, accountHash, worldStateReader);
+    }
+
+    Optional<Bytes> getCode(
+        final Hash accountHash, final Supplier<Optional<Bytes>> worldStateReader) {
+      return get(code, accountHash, worldStateReader);
+    }
+
+    Optional<Bytes> getStorageValueBySlotHash(
+        final Hash accountHash,
+        final Hash slotHash,
+        final Supplier<Optional<Bytes>> worldStateReader) {
+      return get(storage, Bytes.concatenate(accountHash, slotHash), worldStateReader);
+    }
+
+    private Optional<Bytes> get(
+        final Map<Bytes, PrefetchedRead> reads,
+        final Bytes key,
+        final Supplier<Optional<Bytes>> worldStateReader) {
+      final PrefetchedRead read = closed ? null : reads.get(key);
+      if (read == null) {
+        missCounter.inc();
+        return worldStateReader.get();
+      }
+      hitCounter.inc();
+      savedReadNanosCounter.inc(read.readNanos);
+      return read.value;
+    }
+
+    /** Stops the reads still pending and stops serving the state read so far. */
+    void close() {
+      closed = true;
+    }
+  }
+
+  private static class PrefetchedRead {
+    private final Optional<Bytes> value;
+    private final long readNanos;
+
+    private PrefetchedRead(final Optional<Bytes> value, final long readNanos) {
+      this.value = value;
+      this.readNanos = readNanos;
+    }
+  }
+}
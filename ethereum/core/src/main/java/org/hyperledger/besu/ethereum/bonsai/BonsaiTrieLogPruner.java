@@ -0,0 +1,300 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Removes the trie logs of the blocks older than a window of recent blocks.
+ *
+ * <p>The trie logs of the canonical blocks and of the fork blocks added since the pruner started
+ * are removed in the background, in batches of consecutive block numbers separated by a pause so
+ * that pruning does not compete with block import. The block number the trie logs have been pruned
+ * up to is stored along with the world state, so pruning resumes where it stopped after a restart.
+ * The trie logs of fork blocks added before the pruner started are only removed by {@link
+ * #pruneAll()}, which scans the whole trie log storage.
+ *
+ * <p>The window is never shorter than the layers kept in memory by the archive, whose trie logs
+ * may be read back from the storage.
+ */
+public class BonsaiTrieLogPruner implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  public static final int DEFAULT_BATCH_SIZE = 1_000;
+  private static final long DEFAULT_BATCH_DELAY_MILLIS = 100;
+
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage;
+  private final Blockchain blockchain;
+  private final long blocksRetained;
+  private final int batchSize;
+  private final long batchDelayMillis;
+  private final ExecutorService executorService;
+
+  // the blocks added since the pruner started, to also prune those that are no longer canonical
+  private final TreeMap<Long, Set<Hash>> addedBlocksByNumber = new TreeMap<>();
+  private final AtomicBoolean pruning = new AtomicBoolean(false);
+  private volatile long prunedBlockNumber;
+  private Long blockAddedObserverId;
+
+  private final Counter prunedTrieLogsCounter;
+  private final Counter reclaimedBytesCounter;
+
+  public BonsaiTrieLogPruner(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final Blockchain blockchain,
+      final long blocksRetained,
+      final MetricsSystem metricsSystem) {
+    this(
+        worldStateStorage,
+        blockchain,
+        blocksRetained,
+        DEFAULT_BATCH_SIZE,
+        DEFAULT_BATCH_DELAY_MILLIS,
+        metricsSystem,
+        new ThreadPoolExecutor(
+            0,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("TrieLogPruning-%d")
+                .build()));
+  }
+
+  @VisibleForTesting
+  BonsaiTrieLogPruner(
+      final BonsaiWorldStateKeyValueStorage worldStateStorage,
+      final Blockchain blockchain,
+      final long blocksRetained,
+      final int batchSize,
+      final long batchDelayMillis,
+      final MetricsSystem metricsSystem,
+      final ExecutorService executorService) {
+    checkArgument(
+        blocksRetained >= BonsaiWorldStateArchive.RETAINED_LAYERS,
+        "at least %s blocks must be retained",
+        BonsaiWorldStateArchive.RETAINED_LAYERS);
+    checkArgument(batchSize > 0, "batch size must be positive");
+    this.worldStateStorage = worldStateStorage;
+    this.blockchain = blockchain;
+    this.blocksRetained = blocksRetained;
+    this.batchSize = batchSize;
+    this.batchDelayMillis = batchDelayMillis;
+    this.executorService = executorService;
+    this.prunedBlockNumber = worldStateStorage.getTrieLogPrunedBlockNumber();
+
+    prunedTrieLogsCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.PRUNER,
+            "trie_logs_pruned_total",
+            "Total number of Bonsai trie logs removed");
+    reclaimedBytesCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.PRUNER,
+            "trie_log_reclaimed_bytes_total",
+            "Total number of bytes of the Bonsai trie logs removed");
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.PRUNER,
+        "trie_log_pruned_block_number",
+        "Number of the block the Bonsai trie logs have been pruned up to",
+        () -> prunedBlockNumber);
+  }
+
+  public void start() {
+    LOG.info(
+        "Starting trie log pruner, retaining {} blocks from block {}",
+        blocksRetained,
+        prunedBlockNumber);
+    blockAddedObserverId = blockchain.observeBlockAdded(this::handleNewBlock);
+  }
+
+  public void stop() {
+    if (blockAddedObserverId != null) {
+      LOG.info("Stopping trie log pruner.");
+      blockchain.removeObserver(blockAddedObserverId);
+      blockAddedObserverId = null;
+    }
+    executorService.shutdownNow();
+  }
+
+  @Override
+  public void close() {
+    stop();
+    try {
+      if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+        LOG.error("Failed to shutdown trie log pruner executor service.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void handleNewBlock(final BlockAddedEvent event) {
+    final BlockHeader header = event.getBlock().getHeader();
+    synchronized (addedBlocksByNumber) {
+      if (header.getNumber() >= prunedBlockNumber) {
+        addedBlocksByNumber
+            .computeIfAbsent(header.getNumber(), __ -> new HashSet<>())
+            .add(header.getHash());
+      }
+    }
+    if (event.isNewCanonicalHead()
+        && waterline() - prunedBlockNumber >= batchSize
+        && pruning.compareAndSet(false, true)) {
+      executorService.execute(this::pruneInBatches);
+    }
+  }
+
+  /**
+   * Returns the number of the oldest block whose trie log is retained, the trie log of the block
+   * the persisted state is at being always retained.
+   */
+  private long waterline() {
+    final long persistedBlockNumber =
+        worldStateStorage
+            .getWorldStateBlockHash()
+            .map(Bytes32::wrap)
+            .map(Hash::wrap)
+            .flatMap(blockchain::getBlockHeader)
+            .map(BlockHeader::getNumber)
+            .orElse(0L);
+    return Math.min(blockchain.getChainHeadBlockNumber(), persistedBlockNumber) - blocksRetained;
+  }
+
+  private void pruneInBatches() {
+    try {
+      final long waterline = waterline();
+      while (prunedBlockNumber < waterline && !Thread.currentThread().isInterrupted()) {
+        pruneBatch(Math.min(prunedBlockNumber + batchSize, waterline));
+        if (prunedBlockNumber < waterline) {
+          Thread.sleep(batchDelayMillis);
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final RuntimeException e) {
+      LOG.error("Unable to prune trie logs, retrying on the next block.", e);
+    } finally {
+      pruning.set(false);
+    }
+  }
+
+  private void pruneBatch(final long endBlockNumber) {
+    final Set<Hash> blockHashes = new LinkedHashSet<>();
+    synchronized (addedBlocksByNumber) {
+      final Map<Long, Set<Hash>> addedBlocks = addedBlocksByNumber.headMap(endBlockNumber);
+      addedBlocks.values().forEach(blockHashes::addAll);
+      addedBlocks.clear();
+    }
+    for (long number = prunedBlockNumber; number < endBlockNumber; number++) {
+      blockchain.getBlockHashByNumber(number).ifPresent(blockHashes::add);
+    }
+    remove(blockHashes);
+    worldStateStorage.setTrieLogPrunedBlockNumber(endBlockNumber);
+    prunedBlockNumber = endBlockNumber;
+    LOG.debug("Pruned trie logs up to block {}", endBlockNumber);
+  }
+
+  /**
+   * Removes the trie logs of all the blocks older than the retained window, whether canonical or
+   * not, along with the trie logs of unknown blocks. It is meant to be run on a database not in use
+   * by a running node.
+   *
+   * @return the number of trie logs removed
+   */
+  public long pruneAll() {
+    final long waterline = waterline();
+    final List<Hash> batch = new ArrayList<>(batchSize);
+    long pruned = 0;
+    try (final Stream<Hash> blockHashes = worldStateStorage.streamTrieLogBlockHashes()) {
+      final Iterator<Hash> iterator = blockHashes.iterator();
+      while (iterator.hasNext()) {
+        final Hash blockHash = iterator.next();
+        final Optional<BlockHeader> header = blockchain.getBlockHeader(blockHash);
+        if (header.isEmpty() || header.get().getNumber() < waterline) {
+          batch.add(blockHash);
+        }
+        if (batch.size() == batchSize || (!iterator.hasNext() && !batch.isEmpty())) {
+          pruned += remove(batch);
+          batch.clear();
+        }
+      }
+    }
+    if (waterline > prunedBlockNumber) {
+      worldStateStorage.setTrieLogPrunedBlockNumber(waterline);
+      prunedBlockNumber = waterline;
+    }
+    LOG.info("Pruned {} trie logs of the blocks before block {}", pruned, waterline);
+    return pruned;
+  }
+
+  private long remove(final Collection<Hash> blockHashes) {
+    final List<Hash> removed = new ArrayList<>(blockHashes.size());
+    long reclaimedBytes = 0;
+    for (final Hash blockHash : blockHashes) {
+      final Optional<byte[]> trieLog = worldStateStorage.getTrieLog(blockHash);
+      if (trieLog.isPresent()) {
+        removed.add(blockHash);
+        reclaimedBytes += Bytes32.SIZE + trieLog.get().length;
+      }
+    }
+    worldStateStorage.removeTrieLogs(removed);
+    prunedTrieLogsCounter.inc(removed.size());
+    reclaimedBytesCounter.inc(reclaimedBytes);
+    return removed.size();
+  }
+
+  long getPrunedBlockNumber() {
+    return prunedBlockNumber;
+  }
+}
@@ -18,19 +18,26 @@ package org.hyperledger.besu.ethereum.bonsai;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.WorldState;
 import org.hyperledger.besu.ethereum.proof.WorldStateProof;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageConfiguration;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,60 +49,67 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private static final long RETAINED_LAYERS = 512; // at least 256 + typical rollbacks
+  static final long RETAINED_LAYERS = 512; // at least 256 + typical rollbacks
 
   private final Blockchain blockchain;
 
   private final BonsaiPersistedWorldState persistedState;
-  private final Map<Bytes32, BonsaiLayeredWorldState> layeredWorldStatesByHash;
+  private final BonsaiLayerCache layerCache;
   private final BonsaiWorldStateKeyValueStorage worldStateStorage;
   private final long maxLayersToLoad;
+  private final Optional<BonsaiStatePrefetcher> statePrefetcher;
+  private final ForkJoinPool trieHashingPool;
+  private Optional<BonsaiSnapshotWorldStateKeyValueStorage> headSnapshot = Optional.empty();
 
   public BonsaiWorldStateArchive(final StorageProvider provider, final Blockchain blockchain) {
-    this(provider, blockchain, RETAINED_LAYERS, new HashMap<>());
+    this(builder(provider, blockchain));
   }
 
-  public BonsaiWorldStateArchive(
-      final StorageProvider provider, final Blockchain blockchain, final long maxLayersToLoad) {
-    this(provider, blockchain, maxLayersToLoad, new HashMap<>());
-  }
-
-  public BonsaiWorldStateArchive(
-      final StorageProvider provider,
-      final Blockchain blockchain,
-      final long maxLayersToLoad,
-      final Map<Bytes32, BonsaiLayeredWorldState> layeredWorldStatesByHash) {
-    this.blockchain = blockchain;
+  private BonsaiWorldStateArchive(final Builder builder) {
+    this.blockchain = builder.blockchain;
+    this.trieHashingPool = builder.trieHashingPool;
 
-    this.worldStateStorage = new BonsaiWorldStateKeyValueStorage(provider);
+    this.worldStateStorage =
+        new BonsaiWorldStateKeyValueStorage(builder.provider, builder.trieNodeCache);
     this.persistedState = new BonsaiPersistedWorldState(this, worldStateStorage);
-    this.layeredWorldStatesByHash = layeredWorldStatesByHash;
-    this.maxLayersToLoad = maxLayersToLoad;
+    this.layerCache =
+        new BonsaiLayerCache(
+            builder.layeredWorldStatesByHash,
+            worldStateStorage,
+            builder.layerCacheCapacity,
+            builder.metricsSystem);
+    this.maxLayersToLoad = builder.maxLayersToLoad;
+    this.statePrefetcher = builder.statePrefetcher;
     blockchain.observeBlockAdded(
         event -> {
           if (event.isNewCanonicalHead()) {
             final BlockHeader eventBlockHeader = event.getBlock().getHeader();
-            layeredWorldStatesByHash.computeIfPresent(
-                eventBlockHeader.getParentHash(),
-                (hash, bonsaiLayeredWorldState) -> {
-                  if (layeredWorldStatesByHash.containsKey(eventBlockHeader.getHash())) {
-                    bonsaiLayeredWorldState.setNextWorldView(
-                        Optional.of(layeredWorldStatesByHash.get(eventBlockHeader.getHash())));
-                  }
-                  return bonsaiLayeredWorldState;
-                });
+            layerCache.link(eventBlockHeader.getParentHash(), eventBlockHeader.getHash());
           }
         });
   }
 
+  ForkJoinPool getTrieHashingPool() {
+    return trieHashingPool;
+  }
+
+  public static Builder builder(final StorageProvider provider, final Blockchain blockchain) {
+    return new Builder(provider, blockchain);
+  }
+
   @Override
   public Optional<WorldState> get(final Hash rootHash, final Hash blockHash) {
-    if (layeredWorldStatesByHash.containsKey(blockHash)) {
-      return Optional.of(layeredWorldStatesByHash.get(blockHash));
+    final Optional<BonsaiLayeredWorldState> layeredWorldState = layerCache.get(blockHash);
+    if (layeredWorldState.isPresent()) {
+      return Optional.of(layeredWorldState.get());
     } else if (rootHash.equals(persistedState.blockHash())) {
       return Optional.of(persistedState);
     } else {
-      return Optional.empty();
+      return blockchain
+          .getBlockHeader(blockHash)
+          .filter(header -> header.getStateRoot().equals(rootHash))
+          .flatMap(this::getSnapshotWorldState)
+          .map(WorldState.class::cast);
     }
   }
 
@@ -112,20 +126,31 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
             blockHeader.getNumber(),
             worldStateRootHash,
             trieLog);
-    layeredWorldStatesByHash.put(bonsaiLayeredWorldState.blockHash(), bonsaiLayeredWorldState);
+    layerCache.put(bonsaiLayeredWorldState);
   }
 
   public Optional<TrieLogLayer> getTrieLogLayer(final Hash blockHash) {
-    if (layeredWorldStatesByHash.containsKey(blockHash)) {
-      return Optional.of(layeredWorldStatesByHash.get(blockHash).getTrieLog());
+    final Optional<BonsaiLayeredWorldState> layeredWorldState = layerCache.get(blockHash);
+    if (layeredWorldState.isPresent()) {
+      return Optional.of(layeredWorldState.get().getTrieLog());
     } else {
       return worldStateStorage.getTrieLog(blockHash).map(TrieLogLayer::fromBytes);
     }
   }
 
+  /**
+   * Reads back the changes of a layered world state spilled out of memory by the layer cache.
+   *
+   * @param layeredWorldState the spilled layered world state
+   * @return the changes of the layered world state
+   */
+  TrieLogLayer rehydrateTrieLog(final BonsaiLayeredWorldState layeredWorldState) {
+    return layerCache.rehydrate(layeredWorldState);
+  }
+
   @Override
   public boolean isWorldStateAvailable(final Hash rootHash, final Hash blockHash) {
-    return layeredWorldStatesByHash.containsKey(blockHash)
+    return layerCache.contains(blockHash)
         || persistedState.blockHash().equals(blockHash)
         || worldStateStorage.isWorldStateAvailable(rootHash, blockHash);
   }
@@ -144,8 +169,9 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
   public Optional<MutableWorldState> getMutable(
       final Hash rootHash, final Hash blockHash, final boolean isPersistingState) {
     if (!isPersistingState) {
-      if (layeredWorldStatesByHash.containsKey(blockHash)) {
-        return Optional.of(layeredWorldStatesByHash.get(blockHash));
+      final Optional<BonsaiLayeredWorldState> layeredWorldState = layerCache.get(blockHash);
+      if (layeredWorldState.isPresent()) {
+        return Optional.of(layeredWorldState.get());
       } else {
         final BlockHeader header = blockchain.getBlockHeader(blockHash).get();
         final BlockHeader currentHeader = blockchain.getChainHeadHeader();
@@ -153,6 +179,11 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
           LOG.warn("Exceeded the limit of back layers that can be loaded ({})", maxLayersToLoad);
           return Optional.empty();
         }
+        final Optional<BonsaiSnapshotWorldState> snapshotWorldState =
+            getSnapshotWorldState(header);
+        if (snapshotWorldState.isPresent()) {
+          return Optional.of(snapshotWorldState.get());
+        }
         final Optional<TrieLogLayer> trieLogLayer = getTrieLogLayer(blockHash);
         if (trieLogLayer.isPresent()) {
           return Optional.of(
@@ -186,31 +217,11 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
         if (maybePersistedHeader.isEmpty()) {
           getTrieLogLayer(persistedState.blockHash()).ifPresent(rollBacks::add);
         } else {
-          BlockHeader targetHeader = blockchain.getBlockHeader(blockHash).get();
-          BlockHeader persistedHeader = maybePersistedHeader.get();
-          // roll back from persisted to even with target
-          while (persistedHeader.getNumber() > targetHeader.getNumber()) {
-            LOG.debug("Rollback {}", persistedHeader.getHash());
-            rollBacks.add(getTrieLogLayer(persistedHeader.getHash()).get());
-            persistedHeader = blockchain.getBlockHeader(persistedHeader.getParentHash()).get();
-          }
-          // roll forward to target
-          while (persistedHeader.getNumber() < targetHeader.getNumber()) {
-            LOG.debug("Rollforward {}", targetHeader.getHash());
-            rollForwards.add(getTrieLogLayer(targetHeader.getHash()).get());
-            targetHeader = blockchain.getBlockHeader(targetHeader.getParentHash()).get();
-          }
-
-          // roll back in tandem until we hit a shared state
-          while (!persistedHeader.getHash().equals(targetHeader.getHash())) {
-            LOG.debug("Paired Rollback {}", persistedHeader.getHash());
-            LOG.debug("Paired Rollforward {}", targetHeader.getHash());
-            rollForwards.add(getTrieLogLayer(targetHeader.getHash()).get());
-            targetHeader = blockchain.getBlockHeader(targetHeader.getParentHash()).get();
-
-            rollBacks.add(getTrieLogLayer(persistedHeader.getHash()).get());
-            persistedHeader = blockchain.getBlockHeader(persistedHeader.getParentHash()).get();
-          }
+          collectTrieLogs(
+              maybePersistedHeader.get(),
+              blockchain.getBlockHeader(blockHash).get(),
+              rollBacks,
+              rollForwards);
         }
 
         // attempt the state rolling
@@ -243,11 +254,178 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
     }
   }
 
+  /**
+   * Collects the trie logs to roll the world state from one block to another.
+   *
+   * @param persistedHeader the header of the block the world state is at
+   * @param targetHeader the header of the block to move the world state to
+   * @param rollBacks receives the trie logs to roll back, from the newest to the oldest
+   * @param rollForwards receives the trie logs to roll forward, from the newest to the oldest
+   * @throws NoSuchElementException if a header or a trie log is missing
+   */
+  private void collectTrieLogs(
+      final BlockHeader persistedHeader,
+      final BlockHeader targetHeader,
+      final List<TrieLogLayer> rollBacks,
+      final List<TrieLogLayer> rollForwards) {
+    BlockHeader fromHeader = persistedHeader;
+    BlockHeader toHeader = targetHeader;
+    // roll back from persisted to even with target
+    while (fromHeader.getNumber() > toHeader.getNumber()) {
+      LOG.debug("Rollback {}", fromHeader.getHash());
+      rollBacks.add(getTrieLogLayer(fromHeader.getHash()).get());
+      fromHeader = blockchain.getBlockHeader(fromHeader.getParentHash()).get();
+    }
+    // roll forward to target
+    while (fromHeader.getNumber() < toHeader.getNumber()) {
+      LOG.debug("Rollforward {}", toHeader.getHash());
+      rollForwards.add(getTrieLogLayer(toHeader.getHash()).get());
+      toHeader = blockchain.getBlockHeader(toHeader.getParentHash()).get();
+    }
+
+    // roll back in tandem until we hit a shared state
+    while (!fromHeader.getHash().equals(toHeader.getHash())) {
+      LOG.debug("Paired Rollback {}", fromHeader.getHash());
+      LOG.debug("Paired Rollforward {}", toHeader.getHash());
+      rollForwards.add(getTrieLogLayer(toHeader.getHash()).get());
+      toHeader = blockchain.getBlockHeader(toHeader.getParentHash()).get();
+
+      rollBacks.add(getTrieLogLayer(fromHeader.getHash()).get());
+      fromHeader = blockchain.getBlockHeader(fromHeader.getParentHash()).get();
+    }
+  }
+
+  /**
+   * Creates a read-only view of the world state at a block from a snapshot of the persisted state,
+   * without moving the persisted state.
+   *
+   * @param blockHeader the header of the block to view the world state at
+   * @return the view, which must be closed once no longer used, or empty if the storage does not
+   *     support snapshots or if the trie logs needed to reach the block are not available
+   */
+  Optional<BonsaiSnapshotWorldState> getSnapshotWorldState(final BlockHeader blockHeader) {
+    final Optional<BonsaiSnapshotWorldStateKeyValueStorage> maybeSnapshot = subscribeHeadSnapshot();
+    if (maybeSnapshot.isEmpty()) {
+      return Optional.empty();
+    }
+    Optional<BonsaiSnapshotWorldState> snapshotWorldState = Optional.empty();
+    try {
+      snapshotWorldState = createSnapshotWorldState(maybeSnapshot.get(), blockHeader);
+      return snapshotWorldState;
+    } finally {
+      // the subscription is handed over to the view, if any
+      if (snapshotWorldState.isEmpty()) {
+        maybeSnapshot.get().unsubscribe();
+      }
+    }
+  }
+
+  private Optional<BonsaiSnapshotWorldState> createSnapshotWorldState(
+      final BonsaiSnapshotWorldStateKeyValueStorage snapshot, final BlockHeader blockHeader) {
+    final Optional<BlockHeader> snapshotHeader =
+        snapshot
+            .getWorldStateBlockHash()
+            .map(Bytes32::wrap)
+            .map(Hash::wrap)
+            .flatMap(blockchain::getBlockHeader);
+    if (snapshotHeader.isEmpty()) {
+      return Optional.empty();
+    }
+
+    final List<TrieLogLayer> rollBacks = new ArrayList<>();
+    final List<TrieLogLayer> rollForwards = new ArrayList<>();
+    try {
+      collectTrieLogs(snapshotHeader.get(), blockHeader, rollBacks, rollForwards);
+    } catch (final NoSuchElementException e) {
+      LOG.debug("Unable to reach the world state of block {}", blockHeader.getHash());
+      return Optional.empty();
+    }
+    if (rollBacks.size() + rollForwards.size() > maxLayersToLoad) {
+      LOG.warn("Exceeded the limit of back layers that can be loaded ({})", maxLayersToLoad);
+      return Optional.empty();
+    }
+    return Optional.of(
+        new BonsaiSnapshotWorldState(this, snapshot, blockHeader, rollBacks, rollForwards));
+  }
+
+  /**
+   * Subscribes to a snapshot of the persisted state, shared with the other views taken while the
+   * persisted state is at the same block. The snapshot of an earlier block is closed when it is
+   * replaced, and released once the views subscribed to it are closed.
+   */
+  private synchronized Optional<BonsaiSnapshotWorldStateKeyValueStorage> subscribeHeadSnapshot() {
+    final Optional<Bytes> snapshotBlockHash =
+        headSnapshot.flatMap(BonsaiWorldStateKeyValueStorage::getWorldStateBlockHash);
+    if (snapshotBlockHash.isEmpty()
+        || !snapshotBlockHash.get().equals(persistedState.blockHash())) {
+      headSnapshot.ifPresent(BonsaiSnapshotWorldStateKeyValueStorage::close);
+      headSnapshot = persistedState.takeSnapshot();
+    }
+    headSnapshot.ifPresent(BonsaiSnapshotWorldStateKeyValueStorage::subscribe);
+    return headSnapshot;
+  }
+
+  /**
+   * Returns the world state of a block as the persisted state or as its trie log layered over the
+   * world state of the following block. Unlike snapshot views, these hold no resources, so the
+   * layered world states can keep them as the view they are layered on.
+   *
+   * @param blockHash the hash of the block
+   * @return the world state, or empty if the trie log of the block is not available
+   */
+  Optional<BonsaiWorldView> getLayeredWorldView(final Hash blockHash) {
+    if (blockHash.equals(persistedState.blockHash())) {
+      return Optional.of(persistedState);
+    }
+    final Optional<BonsaiLayeredWorldState> layeredWorldState = layerCache.get(blockHash);
+    if (layeredWorldState.isPresent()) {
+      return Optional.of(layeredWorldState.get());
+    }
+    return blockchain
+        .getBlockHeader(blockHash)
+        .flatMap(
+            header ->
+                getTrieLogLayer(blockHash)
+                    .map(
+                        trieLogLayer ->
+                            new BonsaiLayeredWorldState(
+                                blockchain,
+                                this,
+                                Optional.empty(),
+                                header.getNumber(),
+                                header.getStateRoot(),
+                                trieLogLayer)));
+  }
+
   @Override
   public MutableWorldState getMutable() {
     return persistedState;
   }
 
+  public BonsaiWorldStateKeyValueStorage getWorldStateStorage() {
+    return worldStateStorage;
+  }
+
+  @Override
+  public void prefetch(final MutableWorldState worldState, final Block block) {
+    // layered world states are kept in memory, only the persisted state reads the database
+    if (worldState != persistedState || statePrefetcher.isEmpty()) {
+      return;
+    }
+    persistedState.usePrefetchedState(
+        statePrefetcher
+            .get()
+            .prefetch(
+                worldStateStorage, block, getTrieLogLayer(block.getHeader().getParentHash())));
+  }
+
+  @Override
+  public void discardPrefetchedState(final MutableWorldState worldState) {
+    if (worldState == persistedState) {
+      persistedState.discardPrefetchedState();
+    }
+  }
+
   @Override
   public void setArchiveStateUnSafe(final BlockHeader blockHeader) {
     persistedState.setArchiveStateUnSafe(blockHeader);
@@ -269,6 +447,63 @@ public class BonsaiWorldStateArchive implements WorldStateArchive {
 
   void scrubLayeredCache(final long newMaxHeight) {
     final long waterline = newMaxHeight - RETAINED_LAYERS;
-    layeredWorldStatesByHash.entrySet().removeIf(entry -> entry.getValue().getHeight() < waterline);
+    layerCache.scrub(waterline);
+  }
+
+  public static class Builder {
+    private final StorageProvider provider;
+    private final Blockchain blockchain;
+    private long maxLayersToLoad = RETAINED_LAYERS;
+    private Map<Bytes32, BonsaiLayeredWorldState> layeredWorldStatesByHash = new HashMap<>();
+    private Optional<BonsaiStatePrefetcher> statePrefetcher = Optional.empty();
+    private long layerCacheCapacity = DataStorageConfiguration.DEFAULT_BONSAI_LAYER_CACHE_CAPACITY;
+    private TrieNodeCache trieNodeCache = TrieNodeCache.DISABLED;
+    private MetricsSystem metricsSystem = new NoOpMetricsSystem();
+    private ForkJoinPool trieHashingPool = ForkJoinPool.commonPool();
+
+    private Builder(final StorageProvider provider, final Blockchain blockchain) {
+      this.provider = provider;
+      this.blockchain = blockchain;
+    }
+
+    public Builder maxLayersToLoad(final long maxLayersToLoad) {
+      this.maxLayersToLoad = maxLayersToLoad;
+      return this;
+    }
+
+    public Builder layeredWorldStatesByHash(
+        final Map<Bytes32, BonsaiLayeredWorldState> layeredWorldStatesByHash) {
+      this.layeredWorldStatesByHash = layeredWorldStatesByHash;
+      return this;
+    }
+
+    public Builder statePrefetcher(final BonsaiStatePrefetcher statePrefetcher) {
+      this.statePrefetcher = Optional.of(statePrefetcher);
+      return this;
+    }
+
+    public Builder layerCacheCapacity(final long layerCacheCapacity) {
+      this.layerCacheCapacity = layerCacheCapacity;
+      return this;
+    }
+
+    public Builder trieNodeCache(final TrieNodeCache trieNodeCache) {
+      this.trieNodeCache = trieNodeCache;
+      return this;
+    }
+
+    public Builder metricsSystem(final MetricsSystem metricsSystem) {
+      this.metricsSystem = metricsSystem;
+      return this;
+    }
+
+    public Builder trieHashingPool(final ForkJoinPool trieHashingPool) {
+      this.trieHashingPool = trieHashingPool;
+      return this;
+    }
+
+    public BonsaiWorldStateArchive build() {
+      return new BonsaiWorldStateArchive(this);
+    }
   }
 }
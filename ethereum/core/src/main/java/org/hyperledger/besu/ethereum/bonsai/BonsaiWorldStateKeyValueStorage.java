@@ -18,13 +18,19 @@ import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
 import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -36,13 +42,22 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
   public static final byte[] WORLD_BLOCK_HASH_KEY =
       "worldBlockHash".getBytes(StandardCharsets.UTF_8);
 
+  public static final byte[] TRIE_LOG_PRUNED_BLOCK_NUMBER_KEY =
+      "trieLogPrunedBlockNumber".getBytes(StandardCharsets.UTF_8);
+
   protected final KeyValueStorage accountStorage;
   protected final KeyValueStorage codeStorage;
   protected final KeyValueStorage storageStorage;
   protected final KeyValueStorage trieBranchStorage;
   protected final KeyValueStorage trieLogStorage;
+  protected final TrieNodeCache trieNodeCache;
 
   public BonsaiWorldStateKeyValueStorage(final StorageProvider provider) {
+    this(provider, TrieNodeCache.DISABLED);
+  }
+
+  public BonsaiWorldStateKeyValueStorage(
+      final StorageProvider provider, final TrieNodeCache trieNodeCache) {
     accountStorage =
         provider.getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.ACCOUNT_INFO_STATE);
     codeStorage = provider.getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.CODE_STORAGE);
@@ -52,6 +67,7 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
         provider.getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.TRIE_BRANCH_STORAGE);
     trieLogStorage =
         provider.getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.TRIE_LOG_STORAGE);
+    this.trieNodeCache = trieNodeCache;
   }
 
   public BonsaiWorldStateKeyValueStorage(
@@ -60,11 +76,28 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
       final KeyValueStorage storageStorage,
       final KeyValueStorage trieBranchStorage,
       final KeyValueStorage trieLogStorage) {
+    this(
+        accountStorage,
+        codeStorage,
+        storageStorage,
+        trieBranchStorage,
+        trieLogStorage,
+        TrieNodeCache.DISABLED);
+  }
+
+  public BonsaiWorldStateKeyValueStorage(
+      final KeyValueStorage accountStorage,
+      final KeyValueStorage codeStorage,
+      final KeyValueStorage storageStorage,
+      final KeyValueStorage trieBranchStorage,
+      final KeyValueStorage trieLogStorage,
+      final TrieNodeCache trieNodeCache) {
     this.accountStorage = accountStorage;
     this.codeStorage = codeStorage;
     this.storageStorage = storageStorage;
     this.trieBranchStorage = trieBranchStorage;
     this.trieLogStorage = trieLogStorage;
+    this.trieNodeCache = trieNodeCache;
   }
 
   @Override
@@ -87,7 +120,13 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
     if (nodeHash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE);
     } else {
-      return trieBranchStorage.get(location.toArrayUnsafe()).map(Bytes::wrap);
+      return trieNodeCache.getNodeByLocation(
+          Bytes.EMPTY,
+          location,
+          nodeHash,
+          true,
+          (nodeLocation, hash) ->
+              trieBranchStorage.get(nodeLocation.toArrayUnsafe()).map(Bytes::wrap));
     }
   }
 
@@ -97,9 +136,15 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
     if (nodeHash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE);
     } else {
-      return trieBranchStorage
-          .get(Bytes.concatenate(accountHash, location).toArrayUnsafe())
-          .map(Bytes::wrap);
+      return trieNodeCache.getNodeByLocation(
+          accountHash,
+          location,
+          nodeHash,
+          false,
+          (nodeLocation, hash) ->
+              trieBranchStorage
+                  .get(Bytes.concatenate(accountHash, nodeLocation).toArrayUnsafe())
+                  .map(Bytes::wrap));
     }
   }
 
@@ -107,6 +152,40 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
     return trieLogStorage.get(blockHash.toArrayUnsafe());
   }
 
+  public boolean hasTrieLog(final Hash blockHash) {
+    return trieLogStorage.containsKey(blockHash.toArrayUnsafe());
+  }
+
+  public Stream<Hash> streamTrieLogBlockHashes() {
+    return trieLogStorage.streamKeys().map(Bytes32::wrap).map(Hash::wrap);
+  }
+
+  public void removeTrieLogs(final Collection<Hash> blockHashes) {
+    final KeyValueStorageTransaction transaction = trieLogStorage.startWriteBatch();
+    blockHashes.forEach(blockHash -> transaction.remove(blockHash.toArrayUnsafe()));
+    transaction.commit();
+  }
+
+  /**
+   * Returns the number of the block the trie logs have been pruned up to, excluded.
+   *
+   * @return the block number, 0 if the trie logs have never been pruned
+   */
+  public long getTrieLogPrunedBlockNumber() {
+    return trieBranchStorage
+        .get(TRIE_LOG_PRUNED_BLOCK_NUMBER_KEY)
+        .map(Bytes::wrap)
+        .map(Bytes::toLong)
+        .orElse(0L);
+  }
+
+  public void setTrieLogPrunedBlockNumber(final long blockNumber) {
+    final KeyValueStorageTransaction transaction = trieBranchStorage.startTransaction();
+    transaction.put(
+        TRIE_LOG_PRUNED_BLOCK_NUMBER_KEY, Bytes.ofUnsignedLong(blockNumber).toArrayUnsafe());
+    transaction.commit();
+  }
+
   public Optional<Bytes> getStateTrieNode(final Bytes location) {
     return trieBranchStorage.get(location.toArrayUnsafe()).map(Bytes::wrap);
   }
@@ -125,6 +204,54 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
         .map(Bytes::wrap);
   }
 
+  /**
+   * Reads the flat accounts in ascending order of the hashes of their addresses. Accounts are read
+   * with an iterator over the flat database rather than by walking the account trie.
+   *
+   * @param startKeyHash the hash at which to start reading, resume from the hash following the
+   *     last one read to page through the accounts
+   * @param limit the maximum number of accounts to read
+   * @return the RLP encoded accounts, keyed by the hash of their address
+   */
+  public NavigableMap<Bytes32, Bytes> accountEntriesFrom(
+      final Bytes32 startKeyHash, final int limit) {
+    try (final Stream<Map.Entry<byte[], byte[]>> entries =
+        accountStorage.streamFromKey(startKeyHash.toArrayUnsafe())) {
+      return collectEntries(entries, Bytes.EMPTY, limit);
+    }
+  }
+
+  /**
+   * Reads the flat storage of an account in ascending order of the hashes of its slots.
+   *
+   * @param accountHash the hash of the address of the account
+   * @param startKeyHash the slot hash at which to start reading, resume from the hash following
+   *     the last one read to page through the storage
+   * @param limit the maximum number of slots to read
+   * @return the storage values, keyed by the hash of their slot
+   */
+  public NavigableMap<Bytes32, Bytes> storageEntriesFrom(
+      final Hash accountHash, final Bytes32 startKeyHash, final int limit) {
+    try (final Stream<Map.Entry<byte[], byte[]>> entries =
+        storageStorage.streamFromKey(
+            Bytes.concatenate(accountHash, startKeyHash).toArrayUnsafe())) {
+      return collectEntries(entries, accountHash, limit);
+    }
+  }
+
+  private static NavigableMap<Bytes32, Bytes> collectEntries(
+      final Stream<Map.Entry<byte[], byte[]>> entries, final Bytes prefix, final int limit) {
+    final NavigableMap<Bytes32, Bytes> results = new TreeMap<>();
+    entries
+        .map(entry -> Map.entry(Bytes.wrap(entry.getKey()), Bytes.wrap(entry.getValue())))
+        .takeWhile(entry -> entry.getKey().commonPrefixLength(prefix) == prefix.size())
+        .limit(limit)
+        .forEach(
+            entry ->
+                results.put(Bytes32.wrap(entry.getKey().slice(prefix.size())), entry.getValue()));
+    return results;
+  }
+
   @Override
   public Optional<Bytes> getNodeData(final Bytes location, final Bytes32 hash) {
     return Optional.empty();
@@ -147,6 +274,7 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
     storageStorage.clear();
     trieBranchStorage.clear();
     trieLogStorage.clear();
+    trieNodeCache.clear();
   }
 
   @Override
@@ -229,6 +357,9 @@ public class BonsaiWorldStateKeyValueStorage implements WorldStateStorage {
     public WorldStateStorage.Updater saveWorldState(
         final Bytes blockHash, final Bytes32 nodeHash, final Bytes node) {
       trieBranchStorageTransaction.put(Bytes.EMPTY.toArrayUnsafe(), node.toArrayUnsafe());
+      // Mark the downloaded state as the persisted one, so that it is found available.
+      trieBranchStorageTransaction.put(WORLD_ROOT_HASH_KEY, nodeHash.toArrayUnsafe());
+      trieBranchStorageTransaction.put(WORLD_BLOCK_HASH_KEY, blockHash.toArrayUnsafe());
       return this;
     }
 
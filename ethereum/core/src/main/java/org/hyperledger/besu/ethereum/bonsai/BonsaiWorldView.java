@@ -16,13 +16,18 @@
 
 package org.hyperledger.besu.ethereum.bonsai;
 
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.WorldView;
 import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.rlp.RLP;
 
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -50,6 +55,37 @@ public interface BonsaiWorldView extends WorldView {
    */
   Map<Bytes32, Bytes> getAllAccountStorage(Address address, Hash rootHash);
 
+  /**
+   * Retrieve a page of the storage values of an account, in ascending order of the slot hashes.
+   *
+   * @param address the account whose storage to read
+   * @param startKeyHash the slot hash at which to start reading
+   * @param limit the maximum number of storage entries to return
+   * @return the storage entries, keyed by the hash of their slot
+   */
+  default NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Address address, final Bytes32 startKeyHash, final int limit) {
+    final NavigableMap<Bytes32, AccountStorageEntry> storageEntries = new TreeMap<>();
+    final Account account = get(address);
+    if (account == null) {
+      return storageEntries;
+    }
+    final NavigableMap<Bytes32, Bytes> storage =
+        new TreeMap<>(getAllAccountStorage(address, account.getStorageRoot()));
+    // the values of the storage trie are RLP encoded
+    storage.tailMap(startKeyHash, true).entrySet().stream()
+        .limit(limit)
+        .forEach(
+            entry ->
+                storageEntries.put(
+                    entry.getKey(),
+                    AccountStorageEntry.create(
+                        UInt256.fromBytes(RLP.decodeOne(entry.getValue())),
+                        entry.getKey(),
+                        Optional.empty())));
+    return storageEntries;
+  }
+
   static Bytes encodeTrieValue(final Bytes bytes) {
     final BytesValueRLPOutput out = new BytesValueRLPOutput();
     out.writeBytes(bytes.trimLeadingZeros());
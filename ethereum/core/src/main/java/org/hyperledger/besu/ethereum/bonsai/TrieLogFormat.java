@@ -0,0 +1,378 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+
+package org.hyperledger.besu.ethereum.bonsai;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
+import org.hyperledger.besu.ethereum.rlp.RLPException;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.xerial.snappy.Snappy;
+
+/**
+ * The compact binary encoding of trie logs.
+ *
+ * <p>A compact trie log starts with a version byte, which can never be the first byte of a legacy
+ * RLP trie log since those are lists. The addresses changed by the block are written once, sorted,
+ * and the changes refer to them by their index. Lengths and numbers are unsigned varints, values
+ * are stripped of their leading zeros, and the fields of a prior account value equal to the
+ * updated value are omitted. Trie logs larger than {@link #COMPRESSION_THRESHOLD} are compressed
+ * with Snappy when that makes them smaller.
+ *
+ * <p>The layout following the version byte is:
+ *
+ * <pre>
+ * blockHash(32) addressCount addresses(20 each)
+ * accountCount (addressIndex presence account? account?)*
+ * codeCount (addressIndex presence code? code?)*
+ * storageCount (addressIndex slotCount (slotHash(32) presence value? value?)*)*
+ * </pre>
+ */
+final class TrieLogFormat {
+
+  static final byte COMPACT = 0x01;
+  static final byte COMPACT_SNAPPY = 0x02;
+  static final int COMPRESSION_THRESHOLD = 1024;
+
+  private static final int PRIOR_PRESENT = 0x01;
+  private static final int UPDATED_PRESENT = 0x02;
+
+  private static final int SAME_NONCE = 0x01;
+  private static final int SAME_BALANCE = 0x02;
+  private static final int SAME_STORAGE_ROOT = 0x04;
+  private static final int SAME_CODE_HASH = 0x08;
+  private static final int EMPTY_STORAGE_ROOT = 0x10;
+  private static final int EMPTY_CODE_HASH = 0x20;
+
+  private TrieLogFormat() {}
+
+  static boolean isLegacy(final byte[] bytes) {
+    return bytes.length == 0 || (bytes[0] & 0xff) >= 0xc0;
+  }
+
+  static TrieLogLayer decode(final byte[] bytes) {
+    if (isLegacy(bytes)) {
+      return TrieLogLayer.readFrom(new BytesValueRLPInput(Bytes.wrap(bytes), false));
+    }
+    final byte[] body;
+    switch (bytes[0]) {
+      case COMPACT:
+        body = Arrays.copyOfRange(bytes, 1, bytes.length);
+        break;
+      case COMPACT_SNAPPY:
+        try {
+          body = Snappy.uncompress(Arrays.copyOfRange(bytes, 1, bytes.length));
+        } catch (final IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        break;
+      default:
+        throw new RLPException("Unknown trie log format " + bytes[0]);
+    }
+    return read(ByteBuffer.wrap(body));
+  }
+
+  static byte[] encode(final TrieLogLayer layer) {
+    final Writer writer = new Writer();
+    write(layer, writer);
+    final byte[] body = writer.toByteArray();
+    if (body.length >= COMPRESSION_THRESHOLD) {
+      try {
+        final byte[] compressed = Snappy.compress(body);
+        if (compressed.length < body.length) {
+          return withVersion(COMPACT_SNAPPY, compressed);
+        }
+      } catch (final IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return withVersion(COMPACT, body);
+  }
+
+  private static byte[] withVersion(final byte version, final byte[] body) {
+    final byte[] bytes = new byte[body.length + 1];
+    bytes[0] = version;
+    System.arraycopy(body, 0, bytes, 1, body.length);
+    return bytes;
+  }
+
+  private static void write(final TrieLogLayer layer, final Writer writer) {
+    final Map<Address, BonsaiValue<StateTrieAccountValue>> accounts =
+        sorted(layer.streamAccountChanges(), change -> !change.isUnchanged());
+    final Map<Address, BonsaiValue<Bytes>> code =
+        sorted(layer.streamCodeChanges(), change -> !change.isUnchanged());
+    final Map<Address, Map<Hash, BonsaiValue<UInt256>>> storage =
+        sorted(layer.streamStorageChanges(), changes -> !changes.isEmpty());
+
+    final TreeSet<Address> addresses = new TreeSet<>(accounts.keySet());
+    addresses.addAll(code.keySet());
+    addresses.addAll(storage.keySet());
+    final Map<Address, Integer> addressIndexes = new HashMap<>();
+    writer.writeFixed(layer.getBlockHash());
+    writer.writeVarint(addresses.size());
+    for (final Address address : addresses) {
+      addressIndexes.put(address, addressIndexes.size());
+      writer.writeFixed(address);
+    }
+
+    writer.writeVarint(accounts.size());
+    for (final Map.Entry<Address, BonsaiValue<StateTrieAccountValue>> change :
+        accounts.entrySet()) {
+      writer.writeVarint(addressIndexes.get(change.getKey()));
+      final StateTrieAccountValue prior = change.getValue().getPrior();
+      final StateTrieAccountValue updated = change.getValue().getUpdated();
+      writer.writeByte(presence(prior, updated));
+      if (updated != null) {
+        writeAccount(writer, updated, null);
+      }
+      if (prior != null) {
+        writeAccount(writer, prior, updated);
+      }
+    }
+
+    writer.writeVarint(code.size());
+    for (final Map.Entry<Address, BonsaiValue<Bytes>> change : code.entrySet()) {
+      writer.writeVarint(addressIndexes.get(change.getKey()));
+      final Bytes prior = change.getValue().getPrior();
+      final Bytes updated = change.getValue().getUpdated();
+      writer.writeByte(presence(prior, updated));
+      if (prior != null) {
+        writer.writeVariable(prior);
+      }
+      if (updated != null) {
+        writer.writeVariable(updated);
+      }
+    }
+
+    writer.writeVarint(storage.size());
+    for (final Map.Entry<Address, Map<Hash, BonsaiValue<UInt256>>> changes : storage.entrySet()) {
+      writer.writeVarint(addressIndexes.get(changes.getKey()));
+      writer.writeVarint(changes.getValue().size());
+      for (final Map.Entry<Hash, BonsaiValue<UInt256>> change : changes.getValue().entrySet()) {
+        writer.writeFixed(change.getKey());
+        final UInt256 prior = change.getValue().getPrior();
+        final UInt256 updated = change.getValue().getUpdated();
+        writer.writeByte(presence(prior, updated));
+        if (prior != null) {
+          writer.writeVariable(prior.toMinimalBytes());
+        }
+        if (updated != null) {
+          writer.writeVariable(updated.toMinimalBytes());
+        }
+      }
+    }
+  }
+
+  private static TrieLogLayer read(final ByteBuffer input) {
+    final TrieLogLayer layer = new TrieLogLayer();
+    layer.setBlockHash(Hash.wrap(Bytes32.wrap(readFixed(input, 32))));
+    final Address[] addresses = new Address[readCount(input)];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = Address.wrap(Bytes.wrap(readFixed(input, Address.SIZE)));
+    }
+
+    for (int count = readCount(input); count > 0; count--) {
+      final Address address = addresses[readIndex(input, addresses)];
+      final int presence = input.get();
+      final StateTrieAccountValue updated =
+          (presence & UPDATED_PRESENT) != 0 ? readAccount(input, null) : null;
+      final StateTrieAccountValue prior =
+          (presence & PRIOR_PRESENT) != 0 ? readAccount(input, updated) : null;
+      layer.addAccountChange(address, prior, updated);
+    }
+
+    for (int count = readCount(input); count > 0; count--) {
+      final Address address = addresses[readIndex(input, addresses)];
+      final int presence = input.get();
+      final Bytes prior = (presence & PRIOR_PRESENT) != 0 ? readVariable(input) : null;
+      final Bytes updated = (presence & UPDATED_PRESENT) != 0 ? readVariable(input) : null;
+      layer.addCodeChange(address, prior, updated, layer.getBlockHash());
+    }
+
+    for (int count = readCount(input); count > 0; count--) {
+      final Address address = addresses[readIndex(input, addresses)];
+      for (int slots = readCount(input); slots > 0; slots--) {
+        final Hash slotHash = Hash.wrap(Bytes32.wrap(readFixed(input, 32)));
+        final int presence = input.get();
+        final UInt256 prior =
+            (presence & PRIOR_PRESENT) != 0 ? UInt256.fromBytes(readVariable(input)) : null;
+        final UInt256 updated =
+            (presence & UPDATED_PRESENT) != 0 ? UInt256.fromBytes(readVariable(input)) : null;
+        layer.addStorageChange(address, slotHash, prior, updated);
+      }
+    }
+    layer.freeze();
+    return layer;
+  }
+
+  private static <T> Map<Address, T> sorted(
+      final Stream<Map.Entry<Address, T>> changes, final Predicate<T> filter) {
+    final Map<Address, T> sorted = new TreeMap<>();
+    changes
+        .filter(change -> filter.test(change.getValue()))
+        .forEach(change -> sorted.put(change.getKey(), change.getValue()));
+    return sorted;
+  }
+
+  private static int presence(final Object prior, final Object updated) {
+    return (prior != null ? PRIOR_PRESENT : 0) | (updated != null ? UPDATED_PRESENT : 0);
+  }
+
+  /** Writes an account value, omitting the fields equal to those of the reference value. */
+  private static void writeAccount(
+      final Writer writer,
+      final StateTrieAccountValue value,
+      final StateTrieAccountValue reference) {
+    int fields = 0;
+    if (reference != null) {
+      fields |= value.getNonce() == reference.getNonce() ? SAME_NONCE : 0;
+      fields |= value.getBalance().equals(reference.getBalance()) ? SAME_BALANCE : 0;
+      fields |= value.getStorageRoot().equals(reference.getStorageRoot()) ? SAME_STORAGE_ROOT : 0;
+      fields |= value.getCodeHash().equals(reference.getCodeHash()) ? SAME_CODE_HASH : 0;
+    }
+    if ((fields & SAME_STORAGE_ROOT) == 0
+        && value.getStorageRoot().equals(Hash.EMPTY_TRIE_HASH)) {
+      fields |= EMPTY_STORAGE_ROOT;
+    }
+    if ((fields & SAME_CODE_HASH) == 0 && value.getCodeHash().equals(Hash.EMPTY)) {
+      fields |= EMPTY_CODE_HASH;
+    }
+    writer.writeByte(fields);
+    if ((fields & SAME_NONCE) == 0) {
+      writer.writeVarint(value.getNonce());
+    }
+    if ((fields & SAME_BALANCE) == 0) {
+      writer.writeVariable(value.getBalance().toMinimalBytes());
+    }
+    if ((fields & (SAME_STORAGE_ROOT | EMPTY_STORAGE_ROOT)) == 0) {
+      writer.writeFixed(value.getStorageRoot());
+    }
+    if ((fields & (SAME_CODE_HASH | EMPTY_CODE_HASH)) == 0) {
+      writer.writeFixed(value.getCodeHash());
+    }
+  }
+
+  private static StateTrieAccountValue readAccount(
+      final ByteBuffer input, final StateTrieAccountValue reference) {
+    final int fields = input.get();
+    if (reference == null
+        && (fields & (SAME_NONCE | SAME_BALANCE | SAME_STORAGE_ROOT | SAME_CODE_HASH)) != 0) {
+      throw new RLPException("Account value refers to a missing updated value");
+    }
+    final long nonce = (fields & SAME_NONCE) != 0 ? reference.getNonce() : readVarint(input);
+    final Wei balance =
+        (fields & SAME_BALANCE) != 0 ? reference.getBalance() : Wei.wrap(readVariable(input));
+    final Hash storageRoot;
+    if ((fields & SAME_STORAGE_ROOT) != 0) {
+      storageRoot = reference.getStorageRoot();
+    } else if ((fields & EMPTY_STORAGE_ROOT) != 0) {
+      storageRoot = Hash.EMPTY_TRIE_HASH;
+    } else {
+      storageRoot = Hash.wrap(Bytes32.wrap(readFixed(input, 32)));
+    }
+    final Hash codeHash;
+    if ((fields & SAME_CODE_HASH) != 0) {
+      codeHash = reference.getCodeHash();
+    } else if ((fields & EMPTY_CODE_HASH) != 0) {
+      codeHash = Hash.EMPTY;
+    } else {
+      codeHash = Hash.wrap(Bytes32.wrap(readFixed(input, 32)));
+    }
+    return new StateTrieAccountValue(nonce, balance, storageRoot, codeHash);
+  }
+
+  private static byte[] readFixed(final ByteBuffer input, final int length) {
+    final byte[] bytes = new byte[length];
+    input.get(bytes);
+    return bytes;
+  }
+
+  private static Bytes readVariable(final ByteBuffer input) {
+    return Bytes.wrap(readFixed(input, readCount(input)));
+  }
+
+  private static int readIndex(final ByteBuffer input, final Address[] addresses) {
+    final int index = readCount(input);
+    if (index >= addresses.length) {
+      throw new RLPException("Address index " + index + " out of bounds");
+    }
+    return index;
+  }
+
+  private static int readCount(final ByteBuffer input) {
+    final long count = readVarint(input);
+    if (count > input.remaining() + 1L) {
+      throw new RLPException("Count " + count + " exceeds the trie log size");
+    }
+    return (int) count;
+  }
+
+  private static long readVarint(final ByteBuffer input) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = input.get();
+      value |= (long) (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new RLPException("Malformed varint in trie log");
+  }
+
+  private static class Writer extends ByteArrayOutputStream {
+
+    private void writeByte(final int value) {
+      write(value);
+    }
+
+    private void writeVarint(final long value) {
+      long remaining = value;
+      while ((remaining & ~0x7fL) != 0) {
+        write((int) ((remaining & 0x7f) | 0x80));
+        remaining >>>= 7;
+      }
+      write((int) remaining);
+    }
+
+    private void writeFixed(final Bytes bytes) {
+      final byte[] array = bytes.toArrayUnsafe();
+      write(array, 0, array.length);
+    }
+
+    private void writeVariable(final Bytes bytes) {
+      writeVarint(bytes.size());
+      writeFixed(bytes);
+    }
+  }
+}
@@ -20,12 +20,12 @@ import static com.google.common.base.Preconditions.checkState;
 
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.Hash;
-import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
 import org.hyperledger.besu.ethereum.rlp.RLPInput;
 import org.hyperledger.besu.ethereum.rlp.RLPOutput;
 import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,6 +47,13 @@ import org.apache.tuweni.units.bigints.UInt256;
  */
 public class TrieLogLayer {
 
+  // rough heap footprints, a change holds a map entry, a key and two values
+  private static final long LAYER_SIZE = 200;
+  private static final long ACCOUNT_CHANGE_SIZE = 600;
+  private static final long CODE_CHANGE_SIZE = 150;
+  private static final long STORAGE_CHANGES_SIZE = 150;
+  private static final long STORAGE_CHANGE_SIZE = 260;
+
   private Hash blockHash;
   private final Map<Address, BonsaiValue<StateTrieAccountValue>> accounts;
   private final Map<Address, BonsaiValue<Bytes>> code;
@@ -99,8 +106,25 @@ public class TrieLogLayer {
         .put(slotHash, new BonsaiValue<>(oldValue, newValue));
   }
 
+  /**
+   * Decodes a trie log read from the trie log storage, either in the compact format or in the
+   * legacy RLP format.
+   *
+   * @param bytes the stored trie log
+   * @return the decoded trie log, frozen
+   */
   static TrieLogLayer fromBytes(final byte[] bytes) {
-    return readFrom(new BytesValueRLPInput(Bytes.wrap(bytes), false));
+    return TrieLogFormat.decode(bytes);
+  }
+
+  /**
+   * Encodes the trie log in the compact format used by the trie log storage.
+   *
+   * @return the encoded trie log
+   */
+  byte[] toBytes() {
+    freeze();
+    return TrieLogFormat.encode(this);
   }
 
   static TrieLogLayer readFrom(final RLPInput input) {
@@ -232,6 +256,60 @@ public class TrieLogLayer {
     return storage.getOrDefault(address, Map.of()).entrySet().stream();
   }
 
+  /**
+   * Estimates the heap used by the changes of the layer, including the map entries holding them.
+   *
+   * @return the estimated size of the layer in bytes
+   */
+  long estimateSize() {
+    long size = LAYER_SIZE + accounts.size() * ACCOUNT_CHANGE_SIZE;
+    for (final BonsaiValue<Bytes> codeChange : code.values()) {
+      size += CODE_CHANGE_SIZE + sizeOf(codeChange.getPrior()) + sizeOf(codeChange.getUpdated());
+    }
+    for (final Map<Hash, BonsaiValue<UInt256>> slots : storage.values()) {
+      size += STORAGE_CHANGES_SIZE + slots.size() * STORAGE_CHANGE_SIZE;
+    }
+    return size;
+  }
+
+  private static long sizeOf(final Bytes bytes) {
+    return bytes == null ? 0 : bytes.size();
+  }
+
+  /**
+   * Merges consecutive layers into a single layer going from the state before the first of them to
+   * the state after the last of them. Each change keeps the prior value of the first layer making
+   * it and the updated value of the last layer making it.
+   *
+   * @param layers the layers to merge, from the oldest to the newest
+   * @return the frozen merged layer, identified by the block hash of the newest layer
+   */
+  static TrieLogLayer merge(final List<TrieLogLayer> layers) {
+    final TrieLogLayer merged = new TrieLogLayer();
+    for (final TrieLogLayer layer : layers) {
+      layer.accounts.forEach(
+          (address, change) -> merged.accounts.merge(address, change, TrieLogLayer::mergeChange));
+      layer.code.forEach(
+          (address, change) -> merged.code.merge(address, change, TrieLogLayer::mergeChange));
+      layer.storage.forEach(
+          (address, slots) -> {
+            final Map<Hash, BonsaiValue<UInt256>> mergedSlots =
+                merged.storage.computeIfAbsent(address, __ -> new TreeMap<>());
+            slots.forEach(
+                (slotHash, change) ->
+                    mergedSlots.merge(slotHash, change, TrieLogLayer::mergeChange));
+          });
+      merged.blockHash = layer.blockHash;
+    }
+    merged.freeze();
+    return merged;
+  }
+
+  private static <T> BonsaiValue<T> mergeChange(
+      final BonsaiValue<T> older, final BonsaiValue<T> newer) {
+    return new BonsaiValue<>(older.getPrior(), newer.getUpdated());
+  }
+
   private static <T> T nullOrValue(final RLPInput input, final Function<RLPInput, T> reader) {
     if (input.nextIsNull()) {
       input.skipNext();
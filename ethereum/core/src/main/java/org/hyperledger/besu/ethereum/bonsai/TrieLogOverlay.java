@@ -0,0 +1,86 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Reads ranges of a Bonsai world state through the changes of trie logs layered over an
+ * underlying view, as done by the snapshot and layered world states.
+ */
+final class TrieLogOverlay {
+
+  private TrieLogOverlay() {}
+
+  /**
+   * Widens a read of the underlying view by the number of entries deleted by the trie logs, so
+   * that enough entries remain once the deleted ones are dropped.
+   *
+   * @param limit the number of entries requested
+   * @param overlayValues the values changed by the trie logs, null for the deleted entries
+   * @return the number of entries to read from the underlying view
+   */
+  static int withDeletions(final int limit, final Collection<?> overlayValues) {
+    final long deletions = overlayValues.stream().filter(Objects::isNull).count();
+    return (int) Math.min(Integer.MAX_VALUE, limit + deletions);
+  }
+
+  /**
+   * Merges the storage slots changed by the trie logs over the slots of the underlying view.
+   *
+   * @param changedSlots the slots changed by the trie logs by slot hash, null for the deleted slots
+   * @param startKeyHash the slot hash to start from
+   * @param limit the maximum number of slots to return
+   * @param underlyingSlots reads up to the given number of slots of the underlying view from the
+   *     start key hash
+   * @return the storage entries from the start key hash
+   */
+  static NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+      final Map<? extends Bytes32, UInt256> changedSlots,
+      final Bytes32 startKeyHash,
+      final int limit,
+      final IntFunction<Map<Bytes32, UInt256>> underlyingSlots) {
+    final NavigableMap<Bytes32, UInt256> results =
+        new TreeMap<>(underlyingSlots.apply(withDeletions(limit, changedSlots.values())));
+    changedSlots.forEach(
+        (slotHash, value) -> {
+          if (slotHash.compareTo(startKeyHash) >= 0) {
+            results.put(slotHash, value);
+          }
+        });
+    final NavigableMap<Bytes32, AccountStorageEntry> storageEntries = new TreeMap<>();
+    results.entrySet().stream()
+        .filter(entry -> entry.getValue() != null)
+        .limit(limit)
+        .forEach(
+            entry ->
+                storageEntries.put(
+                    entry.getKey(),
+                    AccountStorageEntry.create(
+                        entry.getValue(), entry.getKey(), Optional.empty())));
+    return storageEntries;
+  }
+}
@@ -26,6 +26,7 @@ import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /** An interface for reading data from the blockchain. */
 public interface Blockchain {
@@ -147,6 +148,18 @@ public interface Blockchain {
    */
   Optional<List<TransactionReceipt>> getTxReceipts(Hash blockHeaderHash);
 
+  /**
+   * Given the hashes of several blocks, returns the lists of transaction receipts associated with
+   * each block's transactions, looked up together where the underlying storage supports it.
+   *
+   * @param blockHeaderHashes The header hashes of the blocks we're querying.
+   * @return The transaction receipts corresponding to each block hash, in the same order.
+   */
+  default List<Optional<List<TransactionReceipt>>> getAllTxReceipts(
+      final List<Hash> blockHeaderHashes) {
+    return blockHeaderHashes.stream().map(this::getTxReceipts).collect(Collectors.toList());
+  }
+
   /**
    * Retrieves the header hash of the block at the given height in the canonical chain.
    *
@@ -155,6 +168,21 @@ public interface Blockchain {
    */
   Optional<Hash> getBlockHashByNumber(long number);
 
+  /**
+   * Returns the hash of an ancestor of a recent block of the canonical chain without reading any
+   * header, if the blockchain keeps an index of its recent canonical hashes.
+   *
+   * @param blockHash The hash of the block.
+   * @param blockNumber The number of the block.
+   * @param ancestorNumber The number of the ancestor.
+   * @return The hash of the ancestor, or empty if the block is not known to be a recent canonical
+   *     block or the ancestor is not indexed.
+   */
+  default Optional<Hash> getRecentCanonicalAncestorHash(
+      final Hash blockHash, final long blockNumber, final long ancestorNumber) {
+    return Optional.empty();
+  }
+
   /**
    * Returns the total difficulty (cumulative difficulty up to and including the target block) of
    * the block corresponding to the given hash. Associated block is not necessarily on the canonical
@@ -0,0 +1,289 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.chain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Difficulty;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Keeps the decoded headers, bodies and receipts of recently used blocks in memory in front of a
+ * blockchain storage.
+ *
+ * <p>Headers, bodies and receipts are keyed by block hash and so never become stale. The canonical
+ * block hashes by number change with every reorg: they are only cached under a read lock and are
+ * replaced under the write lock when an update is committed, so that a read racing with the commit
+ * can not leave the hash of a block that is no longer canonical behind in the cache. Together the
+ * two caches serve headers by number without decoding them again.
+ */
+class CachingBlockchainStorage implements BlockchainStorage {
+
+  private final BlockchainStorage blockchainStorage;
+  private final Cache<Hash, BlockHeader> headers;
+  private final Cache<Hash, BlockBody> bodies;
+  private final Cache<Hash, List<TransactionReceipt>> receipts;
+  private final Cache<Long, Hash> blockHashes;
+  private final ReadWriteLock blockHashesLock = new ReentrantReadWriteLock();
+
+  CachingBlockchainStorage(
+      final BlockchainStorage blockchainStorage,
+      final long cacheSize,
+      final MetricsSystem metricsSystem) {
+    checkArgument(cacheSize > 0, "cache size must be positive");
+    this.blockchainStorage = blockchainStorage;
+    this.headers = createCache(cacheSize);
+    this.bodies = createCache(cacheSize);
+    this.receipts = createCache(cacheSize);
+    this.blockHashes = createCache(cacheSize);
+
+    createHitRatioGauge(metricsSystem, "header", headers);
+    createHitRatioGauge(metricsSystem, "body", bodies);
+    createHitRatioGauge(metricsSystem, "receipts", receipts);
+    createHitRatioGauge(metricsSystem, "block_hash", blockHashes);
+  }
+
+  private static <K, V> Cache<K, V> createCache(final long cacheSize) {
+    return CacheBuilder.newBuilder().maximumSize(cacheSize).recordStats().build();
+  }
+
+  private static void createHitRatioGauge(
+      final MetricsSystem metricsSystem, final String name, final Cache<?, ?> cache) {
+    metricsSystem.createGauge(
+        BesuMetricCategory.BLOCKCHAIN,
+        name + "_cache_hit_ratio",
+        "Ratio of the " + name.replace('_', ' ') + " lookups served from the blockchain cache",
+        () -> cache.stats().hitRate());
+  }
+
+  @Override
+  public Optional<Hash> getChainHead() {
+    return blockchainStorage.getChainHead();
+  }
+
+  @Override
+  public Collection<Hash> getForkHeads() {
+    return blockchainStorage.getForkHeads();
+  }
+
+  @Override
+  public Optional<BlockHeader> getBlockHeader(final Hash blockHash) {
+    return get(headers, blockHash, blockchainStorage::getBlockHeader);
+  }
+
+  @Override
+  public Optional<BlockBody> getBlockBody(final Hash blockHash) {
+    return get(bodies, blockHash, blockchainStorage::getBlockBody);
+  }
+
+  @Override
+  public Optional<List<TransactionReceipt>> getTransactionReceipts(final Hash blockHash) {
+    return get(receipts, blockHash, blockchainStorage::getTransactionReceipts);
+  }
+
+  @Override
+  public List<Optional<List<TransactionReceipt>>> getAllTransactionReceipts(
+      final List<Hash> blockHashList) {
+    final List<Optional<List<TransactionReceipt>>> allReceipts =
+        new ArrayList<>(blockHashList.size());
+    final List<Hash> uncachedHashes = new ArrayList<>();
+    for (final Hash blockHash : blockHashList) {
+      final List<TransactionReceipt> cached = receipts.getIfPresent(blockHash);
+      if (cached == null) {
+        uncachedHashes.add(blockHash);
+      }
+      allReceipts.add(Optional.ofNullable(cached));
+    }
+    if (uncachedHashes.isEmpty()) {
+      return allReceipts;
+    }
+    // Read the receipts missing from the cache in a single batch from the storage.
+    final Iterator<Optional<List<TransactionReceipt>>> loadedReceipts =
+        blockchainStorage.getAllTransactionReceipts(uncachedHashes).iterator();
+    for (int i = 0; i < allReceipts.size(); i++) {
+      if (allReceipts.get(i).isEmpty()) {
+        final Hash blockHash = blockHashList.get(i);
+        final Optional<List<TransactionReceipt>> blockReceipts = loadedReceipts.next();
+        blockReceipts.ifPresent(value -> receipts.put(blockHash, value));
+        allReceipts.set(i, blockReceipts);
+      }
+    }
+    return allReceipts;
+  }
+
+  @Override
+  public Optional<Hash> getBlockHash(final long blockNumber) {
+    blockHashesLock.readLock().lock();
+    try {
+      return get(blockHashes, blockNumber, blockchainStorage::getBlockHash);
+    } finally {
+      blockHashesLock.readLock().unlock();
+    }
+  }
+
+  private static <K, V> Optional<V> get(
+      final Cache<K, V> cache, final K key, final Function<K, Optional<V>> loader) {
+    final V cached = cache.getIfPresent(key);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    final Optional<V> value = loader.apply(key);
+    value.ifPresent(v -> cache.put(key, v));
+    return value;
+  }
+
+  @Override
+  public Optional<Difficulty> getTotalDifficulty(final Hash blockHash) {
+    return blockchainStorage.getTotalDifficulty(blockHash);
+  }
+
+  @Override
+  public Optional<TransactionLocation> getTransactionLocation(final Hash transactionHash) {
+    return blockchainStorage.getTransactionLocation(transactionHash);
+  }
+
+  @Override
+  public Updater updater() {
+    return new CachingUpdater(blockchainStorage.updater());
+  }
+
+  /**
+   * Records the blocks written by an update and applies them to the caches once it is committed.
+   */
+  private class CachingUpdater implements Updater {
+
+    private final Updater updater;
+    private final Map<Hash, BlockHeader> updatedHeaders = new HashMap<>();
+    private final Map<Hash, BlockBody> updatedBodies = new HashMap<>();
+    private final Map<Hash, List<TransactionReceipt>> updatedReceipts = new HashMap<>();
+    // A null hash marks a removed block number.
+    private final Map<Long, Hash> updatedBlockHashes = new HashMap<>();
+
+    private CachingUpdater(final Updater updater) {
+      this.updater = updater;
+    }
+
+    @Override
+    public void putBlockHeader(final Hash blockHash, final BlockHeader blockHeader) {
+      updater.putBlockHeader(blockHash, blockHeader);
+      updatedHeaders.put(blockHash, blockHeader);
+    }
+
+    @Override
+    public void putBlockBody(final Hash blockHash, final BlockBody blockBody) {
+      updater.putBlockBody(blockHash, blockBody);
+      updatedBodies.put(blockHash, blockBody);
+    }
+
+    @Override
+    public void putTransactionLocation(
+        final Hash transactionHash, final TransactionLocation transactionLocation) {
+      updater.putTransactionLocation(transactionHash, transactionLocation);
+    }
+
+    @Override
+    public void putTransactionReceipts(
+        final Hash blockHash, final List<TransactionReceipt> transactionReceipts) {
+      updater.putTransactionReceipts(blockHash, transactionReceipts);
+      updatedReceipts.put(blockHash, transactionReceipts);
+    }
+
+    @Override
+    public void putBlockHash(final long blockNumber, final Hash blockHash) {
+      updater.putBlockHash(blockNumber, blockHash);
+      updatedBlockHashes.put(blockNumber, blockHash);
+    }
+
+    @Override
+    public void putTotalDifficulty(final Hash blockHash, final Difficulty totalDifficulty) {
+      updater.putTotalDifficulty(blockHash, totalDifficulty);
+    }
+
+    @Override
+    public void setChainHead(final Hash blockHash) {
+      updater.setChainHead(blockHash);
+    }
+
+    @Override
+    public void setForkHeads(final Collection<Hash> forkHeadHashes) {
+      updater.setForkHeads(forkHeadHashes);
+    }
+
+    @Override
+    public void removeBlockHash(final long blockNumber) {
+      updater.removeBlockHash(blockNumber);
+      updatedBlockHashes.put(blockNumber, null);
+    }
+
+    @Override
+    public void removeTransactionLocation(final Hash transactionHash) {
+      updater.removeTransactionLocation(transactionHash);
+    }
+
+    @Override
+    public void commit() {
+      blockHashesLock.writeLock().lock();
+      try {
+        updater.commit();
+        updatedBlockHashes.forEach(
+            (blockNumber, blockHash) -> {
+              if (blockHash == null) {
+                blockHashes.invalidate(blockNumber);
+              } else {
+                blockHashes.put(blockNumber, blockHash);
+              }
+            });
+      } finally {
+        blockHashesLock.writeLock().unlock();
+      }
+      headers.putAll(updatedHeaders);
+      bodies.putAll(updatedBodies);
+      receipts.putAll(updatedReceipts);
+      clear();
+    }
+
+    @Override
+    public void rollback() {
+      updater.rollback();
+      clear();
+    }
+
+    private void clear() {
+      updatedHeaders.clear();
+      updatedBodies.clear();
+      updatedReceipts.clear();
+      updatedBlockHashes.clear();
+    }
+  }
+}
@@ -59,6 +59,7 @@ public class DefaultBlockchain implements MutableBlockchain {
   private final Subscribers<BlockAddedObserver> blockAddedObservers = Subscribers.create();
   private final Subscribers<ChainReorgObserver> blockReorgObservers = Subscribers.create();
   private final long reorgLoggingThreshold;
+  private final RecentCanonicalHashes recentCanonicalHashes = new RecentCanonicalHashes();
 
   private volatile BlockHeader chainHeader;
   private volatile Difficulty totalDifficulty;
@@ -69,12 +70,16 @@ public class DefaultBlockchain implements MutableBlockchain {
       final Optional<Block> genesisBlock,
       final BlockchainStorage blockchainStorage,
       final MetricsSystem metricsSystem,
-      final long reorgLoggingThreshold) {
+      final long reorgLoggingThreshold,
+      final long cacheSize) {
     checkNotNull(genesisBlock);
     checkNotNull(blockchainStorage);
     checkNotNull(metricsSystem);
 
-    this.blockchainStorage = blockchainStorage;
+    this.blockchainStorage =
+        cacheSize > 0
+            ? new CachingBlockchainStorage(blockchainStorage, cacheSize, metricsSystem)
+            : blockchainStorage;
     genesisBlock.ifPresent(this::setGenesis);
 
     final Hash chainHead = blockchainStorage.getChainHead().get();
@@ -83,6 +88,7 @@ public class DefaultBlockchain implements MutableBlockchain {
     final BlockBody chainHeadBody = blockchainStorage.getBlockBody(chainHead).get();
     chainHeadTransactionCount = chainHeadBody.getTransactions().size();
     chainHeadOmmerCount = chainHeadBody.getOmmers().size();
+    recentCanonicalHashes.moveTo(chainHeader, this.blockchainStorage::getBlockHeader);
 
     metricsSystem.createLongGauge(
         BesuMetricCategory.ETHEREUM,
@@ -132,9 +138,33 @@ public class DefaultBlockchain implements MutableBlockchain {
       final BlockchainStorage blockchainStorage,
       final MetricsSystem metricsSystem,
       final long reorgLoggingThreshold) {
+    return createMutable(genesisBlock, blockchainStorage, metricsSystem, reorgLoggingThreshold, 0);
+  }
+
+  /**
+   * Creates a mutable blockchain, keeping the decoded headers, bodies and receipts of recently used
+   * blocks in memory.
+   *
+   * @param genesisBlock the genesis block of the chain
+   * @param blockchainStorage the storage of the chain
+   * @param metricsSystem the metrics system
+   * @param reorgLoggingThreshold the depth of the reorgs worth logging
+   * @param cacheSize the number of blocks whose data is cached, 0 to disable the caches
+   * @return the blockchain
+   */
+  public static MutableBlockchain createMutable(
+      final Block genesisBlock,
+      final BlockchainStorage blockchainStorage,
+      final MetricsSystem metricsSystem,
+      final long reorgLoggingThreshold,
+      final long cacheSize) {
     checkNotNull(genesisBlock);
     return new DefaultBlockchain(
-        Optional.of(genesisBlock), blockchainStorage, metricsSystem, reorgLoggingThreshold);
+        Optional.of(genesisBlock),
+        blockchainStorage,
+        metricsSystem,
+        reorgLoggingThreshold,
+        cacheSize);
   }
 
   public static Blockchain create(
@@ -144,7 +174,7 @@ public class DefaultBlockchain implements MutableBlockchain {
     checkArgument(
         validateStorageNonEmpty(blockchainStorage), "Cannot create Blockchain from empty storage");
     return new DefaultBlockchain(
-        Optional.empty(), blockchainStorage, metricsSystem, reorgLoggingThreshold);
+        Optional.empty(), blockchainStorage, metricsSystem, reorgLoggingThreshold, 0);
   }
 
   private static boolean validateStorageNonEmpty(final BlockchainStorage blockchainStorage) {
@@ -201,11 +231,23 @@ public class DefaultBlockchain implements MutableBlockchain {
     return blockchainStorage.getTransactionReceipts(blockHeaderHash);
   }
 
+  @Override
+  public List<Optional<List<TransactionReceipt>>> getAllTxReceipts(
+      final List<Hash> blockHeaderHashes) {
+    return blockchainStorage.getAllTransactionReceipts(blockHeaderHashes);
+  }
+
   @Override
   public Optional<Hash> getBlockHashByNumber(final long number) {
     return blockchainStorage.getBlockHash(number);
   }
 
+  @Override
+  public Optional<Hash> getRecentCanonicalAncestorHash(
+      final Hash blockHash, final long blockNumber, final long ancestorNumber) {
+    return recentCanonicalHashes.getAncestorHash(blockHash, blockNumber, ancestorNumber);
+  }
+
   @Override
   public Optional<Difficulty> getTotalDifficultyByHash(final Hash blockHeaderHash) {
     return blockchainStorage.getTotalDifficulty(blockHeaderHash);
@@ -484,6 +526,7 @@ public class DefaultBlockchain implements MutableBlockchain {
     totalDifficulty = uInt256;
     chainHeadTransactionCount = block.getBody().getTransactions().size();
     chainHeadOmmerCount = block.getBody().getOmmers().size();
+    recentCanonicalHashes.moveTo(block.getHeader(), blockchainStorage::getBlockHeader);
   }
 
   private static void indexTransactionForBlock(
@@ -0,0 +1,133 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.chain;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A ring buffer of the hashes of the most recent blocks of the canonical chain, indexed by block
+ * number.
+ *
+ * <p>The buffer is moved to every new canonical head, walking back from the head only until it
+ * meets the hashes it already holds, so that appending a block costs a single update and a reorg
+ * only rewrites the blocks of the new branch. The hashes above a lower new head are dropped, so
+ * that every hash held is the one of a canonical block.
+ */
+class RecentCanonicalHashes {
+
+  // Comfortably more than the 256 ancestors reachable by BLOCKHASH.
+  static final int DEFAULT_CAPACITY = 512;
+
+  private final Hash[] hashes;
+  private final long[] numbers;
+  private long headNumber = -1;
+  private long oldestNumber = 0;
+
+  RecentCanonicalHashes() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  RecentCanonicalHashes(final int capacity) {
+    checkArgument(capacity > 0, "capacity must be positive");
+    this.hashes = new Hash[capacity];
+    this.numbers = new long[capacity];
+  }
+
+  /**
+   * Moves the buffer to a new canonical head.
+   *
+   * @param head the header of the new head of the canonical chain
+   * @param headers reads the canonical headers below the head that the buffer does not hold yet
+   */
+  synchronized void moveTo(
+      final BlockHeader head, final Function<Hash, Optional<BlockHeader>> headers) {
+    for (long number = head.getNumber() + 1;
+        number <= headNumber && number <= head.getNumber() + hashes.length;
+        number++) {
+      remove(number);
+    }
+    headNumber = head.getNumber();
+    put(head.getNumber(), head.getHash());
+
+    long number = head.getNumber() - 1;
+    Hash hash = head.getParentHash();
+    for (int i = 1; i < hashes.length && number >= oldestNumber; i++, number--) {
+      if (hash.equals(get(number))) {
+        return;
+      }
+      put(number, hash);
+      final Optional<BlockHeader> header = headers.apply(hash);
+      if (header.isEmpty()) {
+        // The hashes below this one were not checked against the new chain.
+        oldestNumber = number;
+        return;
+      }
+      hash = header.get().getParentHash();
+    }
+  }
+
+  /**
+   * Returns the hash of an ancestor of a recent canonical block.
+   *
+   * @param blockHash the hash of the block
+   * @param blockNumber the number of the block
+   * @param ancestorNumber the number of the ancestor
+   * @return the hash of the ancestor, or empty if the block is not a recent canonical block or the
+   *     ancestor is further from it than the capacity of the buffer, in which case the caller
+   *     reads it from storage
+   */
+  synchronized Optional<Hash> getAncestorHash(
+      final Hash blockHash, final long blockNumber, final long ancestorNumber) {
+    if (ancestorNumber > blockNumber || blockNumber - ancestorNumber >= hashes.length) {
+      // The slot of an ancestor outside the window may already hold a newer block.
+      return Optional.empty();
+    }
+    if (!blockHash.equals(get(blockNumber))) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(get(ancestorNumber));
+  }
+
+  private Hash get(final long number) {
+    if (number < oldestNumber || number > headNumber) {
+      return null;
+    }
+    final int index = index(number);
+    return numbers[index] == number ? hashes[index] : null;
+  }
+
+  private void put(final long number, final Hash hash) {
+    final int index = index(number);
+    numbers[index] = number;
+    hashes[index] = hash;
+  }
+
+  private void remove(final long number) {
+    final int index = index(number);
+    if (numbers[index] == number) {
+      hashes[index] = null;
+    }
+  }
+
+  private int index(final long number) {
+    return (int) (number % hashes.length);
+  }
+}
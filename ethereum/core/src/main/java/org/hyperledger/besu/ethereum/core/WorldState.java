@@ -30,7 +30,7 @@ import org.apache.tuweni.units.bigints.UInt256;
  * not mutable. In other words, objects implementing this interface are not guaranteed to be
  * thread-safe, though some particular implementations may provide such guarantees.
  */
-public interface WorldState extends WorldView {
+public interface WorldState extends WorldView, AutoCloseable {
 
   /**
    * The root hash of the world state this represents.
@@ -52,10 +52,18 @@ public interface WorldState extends WorldView {
    * @param startKeyHash The trie key at which to start iterating
    * @param limit The maximum number of results to return
    * @return a stream of all the accounts (in no particular order) contained in the world state
-   *     represented by the root hash of this object at the time of the call.
+   *     represented by the root hash of this object at the time of the call. It must be closed once
+   *     the accounts are no longer used, to release the resources reading them.
    */
   Stream<StreamableAccount> streamAccounts(Bytes32 startKeyHash, int limit);
 
+  /**
+   * Releases the resources held by a view of the world state taken at a past block, the view and
+   * its accounts must not be used afterwards. Most world states hold no such resources.
+   */
+  @Override
+  default void close() {}
+
   class StreamableAccount implements AccountState {
     private final Optional<Address> address;
     private final AccountState accountState;
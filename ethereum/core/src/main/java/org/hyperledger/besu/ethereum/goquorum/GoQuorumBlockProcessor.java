@@ -93,13 +93,13 @@ public class GoQuorumBlockProcessor extends MainnetBlockProcessor {
 
     final GoQuorumPrivateStorage.Updater privateStorageUpdater = goQuorumPrivateStorage.updater();
 
+    final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
     for (final Transaction transaction : transactions) {
       if (!hasAvailableBlockBudget(blockHeader, transaction, currentGasUsed)) {
         return AbstractBlockProcessor.Result.failed();
       }
 
       final WorldUpdater publicWorldStateUpdater = publicWorldState.updater();
-      final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
       final Address miningBeneficiary =
           miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
 
@@ -34,6 +34,7 @@ import org.hyperledger.besu.plugin.data.TransactionType;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
 import org.apache.logging.log4j.LogManager;
@@ -124,17 +125,36 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
 
   protected final MiningBeneficiaryCalculator miningBeneficiaryCalculator;
 
+  private final Optional<ParallelTransactionExecutor> parallelTransactionExecutor;
+
   protected AbstractBlockProcessor(
       final MainnetTransactionProcessor transactionProcessor,
       final TransactionReceiptFactory transactionReceiptFactory,
       final Wei blockReward,
       final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
       final boolean skipZeroBlockRewards) {
+    this(
+        transactionProcessor,
+        transactionReceiptFactory,
+        blockReward,
+        miningBeneficiaryCalculator,
+        skipZeroBlockRewards,
+        Optional.empty());
+  }
+
+  protected AbstractBlockProcessor(
+      final MainnetTransactionProcessor transactionProcessor,
+      final TransactionReceiptFactory transactionReceiptFactory,
+      final Wei blockReward,
+      final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
+      final boolean skipZeroBlockRewards,
+      final Optional<ParallelTransactionExecutor> parallelTransactionExecutor) {
     this.transactionProcessor = transactionProcessor;
     this.transactionReceiptFactory = transactionReceiptFactory;
     this.blockReward = blockReward;
     this.miningBeneficiaryCalculator = miningBeneficiaryCalculator;
     this.skipZeroBlockRewards = skipZeroBlockRewards;
+    this.parallelTransactionExecutor = parallelTransactionExecutor;
   }
 
   @Override
@@ -146,29 +166,36 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
       final List<BlockHeader> ommers,
       final PrivateMetadataUpdater privateMetadataUpdater) {
     final List<TransactionReceipt> receipts = new ArrayList<>();
+    final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
+    final Optional<ParallelTransactionExecutor.Speculation> speculation =
+        speculate(
+            blockchain,
+            worldState,
+            blockHeader,
+            transactions,
+            blockHashLookup,
+            privateMetadataUpdater);
     long currentGasUsed = 0;
-    for (final Transaction transaction : transactions) {
+    for (int i = 0; i < transactions.size(); i++) {
+      final Transaction transaction = transactions.get(i);
       if (!hasAvailableBlockBudget(blockHeader, transaction, currentGasUsed)) {
         return AbstractBlockProcessor.Result.failed();
       }
 
       final WorldUpdater worldStateUpdater = worldState.updater();
-      final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
-      final Address miningBeneficiary =
-          miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
-
+      final int index = i;
       final TransactionProcessingResult result =
-          transactionProcessor.processTransaction(
-              blockchain,
-              worldStateUpdater,
-              blockHeader,
-              transaction,
-              miningBeneficiary,
-              OperationTracer.NO_TRACING,
-              blockHashLookup,
-              true,
-              TransactionValidationParams.processingBlock(),
-              privateMetadataUpdater);
+          speculation
+              .flatMap(s -> s.replayIfUnaffected(index, worldStateUpdater))
+              .orElseGet(
+                  () ->
+                      processTransaction(
+                          blockchain,
+                          worldStateUpdater,
+                          blockHeader,
+                          transaction,
+                          blockHashLookup,
+                          privateMetadataUpdater));
       if (result.isInvalid()) {
         LOG.info(
             "Block processing error: transaction invalid '{}'. Block {} Transaction {}",
@@ -181,6 +208,7 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
         return AbstractBlockProcessor.Result.failed();
       }
 
+      speculation.ifPresent(s -> s.recordWrites(worldStateUpdater));
       worldStateUpdater.commit();
 
       currentGasUsed += transaction.getGasLimit() - result.getGasRemaining();
@@ -199,10 +227,59 @@ public abstract class AbstractBlockProcessor implements BlockProcessor {
       return AbstractBlockProcessor.Result.failed();
     }
 
+    speculation.ifPresent(s -> s.logSummary(blockHeader));
     worldState.persist(blockHeader);
     return AbstractBlockProcessor.Result.successful(receipts);
   }
 
+  private Optional<ParallelTransactionExecutor.Speculation> speculate(
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final List<Transaction> transactions,
+      final BlockHashLookup blockHashLookup,
+      final PrivateMetadataUpdater privateMetadataUpdater) {
+    if (parallelTransactionExecutor.isEmpty()
+        || transactions.size() < 2
+        || privateMetadataUpdater != null
+        || !ParallelTransactionExecutor.supports(worldState)) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        parallelTransactionExecutor
+            .get()
+            .speculate(
+                transactionProcessor,
+                blockchain,
+                worldState,
+                blockHeader,
+                transactions,
+                blockHashLookup,
+                miningBeneficiaryCalculator.calculateBeneficiary(blockHeader)));
+  }
+
+  private TransactionProcessingResult processTransaction(
+      final Blockchain blockchain,
+      final WorldUpdater worldStateUpdater,
+      final BlockHeader blockHeader,
+      final Transaction transaction,
+      final BlockHashLookup blockHashLookup,
+      final PrivateMetadataUpdater privateMetadataUpdater) {
+    final Address miningBeneficiary = miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
+
+    return transactionProcessor.processTransaction(
+        blockchain,
+        worldStateUpdater,
+        blockHeader,
+        transaction,
+        miningBeneficiary,
+        OperationTracer.NO_TRACING,
+        blockHashLookup,
+        true,
+        TransactionValidationParams.processingBlock(),
+        privateMetadataUpdater);
+  }
+
   protected boolean hasAvailableBlockBudget(
       final BlockHeader blockHeader, final Transaction transaction, final long currentGasUsed) {
     final long remainingGasBudget = blockHeader.getGasLimit() - currentGasUsed;
@@ -16,15 +16,21 @@ package org.hyperledger.besu.ethereum.mainnet;
 
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.ModificationNotAllowedException;
+import org.hyperledger.besu.ethereum.vm.Code;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
+import org.hyperledger.besu.ethereum.vm.OperandStack;
 import org.hyperledger.besu.ethereum.vm.OperationTracer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
+import org.apache.tuweni.bytes.Bytes;
+
 /**
  * A skeletal class for instantiating message processors.
  *
@@ -74,6 +80,26 @@ public abstract class AbstractMessageProcessor {
 
   protected abstract void start(MessageFrame frame, final OperationTracer operationTracer);
 
+  /**
+   * Returns the factory for the operand stacks of frames executed by this processor's EVM.
+   *
+   * @return the operand stack factory
+   */
+  public IntFunction<OperandStack> getOperandStackFactory() {
+    return evm.getOperandStackFactory();
+  }
+
+  /**
+   * Returns the analyzed code of an account, shared with other frames executing the same code.
+   *
+   * @param codeHash the hash of the account code
+   * @param codeBytes the account code
+   * @return the analyzed code
+   */
+  public Code getCode(final Hash codeHash, final Bytes codeBytes) {
+    return evm.getCode(codeHash, codeBytes);
+  }
+
   /**
    * Gets called when the message frame code executes successfully.
    *
@@ -144,9 +144,9 @@ public class BerlinGasCalculator extends IstanbulGasCalculator {
 
   // defined in Frontier, but re-implemented with no base cost.
   @Override
-  public Gas extCodeCopyOperationGasCost(
+  public long extCodeCopyOperationGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
-    return copyWordsToMemoryGasCost(frame, Gas.ZERO, COPY_WORD_GAS_COST, offset, length);
+    return copyWordsToMemoryGasCost(frame, 0L, COPY_WORD_GAS_COST.toLong(), offset, length);
   }
 
   // defined in Istanbul, but re-implemented with new constants
@@ -22,6 +22,7 @@ import org.hyperledger.besu.ethereum.core.WorldUpdater;
 
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalLong;
 
 import org.apache.logging.log4j.LogManager;
@@ -42,12 +43,31 @@ public class ClassicBlockProcessor extends AbstractBlockProcessor {
       final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
       final boolean skipZeroBlockRewards,
       final OptionalLong eraLen) {
+    this(
+        transactionProcessor,
+        transactionReceiptFactory,
+        blockReward,
+        miningBeneficiaryCalculator,
+        skipZeroBlockRewards,
+        eraLen,
+        Optional.empty());
+  }
+
+  public ClassicBlockProcessor(
+      final MainnetTransactionProcessor transactionProcessor,
+      final TransactionReceiptFactory transactionReceiptFactory,
+      final Wei blockReward,
+      final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
+      final boolean skipZeroBlockRewards,
+      final OptionalLong eraLen,
+      final Optional<ParallelTransactionExecutor> parallelTransactionExecutor) {
     super(
         transactionProcessor,
         transactionReceiptFactory,
         blockReward,
         miningBeneficiaryCalculator,
-        skipZeroBlockRewards);
+        skipZeroBlockRewards,
+        parallelTransactionExecutor);
     eraLength = eraLen.orElse(DEFAULT_ERA_LENGTH);
   }
 
@@ -91,14 +91,16 @@ public class ClassicProtocolSpecs {
                 blockReward,
                 miningBeneficiaryCalculator,
                 skipZeroBlockRewards,
-                goQuorumPrivacyParameters) ->
+                goQuorumPrivacyParameters,
+                parallelTransactionExecutor) ->
                 new ClassicBlockProcessor(
                     transactionProcessor,
                     transactionReceiptFactory,
                     blockReward,
                     miningBeneficiaryCalculator,
                     skipZeroBlockRewards,
-                    ecip1017EraRounds))
+                    ecip1017EraRounds,
+                    parallelTransactionExecutor))
         .name("Gotham");
   }
 
@@ -193,7 +195,9 @@ public class ClassicProtocolSpecs {
             quorumCompatibilityMode)
         .evmBuilder(MainnetEvmRegistries::constantinople)
         .gasCalculator(PetersburgGasCalculator::new)
-        .evmBuilder(gasCalculator -> MainnetEvmRegistries.constantinople(gasCalculator))
+        .evmBuilder(
+            (gasCalculator, evmConfiguration) ->
+                MainnetEvmRegistries.constantinople(gasCalculator, evmConfiguration))
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .name("Agharta");
   }
@@ -214,8 +218,9 @@ public class ClassicProtocolSpecs {
             quorumCompatibilityMode)
         .gasCalculator(IstanbulGasCalculator::new)
         .evmBuilder(
-            gasCalculator ->
-                MainnetEvmRegistries.istanbul(gasCalculator, chainId.orElse(BigInteger.ZERO)))
+            (gasCalculator, evmConfiguration) ->
+                MainnetEvmRegistries.istanbul(
+                    gasCalculator, chainId.orElse(BigInteger.ZERO), evmConfiguration))
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .name("Phoenix");
   }
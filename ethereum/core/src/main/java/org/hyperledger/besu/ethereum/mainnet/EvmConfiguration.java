@@ -0,0 +1,57 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.hyperledger.besu.ethereum.vm.CodeCache;
+import org.hyperledger.besu.ethereum.vm.OperandStack;
+
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+import org.immutables.value.Value;
+
+/**
+ * The components shared by the protocol specs of a schedule to execute transactions. They are
+ * owned by the node, which releases them when it stops.
+ */
+@Value.Immutable
+public interface EvmConfiguration {
+
+  EvmConfiguration DEFAULT = ImmutableEvmConfiguration.builder().build();
+
+  /**
+   * Returns the executor of the transactions of a block in parallel, if enabled.
+   *
+   * @return the executor, or empty to process the transactions sequentially
+   */
+  Optional<ParallelTransactionExecutor> getParallelTransactionExecutor();
+
+  /**
+   * Returns the factory of the operand stacks of the message frames, given their maximum size.
+   *
+   * @return the operand stack factory
+   */
+  @Value.Default
+  default IntFunction<OperandStack> getOperandStackFactory() {
+    return OperandStack::new;
+  }
+
+  /**
+   * Returns the cache of analyzed contract code shared by the EVMs of the schedule.
+   *
+   * @return the code cache, or empty to give each EVM its own cache
+   */
+  Optional<CodeCache> getCodeCache();
+}
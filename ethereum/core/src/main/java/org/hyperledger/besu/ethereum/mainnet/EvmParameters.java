@@ -0,0 +1,41 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import org.immutables.value.Value;
+
+/** The options of the node on how to execute transactions, used to create its EVM components. */
+@Value.Immutable
+public interface EvmParameters {
+
+  int DEFAULT_PARALLEL_TRANSACTION_EXECUTION_THREADS = Runtime.getRuntime().availableProcessors();
+
+  EvmParameters DEFAULT = ImmutableEvmParameters.builder().build();
+
+  @Value.Default
+  default boolean getLimbOperandStackEnabled() {
+    return false;
+  }
+
+  @Value.Default
+  default boolean getParallelTransactionExecutionEnabled() {
+    return false;
+  }
+
+  @Value.Default
+  default int getParallelTransactionExecutionThreads() {
+    return DEFAULT_PARALLEL_TRANSACTION_EXECUTION_THREADS;
+  }
+}
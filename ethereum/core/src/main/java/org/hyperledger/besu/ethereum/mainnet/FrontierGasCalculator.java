@@ -67,6 +67,8 @@ public class FrontierGasCalculator implements GasCalculator {
 
   private static final Gas MEMORY_WORD_GAS_COST = Gas.of(3L);
 
+  private static final UInt256 WORD_SIZE = UInt256.valueOf(Bytes32.SIZE);
+
   private static final Gas BALANCE_OPERATION_GAS_COST = Gas.of(20L);
 
   private static final Gas BLOCKHASH_OPERATION_GAS_COST = Gas.of(20L);
@@ -196,11 +198,12 @@ public class FrontierGasCalculator implements GasCalculator {
       final Wei transferValue,
       final Account recipient,
       final Address to) {
-    final Gas inputDataMemoryExpansionCost =
+    final long inputDataMemoryExpansionCost =
         memoryExpansionGasCost(frame, inputDataOffset, inputDataLength);
-    final Gas outputDataMemoryExpansionCost =
+    final long outputDataMemoryExpansionCost =
         memoryExpansionGasCost(frame, outputDataOffset, outputDataLength);
-    final Gas memoryExpansionCost = inputDataMemoryExpansionCost.max(outputDataMemoryExpansionCost);
+    final Gas memoryExpansionCost =
+        Gas.of(Math.max(inputDataMemoryExpansionCost, outputDataMemoryExpansionCost));
 
     Gas cost = callOperationBaseGasCost().plus(stipend).plus(memoryExpansionCost);
 
@@ -240,8 +243,8 @@ public class FrontierGasCalculator implements GasCalculator {
     final UInt256 initCodeOffset = frame.getStackItem(1);
     final UInt256 initCodeLength = frame.getStackItem(2);
 
-    final Gas memoryGasCost = memoryExpansionGasCost(frame, initCodeOffset, initCodeLength);
-    return CREATE_OPERATION_GAS_COST.plus(memoryGasCost);
+    final long memoryGasCost = memoryExpansionGasCost(frame, initCodeOffset, initCodeLength);
+    return CREATE_OPERATION_GAS_COST.plus(Gas.of(memoryGasCost));
   }
 
   @Override
@@ -250,20 +253,20 @@ public class FrontierGasCalculator implements GasCalculator {
   }
 
   @Override
-  public Gas dataCopyOperationGasCost(
+  public long dataCopyOperationGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
     return copyWordsToMemoryGasCost(
-        frame, VERY_LOW_TIER_GAS_COST, COPY_WORD_GAS_COST, offset, length);
+        frame, VERY_LOW_TIER_GAS_COST.toLong(), COPY_WORD_GAS_COST.toLong(), offset, length);
   }
 
   @Override
-  public Gas memoryExpansionGasCost(
+  public long memoryExpansionGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
 
-    final Gas pre = memoryCost(frame.memoryWordSize());
-    final Gas post = memoryCost(frame.calculateMemoryExpansion(offset, length));
+    final long pre = memoryCost(frame.memoryWordSize());
+    final long post = memoryCost(frame.calculateMemoryExpansion(offset, length));
 
-    return post.minus(pre);
+    return post - pre;
   }
 
   @Override
@@ -286,8 +289,10 @@ public class FrontierGasCalculator implements GasCalculator {
   }
 
   @Override
-  public Gas expOperationGasCost(final int numBytes) {
-    return expOperationByteGasCost().times(Gas.of(numBytes)).plus(EXP_OPERATION_BASE_GAS_COST);
+  public long expOperationGasCost(final int numBytes) {
+    return Words.clampedAdd(
+        Words.clampedMultiply(expOperationByteGasCost().toLong(), numBytes),
+        EXP_OPERATION_BASE_GAS_COST.toLong());
   }
 
   /**
@@ -300,10 +305,10 @@ public class FrontierGasCalculator implements GasCalculator {
   }
 
   @Override
-  public Gas extCodeCopyOperationGasCost(
+  public long extCodeCopyOperationGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
     return copyWordsToMemoryGasCost(
-        frame, extCodeBaseGasCost(), COPY_WORD_GAS_COST, offset, length);
+        frame, extCodeBaseGasCost().toLong(), COPY_WORD_GAS_COST.toLong(), offset, length);
   }
 
   @Override
@@ -323,31 +328,39 @@ public class FrontierGasCalculator implements GasCalculator {
   }
 
   @Override
-  public Gas logOperationGasCost(
+  public long logOperationGasCost(
       final MessageFrame frame,
       final UInt256 dataOffset,
       final UInt256 dataLength,
       final int numTopics) {
-    return Gas.ZERO
-        .plus(LOG_OPERATION_BASE_GAS_COST)
-        .plus(LOG_OPERATION_DATA_BYTE_GAS_COST.times(Gas.of(dataLength)))
-        .plus(LOG_OPERATION_TOPIC_GAS_COST.times(numTopics))
-        .plus(memoryExpansionGasCost(frame, dataOffset, dataLength));
+    long cost = LOG_OPERATION_BASE_GAS_COST.toLong();
+    cost =
+        Words.clampedAdd(
+            cost,
+            Words.clampedMultiply(
+                LOG_OPERATION_DATA_BYTE_GAS_COST.toLong(), Words.clampedToLong(dataLength)));
+    cost =
+        Words.clampedAdd(
+            cost, Words.clampedMultiply(LOG_OPERATION_TOPIC_GAS_COST.toLong(), numTopics));
+    return Words.clampedAdd(cost, memoryExpansionGasCost(frame, dataOffset, dataLength));
   }
 
   @Override
-  public Gas mLoadOperationGasCost(final MessageFrame frame, final UInt256 offset) {
-    return VERY_LOW_TIER_GAS_COST.plus(memoryExpansionGasCost(frame, offset, UInt256.valueOf(32)));
+  public long mLoadOperationGasCost(final MessageFrame frame, final UInt256 offset) {
+    return Words.clampedAdd(
+        VERY_LOW_TIER_GAS_COST.toLong(), memoryExpansionGasCost(frame, offset, WORD_SIZE));
   }
 
   @Override
-  public Gas mStoreOperationGasCost(final MessageFrame frame, final UInt256 offset) {
-    return VERY_LOW_TIER_GAS_COST.plus(memoryExpansionGasCost(frame, offset, UInt256.valueOf(32)));
+  public long mStoreOperationGasCost(final MessageFrame frame, final UInt256 offset) {
+    return Words.clampedAdd(
+        VERY_LOW_TIER_GAS_COST.toLong(), memoryExpansionGasCost(frame, offset, WORD_SIZE));
   }
 
   @Override
-  public Gas mStore8OperationGasCost(final MessageFrame frame, final UInt256 offset) {
-    return VERY_LOW_TIER_GAS_COST.plus(memoryExpansionGasCost(frame, offset, UInt256.ONE));
+  public long mStore8OperationGasCost(final MessageFrame frame, final UInt256 offset) {
+    return Words.clampedAdd(
+        VERY_LOW_TIER_GAS_COST.toLong(), memoryExpansionGasCost(frame, offset, UInt256.ONE));
   }
 
   @Override
@@ -356,10 +369,14 @@ public class FrontierGasCalculator implements GasCalculator {
   }
 
   @Override
-  public Gas sha3OperationGasCost(
+  public long sha3OperationGasCost(
       final MessageFrame frame, final UInt256 offset, final UInt256 length) {
     return copyWordsToMemoryGasCost(
-        frame, SHA3_OPERATION_BASE_GAS_COST, SHA3_OPERATION_WORD_GAS_COST, offset, length);
+        frame,
+        SHA3_OPERATION_BASE_GAS_COST.toLong(),
+        SHA3_OPERATION_WORD_GAS_COST.toLong(),
+        offset,
+        length);
   }
 
   @Override
@@ -394,27 +411,30 @@ public class FrontierGasCalculator implements GasCalculator {
     return SELF_DESTRUCT_REFUND_AMOUNT;
   }
 
-  protected Gas copyWordsToMemoryGasCost(
+  protected long copyWordsToMemoryGasCost(
       final MessageFrame frame,
-      final Gas baseGasCost,
-      final Gas wordGasCost,
+      final long baseGasCost,
+      final long wordGasCost,
       final UInt256 offset,
       final UInt256 length) {
     final UInt256 numWords = length.divideCeil(Bytes32.SIZE);
 
-    final Gas copyCost = wordGasCost.times(Gas.of(numWords)).plus(baseGasCost);
-    final Gas memoryCost = memoryExpansionGasCost(frame, offset, length);
+    final long copyCost =
+        Words.clampedAdd(
+            Words.clampedMultiply(wordGasCost, Words.clampedToLong(numWords)), baseGasCost);
+    final long memoryCost = memoryExpansionGasCost(frame, offset, length);
 
-    return copyCost.plus(memoryCost);
+    return Words.clampedAdd(copyCost, memoryCost);
   }
 
-  private static Gas memoryCost(final UInt256 length) {
+  private static long memoryCost(final UInt256 length) {
     if (!length.fitsInt()) {
-      return Gas.MAX_VALUE;
+      return Long.MAX_VALUE;
     }
-    final Gas len = Gas.of(length);
-    final Gas base = len.times(len).dividedBy(512);
+    // Fits in an int, so neither the square nor the linear term can overflow a long.
+    final long len = length.toLong();
+    final long base = len * len / 512;
 
-    return MEMORY_WORD_GAS_COST.times(len).plus(base);
+    return MEMORY_WORD_GAS_COST.toLong() * len + base;
   }
 }
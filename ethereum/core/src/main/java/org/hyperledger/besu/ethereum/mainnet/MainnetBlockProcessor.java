@@ -39,12 +39,31 @@ public class MainnetBlockProcessor extends AbstractBlockProcessor {
       final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
       final boolean skipZeroBlockRewards,
       final Optional<GoQuorumPrivacyParameters> goQuorumPrivacyParameters) {
+    this(
+        transactionProcessor,
+        transactionReceiptFactory,
+        blockReward,
+        miningBeneficiaryCalculator,
+        skipZeroBlockRewards,
+        goQuorumPrivacyParameters,
+        Optional.empty());
+  }
+
+  public MainnetBlockProcessor(
+      final MainnetTransactionProcessor transactionProcessor,
+      final AbstractBlockProcessor.TransactionReceiptFactory transactionReceiptFactory,
+      final Wei blockReward,
+      final MiningBeneficiaryCalculator miningBeneficiaryCalculator,
+      final boolean skipZeroBlockRewards,
+      final Optional<GoQuorumPrivacyParameters> goQuorumPrivacyParameters,
+      final Optional<ParallelTransactionExecutor> parallelTransactionExecutor) {
     super(
         transactionProcessor,
         transactionReceiptFactory,
         blockReward,
         miningBeneficiaryCalculator,
-        skipZeroBlockRewards);
+        skipZeroBlockRewards,
+        parallelTransactionExecutor);
   }
 
   @Override
@@ -140,7 +140,8 @@ public class MainnetContractCreationProcessor extends AbstractMessageProcessor {
         // Finalize contract creation, setting the contract code.
         final MutableAccount contract =
             frame.getWorldState().getOrCreate(frame.getContractAddress()).getMutable();
-        contract.setCode(contractCode);
+        // The output is a view of the frame memory, copy it so the account does not retain it.
+        contract.setCode(contractCode.copy());
         LOG.trace(
             "Successful creation of contract {} with code of size {} (Gas remaining: {})",
             frame.getContractAddress(),
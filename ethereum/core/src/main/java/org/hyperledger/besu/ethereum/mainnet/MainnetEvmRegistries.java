@@ -14,6 +14,7 @@
  */
 package org.hyperledger.besu.ethereum.mainnet;
 
+import org.hyperledger.besu.ethereum.vm.CodeCache;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.OperationRegistry;
@@ -102,54 +103,74 @@ import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 
 /** Provides EVMs supporting the appropriate operations for mainnet hard forks. */
-abstract class MainnetEvmRegistries {
+public final class MainnetEvmRegistries {
 
-  static EVM frontier(final GasCalculator gasCalculator) {
+  private MainnetEvmRegistries() {}
+
+  static EVM frontier(final GasCalculator gasCalculator, final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerFrontierOpcodes(registry, gasCalculator);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
   }
 
-  static EVM homestead(final GasCalculator gasCalculator) {
+  static EVM homestead(final GasCalculator gasCalculator, final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerHomesteadOpcodes(registry, gasCalculator);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
   }
 
-  static EVM byzantium(final GasCalculator gasCalculator) {
+  static EVM byzantium(final GasCalculator gasCalculator, final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerByzantiumOpcodes(registry, gasCalculator);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
   }
 
-  static EVM constantinople(final GasCalculator gasCalculator) {
+  static EVM constantinople(
+      final GasCalculator gasCalculator, final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerConstantinopleOpcodes(registry, gasCalculator);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
   }
 
-  static EVM istanbul(final GasCalculator gasCalculator, final BigInteger chainId) {
+  static EVM istanbul(
+      final GasCalculator gasCalculator,
+      final BigInteger chainId,
+      final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerIstanbulOpcodes(registry, gasCalculator, chainId);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
   }
 
-  static EVM london(final GasCalculator gasCalculator, final BigInteger chainId) {
+  static EVM london(
+      final GasCalculator gasCalculator,
+      final BigInteger chainId,
+      final EvmConfiguration evmConfiguration) {
     final OperationRegistry registry = new OperationRegistry();
 
     registerLondonOpcodes(registry, gasCalculator, chainId);
 
-    return new EVM(registry, gasCalculator);
+    return createEvm(registry, gasCalculator, evmConfiguration);
+  }
+
+  private static EVM createEvm(
+      final OperationRegistry registry,
+      final GasCalculator gasCalculator,
+      final EvmConfiguration evmConfiguration) {
+    return new EVM(
+        registry,
+        gasCalculator,
+        evmConfiguration.getOperandStackFactory(),
+        evmConfiguration.getCodeCache().orElseGet(CodeCache::new));
   }
 
   private static void registerFrontierOpcodes(
@@ -186,7 +186,21 @@ public abstract class MainnetProtocolSpecs {
 
   public static BlockProcessorBuilder blockProcessorBuilder(final boolean goQuorumMode) {
     if (goQuorumMode) {
-      return GoQuorumBlockProcessor::new;
+      // The transactions of GoQuorum blocks are always executed sequentially.
+      return (transactionProcessor,
+          transactionReceiptFactory,
+          blockReward,
+          miningBeneficiaryCalculator,
+          skipZeroBlockRewards,
+          goQuorumPrivacyParameters,
+          parallelTransactionExecutor) ->
+          new GoQuorumBlockProcessor(
+              transactionProcessor,
+              transactionReceiptFactory,
+              blockReward,
+              miningBeneficiaryCalculator,
+              skipZeroBlockRewards,
+              goQuorumPrivacyParameters);
     } else {
       return MainnetBlockProcessor::new;
     }
@@ -229,7 +243,8 @@ public abstract class MainnetProtocolSpecs {
                 blockReward,
                 miningBeneficiaryCalculator,
                 skipZeroBlockRewards,
-                goQuorumPrivacyParameters) ->
+                goQuorumPrivacyParameters,
+                parallelTransactionExecutor) ->
                 new DaoBlockProcessor(
                     new MainnetBlockProcessor(
                         transactionProcessor,
@@ -237,7 +252,8 @@ public abstract class MainnetProtocolSpecs {
                         blockReward,
                         miningBeneficiaryCalculator,
                         skipZeroBlockRewards,
-                        Optional.empty())))
+                        Optional.empty(),
+                        parallelTransactionExecutor)))
         .name("DaoRecoveryInit");
   }
 
@@ -399,8 +415,9 @@ public abstract class MainnetProtocolSpecs {
         .gasCalculator(IstanbulGasCalculator::new)
         .transactionGasCalculator(new IstanbulTransactionGasCalculator())
         .evmBuilder(
-            gasCalculator ->
-                MainnetEvmRegistries.istanbul(gasCalculator, chainId.orElse(BigInteger.ZERO)))
+            (gasCalculator, evmConfiguration) ->
+                MainnetEvmRegistries.istanbul(
+                    gasCalculator, chainId.orElse(BigInteger.ZERO), evmConfiguration))
         .precompileContractRegistryBuilder(MainnetPrecompiledContractRegistries::istanbul)
         .contractCreationProcessorBuilder(
             (transactionGasCalculator, evm) ->
@@ -520,8 +537,9 @@ public abstract class MainnetProtocolSpecs {
                     1,
                     SPURIOUS_DRAGON_FORCE_DELETE_WHEN_EMPTY_ADDRESSES))
         .evmBuilder(
-            gasCalculator ->
-                MainnetEvmRegistries.london(gasCalculator, chainId.orElse(BigInteger.ZERO)))
+            (gasCalculator, evmConfiguration) ->
+                MainnetEvmRegistries.london(
+                    gasCalculator, chainId.orElse(BigInteger.ZERO), evmConfiguration))
         .feeMarket(londonFeeMarket)
         .difficultyCalculator(MainnetDifficultyCalculators.LONDON)
         .blockHeaderValidatorBuilder(
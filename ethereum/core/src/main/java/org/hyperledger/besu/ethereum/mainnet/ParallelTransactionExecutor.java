@@ -0,0 +1,261 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.UpdateTrackingAccount;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.processing.TransactionProcessingResult;
+import org.hyperledger.besu.ethereum.vm.BlockHashLookup;
+import org.hyperledger.besu.ethereum.vm.OperationTracer;
+import org.hyperledger.besu.ethereum.worldstate.DefaultMutableWorldState;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Executes the transactions of a block optimistically in parallel.
+ *
+ * <p>All transactions are first executed concurrently, each one against the world state at the
+ * start of the block, while recording the accounts and storage slots it reads. The block is then
+ * processed in order as usual: a transaction that read nothing written by the transactions before
+ * it has its speculative updates replayed onto the world state, any other transaction is executed
+ * again on top of the state left by its predecessors. The resulting world state is therefore
+ * identical to the one of a sequential execution.
+ */
+public class ParallelTransactionExecutor implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final ExecutorService executorService;
+
+  public ParallelTransactionExecutor(final int threads) {
+    checkArgument(threads > 0, "number of threads must be positive");
+    this.executorService =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(getClass().getSimpleName() + "-%d")
+                .build());
+  }
+
+  /**
+   * Speculative executions read the world state from several threads at once, which is only safe
+   * for world states whose reads have no side effects.
+   *
+   * @param worldState the world state of the block
+   * @return true if transactions executed on top of the world state can be executed in parallel
+   */
+  static boolean supports(final MutableWorldState worldState) {
+    return worldState instanceof DefaultMutableWorldState;
+  }
+
+  Speculation speculate(
+      final MainnetTransactionProcessor transactionProcessor,
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final List<Transaction> transactions,
+      final BlockHashLookup blockHashLookup,
+      final Address miningBeneficiary) {
+    final List<CompletableFuture<SpeculativeExecution>> futures =
+        transactions.stream()
+            .map(
+                transaction ->
+                    CompletableFuture.supplyAsync(
+                            () ->
+                                execute(
+                                    transactionProcessor,
+                                    blockchain,
+                                    worldState,
+                                    blockHeader,
+                                    transaction,
+                                    blockHashLookup,
+                                    miningBeneficiary),
+                            executorService)
+                        .exceptionally(
+                            error -> {
+                              LOG.debug("Speculative execution of transaction failed", error);
+                              return null;
+                            }))
+            .collect(Collectors.toList());
+    // Wait for every execution so that none still reads the world state once it gets updated.
+    return new Speculation(
+        futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+  }
+
+  private static SpeculativeExecution execute(
+      final MainnetTransactionProcessor transactionProcessor,
+      final Blockchain blockchain,
+      final MutableWorldState worldState,
+      final BlockHeader blockHeader,
+      final Transaction transaction,
+      final BlockHashLookup blockHashLookup,
+      final Address miningBeneficiary) {
+    final SpeculativeWorldUpdater updater =
+        new SpeculativeWorldUpdater(worldState, miningBeneficiary);
+    final TransactionProcessingResult result =
+        transactionProcessor.processTransaction(
+            blockchain,
+            updater,
+            blockHeader,
+            transaction,
+            miningBeneficiary,
+            OperationTracer.NO_TRACING,
+            blockHashLookup,
+            true,
+            TransactionValidationParams.processingBlock(),
+            null);
+    return new SpeculativeExecution(updater, result);
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+  }
+
+  /** The speculative executions of the transactions of one block. */
+  static class Speculation {
+
+    private final List<SpeculativeExecution> executions;
+    private final Set<Address> writtenAccounts = new HashSet<>();
+    private final Map<Address, Set<UInt256>> writtenStorage = new HashMap<>();
+    private int replayedCount = 0;
+
+    private Speculation(final List<SpeculativeExecution> executions) {
+      this.executions = executions;
+    }
+
+    /**
+     * Replays the speculative execution of a transaction onto the given updater, unless it read
+     * state written by the transactions recorded so far.
+     *
+     * @param index the index of the transaction in the block
+     * @param updater the updater of the transaction in the real world state
+     * @return the result of the speculative execution if it was replayed, otherwise empty and the
+     *     transaction has to be executed again
+     */
+    Optional<TransactionProcessingResult> replayIfUnaffected(
+        final int index, final WorldUpdater updater) {
+      final SpeculativeExecution execution = executions.get(index);
+      // Invalid transactions are executed again so that the block is rejected by the same code
+      // path as in sequential processing.
+      if (execution == null || execution.result.isInvalid() || isAffected(execution.updater)) {
+        return Optional.empty();
+      }
+      execution.updater.replayOnto(updater);
+      replayedCount++;
+      return Optional.of(execution.result);
+    }
+
+    private boolean isAffected(final SpeculativeWorldUpdater speculativeUpdater) {
+      final boolean onlyCredited = speculativeUpdater.isMiningBeneficiaryOnlyCredited();
+      for (final Address address : speculativeUpdater.getAccountReads()) {
+        if (writtenAccounts.contains(address)
+            && !(onlyCredited && address.equals(speculativeUpdater.getMiningBeneficiary()))) {
+          return true;
+        }
+      }
+      for (final Map.Entry<Address, Set<UInt256>> reads :
+          speculativeUpdater.getStorageReads().entrySet()) {
+        final Set<UInt256> written = writtenStorage.get(reads.getKey());
+        if (written != null && !Collections.disjoint(written, reads.getValue())) {
+          return true;
+        }
+      }
+      for (final Address address : speculativeUpdater.getStorageScans()) {
+        if (writtenStorage.containsKey(address)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Records the writes of a transaction about to be committed, so that the transactions after it
+     * are checked against them.
+     *
+     * @param updater the updater of the transaction in the real world state
+     */
+    void recordWrites(final WorldUpdater updater) {
+      writtenAccounts.addAll(updater.getDeletedAccountAddresses());
+      for (final Account touched : updater.getTouchedAccounts()) {
+        final Address address = touched.getAddress();
+        if (!(touched instanceof UpdateTrackingAccount)) {
+          writtenAccounts.add(address);
+          continue;
+        }
+        final UpdateTrackingAccount<?> update = (UpdateTrackingAccount<?>) touched;
+        final Account origin = update.getWrappedAccount();
+        // Accounts only read for mutation keep their fields, a storage write alone does not
+        // affect the readers of the account's other storage slots.
+        if (origin == null
+            || update.getStorageWasCleared()
+            || update.codeWasUpdated()
+            || update.getNonce() != origin.getNonce()
+            || !update.getBalance().equals(origin.getBalance())) {
+          writtenAccounts.add(address);
+        }
+        if (!update.getUpdatedStorage().isEmpty()) {
+          writtenStorage
+              .computeIfAbsent(address, __ -> new HashSet<>())
+              .addAll(update.getUpdatedStorage().keySet());
+        }
+      }
+    }
+
+    void logSummary(final BlockHeader blockHeader) {
+      LOG.debug(
+          "Replayed {} of {} speculatively executed transactions in block {}",
+          replayedCount,
+          executions.size(),
+          blockHeader.getNumber());
+    }
+  }
+
+  private static class SpeculativeExecution {
+    private final SpeculativeWorldUpdater updater;
+    private final TransactionProcessingResult result;
+
+    private SpeculativeExecution(
+        final SpeculativeWorldUpdater updater, final TransactionProcessingResult result) {
+      this.updater = updater;
+      this.result = result;
+    }
+  }
+}
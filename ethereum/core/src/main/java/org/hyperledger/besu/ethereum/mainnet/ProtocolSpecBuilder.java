@@ -48,7 +48,7 @@ public class ProtocolSpecBuilder {
   private BlockHeaderFunctions blockHeaderFunctions;
   private AbstractBlockProcessor.TransactionReceiptFactory transactionReceiptFactory;
   private DifficultyCalculator difficultyCalculator;
-  private Function<GasCalculator, EVM> evmBuilder;
+  private BiFunction<GasCalculator, EvmConfiguration, EVM> evmBuilder;
   private Function<TransactionGasCalculator, MainnetTransactionValidator>
       transactionValidatorBuilder;
   private Function<FeeMarket, BlockHeaderValidator.Builder> blockHeaderValidatorBuilder;
@@ -72,6 +72,7 @@ public class ProtocolSpecBuilder {
   private FeeMarket feeMarket = FeeMarket.legacy();
   private BadBlockManager badBlockManager;
   private PoWHasher powHasher = PoWHasher.ETHASH_LIGHT;
+  private EvmConfiguration evmConfiguration = EvmConfiguration.DEFAULT;
 
   public ProtocolSpecBuilder gasCalculator(final Supplier<GasCalculator> gasCalculatorBuilder) {
     this.gasCalculatorBuilder = gasCalculatorBuilder;
@@ -115,7 +116,8 @@ public class ProtocolSpecBuilder {
     return this;
   }
 
-  public ProtocolSpecBuilder evmBuilder(final Function<GasCalculator, EVM> evmBuilder) {
+  public ProtocolSpecBuilder evmBuilder(
+      final BiFunction<GasCalculator, EvmConfiguration, EVM> evmBuilder) {
     this.evmBuilder = evmBuilder;
     return this;
   }
@@ -241,6 +243,11 @@ public class ProtocolSpecBuilder {
     return this;
   }
 
+  public ProtocolSpecBuilder evmConfiguration(final EvmConfiguration evmConfiguration) {
+    this.evmConfiguration = evmConfiguration;
+    return this;
+  }
+
   public ProtocolSpec build(final ProtocolSchedule protocolSchedule) {
     checkNotNull(gasCalculatorBuilder, "Missing gasCalculator");
     checkNotNull(transactionGasCalculator, "Missing transactionGasCalculator");
@@ -268,9 +275,10 @@ public class ProtocolSpecBuilder {
     checkNotNull(privacyParameters, "Missing privacy parameters");
     checkNotNull(feeMarket, "Missing fee market");
     checkNotNull(badBlockManager, "Missing bad blocks manager");
+    checkNotNull(evmConfiguration, "Missing EVM configuration");
 
     final GasCalculator gasCalculator = gasCalculatorBuilder.get();
-    final EVM evm = evmBuilder.apply(gasCalculator);
+    final EVM evm = evmBuilder.apply(gasCalculator, evmConfiguration);
     final PrecompiledContractConfiguration precompiledContractConfiguration =
         new PrecompiledContractConfiguration(gasCalculator, privacyParameters);
     final MainnetTransactionValidator transactionValidator =
@@ -309,7 +317,8 @@ public class ProtocolSpecBuilder {
             blockReward,
             miningBeneficiaryCalculator,
             skipZeroBlockRewards,
-            privacyParameters.getGoQuorumPrivacyParameters());
+            privacyParameters.getGoQuorumPrivacyParameters(),
+            evmConfiguration.getParallelTransactionExecutor());
     // Set private Tx Processor
     PrivateTransactionProcessor privateTransactionProcessor = null;
     if (privacyParameters.isEnabled()) {
@@ -416,7 +425,8 @@ public class ProtocolSpecBuilder {
         Wei blockReward,
         MiningBeneficiaryCalculator miningBeneficiaryCalculator,
         boolean skipZeroBlockRewards,
-        Optional<GoQuorumPrivacyParameters> goQuorumPrivacyParameters);
+        Optional<GoQuorumPrivacyParameters> goQuorumPrivacyParameters,
+        Optional<ParallelTransactionExecutor> parallelTransactionExecutor);
   }
 
   public interface BlockValidatorBuilder {
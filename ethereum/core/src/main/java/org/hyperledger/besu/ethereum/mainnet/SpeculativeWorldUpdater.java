@@ -0,0 +1,290 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import org.hyperledger.besu.ethereum.core.AbstractWorldUpdater;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.EvmAccount;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.UpdateTrackingAccount;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.core.WorldView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * A world updater used to execute a single transaction speculatively against the state at the
+ * start of a block.
+ *
+ * <p>Every account and storage slot read from the underlying world state is recorded, so that the
+ * transaction can later be checked against the writes of the transactions preceding it in the
+ * block. The updater is never committed: its updates are replayed onto the real world state by
+ * {@link ParallelTransactionExecutor} once the transaction turns out to be unaffected.
+ *
+ * <p>Reads of the mining beneficiary are handled specially. Every transaction credits its fee to
+ * the beneficiary, so treating that credit as a read would make each transaction conflict with the
+ * previous one. The updater instead tracks whether the beneficiary was observed before the fee
+ * credit, that is by the EVM or as the sender or recipient of the transaction. When it was not, the
+ * credit can be applied as a balance delta on top of the fees of the preceding transactions.
+ */
+class SpeculativeWorldUpdater
+    extends AbstractWorldUpdater<SpeculativeWorldUpdater.ReadRecordingView, Account> {
+
+  private final Address miningBeneficiary;
+  private boolean miningBeneficiaryObserved = false;
+  private int miningBeneficiaryRequests = 0;
+  private boolean inGetAccount = false;
+  private boolean commitRequested = false;
+
+  SpeculativeWorldUpdater(final WorldView world, final Address miningBeneficiary) {
+    super(new ReadRecordingView(world));
+    this.miningBeneficiary = miningBeneficiary;
+  }
+
+  @Override
+  protected Account getForMutation(final Address address) {
+    if (!inGetAccount && address.equals(miningBeneficiary)) {
+      // Called by a child updater, so this is an access from the EVM.
+      miningBeneficiaryObserved = true;
+    }
+    return wrappedWorldView().get(address);
+  }
+
+  @Override
+  public Account get(final Address address) {
+    if (address.equals(miningBeneficiary)) {
+      miningBeneficiaryObserved = true;
+    }
+    return super.get(address);
+  }
+
+  @Override
+  public EvmAccount getAccount(final Address address) {
+    if (!address.equals(miningBeneficiary)) {
+      return super.getAccount(address);
+    }
+    // The fee credit is the last request for the beneficiary, any earlier one is an observation.
+    miningBeneficiaryRequests++;
+    inGetAccount = true;
+    try {
+      return super.getAccount(address);
+    } finally {
+      inGetAccount = false;
+    }
+  }
+
+  @Override
+  public Collection<? extends Account> getTouchedAccounts() {
+    return new ArrayList<>(getUpdatedAccounts());
+  }
+
+  @Override
+  public Collection<Address> getDeletedAccountAddresses() {
+    return new ArrayList<>(getDeletedAccounts());
+  }
+
+  @Override
+  public void revert() {
+    getDeletedAccounts().clear();
+    getUpdatedAccounts().clear();
+  }
+
+  /**
+   * Does nothing: the updates stay in this updater until they are replayed onto the real world
+   * state, which must not be modified by a speculative execution. The transaction processor only
+   * commits the child updaters of the updater it is given, so this is never expected to be called,
+   * and {@link #replayOnto(WorldUpdater)} checks that it was not.
+   */
+  @Override
+  public void commit() {
+    commitRequested = true;
+  }
+
+  /**
+   * Returns true if the only change made to the mining beneficiary is the fee credit, so that it
+   * can be replayed as a balance delta without having read the beneficiary's balance.
+   *
+   * @return true if the mining beneficiary was only credited its fee
+   */
+  boolean isMiningBeneficiaryOnlyCredited() {
+    if (miningBeneficiaryObserved || miningBeneficiaryRequests > 1) {
+      return false;
+    }
+    final UpdateTrackingAccount<Account> beneficiary = updatedAccounts.get(miningBeneficiary);
+    if (beneficiary == null) {
+      // The beneficiary was deleted by the empty account clean up, or never credited at all.
+      return false;
+    }
+    final Account origin = beneficiary.getWrappedAccount();
+    final long originalNonce = origin == null ? Account.DEFAULT_NONCE : origin.getNonce();
+    final Wei originalBalance = origin == null ? Account.DEFAULT_BALANCE : origin.getBalance();
+    // A zero fee may leave the beneficiary empty, and whether it is then cleared depends on the
+    // state left by the previous transactions.
+    return beneficiary.getBalance().compareTo(originalBalance) > 0
+        && beneficiary.getNonce() == originalNonce
+        && !beneficiary.codeWasUpdated()
+        && !beneficiary.getStorageWasCleared()
+        && beneficiary.getUpdatedStorage().isEmpty();
+  }
+
+  Address getMiningBeneficiary() {
+    return miningBeneficiary;
+  }
+
+  Set<Address> getAccountReads() {
+    return wrappedWorldView().accountReads;
+  }
+
+  Map<Address, Set<UInt256>> getStorageReads() {
+    return wrappedWorldView().storageReads;
+  }
+
+  Set<Address> getStorageScans() {
+    return wrappedWorldView().storageScans;
+  }
+
+  /**
+   * Replays the updates of the speculative execution onto the given updater.
+   *
+   * @param updater the updater of the transaction in the real world state
+   */
+  void replayOnto(final WorldUpdater updater) {
+    checkState(!commitRequested, "Speculative updates are replayed, never committed");
+    final boolean onlyCredited = isMiningBeneficiaryOnlyCredited();
+    getDeletedAccounts().forEach(updater::deleteAccount);
+    for (final UpdateTrackingAccount<Account> update : getUpdatedAccounts()) {
+      if (onlyCredited && update.getAddress().equals(miningBeneficiary)) {
+        final Account origin = update.getWrappedAccount();
+        final Wei fee =
+            update.getBalance().subtract(origin == null ? Wei.ZERO : origin.getBalance());
+        updater.getOrCreate(miningBeneficiary).getMutable().incrementBalance(fee);
+        continue;
+      }
+      final MutableAccount account = updater.getOrCreate(update.getAddress()).getMutable();
+      account.setNonce(update.getNonce());
+      account.setBalance(update.getBalance());
+      if (update.codeWasUpdated()) {
+        account.setCode(update.getCode());
+      }
+      if (update.getStorageWasCleared()) {
+        account.clearStorage();
+      }
+      update.getUpdatedStorage().forEach(account::setStorageValue);
+    }
+  }
+
+  /** Records the accounts and storage slots read from the world state at the start of a block. */
+  static class ReadRecordingView implements WorldView {
+
+    private final WorldView world;
+    private final Set<Address> accountReads = new HashSet<>();
+    private final Map<Address, Set<UInt256>> storageReads = new HashMap<>();
+    private final Set<Address> storageScans = new HashSet<>();
+
+    private ReadRecordingView(final WorldView world) {
+      this.world = world;
+    }
+
+    @Override
+    public Account get(final Address address) {
+      accountReads.add(address);
+      final Account account = world.get(address);
+      return account == null ? null : new ReadRecordingAccount(account);
+    }
+
+    private class ReadRecordingAccount implements Account {
+
+      private final Account account;
+
+      private ReadRecordingAccount(final Account account) {
+        this.account = account;
+      }
+
+      private void recordStorageRead(final UInt256 key) {
+        storageReads.computeIfAbsent(account.getAddress(), __ -> new HashSet<>()).add(key);
+      }
+
+      @Override
+      public Address getAddress() {
+        return account.getAddress();
+      }
+
+      @Override
+      public Hash getAddressHash() {
+        return account.getAddressHash();
+      }
+
+      @Override
+      public long getNonce() {
+        return account.getNonce();
+      }
+
+      @Override
+      public Wei getBalance() {
+        return account.getBalance();
+      }
+
+      @Override
+      public Bytes getCode() {
+        return account.getCode();
+      }
+
+      @Override
+      public Hash getCodeHash() {
+        return account.getCodeHash();
+      }
+
+      @Override
+      public boolean hasCode() {
+        return account.hasCode();
+      }
+
+      @Override
+      public UInt256 getStorageValue(final UInt256 key) {
+        recordStorageRead(key);
+        return account.getStorageValue(key);
+      }
+
+      @Override
+      public UInt256 getOriginalStorageValue(final UInt256 key) {
+        recordStorageRead(key);
+        return account.getOriginalStorageValue(key);
+      }
+
+      @Override
+      public NavigableMap<Bytes32, AccountStorageEntry> storageEntriesFrom(
+          final Bytes32 startKeyHash, final int limit) {
+        storageScans.add(account.getAddress());
+        return account.storageEntriesFrom(startKeyHash, limit);
+      }
+    }
+  }
+}
@@ -37,11 +37,12 @@ public class SpuriousDragonGasCalculator extends TangerineWhistleGasCalculator {
       final Wei transferValue,
       final Account recipient,
       final Address to) {
-    final Gas inputDataMemoryExpansionCost =
+    final long inputDataMemoryExpansionCost =
         memoryExpansionGasCost(frame, inputDataOffset, inputDataLength);
-    final Gas outputDataMemoryExpansionCost =
+    final long outputDataMemoryExpansionCost =
         memoryExpansionGasCost(frame, outputDataOffset, outputDataLength);
-    final Gas memoryExpansionCost = inputDataMemoryExpansionCost.max(outputDataMemoryExpansionCost);
+    final Gas memoryExpansionCost =
+        Gas.of(Math.max(inputDataMemoryExpansionCost, outputDataMemoryExpansionCost));
 
     Gas cost = callOperationBaseGasCost().plus(memoryExpansionCost);
 
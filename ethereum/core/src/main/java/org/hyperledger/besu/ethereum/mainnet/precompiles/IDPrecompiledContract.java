@@ -34,6 +34,8 @@ public class IDPrecompiledContract extends AbstractPrecompiledContract {
 
   @Override
   public Bytes compute(final Bytes input, final MessageFrame messageFrame) {
-    return input;
+    // The input may be a view of the caller's memory, which the caller keeps writing to after
+    // the output has become its return data.
+    return input.copy();
   }
 }
@@ -96,6 +96,7 @@ public class PrivateGroupRehydrationBlockProcessor {
     final PrivateMetadataUpdater metadataUpdater =
         new PrivateMetadataUpdater(blockHeader, privateStateStorage);
 
+    final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
     for (final Transaction transaction : transactions) {
 
       final long remainingGasBudget = blockHeader.getGasLimit() - gasUsed;
@@ -109,7 +110,6 @@ public class PrivateGroupRehydrationBlockProcessor {
       }
 
       final WorldUpdater worldStateUpdater = worldState.updater();
-      final BlockHashLookup blockHashLookup = new BlockHashLookup(blockHeader, blockchain);
       final Address miningBeneficiary =
           miningBeneficiaryCalculator.calculateBeneficiary(blockHeader);
 
@@ -147,7 +147,7 @@ public class PrivateGroupRehydrationBlockProcessor {
                 privateTransaction,
                 miningBeneficiary,
                 OperationTracer.NO_TRACING,
-                new BlockHashLookup(blockHeader, blockchain),
+                blockHashLookup,
                 privateTransaction.getPrivacyGroupId().get());
 
         privateWorldStateUpdater.commit();
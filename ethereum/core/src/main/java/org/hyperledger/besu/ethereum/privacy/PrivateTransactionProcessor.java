@@ -16,7 +16,6 @@ package org.hyperledger.besu.ethereum.privacy;
 
 import org.hyperledger.besu.ethereum.chain.Blockchain;
 import org.hyperledger.besu.ethereum.core.Account;
-import org.hyperledger.besu.ethereum.core.AccountState;
 import org.hyperledger.besu.ethereum.core.Address;
 import org.hyperledger.besu.ethereum.core.EvmAccount;
 import org.hyperledger.besu.ethereum.core.Gas;
@@ -125,6 +124,7 @@ public class PrivateTransactionProcessor {
           MessageFrame.builder()
               .messageFrameStack(messageFrameStack)
               .maxStackSize(maxStackSize)
+              .operandStackFactory(messageCallProcessor.getOperandStackFactory())
               .blockchain(blockchain)
               .worldState(mutablePrivateWorldStateUpdater)
               .initialGas(Gas.MAX_VALUE)
@@ -169,7 +169,10 @@ public class PrivateTransactionProcessor {
                 .address(to)
                 .contract(to)
                 .inputData(transaction.getPayload())
-                .code(new Code(maybeContract.map(AccountState::getCode).orElse(Bytes.EMPTY)))
+                .code(
+                    maybeContract
+                        .map(c -> messageCallProcessor.getCode(c.getCodeHash(), c.getCode()))
+                        .orElse(new Code()))
                 .build();
       }
 
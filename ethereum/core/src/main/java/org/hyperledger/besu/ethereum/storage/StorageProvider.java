@@ -17,6 +17,8 @@ package org.hyperledger.besu.ethereum.storage;
 import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.goquorum.GoQuorumPrivateStorage;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.storage.keyvalue.BlockFreezer;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageFormat;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
@@ -29,8 +31,29 @@ public interface StorageProvider extends Closeable {
 
   BlockchainStorage createBlockchainStorage(ProtocolSchedule protocolSchedule);
 
+  /**
+   * Creates a blockchain storage whose old blocks have their bodies and transaction receipts moved
+   * to the given freezer.
+   *
+   * @param protocolSchedule the protocol schedule
+   * @param blockFreezer the freezer of the old blocks
+   * @return the blockchain storage
+   */
+  BlockchainStorage createBlockchainStorage(
+      ProtocolSchedule protocolSchedule, BlockFreezer blockFreezer);
+
   WorldStateStorage createWorldStateStorage(DataStorageFormat dataStorageFormat);
 
+  /**
+   * Creates a world state storage reading its trie nodes through the given cache.
+   *
+   * @param dataStorageFormat the format of the world state storage
+   * @param trieNodeCache the cache of trie nodes
+   * @return the world state storage
+   */
+  WorldStateStorage createWorldStateStorage(
+      DataStorageFormat dataStorageFormat, TrieNodeCache trieNodeCache);
+
   WorldStatePreimageStorage createWorldStatePreimageStorage();
 
   KeyValueStorage getStorageBySegmentIdentifier(SegmentIdentifier segment);
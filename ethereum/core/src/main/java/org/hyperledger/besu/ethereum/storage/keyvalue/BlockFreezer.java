@@ -0,0 +1,109 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * The bodies and transaction receipts of old canonical blocks, moved out of the key-value storage
+ * to append-only flat files indexed by block number.
+ *
+ * <p>Blocks are frozen in order from the genesis block, so the freezer holds the blocks below its
+ * block count. Immutable history is then no longer rewritten by the compactions of the key-value
+ * storage.
+ */
+public class BlockFreezer implements Closeable {
+
+  public static final String DIRECTORY_NAME = "freezer";
+  private static final long DEFAULT_MAX_FILE_SIZE = 1024 * 1024 * 1024;
+
+  private final FreezerTable bodies;
+  private final FreezerTable receipts;
+
+  private BlockFreezer(final FreezerTable bodies, final FreezerTable receipts) {
+    this.bodies = bodies;
+    this.receipts = receipts;
+  }
+
+  public static BlockFreezer open(final Path directory) {
+    return open(directory, DEFAULT_MAX_FILE_SIZE);
+  }
+
+  static BlockFreezer open(final Path directory, final long maxFileSize) {
+    return new BlockFreezer(
+        FreezerTable.open(directory, "bodies", maxFileSize),
+        FreezerTable.open(directory, "receipts", maxFileSize));
+  }
+
+  /**
+   * Returns the number of blocks held, which is the number of the next block to freeze.
+   *
+   * @return the number of blocks held
+   */
+  public long getBlockCount() {
+    return Math.min(bodies.size(), receipts.size());
+  }
+
+  public Optional<Bytes> getBlockBody(final long blockNumber) {
+    return bodies.get(blockNumber).map(Bytes::wrap);
+  }
+
+  public Optional<Bytes> getTransactionReceipts(final long blockNumber) {
+    return receipts.get(blockNumber).map(Bytes::wrap);
+  }
+
+  void append(final long blockNumber, final Bytes body, final Bytes transactionReceipts) {
+    checkState(
+        blockNumber == getBlockCount(),
+        "Block %s frozen out of order, expected block %s",
+        blockNumber,
+        getBlockCount());
+    bodies.append(body.toArrayUnsafe());
+    receipts.append(transactionReceipts.toArrayUnsafe());
+  }
+
+  void sync() {
+    bodies.sync();
+    receipts.sync();
+  }
+
+  /**
+   * Drops the blocks from the given block number onwards, those appended but not committed as
+   * frozen to the key-value storage before the node stopped.
+   *
+   * @param blockCount the number of blocks to keep
+   */
+  void truncate(final long blockCount) {
+    checkState(
+        blockCount <= getBlockCount(),
+        "The freezer holds %s blocks, %s were frozen",
+        getBlockCount(),
+        blockCount);
+    bodies.truncate(blockCount);
+    receipts.truncate(blockCount);
+  }
+
+  @Override
+  public void close() {
+    bodies.close();
+    receipts.close();
+  }
+}
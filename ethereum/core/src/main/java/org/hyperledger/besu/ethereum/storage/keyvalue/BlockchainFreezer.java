@@ -0,0 +1,190 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.io.Closeable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Moves the bodies and transaction receipts of the blocks older than a window of recent blocks to
+ * the {@link BlockFreezer}.
+ *
+ * <p>Blocks are frozen in the background, in batches of consecutive block numbers separated by a
+ * pause so that freezing does not compete with block import. Only canonical blocks are frozen, the
+ * window must be deeper than any expected reorg.
+ */
+public class BlockchainFreezer implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final int DEFAULT_BATCH_SIZE = 1_000;
+  private static final long DEFAULT_BATCH_DELAY_MILLIS = 100;
+
+  private final KeyValueStoragePrefixedKeyBlockchainStorage blockchainStorage;
+  private final BlockFreezer blockFreezer;
+  private final Blockchain blockchain;
+  private final long blocksRetained;
+  private final int batchSize;
+  private final long batchDelayMillis;
+  private final ExecutorService executorService;
+  private final AtomicBoolean freezing = new AtomicBoolean(false);
+  private final Counter frozenBlocksCounter;
+  private Long blockAddedObserverId;
+
+  public BlockchainFreezer(
+      final KeyValueStoragePrefixedKeyBlockchainStorage blockchainStorage,
+      final BlockFreezer blockFreezer,
+      final Blockchain blockchain,
+      final long blocksRetained,
+      final MetricsSystem metricsSystem) {
+    this(
+        blockchainStorage,
+        blockFreezer,
+        blockchain,
+        blocksRetained,
+        DEFAULT_BATCH_SIZE,
+        DEFAULT_BATCH_DELAY_MILLIS,
+        metricsSystem,
+        new ThreadPoolExecutor(
+            0,
+            1,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("BlockFreezer-%d")
+                .build()));
+  }
+
+  @VisibleForTesting
+  BlockchainFreezer(
+      final KeyValueStoragePrefixedKeyBlockchainStorage blockchainStorage,
+      final BlockFreezer blockFreezer,
+      final Blockchain blockchain,
+      final long blocksRetained,
+      final int batchSize,
+      final long batchDelayMillis,
+      final MetricsSystem metricsSystem,
+      final ExecutorService executorService) {
+    checkArgument(blocksRetained > 0, "at least one block must be retained");
+    checkArgument(batchSize > 0, "batch size must be positive");
+    this.blockchainStorage = blockchainStorage;
+    this.blockFreezer = blockFreezer;
+    this.blockchain = blockchain;
+    this.blocksRetained = blocksRetained;
+    this.batchSize = batchSize;
+    this.batchDelayMillis = batchDelayMillis;
+    this.executorService = executorService;
+
+    frozenBlocksCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.BLOCKCHAIN,
+            "frozen_blocks_total",
+            "Total number of blocks whose bodies and receipts were moved to the freezer");
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.BLOCKCHAIN,
+        "frozen_block_count",
+        "Number of old blocks whose bodies and receipts are read from the freezer",
+        blockchainStorage::getFrozenBlockCount);
+  }
+
+  public void start() {
+    LOG.info(
+        "Starting block freezer, retaining {} blocks from block {}",
+        blocksRetained,
+        blockchainStorage.getFrozenBlockCount());
+    blockAddedObserverId = blockchain.observeBlockAdded(this::handleNewBlock);
+  }
+
+  public void stop() {
+    if (blockAddedObserverId != null) {
+      LOG.info("Stopping block freezer.");
+      blockchain.removeObserver(blockAddedObserverId);
+      blockAddedObserverId = null;
+    }
+    executorService.shutdownNow();
+  }
+
+  @Override
+  public void close() {
+    stop();
+    try {
+      if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+        LOG.error("Failed to shutdown block freezer executor service.");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    blockFreezer.close();
+  }
+
+  private void handleNewBlock(final BlockAddedEvent event) {
+    if (event.isNewCanonicalHead()
+        && waterline() - blockchainStorage.getFrozenBlockCount() >= batchSize
+        && freezing.compareAndSet(false, true)) {
+      executorService.execute(this::freezeInBatches);
+    }
+  }
+
+  private long waterline() {
+    return blockchain.getChainHeadBlockNumber() - blocksRetained;
+  }
+
+  private void freezeInBatches() {
+    try {
+      final long waterline = waterline();
+      while (blockchainStorage.getFrozenBlockCount() < waterline
+          && !Thread.currentThread().isInterrupted()) {
+        final long frozen =
+            blockchainStorage.freezeBlocks(
+                Math.min(blockchainStorage.getFrozenBlockCount() + batchSize, waterline));
+        if (frozen == 0) {
+          // the next block is not fully stored yet
+          break;
+        }
+        frozenBlocksCounter.inc(frozen);
+        LOG.debug("Froze blocks up to block {}", blockchainStorage.getFrozenBlockCount());
+        if (blockchainStorage.getFrozenBlockCount() < waterline) {
+          Thread.sleep(batchDelayMillis);
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final RuntimeException e) {
+      LOG.error("Unable to freeze blocks, retrying on the next block.", e);
+    } finally {
+      freezing.set(false);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An append-only table of entries numbered from 0, stored in flat files.
+ *
+ * <p>The entries are appended to data files of a bounded size, and the position of each entry is
+ * recorded in an index file of fixed-size records, so that an entry is found from its number with
+ * a single index read. The data files other than the last one are never written again and are
+ * memory-mapped when first read, the last one is read through its channel as it grows.
+ *
+ * <p>Entries are appended by a single thread, and can be read concurrently.
+ */
+class FreezerTable implements Closeable {
+
+  // file number, offset and length of the entry, as ints
+  private static final int INDEX_ENTRY_SIZE = 3 * Integer.BYTES;
+
+  private final Path directory;
+  private final String name;
+  private final long maxFileSize;
+  private final FileChannel indexChannel;
+  private final Map<Integer, MappedByteBuffer> sealedFiles = new ConcurrentHashMap<>();
+  // previous heads, still possibly read by the readers that looked them up before a roll
+  private final List<FileChannel> retiredChannels = new ArrayList<>();
+
+  private volatile Head head;
+  private volatile long size;
+
+  private FreezerTable(
+      final Path directory,
+      final String name,
+      final long maxFileSize,
+      final FileChannel indexChannel,
+      final long size)
+      throws IOException {
+    this.directory = directory;
+    this.name = name;
+    this.maxFileSize = maxFileSize;
+    this.indexChannel = indexChannel;
+    this.head = new Head(0, openDataFile(0), 0);
+    this.size = size;
+  }
+
+  static FreezerTable open(final Path directory, final String name, final long maxFileSize) {
+    checkArgument(
+        maxFileSize > 0 && maxFileSize <= Integer.MAX_VALUE, "invalid maximum file size");
+    try {
+      Files.createDirectories(directory);
+      final FileChannel indexChannel =
+          FileChannel.open(
+              directory.resolve(name + ".idx"),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      final FreezerTable table =
+          new FreezerTable(
+              directory, name, maxFileSize, indexChannel, indexChannel.size() / INDEX_ENTRY_SIZE);
+      // Drops what was written after the last complete entry before a crash.
+      table.truncate(table.size);
+      return table;
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  long size() {
+    return size;
+  }
+
+  Optional<byte[]> get(final long number) {
+    if (number < 0 || number >= size) {
+      return Optional.empty();
+    }
+    try {
+      final ByteBuffer indexEntry = readIndexEntry(number);
+      final int fileNumber = indexEntry.getInt();
+      final int offset = indexEntry.getInt();
+      final byte[] data = new byte[indexEntry.getInt()];
+      final Head currentHead = head;
+      if (fileNumber == currentHead.fileNumber) {
+        readFully(currentHead.channel, ByteBuffer.wrap(data), offset);
+      } else {
+        final ByteBuffer sealedFile = sealedFile(fileNumber).duplicate();
+        sealedFile.position(offset);
+        sealedFile.get(data);
+      }
+      return Optional.of(data);
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  synchronized void append(final byte[] data) {
+    try {
+      if (head.endOffset > 0 && head.endOffset + data.length > maxFileSize) {
+        roll();
+      }
+      final Head currentHead = head;
+      writeFully(currentHead.channel, ByteBuffer.wrap(data), currentHead.endOffset);
+      final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+      indexEntry.putInt(currentHead.fileNumber).putInt((int) currentHead.endOffset);
+      indexEntry.putInt(data.length).flip();
+      writeFully(indexChannel, indexEntry, size * INDEX_ENTRY_SIZE);
+      currentHead.endOffset += data.length;
+      size++;
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  /** Forces the appended entries to the disk. */
+  synchronized void sync() {
+    try {
+      head.channel.force(false);
+      indexChannel.force(false);
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  /**
+   * Removes the entries from the given number onwards.
+   *
+   * @param newSize the number of entries to keep
+   */
+  synchronized void truncate(final long newSize) {
+    checkArgument(newSize <= size, "cannot truncate %s entries to %s", size, newSize);
+    try {
+      int fileNumber = 0;
+      long endOffset = 0;
+      if (newSize > 0) {
+        final ByteBuffer lastEntry = readIndexEntry(newSize - 1);
+        fileNumber = lastEntry.getInt();
+        endOffset = (long) lastEntry.getInt() + lastEntry.getInt();
+      }
+      size = newSize;
+      indexChannel.truncate(newSize * INDEX_ENTRY_SIZE);
+      if (fileNumber != head.fileNumber) {
+        retiredChannels.add(head.channel);
+        head = new Head(fileNumber, openDataFile(fileNumber), endOffset);
+      }
+      head.channel.truncate(endOffset);
+      head.endOffset = endOffset;
+      sealedFiles.keySet().removeIf(sealed -> sealed >= head.fileNumber);
+      for (int next = head.fileNumber + 1; Files.deleteIfExists(dataFile(next)); next++) {
+        // deleted the data files after the head
+      }
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      head.channel.close();
+      for (final FileChannel channel : retiredChannels) {
+        channel.close();
+      }
+      indexChannel.close();
+    } catch (final IOException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  private void roll() throws IOException {
+    head.channel.force(false);
+    retiredChannels.add(head.channel);
+    final int fileNumber = head.fileNumber + 1;
+    head = new Head(fileNumber, openDataFile(fileNumber), 0);
+  }
+
+  private ByteBuffer readIndexEntry(final long number) throws IOException {
+    final ByteBuffer indexEntry = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+    readFully(indexChannel, indexEntry, number * INDEX_ENTRY_SIZE);
+    return indexEntry.flip();
+  }
+
+  private MappedByteBuffer sealedFile(final int fileNumber) throws IOException {
+    final MappedByteBuffer mapped = sealedFiles.get(fileNumber);
+    if (mapped != null) {
+      return mapped;
+    }
+    try (final FileChannel channel = FileChannel.open(dataFile(fileNumber))) {
+      final MappedByteBuffer newlyMapped =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      final MappedByteBuffer previous = sealedFiles.putIfAbsent(fileNumber, newlyMapped);
+      return previous != null ? previous : newlyMapped;
+    }
+  }
+
+  private FileChannel openDataFile(final int fileNumber) throws IOException {
+    return FileChannel.open(
+        dataFile(fileNumber),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+  }
+
+  private Path dataFile(final int fileNumber) {
+    return directory.resolve(String.format("%s.%04d.dat", name, fileNumber));
+  }
+
+  private static void readFully(
+      final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of freezer file");
+      }
+    }
+  }
+
+  private static void writeFully(
+      final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer, position + buffer.position());
+    }
+  }
+
+  private static class Head {
+    private final int fileNumber;
+    private final FileChannel channel;
+    private long endOffset;
+
+    private Head(final int fileNumber, final FileChannel channel, final long endOffset) {
+      this.fileNumber = fileNumber;
+      this.channel = channel;
+      this.endOffset = endOffset;
+    }
+  }
+}
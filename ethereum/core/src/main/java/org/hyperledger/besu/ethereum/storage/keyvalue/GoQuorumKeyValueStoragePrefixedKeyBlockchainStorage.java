@@ -36,6 +36,13 @@ public class GoQuorumKeyValueStoragePrefixedKeyBlockchainStorage
     super(storage, blockHeaderFunctions);
   }
 
+  public GoQuorumKeyValueStoragePrefixedKeyBlockchainStorage(
+      final KeyValueStorage storage,
+      final BlockHeaderFunctions blockHeaderFunctions,
+      final BlockFreezer blockFreezer) {
+    super(storage, blockHeaderFunctions, blockFreezer);
+  }
+
   @Override
   public Optional<BlockHeader> getBlockHeader(final Hash blockHash) {
     final Optional<BlockHeader> blockHeaderOptional =
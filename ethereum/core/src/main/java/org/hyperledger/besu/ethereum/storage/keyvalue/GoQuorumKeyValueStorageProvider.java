@@ -49,4 +49,13 @@ public class GoQuorumKeyValueStorageProvider extends KeyValueStorageProvider {
         getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.BLOCKCHAIN),
         ScheduleBasedBlockHeaderFunctions.create(protocolSchedule));
   }
+
+  @Override
+  public BlockchainStorage createBlockchainStorage(
+      final ProtocolSchedule protocolSchedule, final BlockFreezer blockFreezer) {
+    return new GoQuorumKeyValueStoragePrefixedKeyBlockchainStorage(
+        getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.BLOCKCHAIN),
+        ScheduleBasedBlockHeaderFunctions.create(protocolSchedule),
+        blockFreezer);
+  }
 }
@@ -15,33 +15,46 @@
 package org.hyperledger.besu.ethereum.storage.keyvalue;
 
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
 
 import org.bouncycastle.util.Arrays;
 
 public enum KeyValueSegmentIdentifier implements SegmentIdentifier {
-  BLOCKCHAIN(new byte[] {1}),
-  WORLD_STATE(new byte[] {2}, new int[] {0, 1}),
+  BLOCKCHAIN(new byte[] {1}, SegmentTuningProfile.APPEND_ONLY),
+  WORLD_STATE(new byte[] {2}, new int[] {0, 1}, SegmentTuningProfile.HASH_KEYED),
   PRIVATE_TRANSACTIONS(new byte[] {3}),
   PRIVATE_STATE(new byte[] {4}),
   PRUNING_STATE(new byte[] {5}, new int[] {0, 1}),
-  ACCOUNT_INFO_STATE(new byte[] {6}, new int[] {2}),
-  CODE_STORAGE(new byte[] {7}, new int[] {2}),
-  ACCOUNT_STORAGE_STORAGE(new byte[] {8}, new int[] {2}),
+  ACCOUNT_INFO_STATE(new byte[] {6}, new int[] {2}, SegmentTuningProfile.HASH_KEYED),
+  CODE_STORAGE(new byte[] {7}, new int[] {2}, SegmentTuningProfile.HASH_KEYED),
+  ACCOUNT_STORAGE_STORAGE(
+      new byte[] {8}, new int[] {2}, SegmentTuningProfile.ACCOUNT_HASH_PREFIXED),
   TRIE_BRANCH_STORAGE(new byte[] {9}, new int[] {2}),
-  TRIE_LOG_STORAGE(new byte[] {10}, new int[] {2}),
+  TRIE_LOG_STORAGE(new byte[] {10}, new int[] {2}, SegmentTuningProfile.APPEND_ONLY),
   GOQUORUM_PRIVATE_WORLD_STATE(new byte[] {11}),
   GOQUORUM_PRIVATE_STORAGE(new byte[] {12});
 
   private final byte[] id;
   private final int[] versionList;
+  private final SegmentTuningProfile tuningProfile;
 
   KeyValueSegmentIdentifier(final byte[] id) {
-    this(id, new int[] {0, 1, 2});
+    this(id, SegmentTuningProfile.DEFAULT);
+  }
+
+  KeyValueSegmentIdentifier(final byte[] id, final SegmentTuningProfile tuningProfile) {
+    this(id, new int[] {0, 1, 2}, tuningProfile);
   }
 
   KeyValueSegmentIdentifier(final byte[] id, final int[] versionList) {
+    this(id, versionList, SegmentTuningProfile.DEFAULT);
+  }
+
+  KeyValueSegmentIdentifier(
+      final byte[] id, final int[] versionList, final SegmentTuningProfile tuningProfile) {
     this.id = id;
     this.versionList = versionList;
+    this.tuningProfile = tuningProfile;
   }
 
   @Override
@@ -58,4 +71,9 @@ public enum KeyValueSegmentIdentifier implements SegmentIdentifier {
   public boolean includeInDatabaseVersion(final int version) {
     return Arrays.contains(versionList, version);
   }
+
+  @Override
+  public SegmentTuningProfile getTuningProfile() {
+    return tuningProfile;
+  }
 }
@@ -14,6 +14,8 @@
  */
 package org.hyperledger.besu.ethereum.storage.keyvalue;
 
+import static com.google.common.base.Preconditions.checkState;
+
 import org.hyperledger.besu.ethereum.chain.BlockchainStorage;
 import org.hyperledger.besu.ethereum.chain.TransactionLocation;
 import org.hyperledger.besu.ethereum.core.BlockBody;
@@ -30,6 +32,9 @@ import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.google.common.collect.Lists;
 import org.apache.tuweni.bytes.Bytes;
@@ -42,6 +47,8 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
       Bytes.wrap("chainHeadHash".getBytes(StandardCharsets.UTF_8));
   private static final Bytes FORK_HEADS_KEY =
       Bytes.wrap("forkHeads".getBytes(StandardCharsets.UTF_8));
+  private static final Bytes FROZEN_BLOCK_COUNT_KEY =
+      Bytes.wrap("frozenBlockCount".getBytes(StandardCharsets.UTF_8));
 
   private static final Bytes CONSTANTS_PREFIX = Bytes.of(1);
   static final Bytes BLOCK_HEADER_PREFIX = Bytes.of(2);
@@ -53,11 +60,45 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
 
   final KeyValueStorage storage;
   final BlockHeaderFunctions blockHeaderFunctions;
+  private final Optional<BlockFreezer> blockFreezer;
+  private volatile long frozenBlockCount;
 
   public KeyValueStoragePrefixedKeyBlockchainStorage(
       final KeyValueStorage storage, final BlockHeaderFunctions blockHeaderFunctions) {
+    this(storage, blockHeaderFunctions, Optional.empty());
+  }
+
+  /**
+   * Creates a storage whose old blocks have their bodies and transaction receipts moved to a
+   * freezer, from which they are transparently read.
+   *
+   * @param storage the key-value storage
+   * @param blockHeaderFunctions the block header functions
+   * @param blockFreezer the freezer of the old blocks
+   */
+  public KeyValueStoragePrefixedKeyBlockchainStorage(
+      final KeyValueStorage storage,
+      final BlockHeaderFunctions blockHeaderFunctions,
+      final BlockFreezer blockFreezer) {
+    this(storage, blockHeaderFunctions, Optional.of(blockFreezer));
+  }
+
+  private KeyValueStoragePrefixedKeyBlockchainStorage(
+      final KeyValueStorage storage,
+      final BlockHeaderFunctions blockHeaderFunctions,
+      final Optional<BlockFreezer> blockFreezer) {
     this.storage = storage;
     this.blockHeaderFunctions = blockHeaderFunctions;
+    this.blockFreezer = blockFreezer;
+    this.frozenBlockCount =
+        get(CONSTANTS_PREFIX, FROZEN_BLOCK_COUNT_KEY).map(Bytes::toLong).orElse(0L);
+    checkState(
+        blockFreezer.isPresent() || frozenBlockCount == 0,
+        "The bodies and receipts of the first %s blocks were moved to the block freezer, "
+            + "which must be opened to read them",
+        frozenBlockCount);
+    // The blocks appended to the freezer after the last committed batch are frozen again.
+    blockFreezer.ifPresent(freezer -> freezer.truncate(frozenBlockCount));
   }
 
   @Override
@@ -81,12 +122,37 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
   @Override
   public Optional<BlockBody> getBlockBody(final Hash blockHash) {
     return get(BLOCK_BODY_PREFIX, blockHash)
+        .or(() -> getFrozen(blockHash, BlockFreezer::getBlockBody))
         .map(bytes -> BlockBody.readFrom(RLP.input(bytes), blockHeaderFunctions));
   }
 
   @Override
   public Optional<List<TransactionReceipt>> getTransactionReceipts(final Hash blockHash) {
-    return get(TRANSACTION_RECEIPTS_PREFIX, blockHash).map(this::rlpDecodeTransactionReceipts);
+    return get(TRANSACTION_RECEIPTS_PREFIX, blockHash)
+        .or(() -> getFrozen(blockHash, BlockFreezer::getTransactionReceipts))
+        .map(this::rlpDecodeTransactionReceipts);
+  }
+
+  @Override
+  public List<Optional<List<TransactionReceipt>>> getAllTransactionReceipts(
+      final List<Hash> blockHashes) {
+    final List<byte[]> keys =
+        blockHashes.stream()
+            .map(blockHash -> Bytes.concatenate(TRANSACTION_RECEIPTS_PREFIX, blockHash))
+            .map(Bytes::toArrayUnsafe)
+            .collect(Collectors.toList());
+    final List<Optional<byte[]>> values = storage.getAll(keys);
+    return IntStream.range(0, blockHashes.size())
+        .mapToObj(
+            i ->
+                values
+                    .get(i)
+                    .map(Bytes::wrap)
+                    .or(
+                        () ->
+                            getFrozen(blockHashes.get(i), BlockFreezer::getTransactionReceipts))
+                    .map(this::rlpDecodeTransactionReceipts))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -110,6 +176,78 @@ public class KeyValueStoragePrefixedKeyBlockchainStorage implements BlockchainSt
     return new Updater(storage.startTransaction());
   }
 
+  /**
+   * Returns the number of blocks whose bodies and transaction receipts were moved to the freezer.
+   *
+   * @return the number of the first block not frozen
+   */
+  public long getFrozenBlockCount() {
+    return frozenBlockCount;
+  }
+
+  /**
+   * Moves the bodies and transaction receipts of the canonical blocks to the freezer, from the
+   * first block not frozen up to the given block number, excluded. Freezing stops early at the
+   * first block whose body or receipts are not stored yet.
+   *
+   * <p>The blocks are written to the freezer first, then removed from the key-value storage along
+   * with the update of the number of frozen blocks, so that no block is lost if the node stops in
+   * between.
+   *
+   * @param endBlockNumber the number of the block to stop at
+   * @return the number of blocks frozen
+   */
+  public long freezeBlocks(final long endBlockNumber) {
+    final BlockFreezer freezer =
+        blockFreezer.orElseThrow(() -> new IllegalStateException("No block freezer configured"));
+    final KeyValueStorageTransaction batch = storage.startWriteBatch();
+    long blockNumber = frozenBlockCount;
+    for (; blockNumber < endBlockNumber; blockNumber++) {
+      final Optional<Hash> blockHash = getBlockHash(blockNumber);
+      final Optional<Bytes> body = blockHash.flatMap(hash -> get(BLOCK_BODY_PREFIX, hash));
+      final Optional<Bytes> receipts =
+          blockHash.flatMap(hash -> get(TRANSACTION_RECEIPTS_PREFIX, hash));
+      if (body.isEmpty() || receipts.isEmpty()) {
+        break;
+      }
+      freezer.append(blockNumber, body.get(), receipts.get());
+      batch.remove(Bytes.concatenate(BLOCK_BODY_PREFIX, blockHash.get()).toArrayUnsafe());
+      batch.remove(Bytes.concatenate(TRANSACTION_RECEIPTS_PREFIX, blockHash.get()).toArrayUnsafe());
+    }
+    final long frozen = blockNumber - frozenBlockCount;
+    if (frozen == 0) {
+      batch.rollback();
+      return 0;
+    }
+    freezer.sync();
+    batch.put(
+        Bytes.concatenate(CONSTANTS_PREFIX, FROZEN_BLOCK_COUNT_KEY).toArrayUnsafe(),
+        Bytes.ofUnsignedLong(blockNumber).toArrayUnsafe());
+    try {
+      batch.commit();
+    } catch (final RuntimeException e) {
+      // The blocks are still in the key-value storage, drop the copies appended to the freezer.
+      freezer.truncate(frozenBlockCount);
+      throw e;
+    }
+    // Readers fall back to the freezer once the blocks are removed from the key-value storage.
+    frozenBlockCount = blockNumber;
+    return frozen;
+  }
+
+  private Optional<Bytes> getFrozen(
+      final Hash blockHash, final BiFunction<BlockFreezer, Long, Optional<Bytes>> reader) {
+    if (blockFreezer.isEmpty()) {
+      return Optional.empty();
+    }
+    // Only canonical blocks are frozen, the hash of the frozen block at that number must match.
+    return getBlockHeader(blockHash)
+        .map(BlockHeader::getNumber)
+        .filter(blockNumber -> blockNumber < frozenBlockCount)
+        .filter(blockNumber -> getBlockHash(blockNumber).filter(blockHash::equals).isPresent())
+        .flatMap(blockNumber -> reader.apply(blockFreezer.get(), blockNumber));
+  }
+
   private List<TransactionReceipt> rlpDecodeTransactionReceipts(final Bytes bytes) {
     return RLP.input(bytes).readList(TransactionReceipt::readFrom);
   }
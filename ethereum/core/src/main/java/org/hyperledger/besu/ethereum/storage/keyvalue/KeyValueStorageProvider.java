@@ -21,6 +21,7 @@ import org.hyperledger.besu.ethereum.goquorum.GoQuorumPrivateStorage;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
 import org.hyperledger.besu.ethereum.mainnet.ScheduleBasedBlockHeaderFunctions;
 import org.hyperledger.besu.ethereum.storage.StorageProvider;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
 import org.hyperledger.besu.ethereum.worldstate.DataStorageFormat;
 import org.hyperledger.besu.ethereum.worldstate.WorldStatePreimageStorage;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
@@ -68,13 +69,28 @@ public class KeyValueStorageProvider implements StorageProvider {
         ScheduleBasedBlockHeaderFunctions.create(protocolSchedule));
   }
 
+  @Override
+  public BlockchainStorage createBlockchainStorage(
+      final ProtocolSchedule protocolSchedule, final BlockFreezer blockFreezer) {
+    return new KeyValueStoragePrefixedKeyBlockchainStorage(
+        getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.BLOCKCHAIN),
+        ScheduleBasedBlockHeaderFunctions.create(protocolSchedule),
+        blockFreezer);
+  }
+
   @Override
   public WorldStateStorage createWorldStateStorage(final DataStorageFormat dataStorageFormat) {
+    return createWorldStateStorage(dataStorageFormat, TrieNodeCache.DISABLED);
+  }
+
+  @Override
+  public WorldStateStorage createWorldStateStorage(
+      final DataStorageFormat dataStorageFormat, final TrieNodeCache trieNodeCache) {
     if (dataStorageFormat.equals(DataStorageFormat.BONSAI)) {
-      return new BonsaiWorldStateKeyValueStorage(this);
+      return new BonsaiWorldStateKeyValueStorage(this, trieNodeCache);
     } else {
       return new WorldStateKeyValueStorage(
-          getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.WORLD_STATE));
+          getStorageBySegmentIdentifier(KeyValueSegmentIdentifier.WORLD_STATE), trieNodeCache);
     }
   }
 
@@ -16,12 +16,16 @@ package org.hyperledger.besu.ethereum.storage.keyvalue;
 
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.TrieNodeCache;
 import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.util.Subscribers;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,6 +34,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
+import com.google.common.util.concurrent.RateLimiter;
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
 
@@ -37,10 +42,17 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   private final Subscribers<NodesAddedListener> nodeAddedListeners = Subscribers.create();
   private final KeyValueStorage keyValueStorage;
+  private final TrieNodeCache trieNodeCache;
   private final ReentrantLock lock = new ReentrantLock();
 
   public WorldStateKeyValueStorage(final KeyValueStorage keyValueStorage) {
+    this(keyValueStorage, TrieNodeCache.DISABLED);
+  }
+
+  public WorldStateKeyValueStorage(
+      final KeyValueStorage keyValueStorage, final TrieNodeCache trieNodeCache) {
     this.keyValueStorage = keyValueStorage;
+    this.trieNodeCache = trieNodeCache;
   }
 
   @Override
@@ -54,21 +66,21 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
 
   @Override
   public Optional<Bytes> getAccountTrieNodeData(final Bytes location, final Bytes32 hash) {
-    return getAccountStateTrieNode(null, hash);
+    return getTrieNode(location, hash);
   }
 
   @Override
   public Optional<Bytes> getAccountStateTrieNode(final Bytes location, final Bytes32 nodeHash) {
-    return getTrieNode(nodeHash);
+    return trieNodeCache.getNodeByHash(location, nodeHash, true, this::getTrieNode);
   }
 
   @Override
   public Optional<Bytes> getAccountStorageTrieNode(
       final Hash accountHash, final Bytes location, final Bytes32 nodeHash) {
-    return getTrieNode(nodeHash);
+    return trieNodeCache.getNodeByHash(location, nodeHash, false, this::getTrieNode);
   }
 
-  private Optional<Bytes> getTrieNode(final Bytes32 nodeHash) {
+  private Optional<Bytes> getTrieNode(final Bytes location, final Bytes32 nodeHash) {
     if (nodeHash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
       return Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE);
     } else {
@@ -87,6 +99,33 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     }
   }
 
+  @Override
+  public List<Optional<Bytes>> getAllNodeData(final List<Bytes32> hashes) {
+    final List<byte[]> keys = new ArrayList<>(hashes.size());
+    for (final Bytes32 hash : hashes) {
+      if (!hash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH) && !hash.equals(Hash.EMPTY)) {
+        keys.add(hash.toArrayUnsafe());
+      }
+    }
+    final Iterator<Optional<byte[]>> values = keyValueStorage.getAll(keys).iterator();
+    final List<Optional<Bytes>> nodeData = new ArrayList<>(hashes.size());
+    for (final Bytes32 hash : hashes) {
+      if (hash.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+        nodeData.add(Optional.of(MerklePatriciaTrie.EMPTY_TRIE_NODE));
+      } else if (hash.equals(Hash.EMPTY)) {
+        nodeData.add(Optional.of(Bytes.EMPTY));
+      } else {
+        nodeData.add(values.next().map(Bytes::wrap));
+      }
+    }
+    return nodeData;
+  }
+
+  @Override
+  public boolean isNodeDataKeyedByHash() {
+    return true;
+  }
+
   @Override
   public boolean isWorldStateAvailable(final Bytes32 rootHash, final Hash blockHash) {
     return getAccountStateTrieNode(Bytes.EMPTY, rootHash).isPresent();
@@ -95,6 +134,7 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
   @Override
   public void clear() {
     keyValueStorage.clear();
+    trieNodeCache.clear();
   }
 
   @Override
@@ -102,15 +142,40 @@ public class WorldStateKeyValueStorage implements WorldStateStorage {
     return new Updater(lock, keyValueStorage.startTransaction(), nodeAddedListeners);
   }
 
+  @Override
+  public Updater batchUpdater() {
+    return new Updater(lock, keyValueStorage.startWriteBatch(), nodeAddedListeners);
+  }
+
   @Override
   public long prune(final Predicate<byte[]> inUseCheck) {
+    return prune(inUseCheck, Optional.empty());
+  }
+
+  @Override
+  public long prune(final Predicate<byte[]> inUseCheck, final double keysPerSecond) {
+    return prune(inUseCheck, Optional.of(RateLimiter.create(keysPerSecond)));
+  }
+
+  private long prune(
+      final Predicate<byte[]> inUseCheck, final Optional<RateLimiter> maybeRateLimiter) {
     final AtomicInteger prunedKeys = new AtomicInteger(0);
     try (final Stream<byte[]> keys = keyValueStorage.streamKeys()) {
       keys.forEach(
           key -> {
+            maybeRateLimiter.ifPresent(RateLimiter::acquire);
+            // Nodes are not unmarked while sweeping, so the nodes in use can be skipped without
+            // taking the lock. Only the candidates are checked again under the lock, as they may
+            // have been added back since.
+            if (inUseCheck.test(key)) {
+              return;
+            }
             lock.lock();
             try {
               if (!inUseCheck.test(key) && keyValueStorage.tryDelete(key)) {
+                if (key.length == Bytes32.SIZE) {
+                  trieNodeCache.invalidateNodeByHash(Bytes32.wrap(key));
+                }
                 prunedKeys.incrementAndGet();
               }
             } finally {
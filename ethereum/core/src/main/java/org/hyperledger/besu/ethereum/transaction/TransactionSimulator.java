@@ -144,12 +144,22 @@ public class TransactionSimulator {
     if (header == null) {
       return Optional.empty();
     }
-    final MutableWorldState publicWorldState =
-        worldStateArchive.getMutable(header.getStateRoot(), header.getHash(), false).orElse(null);
-
-    if (publicWorldState == null) {
-      return Optional.empty();
+    try (final MutableWorldState publicWorldState =
+        worldStateArchive.getMutable(header.getStateRoot(), header.getHash(), false).orElse(null)) {
+      if (publicWorldState == null) {
+        return Optional.empty();
+      }
+      return process(
+          callParams, transactionValidationParams, operationTracer, header, publicWorldState);
     }
+  }
+
+  private Optional<TransactionSimulatorResult> process(
+      final CallParameter callParams,
+      final TransactionValidationParams transactionValidationParams,
+      final OperationTracer operationTracer,
+      final BlockHeader header,
+      final MutableWorldState publicWorldState) {
     final WorldUpdater updater = getEffectiveWorldStateUpdater(header, publicWorldState);
 
     final ProtocolSpec protocolSpec = protocolSchedule.getByBlockNumber(header.getNumber());
@@ -269,10 +279,10 @@ public class TransactionSimulator {
 
   public Optional<Boolean> doesAddressExistAtHead(final Address address) {
     final BlockHeader header = blockchain.getChainHeadHeader();
-    final MutableWorldState worldState =
-        worldStateArchive.getMutable(header.getStateRoot(), header.getHash(), false).orElse(null);
-
-    return doesAddressExist(worldState, address, header);
+    try (final MutableWorldState worldState =
+        worldStateArchive.getMutable(header.getStateRoot(), header.getHash(), false).orElse(null)) {
+      return doesAddressExist(worldState, address, header);
+    }
   }
 
   public Optional<Boolean> doesAddressExist(
@@ -160,7 +160,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
     final Gas cost = cost(frame);
     final Optional<Gas> optionalCost = Optional.ofNullable(cost);
     if (cost != null) {
-      if (frame.getRemainingGas().compareTo(cost) < 0) {
+      if (frame.getRemainingGasAsLong() < cost.toLong()) {
         return new OperationResult(
             optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
       }
@@ -182,7 +182,8 @@ public abstract class AbstractCallOperation extends AbstractOperation {
         return new OperationResult(optionalCost, Optional.empty());
       }
 
-      final Bytes inputData = frame.readMemory(inputDataOffset(frame), inputDataLength(frame));
+      final Bytes inputData =
+          frame.readMemoryView(inputDataOffset(frame), inputDataLength(frame));
 
       final MessageFrame childFrame =
           MessageFrame.builder()
@@ -199,7 +200,10 @@ public abstract class AbstractCallOperation extends AbstractOperation {
               .sender(sender(frame))
               .value(value(frame))
               .apparentValue(apparentValue(frame))
-              .code(new Code(contract != null ? contract.getCode() : Bytes.EMPTY))
+              .code(
+                  contract != null
+                      ? evm.getCode(contract.getCodeHash(), contract.getCode())
+                      : new Code())
               .blockHeader(frame.getBlockHeader())
               .depth(frame.getMessageStackDepth() + 1)
               .isStatic(isStatic(frame))
@@ -207,6 +211,7 @@ public abstract class AbstractCallOperation extends AbstractOperation {
               .miningBeneficiary(frame.getMiningBeneficiary())
               .blockHashLookup(frame.getBlockHashLookup())
               .maxStackSize(frame.getMaxStackSize())
+              .operandStackFactory(evm.getOperandStackFactory())
               .build();
       frame.incrementRemainingGas(cost);
       childFrame.copyWarmedUpFields(frame);
@@ -21,14 +21,19 @@ import org.hyperledger.besu.ethereum.vm.operations.BlockHashOperation;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Calculates and caches block hashes by number following the chain for a specific branch. This is
  * used by {@link BlockHashOperation} and ensures that the correct block hash is returned even when
  * the block being imported is on a fork.
  *
+ * <p>Ancestors are served from the index of recent canonical hashes of the blockchain as soon as
+ * the branch meets the canonical chain, so headers are only read for the blocks of a fork that are
+ * not canonical, or for ancestors older than the index.
+ *
  * <p>A new BlockHashCache must be created for each block being processed but should be reused for
- * all transactions within that block.
+ * all transactions within that block, including those executed concurrently.
  */
 public class BlockHashLookup {
 
@@ -42,12 +47,19 @@ public class BlockHashLookup {
     hashByNumber.put(currentBlock.getNumber() - 1, currentBlock.getParentHash());
   }
 
-  public Hash getBlockHash(final long blockNumber) {
+  public synchronized Hash getBlockHash(final long blockNumber) {
     final Hash cachedHash = hashByNumber.get(blockNumber);
     if (cachedHash != null) {
       return cachedHash;
     }
     while (searchStartHeader != null && searchStartHeader.getNumber() - 1 > blockNumber) {
+      final Optional<Hash> canonicalHash =
+          blockchain.getRecentCanonicalAncestorHash(
+              searchStartHeader.getParentHash(), searchStartHeader.getNumber() - 1, blockNumber);
+      if (canonicalHash.isPresent()) {
+        hashByNumber.put(blockNumber, canonicalHash.get());
+        return canonicalHash.get();
+      }
       searchStartHeader = blockchain.getBlockHeader(searchStartHeader.getParentHash()).orElse(null);
       if (searchStartHeader != null) {
         hashByNumber.put(searchStartHeader.getNumber() - 1, searchStartHeader.getParentHash());
@@ -20,17 +20,24 @@ import java.util.BitSet;
 
 import com.google.common.base.MoreObjects;
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.MutableBytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
 /** Represents EVM code associated with an account. */
 public class Code {
 
+  private static final int PUSH1 = 0x60;
+  private static final int PUSH32 = 0x7f;
+
   /** The bytes representing the code. */
   private final Bytes bytes;
 
   /** Used to cache valid jump destinations. */
   private BitSet validJumpDestinations;
 
+  /** The decoded immediates of the PUSH operations, indexed by PC. Only set on analyzed code. */
+  private final UInt256[] pushValues;
+
   /**
    * Public constructor.
    *
@@ -38,6 +45,50 @@ public class Code {
    */
   public Code(final Bytes bytes) {
     this.bytes = bytes;
+    this.pushValues = null;
+  }
+
+  private Code(final Bytes bytes, final BitSet validJumpDestinations, final UInt256[] pushValues) {
+    this.bytes = bytes;
+    this.validJumpDestinations = validJumpDestinations;
+    this.pushValues = pushValues;
+  }
+
+  /**
+   * Creates code whose jump destinations and PUSH immediates are decoded up front, so that the
+   * instance can be shared between frames and threads through the {@link CodeCache}.
+   *
+   * @param bytes The byte representation of the code.
+   * @return the analyzed code
+   */
+  public static Code analyzed(final Bytes bytes) {
+    final int size = bytes.size();
+    final BitSet jumpDestinations = new BitSet(size);
+    final UInt256[] pushValues = new UInt256[size];
+    int pc = 0;
+    while (pc < size) {
+      final int opcode = bytes.get(pc) & 0xff;
+      if (opcode == JumpDestOperation.OPCODE) {
+        jumpDestinations.set(pc);
+      }
+      final int pushLength = pushLength(opcode);
+      if (pushLength > 0) {
+        pushValues[pc] = decodePushValue(bytes, pc, pushLength);
+      }
+      pc += 1 + pushLength;
+    }
+    return new Code(bytes, jumpDestinations, pushValues);
+  }
+
+  private static int pushLength(final int opcode) {
+    return opcode >= PUSH1 && opcode <= PUSH32 ? opcode - PUSH1 + 1 : 0;
+  }
+
+  private static UInt256 decodePushValue(final Bytes code, final int pc, final int length) {
+    final int copyLength = Math.min(length, code.size() - pc - 1);
+    final MutableBytes32 bytes = MutableBytes32.create();
+    code.slice(pc + 1, copyLength).copyTo(bytes, bytes.size() - length);
+    return UInt256.fromBytes(bytes);
   }
 
   public Code() {
@@ -107,6 +158,42 @@ public class Code {
     return bytes;
   }
 
+  /**
+   * Returns the immediate value of the PUSH operation at the given offset.
+   *
+   * @param pc the offset of the PUSH operation
+   * @param length the number of immediate bytes of the PUSH operation
+   * @return the value pushed by the operation, zero padded on the right if the code is truncated
+   */
+  public UInt256 getPushValue(final int pc, final int length) {
+    if (pushValues != null) {
+      final UInt256 value = pushValues[pc];
+      if (value != null) {
+        return value;
+      }
+    }
+    return decodePushValue(bytes, pc, length);
+  }
+
+  /**
+   * An estimate of the heap retained by this code and its analysis, used to weigh cache entries.
+   *
+   * @return the estimated size in bytes
+   */
+  public int getEstimatedSize() {
+    final int size = getSize();
+    int estimate = size + size / Byte.SIZE;
+    if (pushValues != null) {
+      estimate += size * 4;
+      for (final UInt256 value : pushValues) {
+        if (value != null) {
+          estimate += 48;
+        }
+      }
+    }
+    return estimate;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this).add("bytes", bytes).toString();
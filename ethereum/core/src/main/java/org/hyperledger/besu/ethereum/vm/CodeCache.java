@@ -0,0 +1,123 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * A bounded cache of analyzed contract code keyed by code hash.
+ *
+ * <p>Entries are weighed by the estimated size of the code and its analysis. Analyzed code is
+ * immutable and independent of the hard fork, so a single cache can be shared by the EVMs of all
+ * protocol specs and by concurrently executing frames.
+ */
+public class CodeCache {
+
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024 * 1024;
+
+  private static final Code EMPTY_CODE = Code.analyzed(Bytes.EMPTY);
+
+  private final Cache<Hash, Code> cache;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public CodeCache() {
+    this(new NoOpMetricsSystem());
+  }
+
+  public CodeCache(final MetricsSystem metricsSystem) {
+    this(DEFAULT_MAXIMUM_WEIGHT, metricsSystem);
+  }
+
+  public CodeCache(final long maximumWeight, final MetricsSystem metricsSystem) {
+    final Counter evictionCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.EVM,
+            "code_cache_evictions_total",
+            "Total number of analyzed contracts evicted from the code cache");
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumWeight)
+            .weigher((final Hash codeHash, final Code code) -> code.getEstimatedSize())
+            .<Hash, Code>removalListener(
+                notification -> {
+                  if (notification.wasEvicted()) {
+                    evictionCounter.inc();
+                  }
+                })
+            .build();
+    hitCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.EVM,
+            "code_cache_hits_total",
+            "Total number of contract code lookups served from the analyzed code cache");
+    missCounter =
+        metricsSystem.createCounter(
+            BesuMetricCategory.EVM,
+            "code_cache_misses_total",
+            "Total number of contract code lookups that required analyzing the code");
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.EVM,
+        "code_cache_entries",
+        "Number of analyzed contracts held in the code cache",
+        cache::size);
+  }
+
+  /**
+   * Returns the analyzed code for the given code hash, analyzing and caching it on a miss.
+   * Concurrent lookups of the same missing code wait for a single analysis.
+   *
+   * @param codeHash the hash of the code
+   * @param bytes the code, used only on a miss
+   * @return the analyzed code
+   */
+  public Code getOrAnalyze(final Hash codeHash, final Bytes bytes) {
+    if (bytes.isEmpty()) {
+      return EMPTY_CODE;
+    }
+    final Code[] analyzed = new Code[1];
+    final Code code;
+    try {
+      code = cache.get(codeHash, () -> analyzed[0] = Code.analyzed(bytes));
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("Unable to analyze code " + codeHash, e.getCause());
+    }
+    // Only the caller whose loader ran sees its own analysis come back.
+    if (code == analyzed[0]) {
+      missCounter.inc();
+    } else {
+      hitCounter.inc();
+    }
+    return code;
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
@@ -40,6 +40,8 @@ public class DebugOperationTracer implements OperationTracer {
   private final TraceOptions options;
   private List<TraceFrame> traceFrames = new ArrayList<>();
   private TraceFrame lastFrame;
+  private MessageFrame lastMessageFrame;
+  private Bytes lastInputData;
 
   public DebugOperationTracer(final TraceOptions options) {
     this.options = options;
@@ -52,7 +54,7 @@ public class DebugOperationTracer implements OperationTracer {
     final String opcode = currentOperation.getName();
     final int pc = frame.getPC();
     final Gas gasRemaining = frame.getRemainingGas();
-    final Bytes inputData = frame.getInputData();
+    final Bytes inputData = captureInputData(frame);
     final Optional<Bytes32[]> stack = captureStack(frame);
     final WorldUpdater worldUpdater = frame.getWorldState();
     final Optional<Bytes32[]> stackPostExecution;
@@ -95,6 +97,16 @@ public class DebugOperationTracer implements OperationTracer {
     frame.reset();
   }
 
+  private Bytes captureInputData(final MessageFrame frame) {
+    // Call input is a view of the caller's memory, which changes once the call returns. Copy it
+    // once per frame rather than once per operation.
+    if (frame != lastMessageFrame) {
+      lastMessageFrame = frame;
+      lastInputData = frame.getInputData().copy();
+    }
+    return lastInputData;
+  }
+
   @Override
   public void tracePrecompileCall(
       final MessageFrame frame, final Gas gasRequirement, final Bytes output) {
@@ -110,7 +122,7 @@ public class DebugOperationTracer implements OperationTracer {
               Optional.empty(),
               frame.getRecipientAddress(),
               frame.getValue(),
-              frame.getInputData(),
+              captureInputData(frame),
               frame.getOutputData(),
               Optional.empty(),
               Optional.empty(),
@@ -156,7 +168,7 @@ public class DebugOperationTracer implements OperationTracer {
                     Optional.of(exceptionalHaltReason),
                     frame.getRecipientAddress(),
                     frame.getValue(),
-                    frame.getInputData(),
+                    captureInputData(frame),
                     frame.getOutputData(),
                     Optional.empty(),
                     Optional.empty(),
@@ -16,7 +16,7 @@ package org.hyperledger.besu.ethereum.vm;
 
 import static org.apache.logging.log4j.LogManager.getLogger;
 
-import org.hyperledger.besu.ethereum.core.Gas;
+import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.vm.FixedStack.OverflowException;
 import org.hyperledger.besu.ethereum.vm.FixedStack.UnderflowException;
 import org.hyperledger.besu.ethereum.vm.MessageFrame.State;
@@ -27,6 +27,7 @@ import org.hyperledger.besu.ethereum.vm.operations.VirtualOperation;
 
 import java.util.Optional;
 import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.logging.log4j.Logger;
@@ -42,20 +43,109 @@ public class EVM {
       new OperationResult(
           Optional.empty(), Optional.of(ExceptionalHaltReason.INSUFFICIENT_STACK_ITEMS));
 
+  private static final int NUM_OPERATIONS = 256;
+
   private final OperationRegistry operations;
+  // Dispatch table for the untraced loop, with unassigned opcodes resolved to INVALID up front.
+  private final Operation[] operationTable;
   private final Operation endOfScriptStop;
+  private final IntFunction<OperandStack> operandStackFactory;
+  private final CodeCache codeCache;
 
   public EVM(final OperationRegistry operations, final GasCalculator gasCalculator) {
+    this(operations, gasCalculator, OperandStack::new, new CodeCache());
+  }
+
+  public EVM(
+      final OperationRegistry operations,
+      final GasCalculator gasCalculator,
+      final IntFunction<OperandStack> operandStackFactory,
+      final CodeCache codeCache) {
     this.operations = operations;
+    this.operationTable = new Operation[NUM_OPERATIONS];
+    for (int opcode = 0; opcode < NUM_OPERATIONS; opcode++) {
+      final Operation operation = operations.get(opcode);
+      operationTable[opcode] = operation != null ? operation : new InvalidOperation(opcode, null);
+    }
     this.endOfScriptStop = new VirtualOperation(new StopOperation(gasCalculator));
+    this.operandStackFactory = operandStackFactory;
+    this.codeCache = codeCache;
+  }
+
+  /**
+   * Returns the factory used to create the operand stacks of frames executed by this EVM.
+   *
+   * @return the operand stack factory
+   */
+  public IntFunction<OperandStack> getOperandStackFactory() {
+    return operandStackFactory;
+  }
+
+  /**
+   * Returns the analyzed code of an account, reusing a previous analysis of the same code.
+   *
+   * @param codeHash the hash of the account code
+   * @param codeBytes the account code
+   * @return the analyzed code
+   */
+  public Code getCode(final Hash codeHash, final Bytes codeBytes) {
+    return codeCache.getOrAnalyze(codeHash, codeBytes);
   }
 
   public void runToHalt(final MessageFrame frame, final OperationTracer operationTracer) {
+    if (operationTracer == OperationTracer.NO_TRACING && !LOG.isTraceEnabled()) {
+      runToHaltUntraced(frame);
+      return;
+    }
     while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
       executeNextOperation(frame, operationTracer);
     }
   }
 
+  /**
+   * Executes the frame without notifying a tracer.
+   *
+   * <p>This loop must stay observably equivalent to {@link #executeNextOperation}: the same
+   * remaining gas, halt reasons and program counter updates. It skips the tracer callback, the per
+   * operation gas cost bookkeeping that only tracers read, and the trace logging.
+   *
+   * @param frame the frame to execute
+   */
+  private void runToHaltUntraced(final MessageFrame frame) {
+    final Operation[] table = operationTable;
+    final Bytes bytecode = frame.getCode().getBytes();
+    final int codeSize = bytecode.size();
+
+    while (frame.getState() == State.CODE_EXECUTING) {
+      final int pc = frame.getPC();
+      final Operation operation =
+          pc < codeSize ? table[bytecode.get(pc) & 0xff] : endOfScriptStop;
+      frame.setCurrentOperation(operation);
+
+      OperationResult result;
+      try {
+        result = operation.execute(frame, this);
+      } catch (final OverflowException oe) {
+        result = OVERFLOW_RESPONSE;
+      } catch (final UnderflowException ue) {
+        result = UNDERFLOW_RESPONSE;
+      }
+
+      final Optional<ExceptionalHaltReason> haltReason = result.getHaltReason();
+      if (haltReason.isPresent()) {
+        frame.setExceptionalHaltReason(haltReason);
+        frame.setState(State.EXCEPTIONAL_HALT);
+      } else {
+        if (result.hasGasCost()) {
+          frame.decrementRemainingGas(result.getGasCostAsLong());
+        }
+        if (!operation.getUpdatesProgramCounter() && frame.getState() == State.CODE_EXECUTING) {
+          frame.setPC(pc + operation.getOpSize());
+        }
+      }
+    }
+  }
+
   void forEachOperation(final Code code, final BiConsumer<Operation, Integer> operationDelegate) {
     int pc = 0;
     final int length = code.getSize();
@@ -81,15 +171,19 @@ public class EVM {
           } catch (final UnderflowException ue) {
             result = UNDERFLOW_RESPONSE;
           }
-          frame.setGasCost(result.getGasCost());
-          logState(frame, result.getGasCost().orElse(Gas.ZERO));
+          if (result.hasGasCost()) {
+            frame.setGasCost(result.getGasCostAsLong());
+          } else {
+            frame.clearGasCost();
+          }
+          logState(frame, result.getGasCostAsLong());
           final Optional<ExceptionalHaltReason> haltReason = result.getHaltReason();
           if (haltReason.isPresent()) {
             LOG.trace("MessageFrame evaluation halted because of {}", haltReason.get());
             frame.setExceptionalHaltReason(haltReason);
             frame.setState(State.EXCEPTIONAL_HALT);
-          } else if (result.getGasCost().isPresent()) {
-            frame.decrementRemainingGas(result.getGasCost().get());
+          } else if (result.hasGasCost()) {
+            frame.decrementRemainingGas(result.getGasCostAsLong());
           }
           incrementProgramCounter(frame);
 
@@ -106,14 +200,14 @@ public class EVM {
     }
   }
 
-  private static void logState(final MessageFrame frame, final Gas currentGasCost) {
+  private static void logState(final MessageFrame frame, final long currentGasCost) {
     if (LOG.isTraceEnabled()) {
       final StringBuilder builder = new StringBuilder();
       builder.append("Depth: ").append(frame.getMessageStackDepth()).append("\n");
       builder.append("Operation: ").append(frame.getCurrentOperation().getName()).append("\n");
       builder.append("PC: ").append(frame.getPC()).append("\n");
       builder.append("Gas cost: ").append(currentGasCost).append("\n");
-      builder.append("Gas Remaining: ").append(frame.getRemainingGas()).append("\n");
+      builder.append("Gas Remaining: ").append(frame.getRemainingGasAsLong()).append("\n");
       builder.append("Depth: ").append(frame.getMessageStackDepth()).append("\n");
       builder.append("Stack:");
       for (int i = 0; i < frame.stackSize(); ++i) {
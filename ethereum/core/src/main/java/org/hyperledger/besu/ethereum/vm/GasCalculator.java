@@ -208,7 +208,7 @@ public interface GasCalculator {
    * @param length The length of the data being copied into memory
    * @return the amount of gas consumed by the data copy operation
    */
-  Gas dataCopyOperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
+  long dataCopyOperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
 
   /**
    * Returns the cost of expanding memory for the specified access.
@@ -218,7 +218,7 @@ public interface GasCalculator {
    * @param length the length of the memory access
    * @return The gas required to expand memory for the specified access
    */
-  Gas memoryExpansionGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
+  long memoryExpansionGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
 
   // Specific Non-call Operation Calculations
 
@@ -242,7 +242,7 @@ public interface GasCalculator {
    * @param numBytes The number of bytes for the exponent parameter
    * @return the cost for executing the exp operation
    */
-  Gas expOperationGasCost(int numBytes);
+  long expOperationGasCost(int numBytes);
 
   /**
    * Returns the cost for executing a {@link ExtCodeCopyOperation}.
@@ -252,7 +252,7 @@ public interface GasCalculator {
    * @param length The length of the code being copied into memory
    * @return the cost for executing the external code size operation
    */
-  Gas extCodeCopyOperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
+  long extCodeCopyOperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
 
   /**
    * Returns the cost for executing a {@link ExtCodeHashOperation}.
@@ -284,7 +284,7 @@ public interface GasCalculator {
    * @param numTopics The number of topics in the log
    * @return the cost for executing the external code size operation
    */
-  Gas logOperationGasCost(
+  long logOperationGasCost(
       MessageFrame frame, UInt256 dataOffset, UInt256 dataLength, int numTopics);
 
   /**
@@ -294,7 +294,7 @@ public interface GasCalculator {
    * @param offset The offset in memory where the access takes place
    * @return the cost for executing the memory load operation
    */
-  Gas mLoadOperationGasCost(MessageFrame frame, UInt256 offset);
+  long mLoadOperationGasCost(MessageFrame frame, UInt256 offset);
 
   /**
    * Returns the cost for executing a {@link MStoreOperation}.
@@ -303,7 +303,7 @@ public interface GasCalculator {
    * @param offset The offset in memory where the access takes place
    * @return the cost for executing the memory store operation
    */
-  Gas mStoreOperationGasCost(MessageFrame frame, UInt256 offset);
+  long mStoreOperationGasCost(MessageFrame frame, UInt256 offset);
 
   /**
    * Returns the cost for executing a {@link MStore8Operation}.
@@ -312,7 +312,7 @@ public interface GasCalculator {
    * @param offset The offset in memory where the access takes place
    * @return the cost for executing the memory byte store operation
    */
-  Gas mStore8OperationGasCost(MessageFrame frame, UInt256 offset);
+  long mStore8OperationGasCost(MessageFrame frame, UInt256 offset);
 
   /**
    * Returns the cost for executing a {@link SelfDestructOperation}.
@@ -331,7 +331,7 @@ public interface GasCalculator {
    * @param length The hashed data length
    * @return the cost for executing the memory byte store operation
    */
-  Gas sha3OperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
+  long sha3OperationGasCost(MessageFrame frame, UInt256 offset, UInt256 length);
 
   /**
    * Returns the cost for executing a {@link SLoadOperation}.
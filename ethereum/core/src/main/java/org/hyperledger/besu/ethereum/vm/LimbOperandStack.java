@@ -0,0 +1,391 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * An operand stack that stores its words as a flat array of 64-bit limbs.
+ *
+ * <p>Each word occupies four consecutive longs, most significant limb first. The word operations
+ * declared on {@link OperandStack} are performed directly on the limbs, so the arithmetic,
+ * comparison and stack manipulation opcodes do not allocate. {@link UInt256} values are only
+ * materialized when a caller reads an item through {@link #get(int)} or {@link #pop()}.
+ */
+public class LimbOperandStack extends OperandStack {
+
+  private static final int LIMBS = 4;
+
+  private final long[] limbs;
+  private final long[] scratch = new long[LIMBS];
+  private final int maxSize;
+  private int size;
+
+  public LimbOperandStack(final int maxSize) {
+    // The object array of the parent is never used, so allocate it empty.
+    super(0);
+    checkArgument(maxSize >= 0, "max size must be non-negative");
+    this.limbs = new long[maxSize * LIMBS];
+    this.maxSize = maxSize;
+    this.size = 0;
+  }
+
+  private static int index(final int item) {
+    return item * LIMBS;
+  }
+
+  /** Index of the first limb of the item at the given offset from the top of the stack. */
+  private int offsetIndex(final int offset) {
+    return index(size - 1 - offset);
+  }
+
+  private void checkOperands(final int items) {
+    if (size < items) {
+      throw new UnderflowException();
+    }
+  }
+
+  @Override
+  public UInt256 get(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new UnderflowException();
+    }
+    return toUInt256(offsetIndex(offset));
+  }
+
+  @Override
+  public UInt256 pop() {
+    if (size == 0) {
+      throw new UnderflowException();
+    }
+    final UInt256 removed = toUInt256(offsetIndex(0));
+    size--;
+    return removed;
+  }
+
+  @Override
+  void bulkPop(final int items) {
+    if (items < 0) {
+      throw new IllegalArgumentException(
+          String.format("requested number of items to bulk pop (%d) is negative", items));
+    }
+    checkArgument(items > 0, "number of items to pop must be greater than 0");
+    if (items > size) {
+      throw new UnderflowException();
+    }
+    size -= items;
+  }
+
+  @Override
+  public void push(final UInt256 operand) {
+    if (size == maxSize) {
+      throw new OverflowException();
+    }
+    final int i = index(size);
+    limbs[i] = operand.getLong(0);
+    limbs[i + 1] = operand.getLong(8);
+    limbs[i + 2] = operand.getLong(16);
+    limbs[i + 3] = operand.getLong(24);
+    size++;
+  }
+
+  @Override
+  public void set(final int offset, final UInt256 operand) {
+    if (offset < 0 || offset >= size) {
+      throw new IndexOutOfBoundsException();
+    }
+    final int i = offsetIndex(offset);
+    limbs[i] = operand.getLong(0);
+    limbs[i + 1] = operand.getLong(8);
+    limbs[i + 2] = operand.getLong(16);
+    limbs[i + 3] = operand.getLong(24);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isFull() {
+    return size >= maxSize;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public void add() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int r = offsetIndex(1);
+    long carry = 0;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      final long x = limbs[a + i];
+      final long sum = x + limbs[r + i];
+      final long carried = sum + carry;
+      carry =
+          (Long.compareUnsigned(sum, x) < 0 || Long.compareUnsigned(carried, sum) < 0) ? 1 : 0;
+      limbs[r + i] = carried;
+    }
+    size--;
+  }
+
+  @Override
+  public void sub() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int r = offsetIndex(1);
+    long borrow = 0;
+    for (int i = LIMBS - 1; i >= 0; i--) {
+      final long x = limbs[a + i];
+      final long y = limbs[r + i];
+      final long diff = x - y;
+      final long borrowed = diff - borrow;
+      borrow =
+          (Long.compareUnsigned(x, y) < 0 || Long.compareUnsigned(diff, borrow) < 0) ? 1 : 0;
+      limbs[r + i] = borrowed;
+    }
+    size--;
+  }
+
+  @Override
+  public void mul() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int b = offsetIndex(1);
+    // Schoolbook multiplication truncated to 256 bits. The scratch limbs are least significant
+    // first.
+    Arrays.fill(scratch, 0L);
+    for (int i = 0; i < LIMBS; i++) {
+      final long x = limbs[a + LIMBS - 1 - i];
+      if (x == 0) {
+        continue;
+      }
+      long carry = 0;
+      for (int j = 0; i + j < LIMBS; j++) {
+        final long y = limbs[b + LIMBS - 1 - j];
+        final long lo = x * y;
+        final long hi = unsignedMultiplyHigh(x, y);
+        long sum = scratch[i + j] + lo;
+        long overflow = Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+        sum += carry;
+        overflow += Long.compareUnsigned(sum, carry) < 0 ? 1 : 0;
+        scratch[i + j] = sum;
+        // x * y + scratch + carry never exceeds 128 bits, so this cannot overflow.
+        carry = hi + overflow;
+      }
+    }
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[b + LIMBS - 1 - i] = scratch[i];
+    }
+    size--;
+  }
+
+  @Override
+  public void and() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int r = offsetIndex(1);
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[r + i] &= limbs[a + i];
+    }
+    size--;
+  }
+
+  @Override
+  public void or() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int r = offsetIndex(1);
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[r + i] |= limbs[a + i];
+    }
+    size--;
+  }
+
+  @Override
+  public void xor() {
+    checkOperands(2);
+    final int a = offsetIndex(0);
+    final int r = offsetIndex(1);
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[r + i] ^= limbs[a + i];
+    }
+    size--;
+  }
+
+  @Override
+  public void not() {
+    checkOperands(1);
+    final int r = offsetIndex(0);
+    for (int i = 0; i < LIMBS; i++) {
+      limbs[r + i] = ~limbs[r + i];
+    }
+  }
+
+  @Override
+  public void lt() {
+    checkOperands(2);
+    replaceTopTwo(compareUnsigned(offsetIndex(0), offsetIndex(1)) < 0);
+  }
+
+  @Override
+  public void gt() {
+    checkOperands(2);
+    replaceTopTwo(compareUnsigned(offsetIndex(0), offsetIndex(1)) > 0);
+  }
+
+  @Override
+  public void slt() {
+    checkOperands(2);
+    replaceTopTwo(compareSigned(offsetIndex(0), offsetIndex(1)) < 0);
+  }
+
+  @Override
+  public void sgt() {
+    checkOperands(2);
+    replaceTopTwo(compareSigned(offsetIndex(0), offsetIndex(1)) > 0);
+  }
+
+  @Override
+  public void eq() {
+    checkOperands(2);
+    replaceTopTwo(compareUnsigned(offsetIndex(0), offsetIndex(1)) == 0);
+  }
+
+  @Override
+  public void isZero() {
+    checkOperands(1);
+    final int r = offsetIndex(0);
+    final boolean zero = (limbs[r] | limbs[r + 1] | limbs[r + 2] | limbs[r + 3]) == 0;
+    writeBoolean(r, zero);
+  }
+
+  @Override
+  public void dup(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new UnderflowException();
+    }
+    if (size == maxSize) {
+      throw new OverflowException();
+    }
+    System.arraycopy(limbs, offsetIndex(offset), limbs, index(size), LIMBS);
+    size++;
+  }
+
+  @Override
+  public void swap(final int offset) {
+    if (offset < 0 || offset >= size) {
+      throw new UnderflowException();
+    }
+    final int a = offsetIndex(0);
+    final int b = offsetIndex(offset);
+    for (int i = 0; i < LIMBS; i++) {
+      final long tmp = limbs[a + i];
+      limbs[a + i] = limbs[b + i];
+      limbs[b + i] = tmp;
+    }
+  }
+
+  private void replaceTopTwo(final boolean result) {
+    writeBoolean(offsetIndex(1), result);
+    size--;
+  }
+
+  private void writeBoolean(final int i, final boolean value) {
+    limbs[i] = 0;
+    limbs[i + 1] = 0;
+    limbs[i + 2] = 0;
+    limbs[i + 3] = value ? 1 : 0;
+  }
+
+  private int compareUnsigned(final int a, final int b) {
+    for (int i = 0; i < LIMBS; i++) {
+      final int cmp = Long.compareUnsigned(limbs[a + i], limbs[b + i]);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  private int compareSigned(final int a, final int b) {
+    // Only the most significant limb carries the sign, the rest compare as unsigned magnitudes.
+    final int cmp = Long.compare(limbs[a], limbs[b]);
+    if (cmp != 0) {
+      return cmp;
+    }
+    for (int i = 1; i < LIMBS; i++) {
+      final int limbCmp = Long.compareUnsigned(limbs[a + i], limbs[b + i]);
+      if (limbCmp != 0) {
+        return limbCmp;
+      }
+    }
+    return 0;
+  }
+
+  private static long unsignedMultiplyHigh(final long x, final long y) {
+    return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+  }
+
+  private UInt256 toUInt256(final int i) {
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    for (int limb = 0; limb < LIMBS; limb++) {
+      final long value = limbs[i + limb];
+      for (int b = 0; b < Long.BYTES; b++) {
+        bytes[limb * Long.BYTES + b] = (byte) (value >>> (56 - 8 * b));
+      }
+    }
+    return UInt256.fromBytes(Bytes32.wrap(bytes));
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < size; ++i) {
+      builder.append(String.format("\n0x%04X ", i)).append(toUInt256(index(i)));
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 1;
+    for (int i = 0; i < index(size); i++) {
+      result = 31 * result + Long.hashCode(limbs[i]);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof LimbOperandStack)) {
+      return false;
+    }
+
+    final LimbOperandStack that = (LimbOperandStack) other;
+    return size == that.size
+        && Arrays.equals(limbs, 0, index(size), that.limbs, 0, index(that.size));
+  }
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.bytes.MutableBytes;
 import org.apache.tuweni.units.bigints.UInt256;
 import org.apache.tuweni.units.bigints.UInt256s;
 
@@ -39,19 +40,24 @@ public class Memory {
    * <p>Note that the current Ethereum spec don't put a limit on memory, so we could theoretically
    * overflow this. A byte array implementation limits us to 2GiB. But that would cost over 51
    * trillion gas. So this is likely a reasonable limitation, at least at first.
+   *
+   * <p>The array grows geometrically and may be larger than the active memory. Bytes past {@link
+   * #activeBytes} are never written, so they are always zero when memory expands over them.
    */
   private byte[] data;
 
+  private int activeBytes;
   private UInt256 activeWords;
   private int dataSize256;
 
   public Memory() {
     data = new byte[0];
-    updateSize();
+    updateSize(0);
   }
 
-  private void updateSize() {
-    dataSize256 = data.length / Bytes32.SIZE;
+  private void updateSize(final int newActiveWords) {
+    dataSize256 = newActiveWords;
+    activeBytes = newActiveWords * Bytes32.SIZE;
     activeWords = UInt256.valueOf(dataSize256);
   }
 
@@ -67,12 +73,12 @@ public class Memory {
     throw new IllegalStateException(String.format(msg, v, MAX_BYTES));
   }
 
-  private void checkByteIndex(final long v) {
+  private static void checkByteIndex(final long v) {
     // We can have at most MAX_BYTES, so an index can only at most MAX_BYTES - 1.
     if (v < 0 || v >= MAX_BYTES) throw overflow(v);
   }
 
-  private int asByteIndex(final UInt256 w) {
+  private static int asByteIndex(final UInt256 w) {
     try {
       final long v = w.toLong();
       checkByteIndex(v);
@@ -82,6 +88,11 @@ public class Memory {
     }
   }
 
+  private static int asByteIndex(final long v) {
+    checkByteIndex(v);
+    return (int) v;
+  }
+
   private static int asByteLength(final UInt256 l) {
     try {
       // While we can theoretically support up to 32 * Integer.MAX_VALUE due to storing words, and
@@ -93,6 +104,15 @@ public class Memory {
     }
   }
 
+  private static int asByteLength(final long l) {
+    if (l < 0 || l > MAX_BYTES) throw overflow(l);
+    return (int) l;
+  }
+
+  private static int clampToInt(final long v) {
+    return v < 0 || v > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) v;
+  }
+
   /**
    * For use in memoryExpansionGasCost() of GasCost. Returns the number of new active words that
    * accommodate at least the number of specified bytes from the provide memory offset.
@@ -164,16 +184,20 @@ public class Memory {
   /**
    * Expands the memory to the specified number of active words.
    *
+   * <p>The backing array at least doubles when it has to grow, so a contract that expands memory
+   * one word at a time copies it a logarithmic rather than linear number of times.
+   *
    * @param newActiveWords The new number of active words to expand to.
    */
   private void maybeExpandCapacity(final int newActiveWords) {
     if (dataSize256 >= newActiveWords) return;
 
-    // Require full capacity to guarantee we don't resize more than once.
-    final byte[] newData = new byte[newActiveWords * Bytes32.SIZE];
-    System.arraycopy(data, 0, newData, 0, data.length);
-    data = newData;
-    updateSize();
+    final int newActiveBytes = Math.multiplyExact(newActiveWords, Bytes32.SIZE);
+    if (newActiveBytes > data.length) {
+      final long doubled = Math.min(2L * data.length, MAX_BYTES);
+      data = Arrays.copyOf(data, (int) Math.max(newActiveBytes, doubled));
+    }
+    updateSize(newActiveWords);
   }
 
   /**
@@ -189,12 +213,16 @@ public class Memory {
     if (!(other instanceof Memory)) return false;
 
     final Memory that = (Memory) other;
-    return Arrays.equals(this.data, that.data);
+    return Arrays.equals(this.data, 0, activeBytes, that.data, 0, that.activeBytes);
   }
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(data);
+    int result = 1;
+    for (int i = 0; i < activeBytes; i++) {
+      result = 31 * result + data[i];
+    }
+    return result;
   }
 
   /**
@@ -203,7 +231,7 @@ public class Memory {
    * @return The current number of active bytes stored in memory.
    */
   int getActiveBytes() {
-    return data.length;
+    return activeBytes;
   }
 
   /**
@@ -232,11 +260,70 @@ public class Memory {
     if (length == 0) {
       return Bytes.EMPTY;
     }
+    return copyBytes(asByteIndex(location), length);
+  }
 
-    final int start = asByteIndex(location);
+  /**
+   * Returns a copy of bytes from memory.
+   *
+   * @param location The location in memory to start with.
+   * @param numBytes The number of bytes to get.
+   * @return A fresh copy of the bytes from memory starting at {@code location} and extending {@code
+   *     numBytes}.
+   */
+  public Bytes getBytes(final long location, final long numBytes) {
+    final int length = asByteLength(numBytes);
+    if (length == 0) {
+      return Bytes.EMPTY;
+    }
+    return copyBytes(asByteIndex(location), length);
+  }
+
+  private Bytes copyBytes(final int start, final int length) {
+    ensureCapacityForBytes(start, length);
+    return Bytes.wrap(Arrays.copyOfRange(data, start, start + length));
+  }
 
+  /**
+   * Returns a read-only view of bytes in memory, without copying them.
+   *
+   * <p>The view reflects later writes to the same range of this memory, so callers must either
+   * consume it before the memory is written again or only use it once the owning frame has
+   * completed.
+   *
+   * @param location The location in memory to start with.
+   * @param numBytes The number of bytes to get.
+   * @return A view of the bytes from memory starting at {@code location} and extending {@code
+   *     numBytes}.
+   */
+  public Bytes getBytesView(final UInt256 location, final UInt256 numBytes) {
+    final int length = asByteLength(numBytes);
+    if (length == 0) {
+      return Bytes.EMPTY;
+    }
+    return viewBytes(asByteIndex(location), length);
+  }
+
+  /**
+   * Returns a read-only view of bytes in memory, without copying them.
+   *
+   * @param location The location in memory to start with.
+   * @param numBytes The number of bytes to get.
+   * @return A view of the bytes from memory starting at {@code location} and extending {@code
+   *     numBytes}.
+   * @see #getBytesView(UInt256, UInt256)
+   */
+  public Bytes getBytesView(final long location, final long numBytes) {
+    final int length = asByteLength(numBytes);
+    if (length == 0) {
+      return Bytes.EMPTY;
+    }
+    return viewBytes(asByteIndex(location), length);
+  }
+
+  private Bytes viewBytes(final int start, final int length) {
     ensureCapacityForBytes(start, length);
-    return Bytes.of(Arrays.copyOfRange(data, start, start + numBytes.intValue()));
+    return Bytes.wrap(data, start, length);
   }
 
   /**
@@ -274,6 +361,32 @@ public class Memory {
     setBytes(memOffset, numBytes, toCopy);
   }
 
+  /**
+   * Copy the bytes from the provided number of bytes from the provided value to memory from the
+   * provided offset.
+   *
+   * @param memOffset the location in memory at which to start copying the bytes of {@code value}.
+   * @param sourceOffset the location in the source to start copying.
+   * @param numBytes the number of bytes to set in memory.
+   * @param bytes the bytes to copy to memory from {@code location}.
+   * @see #setBytes(UInt256, UInt256, UInt256, Bytes)
+   */
+  public void setBytes(
+      final long memOffset, final long sourceOffset, final long numBytes, final Bytes bytes) {
+    final int offset = clampToInt(sourceOffset);
+    final int length = clampToInt(numBytes);
+
+    if (offset >= bytes.size()) {
+      if (numBytes != 0) {
+        clearBytes(asByteIndex(memOffset), asByteLength(numBytes));
+      }
+      return;
+    }
+
+    final Bytes toCopy = bytes.slice(offset, Math.min(length, bytes.size() - offset));
+    setBytes(memOffset, numBytes, toCopy);
+  }
+
   /**
    * Copy the bytes from the provided number of bytes from the provided value to memory from the
    * provided offset.
@@ -295,18 +408,36 @@ public class Memory {
     if (numBytes.isZero()) {
       return;
     }
+    copyIn(asByteIndex(location), asByteLength(numBytes), taintedValue);
+  }
 
-    final int start = asByteIndex(location);
-    final int length = asByteLength(numBytes);
+  /**
+   * Copy the bytes from the provided number of bytes from the provided value to memory from the
+   * provided offset.
+   *
+   * @param location the location in memory at which to start copying the bytes of {@code value}.
+   * @param numBytes the number of bytes to set in memory.
+   * @param taintedValue the bytes to copy to memory from {@code location}.
+   * @see #setBytes(UInt256, UInt256, Bytes)
+   */
+  public void setBytes(final long location, final long numBytes, final Bytes taintedValue) {
+    if (numBytes == 0) {
+      return;
+    }
+    copyIn(asByteIndex(location), asByteLength(numBytes), taintedValue);
+  }
+
+  private void copyIn(final int start, final int length, final Bytes taintedValue) {
     final int srcLength = taintedValue.size();
     final int end = Math.addExact(start, length);
 
     ensureCapacityForBytes(start, length);
+    // Copy straight out of the source rather than through toArrayUnsafe(), which copies slices.
     if (srcLength >= length) {
-      System.arraycopy(taintedValue.toArrayUnsafe(), 0, data, start, length);
+      taintedValue.slice(0, length).copyTo(MutableBytes.wrap(data), start);
     } else {
-      Arrays.fill(data, start, end, (byte) 0);
-      System.arraycopy(taintedValue.toArrayUnsafe(), 0, data, start, srcLength);
+      taintedValue.copyTo(MutableBytes.wrap(data), start);
+      Arrays.fill(data, start + srcLength, end, (byte) 0);
     }
   }
 
@@ -347,6 +478,16 @@ public class Memory {
    * @param value the value to set for the byte at {@code location}.
    */
   void setByte(final UInt256 location, final byte value) {
+    setByte(asByteIndex(location), value);
+  }
+
+  /**
+   * Sets a single byte in memory at the provided location.
+   *
+   * @param location the location of the byte to set.
+   * @param value the value to set for the byte at {@code location}.
+   */
+  void setByte(final long location, final byte value) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, 1);
     data[start] = value;
@@ -359,6 +500,16 @@ public class Memory {
    * @return a copy of the 32-bytes word that begins at the specified memory location.
    */
   public Bytes32 getWord(final UInt256 location) {
+    return getWord(asByteIndex(location));
+  }
+
+  /**
+   * Returns a copy of the 32-bytes word that begins at the specified memory location.
+   *
+   * @param location The memory location the 256-bit word begins at.
+   * @return a copy of the 32-bytes word that begins at the specified memory location.
+   */
+  public Bytes32 getWord(final long location) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
     return Bytes32.wrap(Arrays.copyOfRange(data, start, start + Bytes32.SIZE));
@@ -374,14 +525,23 @@ public class Memory {
    * @param bytes the 32 bytes to copy at {@code location}.
    */
   public void setWord(final UInt256 location, final Bytes32 bytes) {
+    setWord(asByteIndex(location), bytes);
+  }
+
+  /**
+   * Sets a 32-bytes word in memory at the provided location.
+   *
+   * @param location the location at which to start setting the bytes.
+   * @param bytes the 32 bytes to copy at {@code location}.
+   */
+  public void setWord(final long location, final Bytes32 bytes) {
     final int start = asByteIndex(location);
     ensureCapacityForBytes(start, Bytes32.SIZE);
-
-    System.arraycopy(bytes.toArrayUnsafe(), 0, data, start, Bytes32.SIZE);
+    bytes.copyTo(MutableBytes.wrap(data), start);
   }
 
   @Override
   public String toString() {
-    return Bytes.wrap(data).toHexString();
+    return Bytes.wrap(data, 0, activeBytes).toHexString();
   }
 }
@@ -40,6 +40,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -190,6 +191,8 @@ public class MessageFrame {
 
   public static final int DEFAULT_MAX_STACK_SIZE = 1024;
 
+  private static final UInt256 WORD_SIZE = UInt256.valueOf(Bytes32.SIZE);
+
   // Global data fields.
   private final WorldUpdater worldState;
   private final Blockchain blockchain;
@@ -199,7 +202,7 @@ public class MessageFrame {
   private State state;
 
   // Machine state fields.
-  private Gas gasRemaining;
+  private long gasRemaining;
   private final BlockHashLookup blockHashLookup;
   private final int maxStackSize;
   private int pc;
@@ -242,7 +245,8 @@ public class MessageFrame {
   // Miscellaneous fields.
   private Optional<ExceptionalHaltReason> exceptionalHaltReason = Optional.empty();
   private Operation currentOperation;
-  private Optional<Gas> gasCost = Optional.empty();
+  private long gasCost;
+  private boolean hasGasCost;
   private final Consumer<MessageFrame> completer;
   private Optional<MemoryEntry> maybeUpdatedMemory = Optional.empty();
   private Optional<MemoryEntry> maybeUpdatedStorage = Optional.empty();
@@ -278,18 +282,19 @@ public class MessageFrame {
       final Transaction transaction,
       final Optional<Bytes> revertReason,
       final int maxStackSize,
+      final IntFunction<OperandStack> operandStackFactory,
       final Set<Address> accessListWarmAddresses,
       final Multimap<Address, Bytes32> accessListWarmStorage) {
     this.type = type;
     this.blockchain = blockchain;
     this.messageFrameStack = messageFrameStack;
     this.worldState = worldState;
-    this.gasRemaining = initialGas;
+    this.gasRemaining = initialGas.toLong();
     this.blockHashLookup = blockHashLookup;
     this.maxStackSize = maxStackSize;
     this.pc = 0;
     this.memory = new Memory();
-    this.stack = new OperandStack(maxStackSize);
+    this.stack = operandStackFactory.apply(maxStackSize);
     this.output = Bytes.EMPTY;
     this.returnData = Bytes.EMPTY;
     this.logs = new ArrayList<>();
@@ -357,7 +362,7 @@ public class MessageFrame {
 
   /** Deducts the remaining gas. */
   public void clearGasRemaining() {
-    this.gasRemaining = Gas.ZERO;
+    this.gasRemaining = 0;
   }
 
   /**
@@ -366,7 +371,16 @@ public class MessageFrame {
    * @param amount The amount of gas to deduct
    */
   public void decrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.minus(amount);
+    decrementRemainingGas(amount.toLong());
+  }
+
+  /**
+   * Decrement the amount of remaining gas.
+   *
+   * @param amount The amount of gas to deduct
+   */
+  public void decrementRemainingGas(final long amount) {
+    this.gasRemaining -= amount;
   }
 
   /**
@@ -375,6 +389,15 @@ public class MessageFrame {
    * @return the amount of remaining gas
    */
   public Gas getRemainingGas() {
+    return Gas.of(gasRemaining);
+  }
+
+  /**
+   * Return the amount of remaining gas without wrapping it.
+   *
+   * @return the amount of remaining gas
+   */
+  public long getRemainingGasAsLong() {
     return gasRemaining;
   }
 
@@ -384,7 +407,16 @@ public class MessageFrame {
    * @param amount The amount of gas to increment
    */
   public void incrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.plus(amount);
+    incrementRemainingGas(amount.toLong());
+  }
+
+  /**
+   * Increment the amount of remaining gas.
+   *
+   * @param amount The amount of gas to increment
+   */
+  public void incrementRemainingGas(final long amount) {
+    this.gasRemaining = Words.clampedAdd(gasRemaining, amount);
   }
 
   /**
@@ -393,6 +425,15 @@ public class MessageFrame {
    * @param amount The amount of remaining gas
    */
   public void setGasRemaining(final Gas amount) {
+    this.gasRemaining = amount.toLong();
+  }
+
+  /**
+   * Set the amount of remaining gas.
+   *
+   * @param amount The amount of remaining gas
+   */
+  public void setGasRemaining(final long amount) {
     this.gasRemaining = amount;
   }
 
@@ -492,6 +533,15 @@ public class MessageFrame {
     stack.set(offset, value);
   }
 
+  /**
+   * Returns the operand stack, for operations that manipulate stack items in place.
+   *
+   * @return the operand stack
+   */
+  public OperandStack getOperandStack() {
+    return stack;
+  }
+
   /**
    * Return the current stack size.
    *
@@ -590,6 +640,60 @@ public class MessageFrame {
     return value;
   }
 
+  /**
+   * Read bytes in memory.
+   *
+   * @param offset The offset in memory
+   * @param length The length of the bytes to read
+   * @return The bytes in the specified range
+   */
+  public Bytes readMemory(final long offset, final long length) {
+    return memory.getBytes(offset, length);
+  }
+
+  /**
+   * Read bytes in memory without copying them.
+   *
+   * <p>The returned bytes are a view that reflects later writes to this frame's memory. Use it for
+   * data that is consumed before memory is written again, or that is only read while this frame is
+   * suspended or after it has halted, such as return data and call input.
+   *
+   * @param offset The offset in memory
+   * @param length The length of the bytes to read
+   * @return A view of the bytes in the specified range
+   */
+  public Bytes readMemoryView(final UInt256 offset, final UInt256 length) {
+    return memory.getBytesView(offset, length);
+  }
+
+  /**
+   * Read bytes in memory without copying them.
+   *
+   * @param offset The offset in memory
+   * @param length The length of the bytes to read
+   * @return A view of the bytes in the specified range
+   * @see #readMemoryView(UInt256, UInt256)
+   */
+  public Bytes readMemoryView(final long offset, final long length) {
+    return memory.getBytesView(offset, length);
+  }
+
+  /**
+   * Read a word from memory.
+   *
+   * @param offset The offset in memory
+   * @param explicitMemoryRead true if triggered by a memory opcode, false otherwise
+   * @return The word starting at the offset
+   */
+  public UInt256 readMemoryWord(final UInt256 offset, final boolean explicitMemoryRead) {
+    final UInt256 value = UInt256.fromBytes(memory.getBytesView(offset, WORD_SIZE));
+    if (explicitMemoryRead) {
+      // The word is immutable, so it can be recorded without the copy a byte range needs.
+      setUpdatedMemory(offset, value);
+    }
+    return value;
+  }
+
   /**
    * Write byte to memory
    *
@@ -669,6 +773,45 @@ public class MessageFrame {
     }
   }
 
+  /**
+   * Write a word to memory
+   *
+   * @param offset The offset in memory
+   * @param value The word to write
+   * @param explicitMemoryUpdate true if triggered by a memory opcode, false otherwise
+   */
+  public void writeMemoryWord(
+      final UInt256 offset, final Bytes32 value, final boolean explicitMemoryUpdate) {
+    memory.setWord(offset, value);
+    if (explicitMemoryUpdate) {
+      setUpdatedMemory(offset, value.copy());
+    }
+  }
+
+  /**
+   * Write bytes to memory
+   *
+   * @param offset The offset in memory
+   * @param length The length of the bytes to write
+   * @param value The value to write
+   */
+  public void writeMemory(final long offset, final long length, final Bytes value) {
+    memory.setBytes(offset, length, value);
+  }
+
+  /**
+   * Write bytes to memory
+   *
+   * @param offset The offset in memory to start the write
+   * @param sourceOffset The offset in the source value to start the write
+   * @param length The length of the bytes to write
+   * @param value The value to write
+   */
+  public void writeMemory(
+      final long offset, final long sourceOffset, final long length, final Bytes value) {
+    memory.setBytes(offset, sourceOffset, length, value);
+  }
+
   private void setUpdatedMemory(
       final UInt256 offset, final UInt256 sourceOffset, final UInt256 length, final Bytes value) {
     final int srcOff = sourceOffset.fitsInt() ? sourceOffset.intValue() : Integer.MAX_VALUE;
@@ -1024,7 +1167,7 @@ public class MessageFrame {
   }
 
   public Optional<Gas> getGasCost() {
-    return gasCost;
+    return hasGasCost ? Optional.of(Gas.of(gasCost)) : Optional.empty();
   }
 
   public int getMaxStackSize() {
@@ -1062,7 +1205,18 @@ public class MessageFrame {
   }
 
   public void setGasCost(final Optional<Gas> gasCost) {
+    this.gasCost = gasCost.map(Gas::toLong).orElse(0L);
+    this.hasGasCost = gasCost.isPresent();
+  }
+
+  public void setGasCost(final long gasCost) {
     this.gasCost = gasCost;
+    this.hasGasCost = true;
+  }
+
+  public void clearGasCost() {
+    this.gasCost = 0;
+    this.hasGasCost = false;
   }
 
   Optional<MemoryEntry> getMaybeUpdatedMemory() {
@@ -1097,6 +1251,7 @@ public class MessageFrame {
     private ProcessableBlockHeader blockHeader;
     private int depth = -1;
     private int maxStackSize = DEFAULT_MAX_STACK_SIZE;
+    private IntFunction<OperandStack> operandStackFactory = OperandStack::new;
     private boolean isStatic = false;
     private Consumer<MessageFrame> completer;
     private Address miningBeneficiary;
@@ -1199,6 +1354,11 @@ public class MessageFrame {
       return this;
     }
 
+    public Builder operandStackFactory(final IntFunction<OperandStack> operandStackFactory) {
+      this.operandStackFactory = operandStackFactory;
+      return this;
+    }
+
     public Builder completer(final Consumer<MessageFrame> completer) {
       this.completer = completer;
       return this;
@@ -1270,6 +1430,7 @@ public class MessageFrame {
       checkState(miningBeneficiary != null, "Missing mining beneficiary");
       checkState(blockHashLookup != null, "Missing block hash lookup");
       checkState(isPersistingPrivateState != null, "Missing isPersistingPrivateState");
+      checkState(operandStackFactory != null, "Missing operand stack factory");
     }
 
     public MessageFrame build() {
@@ -1302,6 +1463,7 @@ public class MessageFrame {
           transaction,
           reason,
           maxStackSize,
+          operandStackFactory,
           accessListWarmAddresses,
           accessListWarmStorage);
     }
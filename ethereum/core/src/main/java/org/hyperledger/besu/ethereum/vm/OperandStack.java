@@ -16,11 +16,116 @@
 
 package org.hyperledger.besu.ethereum.vm;
 
+import java.math.BigInteger;
+
 import org.apache.tuweni.units.bigints.UInt256;
 
+/**
+ * The operand stack of a message frame.
+ *
+ * <p>Besides the generic stack accessors this class exposes the in-place word operations used by
+ * the simple arithmetic, comparison and stack manipulation opcodes. Each operation pops its
+ * operands (top of the stack first) and pushes its result. The implementations here operate on
+ * {@link UInt256} values; alternative stack engines such as {@link LimbOperandStack} override them
+ * to avoid allocating intermediate values.
+ */
 public class OperandStack extends FixedStack<UInt256> {
 
   public OperandStack(final int maxSize) {
     super(maxSize, UInt256.class);
   }
+
+  public void add() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.add(value1));
+  }
+
+  public void sub() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.subtract(value1));
+  }
+
+  public void mul() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.multiply(value1));
+  }
+
+  public void and() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.and(value1));
+  }
+
+  public void or() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.or(value1));
+  }
+
+  public void xor() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.xor(value1));
+  }
+
+  public void not() {
+    push(pop().not());
+  }
+
+  public void lt() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.compareTo(value1) < 0 ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  public void gt() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.compareTo(value1) > 0 ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  public void slt() {
+    final BigInteger b0 = pop().toSignedBigInteger();
+    final BigInteger b1 = pop().toSignedBigInteger();
+    push(b0.compareTo(b1) < 0 ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  public void sgt() {
+    final BigInteger b0 = pop().toSignedBigInteger();
+    final BigInteger b1 = pop().toSignedBigInteger();
+    push(b0.compareTo(b1) > 0 ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  public void eq() {
+    final UInt256 value0 = pop();
+    final UInt256 value1 = pop();
+    push(value0.equals(value1) ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  public void isZero() {
+    push(pop().isZero() ? UInt256.ONE : UInt256.ZERO);
+  }
+
+  /**
+   * Pushes a copy of the item at the specified offset onto the top of the stack.
+   *
+   * @param offset the item's position relative to the top of the stack
+   */
+  public void dup(final int offset) {
+    push(get(offset));
+  }
+
+  /**
+   * Exchanges the top of the stack with the item at the specified offset.
+   *
+   * @param offset the item's position relative to the top of the stack
+   */
+  public void swap(final int offset) {
+    final UInt256 tmp = get(0);
+    set(0, get(offset));
+    set(offset, tmp);
+  }
 }
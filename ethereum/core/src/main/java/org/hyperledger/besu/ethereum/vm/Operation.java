@@ -21,16 +21,38 @@ import java.util.Optional;
 public interface Operation {
 
   class OperationResult {
-    final Optional<Gas> gasCost;
+    final long gasCost;
+    final boolean hasGasCost;
     final Optional<ExceptionalHaltReason> haltReason;
 
     public OperationResult(
         final Optional<Gas> gasCost, final Optional<ExceptionalHaltReason> haltReason) {
+      this.gasCost = gasCost.map(Gas::toLong).orElse(0L);
+      this.hasGasCost = gasCost.isPresent();
+      this.haltReason = haltReason;
+    }
+
+    public OperationResult(final long gasCost, final Optional<ExceptionalHaltReason> haltReason) {
       this.gasCost = gasCost;
+      this.hasGasCost = true;
       this.haltReason = haltReason;
     }
 
+    /**
+     * Returns the gas cost wrapped for tracers and other consumers outside the interpreter loop,
+     * which should prefer {@link #hasGasCost()} and {@link #getGasCostAsLong()}.
+     *
+     * @return the gas cost, if one was computed
+     */
     public Optional<Gas> getGasCost() {
+      return hasGasCost ? Optional.of(Gas.of(gasCost)) : Optional.empty();
+    }
+
+    public boolean hasGasCost() {
+      return hasGasCost;
+    }
+
+    public long getGasCostAsLong() {
       return gasCost;
     }
 
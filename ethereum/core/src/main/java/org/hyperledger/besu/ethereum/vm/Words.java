@@ -58,4 +58,40 @@ public abstract class Words {
     // m/n round up == (m + n - 1)/n: http://www.cs.nott.ac.uk/~psarb2/G51MPC/slides/NumberLogic.pdf
     return (input.size() + Bytes32.SIZE - 1) / Bytes32.SIZE;
   }
+
+  /**
+   * Adds two gas amounts, saturating at {@link Long#MAX_VALUE} like {@code Gas.plus}.
+   *
+   * @param a the first amount
+   * @param b the second amount
+   * @return the sum, or {@link Long#MAX_VALUE} if it overflows
+   */
+  public static long clampedAdd(final long a, final long b) {
+    final long sum = a + b;
+    // Overflow iff both arguments have the opposite sign of the result
+    return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+  }
+
+  /**
+   * Multiplies two gas amounts, saturating at {@link Long#MAX_VALUE} like {@code Gas.times}.
+   *
+   * @param a the first amount
+   * @param b the second amount
+   * @return the product, or {@link Long#MAX_VALUE} if it overflows
+   */
+  public static long clampedMultiply(final long a, final long b) {
+    final long hi = Math.multiplyHigh(a, b);
+    final long lo = a * b;
+    return (hi == 0 && lo >= 0) || (hi == -1 && lo < 0) ? lo : Long.MAX_VALUE;
+  }
+
+  /**
+   * Converts a word to a gas amount, saturating at {@link Long#MAX_VALUE} like {@code Gas.of}.
+   *
+   * @param value the word to convert
+   * @return the value as a long, or {@link Long#MAX_VALUE} if it does not fit
+   */
+  public static long clampedToLong(final UInt256 value) {
+    return value.fitsLong() ? value.toLong() : Long.MAX_VALUE;
+  }
 }
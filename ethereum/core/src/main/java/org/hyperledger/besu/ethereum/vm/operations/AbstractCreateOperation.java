@@ -68,7 +68,7 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
       if (frame.isStatic()) {
         return new OperationResult(
             optionalCost, Optional.of(ExceptionalHaltReason.ILLEGAL_STATE_CHANGE));
-      } else if (frame.getRemainingGas().compareTo(cost) < 0) {
+      } else if (frame.getRemainingGasAsLong() < cost.toLong()) {
         return new OperationResult(
             optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
       }
@@ -82,7 +82,7 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
       if (value.compareTo(account.getBalance()) > 0 || frame.getMessageStackDepth() >= 1024) {
         fail(frame);
       } else {
-        spawnChildMessage(frame);
+        spawnChildMessage(frame, evm);
       }
     }
 
@@ -96,12 +96,12 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
   private void fail(final MessageFrame frame) {
     final UInt256 inputOffset = frame.getStackItem(1);
     final UInt256 inputSize = frame.getStackItem(2);
-    frame.readMemory(inputOffset, inputSize);
+    frame.expandMemory(inputOffset, inputSize);
     frame.popStackItems(getStackItemsConsumed());
     frame.pushStackItem(UInt256.ZERO);
   }
 
-  private void spawnChildMessage(final MessageFrame frame) {
+  private void spawnChildMessage(final MessageFrame frame, final EVM evm) {
     // memory cost needs to be calculated prior to memory expansion
     final Gas cost = cost(frame);
     frame.decrementRemainingGas(cost);
@@ -114,7 +114,7 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
     final Wei value = Wei.wrap(frame.getStackItem(0));
     final UInt256 inputOffset = frame.getStackItem(1);
     final UInt256 inputSize = frame.getStackItem(2);
-    final Bytes inputData = frame.readMemory(inputOffset, inputSize);
+    final Bytes inputData = frame.readMemoryView(inputOffset, inputSize);
 
     final Address contractAddress = targetContractAddress(frame);
 
@@ -143,6 +143,7 @@ public abstract class AbstractCreateOperation extends AbstractOperation {
             .miningBeneficiary(frame.getMiningBeneficiary())
             .blockHashLookup(frame.getBlockHashLookup())
             .maxStackSize(frame.getMaxStackSize())
+            .operandStackFactory(evm.getOperandStackFactory())
             .build();
 
     frame.incrementRemainingGas(cost);
@@ -34,6 +34,7 @@ abstract class AbstractFixedCostOperation extends AbstractOperation {
   private final OperationResult underflowResponse;
   private final OperationResult overflowResponse;
   protected final Gas gasCost;
+  protected final long gasCostAsLong;
 
   protected AbstractFixedCostOperation(
       final int opcode,
@@ -53,22 +54,22 @@ abstract class AbstractFixedCostOperation extends AbstractOperation {
         opSize,
         gasCalculator);
     gasCost = fixedCost;
-    successResponse = new OperationResult(Optional.of(gasCost), Optional.empty());
+    gasCostAsLong = fixedCost.toLong();
+    successResponse = new OperationResult(gasCostAsLong, Optional.empty());
     outOfGasResponse =
-        new OperationResult(
-            Optional.of(gasCost), Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+        new OperationResult(gasCostAsLong, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     underflowResponse =
         new OperationResult(
-            Optional.of(gasCost), Optional.of(ExceptionalHaltReason.INSUFFICIENT_STACK_ITEMS));
+            gasCostAsLong, Optional.of(ExceptionalHaltReason.INSUFFICIENT_STACK_ITEMS));
     overflowResponse =
         new OperationResult(
-            Optional.of(gasCost), Optional.of(ExceptionalHaltReason.TOO_MANY_STACK_ITEMS));
+            gasCostAsLong, Optional.of(ExceptionalHaltReason.TOO_MANY_STACK_ITEMS));
   }
 
   @Override
   public final OperationResult execute(final MessageFrame frame, final EVM evm) {
     try {
-      if (frame.getRemainingGas().compareTo(gasCost) < 0) {
+      if (frame.getRemainingGasAsLong() < gasCostAsLong) {
         return outOfGasResponse;
       } else {
         return executeFixedCostOperation(frame, evm);
@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.Code;
 import org.hyperledger.besu.ethereum.vm.EVM;
@@ -38,16 +37,15 @@ public class CodeCopyOperation extends AbstractOperation {
     final UInt256 sourceOffset = frame.popStackItem();
     final UInt256 numBytes = frame.popStackItem();
 
-    final Gas cost = gasCalculator().dataCopyOperationGasCost(frame, memOffset, numBytes);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().dataCopyOperationGasCost(frame, memOffset, numBytes);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
     final Code code = frame.getCode();
 
     frame.writeMemory(memOffset, sourceOffset, numBytes, code.getBytes(), true);
 
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -38,7 +38,7 @@ public class Create2Operation extends AbstractCreateOperation {
     final UInt256 offset = frame.getStackItem(1);
     final UInt256 length = frame.getStackItem(2);
     final Bytes32 salt = frame.getStackItem(3);
-    final Bytes initCode = frame.readMemory(offset, length);
+    final Bytes initCode = frame.readMemoryView(offset, length);
     final Hash hash = Hash.hash(Bytes.concatenate(PREFIX, sender, salt, Hash.hash(initCode)));
     final Address address = Address.extract(hash);
     frame.warmUpAddress(address);
@@ -18,8 +18,6 @@ import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class EqOperation extends AbstractFixedCostOperation {
 
   public EqOperation(final GasCalculator gasCalculator) {
@@ -28,12 +26,7 @@ public class EqOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final UInt256 value0 = frame.popStackItem();
-    final UInt256 value1 = frame.popStackItem();
-
-    final UInt256 result = (value0.equals(value1) ? UInt256.ONE : UInt256.ZERO);
-
-    frame.pushStackItem(result);
+    frame.getOperandStack().eq();
 
     return successResponse;
   }
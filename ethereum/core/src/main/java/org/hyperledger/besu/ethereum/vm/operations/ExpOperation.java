@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
@@ -38,15 +37,14 @@ public class ExpOperation extends AbstractOperation {
 
     final int numBytes = (power.bitLength() + 7) / 8;
 
-    final Gas cost = gasCalculator().expOperationGasCost(numBytes);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().expOperationGasCost(numBytes);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
     final UInt256 result = number.pow(power);
 
     frame.pushStackItem(result);
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -16,7 +16,6 @@ package org.hyperledger.besu.ethereum.vm.operations;
 
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.Address;
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
@@ -44,23 +43,21 @@ public class ExtCodeCopyOperation extends AbstractOperation {
 
     final boolean accountIsWarm =
         frame.warmUpAddress(address) || gasCalculator().isPrecompile(address);
-    final Gas cost =
-        gasCalculator()
-            .extCodeCopyOperationGasCost(frame, memOffset, numBytes)
-            .plus(
-                accountIsWarm
-                    ? gasCalculator().getWarmStorageReadCost()
-                    : gasCalculator().getColdAccountAccessCost());
-
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost =
+        Words.clampedAdd(
+            gasCalculator().extCodeCopyOperationGasCost(frame, memOffset, numBytes),
+            accountIsWarm
+                ? gasCalculator().getWarmStorageReadCost().toLong()
+                : gasCalculator().getColdAccountAccessCost().toLong());
+
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
     final Account account = frame.getWorldState().get(address);
     final Bytes code = account != null ? account.getCode() : Bytes.EMPTY;
 
     frame.writeMemory(memOffset, sourceOffset, numBytes, code);
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
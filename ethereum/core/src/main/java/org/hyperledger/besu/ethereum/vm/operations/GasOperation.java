@@ -14,13 +14,10 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.bytes.Bytes;
-import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
 public class GasOperation extends AbstractFixedCostOperation {
@@ -31,9 +28,8 @@ public class GasOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final Gas gasRemaining = frame.getRemainingGas().minus(gasCost);
-    final UInt256 value = UInt256.fromBytes(Bytes32.leftPad(Bytes.of(gasRemaining.getBytes())));
-    frame.pushStackItem(value);
+    final long gasRemaining = frame.getRemainingGasAsLong() - gasCostAsLong;
+    frame.pushStackItem(UInt256.valueOf(gasRemaining));
 
     return successResponse;
   }
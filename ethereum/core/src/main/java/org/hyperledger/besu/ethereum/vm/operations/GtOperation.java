@@ -18,8 +18,6 @@ import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class GtOperation extends AbstractFixedCostOperation {
 
   public GtOperation(final GasCalculator gasCalculator) {
@@ -28,12 +26,7 @@ public class GtOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final UInt256 value0 = frame.popStackItem();
-    final UInt256 value1 = frame.popStackItem();
-
-    final UInt256 result = (value0.compareTo(value1) > 0 ? UInt256.ONE : UInt256.ZERO);
-
-    frame.pushStackItem(result);
+    frame.getOperandStack().gt();
 
     return successResponse;
   }
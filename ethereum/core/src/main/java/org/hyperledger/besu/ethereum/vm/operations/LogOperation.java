@@ -15,7 +15,6 @@
 package org.hyperledger.besu.ethereum.vm.operations;
 
 import org.hyperledger.besu.ethereum.core.Address;
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.core.Log;
 import org.hyperledger.besu.ethereum.core.LogTopic;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
@@ -44,13 +43,11 @@ public class LogOperation extends AbstractOperation {
     final UInt256 dataLocation = frame.popStackItem();
     final UInt256 numBytes = frame.popStackItem();
 
-    final Gas cost = gasCalculator().logOperationGasCost(frame, dataLocation, numBytes, numTopics);
-    final Optional<Gas> optionalCost = Optional.of(cost);
+    final long cost = gasCalculator().logOperationGasCost(frame, dataLocation, numBytes, numTopics);
     if (frame.isStatic()) {
-      return new OperationResult(
-          optionalCost, Optional.of(ExceptionalHaltReason.ILLEGAL_STATE_CHANGE));
-    } else if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.ILLEGAL_STATE_CHANGE));
+    } else if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
     final Address address = frame.getRecipientAddress();
@@ -64,6 +61,6 @@ public class LogOperation extends AbstractOperation {
     }
 
     frame.addLog(new Log(address, data, builder.build()));
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
@@ -23,7 +22,6 @@ import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
 import java.util.Optional;
 
-import org.apache.tuweni.bytes.Bytes32;
 import org.apache.tuweni.units.bigints.UInt256;
 
 public class MLoadOperation extends AbstractOperation {
@@ -36,16 +34,12 @@ public class MLoadOperation extends AbstractOperation {
   public OperationResult execute(final MessageFrame frame, final EVM evm) {
     final UInt256 location = frame.popStackItem();
 
-    final Gas cost = gasCalculator().mLoadOperationGasCost(frame, location);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().mLoadOperationGasCost(frame, location);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
-    final UInt256 value =
-        UInt256.fromBytes(Bytes32.leftPad(frame.readMemory(location, UInt256.valueOf(32), true)));
-
-    frame.pushStackItem(value);
-    return new OperationResult(optionalCost, Optional.empty());
+    frame.pushStackItem(frame.readMemoryWord(location, true));
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
@@ -37,13 +36,12 @@ public class MStoreOperation extends AbstractOperation {
     final UInt256 location = frame.popStackItem();
     final Bytes32 value = frame.popStackItem();
 
-    final Gas cost = gasCalculator().mStoreOperationGasCost(frame, location);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().mStoreOperationGasCost(frame, location);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
-    frame.writeMemory(location, UInt256.valueOf(32), value, true);
-    return new OperationResult(optionalCost, Optional.empty());
+    frame.writeMemoryWord(location, value, true);
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -18,8 +18,6 @@ import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class MulOperation extends AbstractFixedCostOperation {
 
   public MulOperation(final GasCalculator gasCalculator) {
@@ -28,12 +26,7 @@ public class MulOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final UInt256 value0 = frame.popStackItem();
-    final UInt256 value1 = frame.popStackItem();
-
-    final UInt256 result = value0.multiply(value1);
-
-    frame.pushStackItem(result);
+    frame.getOperandStack().mul();
 
     return successResponse;
   }
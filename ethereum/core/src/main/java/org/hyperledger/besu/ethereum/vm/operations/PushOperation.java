@@ -14,16 +14,10 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import static java.lang.Math.min;
-
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.bytes.Bytes;
-import org.apache.tuweni.bytes.MutableBytes32;
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class PushOperation extends AbstractFixedCostOperation {
 
   private final int length;
@@ -43,13 +37,7 @@ public class PushOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final int pc = frame.getPC();
-    final Bytes code = frame.getCode().getBytes();
-
-    final int copyLength = min(length, code.size() - pc - 1);
-    final MutableBytes32 bytes = MutableBytes32.create();
-    code.slice(pc + 1, copyLength).copyTo(bytes, bytes.size() - length);
-    frame.pushStackItem(UInt256.fromBytes(bytes));
+    frame.pushStackItem(frame.getCode().getPushValue(frame.getPC(), length));
 
     return successResponse;
   }
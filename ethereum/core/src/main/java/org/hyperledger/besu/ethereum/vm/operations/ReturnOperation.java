@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.ExceptionalHaltReason;
@@ -36,14 +35,13 @@ public class ReturnOperation extends AbstractOperation {
     final UInt256 from = frame.popStackItem();
     final UInt256 length = frame.popStackItem();
 
-    final Gas cost = gasCalculator().memoryExpansionGasCost(frame, from, length);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().memoryExpansionGasCost(frame, from, length);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
-    frame.setOutputData(frame.readMemory(from, length));
+    frame.setOutputData(frame.readMemoryView(from, length));
     frame.setState(MessageFrame.State.CODE_SUCCESS);
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
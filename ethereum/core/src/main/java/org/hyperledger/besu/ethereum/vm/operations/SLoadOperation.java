@@ -56,7 +56,7 @@ public class SLoadOperation extends AbstractOperation {
       final Bytes32 key = frame.popStackItem();
       final boolean slotIsWarm = frame.warmUpStorage(address, key);
       final Optional<Gas> optionalCost = slotIsWarm ? warmCost : coldCost;
-      if (frame.getRemainingGas().compareTo(optionalCost.get()) < 0) {
+      if (frame.getRemainingGasAsLong() < optionalCost.get().toLong()) {
         return new OperationResult(
             optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
       } else {
@@ -18,10 +18,6 @@ import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import java.math.BigInteger;
-
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class SLtOperation extends AbstractFixedCostOperation {
 
   public SLtOperation(final GasCalculator gasCalculator) {
@@ -30,15 +26,7 @@ public class SLtOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final UInt256 value0 = frame.popStackItem();
-    final UInt256 value1 = frame.popStackItem();
-
-    final BigInteger b0 = value0.toSignedBigInteger();
-    final BigInteger b1 = value1.toSignedBigInteger();
-
-    final UInt256 result = b0.compareTo(b1) < 0 ? UInt256.ONE : UInt256.ZERO;
-
-    frame.pushStackItem(result);
+    frame.getOperandStack().slt();
 
     return successResponse;
   }
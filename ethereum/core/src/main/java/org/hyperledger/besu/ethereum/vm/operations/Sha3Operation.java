@@ -14,7 +14,6 @@
  */
 package org.hyperledger.besu.ethereum.vm.operations;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.vm.AbstractOperation;
 import org.hyperledger.besu.ethereum.vm.EVM;
@@ -38,14 +37,13 @@ public class Sha3Operation extends AbstractOperation {
     final UInt256 from = frame.popStackItem();
     final UInt256 length = frame.popStackItem();
 
-    final Gas cost = gasCalculator().sha3OperationGasCost(frame, from, length);
-    final Optional<Gas> optionalCost = Optional.of(cost);
-    if (frame.getRemainingGas().compareTo(cost) < 0) {
-      return new OperationResult(optionalCost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
+    final long cost = gasCalculator().sha3OperationGasCost(frame, from, length);
+    if (frame.getRemainingGasAsLong() < cost) {
+      return new OperationResult(cost, Optional.of(ExceptionalHaltReason.INSUFFICIENT_GAS));
     }
 
-    final Bytes bytes = frame.readMemory(from, length);
+    final Bytes bytes = frame.readMemoryView(from, length);
     frame.pushStackItem(UInt256.fromBytes(Hash.hash(bytes)));
-    return new OperationResult(optionalCost, Optional.empty());
+    return new OperationResult(cost, Optional.empty());
   }
 }
@@ -21,8 +21,6 @@ import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
 import java.util.Optional;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class SwapOperation extends AbstractFixedCostOperation {
 
   private final int index;
@@ -51,9 +49,7 @@ public class SwapOperation extends AbstractFixedCostOperation {
       return underflowResponse;
     }
 
-    final UInt256 tmp = frame.getStackItem(0);
-    frame.setStackItem(0, frame.getStackItem(index));
-    frame.setStackItem(index, tmp);
+    frame.getOperandStack().swap(index);
 
     return successResponse;
   }
@@ -18,8 +18,6 @@ import org.hyperledger.besu.ethereum.vm.EVM;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
-import org.apache.tuweni.units.bigints.UInt256;
-
 public class XorOperation extends AbstractFixedCostOperation {
 
   public XorOperation(final GasCalculator gasCalculator) {
@@ -28,12 +26,7 @@ public class XorOperation extends AbstractFixedCostOperation {
 
   @Override
   public OperationResult executeFixedCostOperation(final MessageFrame frame, final EVM evm) {
-    final UInt256 value0 = frame.popStackItem();
-    final UInt256 value1 = frame.popStackItem();
-
-    final UInt256 result = value0.xor(value1);
-
-    frame.pushStackItem(result);
+    frame.getOperandStack().xor();
 
     return successResponse;
   }
@@ -22,6 +22,11 @@ import org.immutables.value.Value;
 public interface DataStorageConfiguration {
 
   long DEFAULT_BONSAI_MAX_LAYERS_TO_LOAD = 512;
+  long DEFAULT_BONSAI_LAYER_CACHE_CAPACITY = 256 * 1024 * 1024;
+  long DEFAULT_BONSAI_TRIE_LOG_RETENTION = 1024;
+  long DEFAULT_BLOCKCHAIN_CACHE_SIZE = 256;
+  long DEFAULT_BLOCKCHAIN_FREEZER_RETENTION = 90_000;
+  long DEFAULT_TRIE_NODE_CACHE_SIZE = 64 * 1024 * 1024;
 
   DataStorageConfiguration DEFAULT_CONFIG =
       ImmutableDataStorageConfiguration.builder()
@@ -32,4 +37,44 @@ public interface DataStorageConfiguration {
   DataStorageFormat getDataStorageFormat();
 
   Long getBonsaiMaxLayersToLoad();
+
+  @Value.Default
+  default boolean getBonsaiStatePrefetchEnabled() {
+    return false;
+  }
+
+  @Value.Default
+  default long getBonsaiLayerCacheCapacity() {
+    return DEFAULT_BONSAI_LAYER_CACHE_CAPACITY;
+  }
+
+  @Value.Default
+  default boolean getBonsaiTrieLogPruningEnabled() {
+    return false;
+  }
+
+  @Value.Default
+  default long getBonsaiTrieLogRetention() {
+    return DEFAULT_BONSAI_TRIE_LOG_RETENTION;
+  }
+
+  @Value.Default
+  default long getBlockchainCacheSize() {
+    return DEFAULT_BLOCKCHAIN_CACHE_SIZE;
+  }
+
+  @Value.Default
+  default boolean getBlockchainFreezerEnabled() {
+    return false;
+  }
+
+  @Value.Default
+  default long getBlockchainFreezerRetention() {
+    return DEFAULT_BLOCKCHAIN_FREEZER_RETENTION;
+  }
+
+  @Value.Default
+  default long getTrieNodeCacheSize() {
+    return DEFAULT_TRIE_NODE_CACHE_SIZE;
+  }
 }
@@ -42,6 +42,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -51,8 +52,12 @@ import org.apache.tuweni.units.bigints.UInt256;
 
 public class DefaultMutableWorldState implements MutableWorldState {
 
+  // Below this many updated slots, hashing a storage trie is cheaper than submitting it to a pool.
+  private static final int PARALLEL_STORAGE_HASHING_THRESHOLD = 64;
+
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
+  private final ForkJoinPool trieHashingPool;
 
   private final MerklePatriciaTrie<Bytes32, Bytes> accountStateTrie;
   private final Map<Address, MerklePatriciaTrie<Bytes32, Bytes>> updatedStorageTries =
@@ -70,9 +75,18 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final Bytes32 rootHash,
       final WorldStateStorage worldStateStorage,
       final WorldStatePreimageStorage preimageStorage) {
+    this(rootHash, worldStateStorage, preimageStorage, ForkJoinPool.commonPool());
+  }
+
+  public DefaultMutableWorldState(
+      final Bytes32 rootHash,
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final ForkJoinPool trieHashingPool) {
     this.worldStateStorage = worldStateStorage;
     this.accountStateTrie = newAccountStateTrie(rootHash);
     this.preimageStorage = preimageStorage;
+    this.trieHashingPool = trieHashingPool;
   }
 
   public DefaultMutableWorldState(final WorldState worldState) {
@@ -86,6 +100,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
     final DefaultMutableWorldState other = (DefaultMutableWorldState) worldState;
     this.worldStateStorage = other.worldStateStorage;
     this.preimageStorage = other.preimageStorage;
+    this.trieHashingPool = other.trieHashingPool;
     this.accountStateTrie = newAccountStateTrie(other.accountStateTrie.getRootHash());
   }
 
@@ -104,7 +119,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public Hash rootHash() {
-    return Hash.wrap(accountStateTrie.getRootHash());
+    return Hash.wrap(accountStateTrie.getRootHash(trieHashingPool));
   }
 
   @Override
@@ -114,7 +129,8 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public MutableWorldState copy() {
-    return new DefaultMutableWorldState(rootHash(), worldStateStorage, preimageStorage);
+    return new DefaultMutableWorldState(
+        rootHash(), worldStateStorage, preimageStorage, trieHashingPool);
   }
 
   @Override
@@ -184,10 +200,11 @@ public class DefaultMutableWorldState implements MutableWorldState {
     for (final MerklePatriciaTrie<Bytes32, Bytes> updatedStorage : updatedStorageTries.values()) {
       updatedStorage.commit(
           (location, hash, value) ->
-              stateUpdater.putAccountStorageTrieNode(null, location, hash, value));
+              stateUpdater.putAccountStorageTrieNode(null, location, hash, value),
+          trieHashingPool);
     }
     // Commit account updates
-    accountStateTrie.commit(stateUpdater::putAccountStateTrieNode);
+    accountStateTrie.commit(stateUpdater::putAccountStateTrieNode, trieHashingPool);
 
     // Persist preimages
     final WorldStatePreimageStorage.Updater preimageUpdater = preimageStorage.updater();
@@ -415,18 +432,24 @@ public class DefaultMutableWorldState implements MutableWorldState {
                       (Function<Map.Entry<UInt256, UInt256>, UInt256>) Map.Entry::getKey));
           entries.addAll(updatedStorage.entrySet());
 
+          final Map<Bytes32, Optional<Bytes>> trieUpdates = new HashMap<>();
           for (final Map.Entry<UInt256, UInt256> entry : entries) {
             final UInt256 value = entry.getValue();
             final Hash keyHash = Hash.hash(entry.getKey());
             if (value.isZero()) {
-              storageTrie.remove(keyHash);
+              trieUpdates.put(keyHash, Optional.empty());
             } else {
               wrapped.newStorageKeyPreimages.put(keyHash, entry.getKey());
-              storageTrie.put(
-                  keyHash, RLP.encode(out -> out.writeBytes(entry.getValue().toMinimalBytes())));
+              trieUpdates.put(
+                  keyHash, Optional.of(RLP.encode(out -> out.writeBytes(value.toMinimalBytes()))));
             }
           }
-          storageRoot = Hash.wrap(storageTrie.getRootHash());
+          storageTrie.updateAll(trieUpdates);
+          storageRoot =
+              Hash.wrap(
+                  trieUpdates.size() < PARALLEL_STORAGE_HASHING_THRESHOLD
+                      ? storageTrie.getRootHash()
+                      : storageTrie.getRootHash(wrapped.trieHashingPool));
         }
 
         // Save address preimage
@@ -24,8 +24,10 @@ import org.hyperledger.besu.ethereum.proof.WorldStateProof;
 import org.hyperledger.besu.ethereum.proof.WorldStateProofProvider;
 import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -34,14 +36,23 @@ public class DefaultWorldStateArchive implements WorldStateArchive {
   private final WorldStateStorage worldStateStorage;
   private final WorldStatePreimageStorage preimageStorage;
   private final WorldStateProofProvider worldStateProof;
+  private final ForkJoinPool trieHashingPool;
 
   private static final Hash EMPTY_ROOT_HASH = Hash.wrap(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
 
   public DefaultWorldStateArchive(
       final WorldStateStorage worldStateStorage, final WorldStatePreimageStorage preimageStorage) {
+    this(worldStateStorage, preimageStorage, ForkJoinPool.commonPool());
+  }
+
+  public DefaultWorldStateArchive(
+      final WorldStateStorage worldStateStorage,
+      final WorldStatePreimageStorage preimageStorage,
+      final ForkJoinPool trieHashingPool) {
     this.worldStateStorage = worldStateStorage;
     this.preimageStorage = preimageStorage;
     this.worldStateProof = new WorldStateProofProvider(worldStateStorage);
+    this.trieHashingPool = trieHashingPool;
   }
 
   @Override
@@ -72,7 +83,8 @@ public class DefaultWorldStateArchive implements WorldStateArchive {
     if (!worldStateStorage.isWorldStateAvailable(rootHash, blockHash)) {
       return Optional.empty();
     }
-    return Optional.of(new DefaultMutableWorldState(rootHash, worldStateStorage, preimageStorage));
+    return Optional.of(
+        new DefaultMutableWorldState(rootHash, worldStateStorage, preimageStorage, trieHashingPool));
   }
 
   @Override
@@ -91,6 +103,11 @@ public class DefaultWorldStateArchive implements WorldStateArchive {
     return worldStateStorage.getNodeData(null, hash);
   }
 
+  @Override
+  public List<Optional<Bytes>> getAllNodeData(final List<Hash> hashes) {
+    return worldStateStorage.getAllNodeData(new ArrayList<>(hashes));
+  }
+
   public WorldStateStorage getWorldStateStorage() {
     return worldStateStorage;
   }
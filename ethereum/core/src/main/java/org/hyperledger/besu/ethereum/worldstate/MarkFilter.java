@@ -0,0 +1,126 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A Bloom filter of marked node hashes, kept off-heap so that its size does not weigh on the heap.
+ *
+ * <p>Node hashes are Keccak hashes, so the bit positions are taken directly from their bytes
+ * instead of hashing them again. Bits are set atomically, marks can be added concurrently with
+ * lookups. A negative answer is exact, a positive one must be confirmed against the mark storage.
+ */
+class MarkFilter {
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+  private static final int HASH_FUNCTIONS = 3;
+
+  private final ByteBuffer bits;
+  private final int capacityInBytes;
+  private final int sizeInBytes;
+  private final long bitCount;
+
+  MarkFilter(final int sizeInBytes) {
+    // Atomic accesses need the longs aligned in memory.
+    this(
+        ByteBuffer.allocateDirect(checkSize(sizeInBytes) + Long.BYTES).alignedSlice(Long.BYTES),
+        sizeInBytes,
+        sizeInBytes);
+  }
+
+  private MarkFilter(final ByteBuffer bits, final int capacityInBytes, final int sizeInBytes) {
+    this.bits = bits;
+    this.capacityInBytes = capacityInBytes;
+    this.sizeInBytes = sizeInBytes;
+    this.bitCount = (long) sizeInBytes * Byte.SIZE;
+  }
+
+  private static int checkSize(final int sizeInBytes) {
+    checkArgument(
+        sizeInBytes >= Long.BYTES && sizeInBytes % Long.BYTES == 0,
+        "size must be a positive multiple of 8 bytes");
+    return sizeInBytes;
+  }
+
+  int sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  /**
+   * Returns an empty filter of the given size. The memory of this filter is zeroed and reused when
+   * it is large enough, so this filter must no longer be used afterwards.
+   */
+  MarkFilter cleared(final int sizeInBytes) {
+    if (checkSize(sizeInBytes) > capacityInBytes) {
+      return new MarkFilter(sizeInBytes);
+    }
+    final MarkFilter filter = new MarkFilter(bits, capacityInBytes, sizeInBytes);
+    filter.clear();
+    return filter;
+  }
+
+  void put(final byte[] hash) {
+    if (hash.length < 2 * Long.BYTES) {
+      return;
+    }
+    final long h1 = readLong(hash, 0);
+    final long h2 = readLong(hash, Long.BYTES);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      final long bit = Math.floorMod(h1 + i * h2, bitCount);
+      final long mask = 1L << (bit % Long.SIZE);
+      final int offset = (int) (bit / Long.SIZE) * Long.BYTES;
+      if (((long) LONGS.getAcquire(bits, offset) & mask) == 0) {
+        LONGS.getAndBitwiseOr(bits, offset, mask);
+      }
+    }
+  }
+
+  boolean mightContain(final byte[] hash) {
+    if (hash.length < 2 * Long.BYTES) {
+      return true;
+    }
+    final long h1 = readLong(hash, 0);
+    final long h2 = readLong(hash, Long.BYTES);
+    for (int i = 0; i < HASH_FUNCTIONS; i++) {
+      final long bit = Math.floorMod(h1 + i * h2, bitCount);
+      final int offset = (int) (bit / Long.SIZE) * Long.BYTES;
+      if (((long) LONGS.getAcquire(bits, offset) & (1L << (bit % Long.SIZE))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  void clear() {
+    for (int offset = 0; offset < sizeInBytes; offset += Long.BYTES) {
+      LONGS.setRelease(bits, offset, 0L);
+    }
+  }
+
+  private static long readLong(final byte[] bytes, final int offset) {
+    long value = 0;
+    for (int i = offset; i < offset + Long.BYTES; i++) {
+      value = (value << Byte.SIZE) | (bytes[i] & 0xFF);
+    }
+    return value;
+  }
+}
@@ -18,7 +18,6 @@ import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.rlp.RLP;
-import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
 import org.hyperledger.besu.metrics.BesuMetricCategory;
 import org.hyperledger.besu.metrics.ObservableMetricsSystem;
@@ -30,10 +29,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -41,7 +41,6 @@ import java.util.function.Function;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
@@ -53,9 +52,16 @@ public class MarkSweepPruner {
   private static final byte[] IN_USE = Bytes.of(1).toArrayUnsafe();
 
   private static final int DEFAULT_OPS_PER_TRANSACTION = 10_000;
-  private static final int MAX_MARKING_THREAD_POOL_SIZE = 2;
+  // The first levels of the tries are split into one marking task per node, 256 subtries of the
+  // state trie for two levels, so that the marking threads can steal work from each other.
+  private static final int MARKING_SPLIT_DEPTH = 2;
+  private static final int MARK_FILTER_BITS_PER_NODE = 10;
+  private static final int MIN_MARK_FILTER_SIZE = 16 * 1024 * 1024;
+  private static final int MAX_MARK_FILTER_SIZE = 1024 * 1024 * 1024;
 
   private final int operationsPerTransaction;
+  private final int markingThreads;
+  private final int sweepRate;
   private final WorldStateStorage worldStateStorage;
   private final MutableBlockchain blockchain;
   private final KeyValueStorage markStorage;
@@ -67,6 +73,8 @@ public class MarkSweepPruner {
   private volatile long nodeAddedListenerId;
   private final ReadWriteLock pendingMarksLock = new ReentrantReadWriteLock();
   private final Set<Bytes32> pendingMarks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final AtomicLong markedNodeCount = new AtomicLong();
+  private volatile MarkFilter markFilter = new MarkFilter(MIN_MARK_FILTER_SIZE);
 
   public MarkSweepPruner(
       final WorldStateStorage worldStateStorage,
@@ -76,16 +84,49 @@ public class MarkSweepPruner {
     this(worldStateStorage, blockchain, markStorage, metricsSystem, DEFAULT_OPS_PER_TRANSACTION);
   }
 
+  public MarkSweepPruner(
+      final WorldStateStorage worldStateStorage,
+      final MutableBlockchain blockchain,
+      final KeyValueStorage markStorage,
+      final ObservableMetricsSystem metricsSystem,
+      final PrunerConfiguration prunerConfiguration) {
+    this(
+        worldStateStorage,
+        blockchain,
+        markStorage,
+        metricsSystem,
+        DEFAULT_OPS_PER_TRANSACTION,
+        prunerConfiguration);
+  }
+
   public MarkSweepPruner(
       final WorldStateStorage worldStateStorage,
       final MutableBlockchain blockchain,
       final KeyValueStorage markStorage,
       final ObservableMetricsSystem metricsSystem,
       final int operationsPerTransaction) {
+    this(
+        worldStateStorage,
+        blockchain,
+        markStorage,
+        metricsSystem,
+        operationsPerTransaction,
+        PrunerConfiguration.getDefault());
+  }
+
+  public MarkSweepPruner(
+      final WorldStateStorage worldStateStorage,
+      final MutableBlockchain blockchain,
+      final KeyValueStorage markStorage,
+      final ObservableMetricsSystem metricsSystem,
+      final int operationsPerTransaction,
+      final PrunerConfiguration prunerConfiguration) {
     this.worldStateStorage = worldStateStorage;
     this.markStorage = markStorage;
     this.blockchain = blockchain;
     this.operationsPerTransaction = operationsPerTransaction;
+    this.markingThreads = prunerConfiguration.getMarkingThreads();
+    this.sweepRate = prunerConfiguration.getSweepRate();
 
     markedNodesCounter =
         metricsSystem.createCounter(
@@ -114,7 +155,7 @@ public class MarkSweepPruner {
         "Cumulative number of seconds spent marking the state trie across all pruning cycles",
         () -> markStopwatch.elapsed(TimeUnit.SECONDS));
 
-    LOG.debug("Using {} pruner threads", MAX_MARKING_THREAD_POOL_SIZE);
+    LOG.debug("Using {} pruner threads", markingThreads);
   }
 
   public void prepare() {
@@ -129,25 +170,15 @@ public class MarkSweepPruner {
   /**
    * This is a parallel mark implementation.
    *
-   * <p>The parallel task production is by sub-trie, so calling `visitAll` on a root node will
-   * eventually spawn up to 16 tasks (for a hexary trie).
-   *
-   * <p>If we marked each sub-trie in its own thread, with no common queue of tasks, our mark speed
-   * would be limited by the sub-trie with the maximum number of nodes. In practice for the Ethereum
-   * mainnet, we see a large imbalance in sub-trie size so without a common task pool the time in
-   * which there is only 1 thread left marking its big sub-trie would be substantial.
-   *
-   * <p>If we were to leave all threads to produce mark tasks before starting to mark, we would run
-   * out of memory quickly.
-   *
-   * <p>If we were to have a constant number of threads producing the mark tasks with the others
-   * consuming them, we would have to optimize the production/consumption balance.
+   * <p>The tries are visited on a fork/join pool. The nodes of the first levels of a trie are each
+   * visited by their own task, and the subtries below them sequentially by the thread running the
+   * task. Storage tries are visited by the thread that found the account, joining its own tasks to
+   * the pool.
    *
-   * <p>To get the best of both worlds, the marking executor has a {@link
-   * ThreadPoolExecutor.CallerRunsPolicy} which causes the producing tasks to essentially consume
-   * their own mark task immediately when the task queue is full. The resulting behavior is threads
-   * that mark their own sub-trie until they finish that sub-trie, at which point they switch to
-   * marking the sub-trie tasks produced by another thread.
+   * <p>In practice for the Ethereum mainnet, we see a large imbalance in sub-trie size. With a
+   * thread per sub-trie our mark speed would be limited by the largest one, while here the threads
+   * that are done steal the pending tasks of the busy ones, down to the size of the split subtries.
+   * Only the split levels are ever queued, so the number of pending tasks stays bounded.
    *
    * @param rootHash The root hash of the whole state trie. Roots of storage tries will be
    *     discovered though traversal.
@@ -155,36 +186,20 @@ public class MarkSweepPruner {
   public void mark(final Hash rootHash) {
     markOperationCounter.inc();
     markStopwatch.start();
-    final ExecutorService markingExecutorService =
-        new ThreadPoolExecutor(
-            0,
-            MAX_MARKING_THREAD_POOL_SIZE,
-            5L,
-            TimeUnit.SECONDS,
-            new LinkedBlockingDeque<>(16),
-            new ThreadFactoryBuilder()
-                .setDaemon(true)
-                .setPriority(Thread.MIN_PRIORITY)
-                .setNameFormat(this.getClass().getSimpleName() + "-%d")
-                .build(),
-            new ThreadPoolExecutor.CallerRunsPolicy());
-    createStateTrie(rootHash)
-        .visitAll(
-            node -> {
-              markNode(node.getHash());
-              node.getValue()
-                  .ifPresent(value -> processAccountState(value, markingExecutorService));
-            },
-            markingExecutorService)
-        .join() /* This will block on all the marking tasks to be _produced_ but doesn't guarantee that the marking tasks have been completed. */;
-    markingExecutorService.shutdown();
+    final ForkJoinPool markingPool = createMarkingPool(markingThreads);
     try {
-      // This ensures that the marking tasks complete.
-      markingExecutorService.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
-    } catch (InterruptedException e) {
-      LOG.info("Interrupted while marking", e);
+      createStateTrie(rootHash)
+          .visitAllInParallel(
+              node -> {
+                markNode(node.getHash());
+                node.getValue().ifPresent(value -> processAccountState(value, markingPool));
+              },
+              markingPool,
+              MARKING_SPLIT_DEPTH);
+    } finally {
+      markingPool.shutdown();
+      markStopwatch.stop();
     }
-    markStopwatch.stop();
     LOG.debug("Completed marking used nodes for pruning");
   }
 
@@ -214,7 +229,10 @@ public class MarkSweepPruner {
 
     updater.commit();
     // Sweep non-state-root nodes
-    prunedNodeCount += worldStateStorage.prune(this::isMarked);
+    prunedNodeCount +=
+        sweepRate > 0
+            ? worldStateStorage.prune(this::isMarked, sweepRate)
+            : worldStateStorage.prune(this::isMarked);
     sweptNodesCounter.inc(prunedNodeCount);
     clearMarks();
     LOG.debug("Completed sweeping unused nodes");
@@ -226,19 +244,54 @@ public class MarkSweepPruner {
   }
 
   public void clearMarks() {
-    markStorage.clear();
-    pendingMarks.clear();
+    // Markers must not set bits while the filter memory is zeroed.
+    final Lock clearLock = pendingMarksLock.writeLock();
+    clearLock.lock();
+    try {
+      // Size the filter for as many nodes as were marked by the last cycle. The memory of the
+      // previous filter is reused unless it is too small.
+      markFilter = markFilter.cleared(markFilterSize(markedNodeCount.getAndSet(0)));
+      markStorage.clear();
+      pendingMarks.clear();
+    } finally {
+      clearLock.unlock();
+    }
+  }
+
+  private static int markFilterSize(final long markedNodes) {
+    // Sizes are rounded up to a power of two so that they rarely grow from one cycle to the next.
+    final long size = markedNodes * MARK_FILTER_BITS_PER_NODE / Byte.SIZE;
+    final long clamped = Math.max(MIN_MARK_FILTER_SIZE, Math.min(MAX_MARK_FILTER_SIZE, size));
+    return (int) (Long.highestOneBit(clamped - 1) << 1);
   }
 
   private boolean isMarked(final Bytes32 key) {
-    return pendingMarks.contains(key) || markStorage.containsKey(key.toArrayUnsafe());
+    return isMarked(key.toArrayUnsafe());
   }
 
   private boolean isMarked(final byte[] key) {
-    return pendingMarks.contains(Bytes32.wrap(key)) || markStorage.containsKey(key);
+    // The filter answers for most of the unmarked nodes without reading the mark storage.
+    return pendingMarks.contains(Bytes32.wrap(key))
+        || (markFilter.mightContain(key) && markStorage.containsKey(key));
+  }
+
+  private static ForkJoinPool createMarkingPool(final int threads) {
+    final AtomicInteger threadCount = new AtomicInteger();
+    return new ForkJoinPool(
+        threads,
+        pool -> {
+          final ForkJoinWorkerThread thread =
+              ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+          thread.setName(
+              MarkSweepPruner.class.getSimpleName() + "-" + threadCount.getAndIncrement());
+          thread.setPriority(Thread.MIN_PRIORITY);
+          return thread;
+        },
+        null,
+        false);
   }
 
-  private MerklePatriciaTrie<Bytes32, Bytes> createStateTrie(final Bytes32 rootHash) {
+  private StoredMerklePatriciaTrie<Bytes32, Bytes> createStateTrie(final Bytes32 rootHash) {
     return new StoredMerklePatriciaTrie<>(
         worldStateStorage::getAccountStateTrieNode,
         rootHash,
@@ -246,7 +299,7 @@ public class MarkSweepPruner {
         Function.identity());
   }
 
-  private MerklePatriciaTrie<Bytes32, Bytes> createStorageTrie(final Bytes32 rootHash) {
+  private StoredMerklePatriciaTrie<Bytes32, Bytes> createStorageTrie(final Bytes32 rootHash) {
     return new StoredMerklePatriciaTrie<>(
         (location, hash) -> worldStateStorage.getAccountStorageTrieNode(null, location, hash),
         rootHash,
@@ -254,21 +307,33 @@ public class MarkSweepPruner {
         Function.identity());
   }
 
-  private void processAccountState(final Bytes value, final ExecutorService executorService) {
+  private void processAccountState(final Bytes value, final ForkJoinPool markingPool) {
     final StateTrieAccountValue accountValue = StateTrieAccountValue.readFrom(RLP.input(value));
     markNode(accountValue.getCodeHash());
 
     createStorageTrie(accountValue.getStorageRoot())
-        .visitAll(storageNode -> markNode(storageNode.getHash()), executorService);
+        .visitAllInParallel(
+            storageNode -> markNode(storageNode.getHash()), markingPool, MARKING_SPLIT_DEPTH);
   }
 
   @VisibleForTesting
   void markNode(final Bytes32 hash) {
-    markThenMaybeFlush(() -> pendingMarks.add(hash), 1);
+    markThenMaybeFlush(
+        () -> {
+          markFilter.put(hash.toArrayUnsafe());
+          pendingMarks.add(hash);
+        },
+        1);
   }
 
   private void markNodes(final Collection<Bytes32> nodeHashes) {
-    markThenMaybeFlush(() -> pendingMarks.addAll(nodeHashes), nodeHashes.size());
+    markThenMaybeFlush(
+        () -> {
+          final MarkFilter filter = markFilter;
+          nodeHashes.forEach(hash -> filter.put(hash.toArrayUnsafe()));
+          pendingMarks.addAll(nodeHashes);
+        },
+        nodeHashes.size());
   }
 
   private void markThenMaybeFlush(final Runnable nodeMarker, final int numberOfNodes) {
@@ -282,6 +347,7 @@ public class MarkSweepPruner {
       markLock.unlock();
     }
     markedNodesCounter.inc(numberOfNodes);
+    markedNodeCount.addAndGet(numberOfNodes);
 
     // However, when the size of pendingMarks grows too large, we want all the threads to stop
     // adding because we're going to clear the set.
@@ -302,7 +368,8 @@ public class MarkSweepPruner {
   }
 
   private void flushPendingMarks() {
-    final KeyValueStorageTransaction transaction = markStorage.startTransaction();
+    // The marks of an interrupted cycle are cleared on restart, so they need not be logged.
+    final KeyValueStorageTransaction transaction = markStorage.startUnloggedWriteBatch();
     pendingMarks.forEach(node -> transaction.put(node.toArrayUnsafe(), IN_USE));
     transaction.commit();
     pendingMarks.clear();
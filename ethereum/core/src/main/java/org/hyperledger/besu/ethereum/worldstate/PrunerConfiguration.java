@@ -17,14 +17,33 @@ package org.hyperledger.besu.ethereum.worldstate;
 public class PrunerConfiguration {
   public static final int DEFAULT_PRUNING_BLOCKS_RETAINED = 1024;
   public static final int DEFAULT_PRUNING_BLOCK_CONFIRMATIONS = 10;
+  public static final int DEFAULT_PRUNING_MARKING_THREADS =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  public static final int DEFAULT_PRUNING_SWEEP_RATE = 0;
 
   private final int blocksRetainedBeforeSweeping;
   private final int blockConfirmationsBeforeMarking;
+  private final int markingThreads;
+  private final int sweepRate;
 
   public PrunerConfiguration(
       final int blockConfirmationsBeforeMarking, final int blocksRetainedBeforeSweeping) {
+    this(
+        blockConfirmationsBeforeMarking,
+        blocksRetainedBeforeSweeping,
+        DEFAULT_PRUNING_MARKING_THREADS,
+        DEFAULT_PRUNING_SWEEP_RATE);
+  }
+
+  public PrunerConfiguration(
+      final int blockConfirmationsBeforeMarking,
+      final int blocksRetainedBeforeSweeping,
+      final int markingThreads,
+      final int sweepRate) {
     this.blockConfirmationsBeforeMarking = blockConfirmationsBeforeMarking;
     this.blocksRetainedBeforeSweeping = blocksRetainedBeforeSweeping;
+    this.markingThreads = markingThreads;
+    this.sweepRate = sweepRate;
   }
 
   public static PrunerConfiguration getDefault() {
@@ -39,4 +58,17 @@ public class PrunerConfiguration {
   public int getBlockConfirmations() {
     return blockConfirmationsBeforeMarking;
   }
+
+  public int getMarkingThreads() {
+    return markingThreads;
+  }
+
+  /**
+   * The maximum number of keys checked per second while sweeping, or 0 for no limit.
+   *
+   * @return the sweep rate
+   */
+  public int getSweepRate() {
+    return sweepRate;
+  }
 }
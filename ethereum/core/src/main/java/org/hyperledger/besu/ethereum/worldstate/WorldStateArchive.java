@@ -15,6 +15,7 @@
 package org.hyperledger.besu.ethereum.worldstate;
 
 import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.MutableWorldState;
@@ -24,6 +25,7 @@ import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.units.bigints.UInt256;
@@ -45,8 +47,29 @@ public interface WorldStateArchive {
 
   void setArchiveStateUnSafe(BlockHeader blockHeader);
 
+  /**
+   * Hints that the given block is about to be executed on top of the given world state, so that
+   * the state it touches can be read ahead.
+   *
+   * @param worldState the world state returned for the parent of the block
+   * @param block the block about to be executed
+   */
+  default void prefetch(final MutableWorldState worldState, final Block block) {}
+
+  /**
+   * Stops reading ahead for the given world state and drops the state read so far, once the block
+   * it was read for has been executed or has failed.
+   *
+   * @param worldState the world state passed to {@link #prefetch(MutableWorldState, Block)}
+   */
+  default void discardPrefetchedState(final MutableWorldState worldState) {}
+
   Optional<Bytes> getNodeData(Hash hash);
 
+  default List<Optional<Bytes>> getAllNodeData(final List<Hash> hashes) {
+    return hashes.stream().map(this::getNodeData).collect(Collectors.toList());
+  }
+
   Optional<WorldStateProof> getAccountProof(
       Hash worldStateRoot, Address accountAddress, List<UInt256> accountStorageKeys);
 }
@@ -17,8 +17,10 @@ package org.hyperledger.besu.ethereum.worldstate;
 import org.hyperledger.besu.ethereum.core.Hash;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -35,6 +37,21 @@ public interface WorldStateStorage {
 
   Optional<Bytes> getNodeData(Bytes location, Bytes32 hash);
 
+  default List<Optional<Bytes>> getAllNodeData(final List<Bytes32> hashes) {
+    // we don't have location info
+    return hashes.stream().map(hash -> getNodeData(null, hash)).collect(Collectors.toList());
+  }
+
+  /**
+   * Returns true if trie nodes and code are stored by hash alone, so that {@link
+   * #getAllNodeData(List)} finds everything the lookups by location or account would.
+   *
+   * @return true if the node data can be looked up by hash
+   */
+  default boolean isNodeDataKeyedByHash() {
+    return false;
+  }
+
   boolean isWorldStateAvailable(Bytes32 rootHash, Hash blockHash);
 
   default boolean contains(final Bytes32 hash) {
@@ -46,8 +63,30 @@ public interface WorldStateStorage {
 
   Updater updater();
 
+  /**
+   * Returns an updater whose changes are committed atomically but without the isolation of a
+   * transaction, for bulk writers whose nodes are not concurrently updated by other writers.
+   *
+   * @return the updater, a regular one by default
+   */
+  default Updater batchUpdater() {
+    return updater();
+  }
+
   long prune(Predicate<byte[]> inUseCheck);
 
+  /**
+   * Removes the nodes that are not in use, checking at most the given number of keys per second so
+   * that the sweep leaves the storage to block imports.
+   *
+   * @param inUseCheck tells whether a node is in use
+   * @param keysPerSecond the maximum number of keys checked per second
+   * @return the number of nodes removed
+   */
+  default long prune(final Predicate<byte[]> inUseCheck, final double keysPerSecond) {
+    return prune(inUseCheck);
+  }
+
   long addNodeAddedListener(NodesAddedListener listener);
 
   void removeNodeAddedListener(long id);
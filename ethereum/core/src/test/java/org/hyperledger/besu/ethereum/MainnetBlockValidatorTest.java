@@ -15,10 +15,12 @@
 package org.hyperledger.besu.ethereum;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.hyperledger.besu.ethereum.chain.BadBlockManager;
@@ -168,6 +170,35 @@ public class MainnetBlockValidatorTest {
     assertThat(badBlockManager.getBadBlocks().size()).isEqualTo(1);
   }
 
+  @Test
+  public void shouldDiscardThePrefetchedStateWhenProcessBlockThrows() {
+    when(blockchain.getBlockHeader(any(Hash.class)))
+        .thenReturn(Optional.of(new BlockHeaderTestFixture().buildHeader()));
+    when(blockHeaderValidator.validateHeader(
+            any(BlockHeader.class),
+            any(BlockHeader.class),
+            eq(protocolContext),
+            eq(HeaderValidationMode.DETACHED_ONLY)))
+        .thenReturn(true);
+    final MutableWorldState worldState = mock(MutableWorldState.class);
+    when(worldStateArchive.getMutable(any(Hash.class), any(Hash.class)))
+        .thenReturn(Optional.of(worldState));
+    when(blockProcessor.processBlock(eq(blockchain), any(MutableWorldState.class), eq(badBlock)))
+        .thenThrow(new IllegalStateException("processing failed"));
+
+    assertThatThrownBy(
+            () ->
+                mainnetBlockValidator.validateAndProcessBlock(
+                    protocolContext,
+                    badBlock,
+                    HeaderValidationMode.DETACHED_ONLY,
+                    HeaderValidationMode.DETACHED_ONLY))
+        .isInstanceOf(IllegalStateException.class);
+    verify(worldStateArchive).prefetch(worldState, badBlock);
+    verify(worldStateArchive).discardPrefetchedState(worldState);
+    verify(worldState).close();
+  }
+
   @Test
   public void shouldDetectAndCacheInvalidBlocksWhenBodyInvalid() {
     when(blockchain.getBlockHeader(any(Hash.class)))
@@ -0,0 +1,194 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class BonsaiLayerCacheTest {
+
+  private static final Address ACCOUNT = Address.fromHexString("0xc0ffee");
+  private static final Address RARELY_CHANGED = Address.fromHexString("0xbeef");
+  private static final int RARE_CHANGE_BLOCK = 30;
+
+  private final InMemoryKeyValueStorageProvider provider = new InMemoryKeyValueStorageProvider();
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final MetricsSystem metricsSystem = mock(MetricsSystem.class);
+  private final Counter spillCounter = mock(Counter.class);
+  private final Counter rehydrationCounter = mock(Counter.class);
+  private final Counter mergeCounter = mock(Counter.class);
+  private final List<BlockHeader> headers = new ArrayList<>();
+
+  private BonsaiWorldStateArchive archive;
+  private BlockAddedObserver blockAddedObserver;
+
+  @Test
+  public void mergedLayersServeTheSameStateAsTheLayers() {
+    createArchive(Long.MAX_VALUE);
+    importBlocks(40);
+
+    verify(mergeCounter, atLeastOnce()).inc();
+    assertThat(layerAt(0).hasMergedLayers()).isTrue();
+    assertThat(layerAt(BonsaiLayerCache.MERGED_LAYERS).hasMergedLayers()).isTrue();
+    assertStateOfEveryLayer();
+  }
+
+  @Test
+  public void spillsColdLayersAndReadsThemBackWhenNeeded() {
+    createArchive(1);
+    importBlocks(40);
+
+    verify(spillCounter, atLeastOnce()).inc();
+    verify(mergeCounter, never()).inc();
+    assertThat(layerAt(3).isSpilled()).isTrue();
+
+    assertStateOfEveryLayer();
+    verify(rehydrationCounter, atLeastOnce()).inc();
+  }
+
+  @Test
+  public void mergeKeepsTheOldestPriorAndTheNewestUpdatedValues() {
+    final Hash slotHash = Hash.hash(UInt256.ONE);
+    final TrieLogLayer older = new TrieLogLayer();
+    older.addAccountChange(ACCOUNT, null, account(1));
+    older.addStorageChange(ACCOUNT, slotHash, null, UInt256.ONE);
+    final TrieLogLayer newer = new TrieLogLayer();
+    newer.setBlockHash(Hash.hash(UInt256.ONE));
+    newer.addAccountChange(ACCOUNT, account(1), account(2));
+    newer.addAccountChange(RARELY_CHANGED, account(3), null);
+    newer.addStorageChange(ACCOUNT, slotHash, UInt256.ONE, UInt256.valueOf(2));
+
+    final TrieLogLayer merged = TrieLogLayer.merge(List.of(older, newer));
+
+    assertThat(merged.getBlockHash()).isEqualTo(newer.getBlockHash());
+    assertThat(merged.getPriorAccount(ACCOUNT)).isEmpty();
+    assertThat(merged.getAccount(ACCOUNT)).contains(account(2));
+    assertThat(merged.getPriorAccount(RARELY_CHANGED)).contains(account(3));
+    assertThat(merged.getAccount(RARELY_CHANGED)).isEmpty();
+    assertThat(merged.getPriorStorageBySlotHash(ACCOUNT, slotHash)).isEmpty();
+    assertThat(merged.getStorageBySlotHash(ACCOUNT, slotHash)).contains(UInt256.valueOf(2));
+    assertThat(merged.estimateSize()).isGreaterThan(0);
+  }
+
+  private void createArchive(final long layerCacheCapacity) {
+    when(metricsSystem.createCounter(any(), anyString(), anyString()))
+        .thenReturn(mock(Counter.class));
+    when(metricsSystem.createCounter(any(), eq("bonsai_layer_cache_spills_total"), anyString()))
+        .thenReturn(spillCounter);
+    when(metricsSystem.createCounter(
+            any(), eq("bonsai_layer_cache_rehydrations_total"), anyString()))
+        .thenReturn(rehydrationCounter);
+    when(metricsSystem.createCounter(any(), eq("bonsai_layer_cache_merges_total"), anyString()))
+        .thenReturn(mergeCounter);
+    archive =
+        BonsaiWorldStateArchive.builder(provider, blockchain)
+            .layerCacheCapacity(layerCacheCapacity)
+            .metricsSystem(metricsSystem)
+            .build();
+    final ArgumentCaptor<BlockAddedObserver> observer =
+        ArgumentCaptor.forClass(BlockAddedObserver.class);
+    verify(blockchain).observeBlockAdded(observer.capture());
+    blockAddedObserver = observer.getValue();
+  }
+
+  private void importBlocks(final int count) {
+    for (int number = 0; number < count; number++) {
+      final MutableWorldState worldState = archive.getMutable();
+      final WorldUpdater updater = worldState.updater();
+      if (number == 0) {
+        updater.createAccount(ACCOUNT, 0, Wei.ZERO);
+        updater.createAccount(RARELY_CHANGED, 0, Wei.of(7));
+      }
+      updater.getAccount(ACCOUNT).getMutable().setBalance(Wei.of(number + 1));
+      updater
+          .getAccount(ACCOUNT)
+          .getMutable()
+          .setStorageValue(UInt256.ONE, UInt256.valueOf(number + 1));
+      if (number == RARE_CHANGE_BLOCK) {
+        updater.getAccount(RARELY_CHANGED).getMutable().setBalance(Wei.of(8));
+      }
+      updater.commit();
+
+      final Hash parentHash = number == 0 ? Hash.ZERO : headers.get(number - 1).getHash();
+      final BlockHeader header =
+          new BlockHeaderTestFixture()
+              .number(number)
+              .parentHash(parentHash)
+              .stateRoot(worldState.frontierRootHash())
+              .buildHeader();
+      worldState.persist(header);
+      headers.add(header);
+
+      when(blockchain.getBlockHeader(header.getHash())).thenReturn(Optional.of(header));
+      when(blockchain.getBlockHashByNumber(number)).thenReturn(Optional.of(header.getHash()));
+      when(blockchain.getChainHeadHeader()).thenReturn(header);
+      blockAddedObserver.onBlockAdded(
+          BlockAddedEvent.createForHeadAdvancement(
+              new Block(header, BlockBody.empty()), List.of(), List.of()));
+    }
+  }
+
+  private void assertStateOfEveryLayer() {
+    for (int number = 0; number < headers.size() - 1; number++) {
+      final BonsaiLayeredWorldState layer = layerAt(number);
+      assertThat(layer.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(number + 1));
+      assertThat(layer.get(ACCOUNT).getStorageValue(UInt256.ONE))
+          .isEqualTo(UInt256.valueOf(number + 1));
+      assertThat(layer.get(RARELY_CHANGED).getBalance())
+          .isEqualTo(number < RARE_CHANGE_BLOCK ? Wei.of(7) : Wei.of(8));
+    }
+  }
+
+  private BonsaiLayeredWorldState layerAt(final int number) {
+    final BlockHeader header = headers.get(number);
+    return (BonsaiLayeredWorldState) archive.get(header.getStateRoot(), header.getHash()).get();
+  }
+
+  private static StateTrieAccountValue account(final long balance) {
+    return new StateTrieAccountValue(0, Wei.of(balance), Hash.EMPTY_TRIE_HASH, Hash.EMPTY);
+  }
+}
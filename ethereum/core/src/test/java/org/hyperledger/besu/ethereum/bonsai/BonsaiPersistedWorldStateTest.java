@@ -0,0 +1,141 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableAccount;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class BonsaiPersistedWorldStateTest {
+
+  private static final int ACCOUNTS = 32;
+  private static final int SLOTS = 8;
+
+  private final MutableWorldState bonsaiState =
+      new BonsaiWorldStateArchive(new InMemoryKeyValueStorageProvider(), mock(Blockchain.class))
+          .getMutable();
+  private final MutableWorldState forestState =
+      InMemoryKeyValueStorageProvider.createInMemoryWorldState();
+
+  @Test
+  public void storageRootsOfManyAccountsMatchForestState() {
+    for (final MutableWorldState worldState : new MutableWorldState[] {bonsaiState, forestState}) {
+      final WorldUpdater updater = worldState.updater();
+      for (int i = 0; i < ACCOUNTS; i++) {
+        final MutableAccount account =
+            updater.createAccount(address(i), 0, Wei.of(i + 1)).getMutable();
+        for (int slot = 0; slot < SLOTS; slot++) {
+          account.setStorageValue(UInt256.valueOf(slot), UInt256.valueOf(i * SLOTS + slot + 1));
+        }
+      }
+      updater.commit();
+      worldState.persist(null);
+    }
+
+    assertThat(bonsaiState.rootHash()).isEqualTo(forestState.rootHash());
+    assertThat(bonsaiState.get(address(7)).getStorageValue(UInt256.valueOf(3)))
+        .isEqualTo(UInt256.valueOf(7 * SLOTS + 3 + 1));
+  }
+
+  @Test
+  public void storageUpdatesAndRemovalsOfManyAccountsMatchForestState() {
+    storageRootsOfManyAccountsMatchForestState();
+
+    for (final MutableWorldState worldState : new MutableWorldState[] {bonsaiState, forestState}) {
+      final WorldUpdater updater = worldState.updater();
+      for (int i = 0; i < ACCOUNTS; i += 2) {
+        final MutableAccount account = updater.getAccount(address(i)).getMutable();
+        account.setStorageValue(UInt256.ZERO, UInt256.ZERO);
+        account.setStorageValue(UInt256.ONE, UInt256.valueOf(42));
+      }
+      updater.commit();
+      worldState.persist(null);
+    }
+
+    assertThat(bonsaiState.rootHash()).isEqualTo(forestState.rootHash());
+    assertThat(bonsaiState.get(address(4)).getStorageValue(UInt256.ZERO)).isEqualTo(UInt256.ZERO);
+    assertThat(bonsaiState.get(address(4)).getStorageValue(UInt256.ONE))
+        .isEqualTo(UInt256.valueOf(42));
+  }
+
+  @Test
+  public void streamsAccountsInTheOrderOfTheForestState() {
+    storageRootsOfManyAccountsMatchForestState();
+
+    final Function<WorldState.StreamableAccount, String> summary =
+        account -> account.getAddressHash() + "=" + account.getBalance();
+    assertThat(bonsaiState.streamAccounts(Bytes32.ZERO, ACCOUNTS).map(summary))
+        .containsExactlyElementsOf(
+            forestState.streamAccounts(Bytes32.ZERO, ACCOUNTS).map(summary).collect(toList()));
+  }
+
+  @Test
+  public void pagesThroughAccountsAndStorage() {
+    storageRootsOfManyAccountsMatchForestState();
+
+    final List<WorldState.StreamableAccount> firstPage =
+        bonsaiState.streamAccounts(Bytes32.ZERO, 11).collect(toList());
+    final Bytes32 nextKey = firstPage.get(10).getAddressHash();
+    final List<WorldState.StreamableAccount> secondPage =
+        bonsaiState.streamAccounts(nextKey, ACCOUNTS).collect(toList());
+    assertThat(firstPage).hasSize(11);
+    assertThat(secondPage).hasSize(ACCOUNTS - 10);
+    assertThat(secondPage.get(0).getAddressHash()).isEqualTo(nextKey);
+    assertThat(secondPage.get(0).getAddress()).isEmpty();
+
+    final Hash accountHash = Hash.hash(address(7));
+    final WorldState.StreamableAccount account =
+        bonsaiState
+            .streamAccounts(accountHash, 1)
+            .findFirst()
+            .orElseThrow();
+    assertThat(account.getAddressHash()).isEqualTo(accountHash);
+    assertThat(account.getStorageValue(UInt256.valueOf(3)))
+        .isEqualTo(UInt256.valueOf(7 * SLOTS + 3 + 1));
+    final NavigableMap<Bytes32, AccountStorageEntry> storage =
+        account.storageEntriesFrom(Bytes32.ZERO, SLOTS);
+    assertThat(storage.values().stream().map(AccountStorageEntry::getValue))
+        .containsExactlyElementsOf(
+            forestState.get(address(7)).storageEntriesFrom(Bytes32.ZERO, SLOTS).values().stream()
+                .map(AccountStorageEntry::getValue)
+                .collect(toList()));
+    final Bytes32 nextSlotHash = storage.keySet().stream().skip(5).findFirst().orElseThrow();
+    assertThat(account.storageEntriesFrom(nextSlotHash, SLOTS).keySet())
+        .containsExactlyElementsOf(storage.tailMap(nextSlotHash, true).keySet());
+  }
+
+  private static Address address(final int index) {
+    return Address.fromHexString("0x" + Integer.toHexString(0x1000 + index));
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BonsaiSnapshotWorldStateTest {
+
+  private static final Address ACCOUNT = Address.fromHexString("0xc0ffee");
+  private static final Address CREATED = Address.fromHexString("0xbeef");
+
+  private final InMemoryKeyValueStorageProvider provider = new InMemoryKeyValueStorageProvider();
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final List<BlockHeader> headers = new ArrayList<>();
+
+  private BonsaiWorldStateArchive archive;
+
+  @Before
+  public void setUp() {
+    archive = new BonsaiWorldStateArchive(provider, blockchain);
+    importBlock(updater -> updater.createAccount(ACCOUNT, 0, Wei.of(1)));
+    importBlock(
+        updater -> {
+          updater.getAccount(ACCOUNT).getMutable().setBalance(Wei.of(2));
+          updater.getAccount(ACCOUNT).getMutable().setStorageValue(UInt256.ONE, UInt256.ONE);
+        });
+    importBlock(
+        updater -> {
+          updater.getAccount(ACCOUNT).getMutable().setBalance(Wei.of(3));
+          updater.getAccount(ACCOUNT).getMutable().setStorageValue(UInt256.ONE, UInt256.ZERO);
+          updater.createAccount(CREATED, 0, Wei.of(5));
+        });
+    // drop the layered world states kept in memory by the archive during the import
+    archive = new BonsaiWorldStateArchive(provider, blockchain);
+  }
+
+  @Test
+  public void viewsHistoricalStateWithoutMovingThePersistedState() {
+    final MutableWorldState atGenesis = viewAt(0);
+    assertThat(atGenesis).isInstanceOf(BonsaiSnapshotWorldState.class);
+    assertThat(atGenesis.rootHash()).isEqualTo(headers.get(0).getStateRoot());
+    assertThat(atGenesis.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(1));
+    assertThat(atGenesis.get(ACCOUNT).getStorageValue(UInt256.ONE)).isEqualTo(UInt256.ZERO);
+    assertThat(atGenesis.get(CREATED)).isNull();
+
+    final MutableWorldState atBlockOne = viewAt(1);
+    assertThat(atBlockOne.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(2));
+    assertThat(atBlockOne.get(ACCOUNT).getStorageValue(UInt256.ONE)).isEqualTo(UInt256.ONE);
+
+    final BonsaiPersistedWorldState persistedState =
+        (BonsaiPersistedWorldState) archive.getMutable();
+    assertThat(persistedState.blockHash()).isEqualTo(headers.get(2).getHash());
+    assertThat(persistedState.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(3));
+  }
+
+  @Test
+  public void viewIsNotAffectedByBlocksPersistedAfterIt() {
+    final MutableWorldState atBlockOne = viewAt(1);
+
+    importBlock(
+        updater -> {
+          updater.getAccount(ACCOUNT).getMutable().setBalance(Wei.of(4));
+          updater.getAccount(ACCOUNT).getMutable().setStorageValue(UInt256.ONE, UInt256.MAX_VALUE);
+        });
+
+    assertThat(atBlockOne.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(2));
+    assertThat(atBlockOne.get(ACCOUNT).getStorageValue(UInt256.ONE)).isEqualTo(UInt256.ONE);
+    assertThat(viewAt(2).get(ACCOUNT).getBalance()).isEqualTo(Wei.of(3));
+  }
+
+  @Test
+  public void updatesOfTheViewAreNeverWritten() {
+    final MutableWorldState atBlockOne = viewAt(1);
+
+    final WorldUpdater updater = atBlockOne.updater();
+    updater.getAccount(ACCOUNT).getMutable().setBalance(Wei.of(10));
+    updater.commit();
+
+    assertThat(atBlockOne.get(ACCOUNT).getBalance()).isEqualTo(Wei.of(2));
+    assertThat(archive.getMutable().get(ACCOUNT).getBalance()).isEqualTo(Wei.of(3));
+    assertThatThrownBy(() -> atBlockOne.persist(headers.get(1)))
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  public void streamsTheAccountsAndStorageOfTheView() {
+    final List<WorldState.StreamableAccount> atBlockOne =
+        viewAt(1).streamAccounts(Bytes32.ZERO, 10).collect(Collectors.toList());
+
+    assertThat(atBlockOne).hasSize(1);
+    assertThat(atBlockOne.get(0).getAddress()).contains(ACCOUNT);
+    assertThat(atBlockOne.get(0).getBalance()).isEqualTo(Wei.of(2));
+    assertThat(atBlockOne.get(0).storageEntriesFrom(Bytes32.ZERO, 10).values())
+        .extracting(AccountStorageEntry::getValue)
+        .containsExactly(UInt256.ONE);
+
+    assertThat(viewAt(2).streamAccounts(Bytes32.ZERO, 10))
+        .extracting(WorldState.StreamableAccount::getAddressHash)
+        .containsExactlyInAnyOrder(Hash.hash(ACCOUNT), Hash.hash(CREATED));
+    assertThat(viewAt(2).get(ACCOUNT).storageEntriesFrom(Bytes32.ZERO, 10)).isEmpty();
+  }
+
+  @Test
+  public void streamsTheAccountsAndStorageOfALayeredWorldState() {
+    final BlockHeader header = headers.get(1);
+    final BonsaiLayeredWorldState atBlockOne =
+        new BonsaiLayeredWorldState(
+            blockchain,
+            archive,
+            Optional.empty(),
+            header.getNumber(),
+            header.getStateRoot(),
+            archive.getTrieLogLayer(header.getHash()).orElseThrow());
+
+    try (final Stream<WorldState.StreamableAccount> accounts =
+        atBlockOne.streamAccounts(Bytes32.ZERO, 10)) {
+      assertThat(accounts)
+          .extracting(WorldState.StreamableAccount::getAddressHash)
+          .containsExactly(Hash.hash(ACCOUNT));
+    }
+    assertThat(atBlockOne.storageEntriesFrom(ACCOUNT, Bytes32.ZERO, 10).values())
+        .extracting(AccountStorageEntry::getValue)
+        .containsExactly(UInt256.ONE);
+  }
+
+  @Test
+  public void snapshotIsReleasedOnceClosedAndUnsubscribedFrom() throws Exception {
+    final KeyValueStorage storage = mock(KeyValueStorage.class);
+    final KeyValueStorage snapshotStorage = mock(KeyValueStorage.class);
+    when(storage.takeSnapshot()).thenReturn(Optional.of(snapshotStorage));
+    final BonsaiSnapshotWorldStateKeyValueStorage snapshot =
+        BonsaiSnapshotWorldStateKeyValueStorage.create(
+                new BonsaiWorldStateKeyValueStorage(storage, storage, storage, storage, storage))
+            .orElseThrow();
+
+    snapshot.subscribe();
+    snapshot.close();
+    verify(snapshotStorage, never()).close();
+
+    // one snapshot for each of the flat state and trie branch segments
+    snapshot.unsubscribe();
+    verify(snapshotStorage, times(4)).close();
+  }
+
+  private MutableWorldState viewAt(final int number) {
+    final BlockHeader header = headers.get(number);
+    return archive.getMutable(header.getStateRoot(), header.getHash(), false).orElseThrow();
+  }
+
+  private void importBlock(final Consumer<WorldUpdater> changes) {
+    final MutableWorldState worldState = archive.getMutable();
+    final WorldUpdater updater = worldState.updater();
+    changes.accept(updater);
+    updater.commit();
+
+    final long number = headers.size();
+    final Hash parentHash = number == 0 ? Hash.ZERO : headers.get(headers.size() - 1).getHash();
+    final BlockHeader header =
+        new BlockHeaderTestFixture()
+            .number(number)
+            .parentHash(parentHash)
+            .stateRoot(worldState.frontierRootHash())
+            .buildHeader();
+    worldState.persist(header);
+    headers.add(header);
+
+    when(blockchain.getBlockHeader(header.getHash())).thenReturn(Optional.of(header));
+    when(blockchain.getBlockHashByNumber(number)).thenReturn(Optional.of(header.getHash()));
+    when(blockchain.getChainHeadHeader()).thenReturn(header);
+  }
+}
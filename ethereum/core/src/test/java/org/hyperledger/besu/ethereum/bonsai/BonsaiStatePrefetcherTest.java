@@ -0,0 +1,154 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.crypto.KeyPair;
+import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.AccessListEntry;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+import org.hyperledger.besu.plugin.data.TransactionType;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BonsaiStatePrefetcherTest {
+
+  private static final Address RECIPIENT = Address.fromHexString("0xc0ffee");
+  private static final Address ACCESSED = Address.fromHexString("0xacce55");
+  private static final Bytes CODE = Bytes.fromHexString("0x600100");
+
+  private final KeyPair sender = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private final MetricsSystem metricsSystem = mock(MetricsSystem.class);
+  private final Counter hitCounter = mock(Counter.class);
+  private final Counter missCounter = mock(Counter.class);
+
+  private BonsaiWorldStateArchive archive;
+  private MutableWorldState worldState;
+
+  @Before
+  public void setUp() {
+    when(metricsSystem.createCounter(any(), anyString(), anyString()))
+        .thenReturn(mock(Counter.class));
+    when(metricsSystem.createCounter(any(), eq("state_prefetch_hits_total"), anyString()))
+        .thenReturn(hitCounter);
+    when(metricsSystem.createCounter(any(), eq("state_prefetch_misses_total"), anyString()))
+        .thenReturn(missCounter);
+    archive =
+        BonsaiWorldStateArchive.builder(
+                new InMemoryKeyValueStorageProvider(), mock(Blockchain.class))
+            .statePrefetcher(
+                new BonsaiStatePrefetcher(metricsSystem, MoreExecutors.newDirectExecutorService()))
+            .build();
+    worldState = archive.getMutable();
+
+    final WorldUpdater updater = worldState.updater();
+    updater.createAccount(address(sender), 0, Wei.fromEth(1));
+    updater.createAccount(RECIPIENT).getMutable().setCode(CODE);
+    updater.createAccount(ACCESSED).getMutable().setStorageValue(UInt256.ONE, UInt256.valueOf(7));
+    updater.commit();
+    worldState.persist(null);
+  }
+
+  @Test
+  public void servesStateTouchedByTheBlockFromThePrefetch() {
+    archive.prefetch(worldState, block());
+
+    assertThat(worldState.get(address(sender)).getBalance()).isEqualTo(Wei.fromEth(1));
+    assertThat(worldState.get(RECIPIENT).getCode()).isEqualTo(CODE);
+    assertThat(worldState.get(ACCESSED).getStorageValue(UInt256.ONE))
+        .isEqualTo(UInt256.valueOf(7));
+
+    verify(hitCounter, times(5)).inc();
+    verify(missCounter, never()).inc();
+  }
+
+  @Test
+  public void readsMissingFromThePrefetchFallBackToTheDatabase() {
+    archive.prefetch(worldState, block());
+
+    assertThat(worldState.get(ACCESSED).getStorageValue(UInt256.valueOf(2)))
+        .isEqualTo(UInt256.ZERO);
+
+    verify(hitCounter).inc();
+    verify(missCounter).inc();
+  }
+
+  @Test
+  public void prefetchIsDiscardedWhenTheWorldStateIsPersisted() {
+    archive.prefetch(worldState, block());
+
+    final WorldUpdater updater = worldState.updater();
+    updater.getAccount(ACCESSED).getMutable().setStorageValue(UInt256.ONE, UInt256.valueOf(8));
+    updater.commit();
+    worldState.persist(null);
+    clearInvocations(hitCounter);
+
+    assertThat(worldState.get(ACCESSED).getStorageValue(UInt256.ONE))
+        .isEqualTo(UInt256.valueOf(8));
+    verify(hitCounter, never()).inc();
+  }
+
+  private Block block() {
+    final Transaction transaction =
+        Transaction.builder()
+            .type(TransactionType.ACCESS_LIST)
+            .chainId(BigInteger.ONE)
+            .nonce(0)
+            .gasPrice(Wei.of(5))
+            .gasLimit(50_000L)
+            .to(RECIPIENT)
+            .value(Wei.ONE)
+            .payload(Bytes.EMPTY)
+            .accessList(
+                List.of(new AccessListEntry(ACCESSED, List.of(Bytes32.leftPad(UInt256.ONE)))))
+            .signAndBuild(sender);
+    return new Block(
+        new BlockHeaderTestFixture().number(1).buildHeader(),
+        new BlockBody(List.of(transaction), List.of()));
+  }
+
+  private static Address address(final KeyPair keyPair) {
+    return Address.extract(keyPair.getPublicKey());
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.chain.BlockAddedEvent;
+import org.hyperledger.besu.ethereum.chain.BlockAddedObserver;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockBody;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class BonsaiTrieLogPrunerTest {
+
+  private static final int BLOCKS = 600;
+  private static final int RETAINED = 512;
+  private static final int WATERLINE = BLOCKS - 1 - RETAINED;
+
+  private final BonsaiWorldStateKeyValueStorage worldStateStorage =
+      new BonsaiWorldStateKeyValueStorage(new InMemoryKeyValueStorageProvider());
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final List<BlockHeader> headers = new ArrayList<>();
+
+  private BonsaiTrieLogPruner pruner;
+
+  @Before
+  public void setUp() {
+    Hash parentHash = Hash.ZERO;
+    for (int number = 0; number < BLOCKS; number++) {
+      final BlockHeader header =
+          new BlockHeaderTestFixture().number(number).parentHash(parentHash).buildHeader();
+      addBlock(header);
+      when(blockchain.getBlockHashByNumber(number)).thenReturn(Optional.of(header.getHash()));
+      headers.add(header);
+      parentHash = header.getHash();
+    }
+    when(blockchain.getChainHeadBlockNumber()).thenReturn((long) BLOCKS - 1);
+
+    final BonsaiWorldStateKeyValueStorage.Updater updater = worldStateStorage.updater();
+    updater
+        .getTrieBranchStorageTransaction()
+        .put(
+            BonsaiWorldStateKeyValueStorage.WORLD_BLOCK_HASH_KEY,
+            headers.get(BLOCKS - 1).getHash().toArrayUnsafe());
+    updater.commit();
+
+    pruner =
+        new BonsaiTrieLogPruner(
+            worldStateStorage,
+            blockchain,
+            RETAINED,
+            20,
+            0,
+            new NoOpMetricsSystem(),
+            MoreExecutors.newDirectExecutorService());
+  }
+
+  @Test
+  public void prunesTheTrieLogsOfOldCanonicalAndForkBlocks() {
+    final ArgumentCaptor<BlockAddedObserver> observer =
+        ArgumentCaptor.forClass(BlockAddedObserver.class);
+    when(blockchain.observeBlockAdded(observer.capture())).thenReturn(1L);
+    pruner.start();
+    final BlockHeader forkHeader = forkHeader(10);
+    observer
+        .getValue()
+        .onBlockAdded(BlockAddedEvent.createForFork(new Block(forkHeader, BlockBody.empty())));
+
+    observer
+        .getValue()
+        .onBlockAdded(
+            BlockAddedEvent.createForHeadAdvancement(
+                new Block(headers.get(BLOCKS - 1), BlockBody.empty()), List.of(), List.of()));
+
+    assertThat(worldStateStorage.getTrieLog(forkHeader.getHash())).isEmpty();
+    assertRetainedFrom(WATERLINE);
+    assertThat(pruner.getPrunedBlockNumber()).isEqualTo(WATERLINE);
+    assertThat(worldStateStorage.getTrieLogPrunedBlockNumber()).isEqualTo(WATERLINE);
+
+    pruner.close();
+    verify(blockchain).removeObserver(1L);
+  }
+
+  @Test
+  public void resumesPruningFromTheStoredBlockNumber() {
+    final int resumedBlockNumber = WATERLINE - 30;
+    worldStateStorage.setTrieLogPrunedBlockNumber(resumedBlockNumber);
+    final ArgumentCaptor<BlockAddedObserver> observer =
+        ArgumentCaptor.forClass(BlockAddedObserver.class);
+    when(blockchain.observeBlockAdded(observer.capture())).thenReturn(1L);
+    final BonsaiTrieLogPruner resumedPruner =
+        new BonsaiTrieLogPruner(
+            worldStateStorage,
+            blockchain,
+            RETAINED,
+            20,
+            0,
+            new NoOpMetricsSystem(),
+            MoreExecutors.newDirectExecutorService());
+    resumedPruner.start();
+
+    observer
+        .getValue()
+        .onBlockAdded(
+            BlockAddedEvent.createForHeadAdvancement(
+                new Block(headers.get(BLOCKS - 1), BlockBody.empty()), List.of(), List.of()));
+
+    assertThat(worldStateStorage.getTrieLog(headers.get(resumedBlockNumber - 1).getHash()))
+        .isPresent();
+    for (int i = resumedBlockNumber; i < WATERLINE; i++) {
+      assertThat(worldStateStorage.getTrieLog(headers.get(i).getHash())).isEmpty();
+    }
+    assertThat(worldStateStorage.getTrieLog(headers.get(WATERLINE).getHash())).isPresent();
+    assertThat(resumedPruner.getPrunedBlockNumber()).isEqualTo(WATERLINE);
+  }
+
+  @Test
+  public void pruneAllRemovesTheTrieLogsOfUnknownAndOldForkBlocks() {
+    final BlockHeader forkHeader = forkHeader(WATERLINE - 1);
+    final BlockHeader retainedForkHeader = forkHeader(WATERLINE);
+    final Hash unknownBlockHash = Hash.hash(Bytes.of(1));
+    final BonsaiWorldStateKeyValueStorage.Updater updater = worldStateStorage.updater();
+    updater
+        .getTrieLogStorageTransaction()
+        .put(unknownBlockHash.toArrayUnsafe(), trieLog(unknownBlockHash));
+    updater.commit();
+
+    assertThat(pruner.pruneAll()).isEqualTo(WATERLINE + 2);
+
+    assertThat(worldStateStorage.getTrieLog(forkHeader.getHash())).isEmpty();
+    assertThat(worldStateStorage.getTrieLog(unknownBlockHash)).isEmpty();
+    assertThat(worldStateStorage.getTrieLog(retainedForkHeader.getHash())).isPresent();
+    assertRetainedFrom(WATERLINE);
+    assertThat(worldStateStorage.getTrieLogPrunedBlockNumber()).isEqualTo(WATERLINE);
+  }
+
+  @Test
+  public void retainsAtLeastTheLayersOfTheArchive() {
+    assertThatThrownBy(
+            () ->
+                new BonsaiTrieLogPruner(
+                    worldStateStorage, blockchain, RETAINED - 1, new NoOpMetricsSystem()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void assertRetainedFrom(final int number) {
+    for (int i = 0; i < BLOCKS; i++) {
+      assertThat(worldStateStorage.getTrieLog(headers.get(i).getHash()).isPresent())
+          .isEqualTo(i >= number);
+    }
+  }
+
+  private BlockHeader forkHeader(final int number) {
+    final BlockHeader header =
+        new BlockHeaderTestFixture()
+            .number(number)
+            .parentHash(headers.get(number - 1).getHash())
+            .timestamp(1)
+            .buildHeader();
+    addBlock(header);
+    return header;
+  }
+
+  private void addBlock(final BlockHeader header) {
+    when(blockchain.getBlockHeader(header.getHash())).thenReturn(Optional.of(header));
+    final BonsaiWorldStateKeyValueStorage.Updater updater = worldStateStorage.updater();
+    updater
+        .getTrieLogStorageTransaction()
+        .put(header.getHash().toArrayUnsafe(), trieLog(header.getHash()));
+    updater.commit();
+  }
+
+  private static byte[] trieLog(final Hash blockHash) {
+    final TrieLogLayer trieLog = new TrieLogLayer();
+    trieLog.setBlockHash(blockHash);
+    final BytesValueRLPOutput output = new BytesValueRLPOutput();
+    trieLog.writeTo(output);
+    return output.encoded().toArrayUnsafe();
+  }
+}
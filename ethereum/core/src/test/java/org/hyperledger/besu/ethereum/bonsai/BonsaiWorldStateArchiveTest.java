@@ -76,7 +76,8 @@ public class BonsaiWorldStateArchiveTest {
         .thenReturn(Optional.of(chainHead.getStateRoot().toArrayUnsafe()));
     when(keyValueStorage.get(WORLD_BLOCK_HASH_KEY))
         .thenReturn(Optional.of(chainHead.getHash().toArrayUnsafe()));
-    bonsaiWorldStateArchive = new BonsaiWorldStateArchive(storageProvider, blockchain, 1);
+    bonsaiWorldStateArchive =
+        BonsaiWorldStateArchive.builder(storageProvider, blockchain).maxLayersToLoad(1).build();
 
     assertThat(bonsaiWorldStateArchive.getMutable(null, chainHead.getHash(), true))
         .containsInstanceOf(BonsaiPersistedWorldState.class);
@@ -84,7 +85,7 @@ public class BonsaiWorldStateArchiveTest {
 
   @Test
   public void testGetMutableReturnEmptyWhenLoadMoreThanLimitLayersBack() {
-    bonsaiWorldStateArchive = new BonsaiWorldStateArchive(storageProvider, blockchain, 512);
+    bonsaiWorldStateArchive = new BonsaiWorldStateArchive(storageProvider, blockchain);
     final BlockHeader blockHeader = blockBuilder.number(0).buildHeader();
     final BlockHeader chainHead = blockBuilder.number(512).buildHeader();
     when(blockchain.getBlockHeader(eq(blockHeader.getHash()))).thenReturn(Optional.of(blockHeader));
@@ -94,7 +95,7 @@ public class BonsaiWorldStateArchiveTest {
 
   @Test
   public void testGetMutableWhenLoadLessThanLimitLayersBack() {
-    bonsaiWorldStateArchive = new BonsaiWorldStateArchive(storageProvider, blockchain, 512);
+    bonsaiWorldStateArchive = new BonsaiWorldStateArchive(storageProvider, blockchain);
     final BlockHeader blockHeader = blockBuilder.number(0).buildHeader();
     final BlockHeader chainHead = blockBuilder.number(511).buildHeader();
 
@@ -119,7 +120,10 @@ public class BonsaiWorldStateArchiveTest {
     final Map layeredWorldStatesByHash = mock(HashMap.class);
 
     bonsaiWorldStateArchive =
-        new BonsaiWorldStateArchive(storageProvider, blockchain, 12, layeredWorldStatesByHash);
+        BonsaiWorldStateArchive.builder(storageProvider, blockchain)
+            .maxLayersToLoad(12)
+            .layeredWorldStatesByHash(layeredWorldStatesByHash)
+            .build();
     final BlockHeader blockHeader = blockBuilder.number(0).buildHeader();
     final BytesValueRLPOutput rlpLog = new BytesValueRLPOutput();
     final TrieLogLayer trieLogLayer = new TrieLogLayer();
@@ -143,7 +147,10 @@ public class BonsaiWorldStateArchiveTest {
     final Map layeredWorldStatesByHash = mock(HashMap.class);
 
     bonsaiWorldStateArchive =
-        new BonsaiWorldStateArchive(storageProvider, blockchain, 12, layeredWorldStatesByHash);
+        BonsaiWorldStateArchive.builder(storageProvider, blockchain)
+            .maxLayersToLoad(12)
+            .layeredWorldStatesByHash(layeredWorldStatesByHash)
+            .build();
     final BlockHeader blockHeader = blockBuilder.number(0).buildHeader();
     final BytesValueRLPOutput rlpLog = new BytesValueRLPOutput();
     final TrieLogLayer trieLogLayer = new TrieLogLayer();
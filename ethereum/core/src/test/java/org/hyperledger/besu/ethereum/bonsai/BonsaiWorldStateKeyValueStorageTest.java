@@ -192,6 +192,20 @@ public class BonsaiWorldStateKeyValueStorageTest {
         .isTrue();
   }
 
+  @Test
+  public void isWorldStateAvailable_afterSavingWorldState() {
+    final BonsaiWorldStateKeyValueStorage storage = emptyStorage();
+    final Bytes rootNode = Bytes.of(1, 2, 3);
+    final Hash rootHash = Hash.hash(rootNode);
+    final Hash blockHash = Hash.hash(Bytes.of(4));
+    storage.updater().saveWorldState(blockHash, rootHash, rootNode).commit();
+
+    assertThat(storage.isWorldStateAvailable(rootHash, Hash.EMPTY)).isTrue();
+    assertThat(storage.getWorldStateRootHash()).contains(rootHash);
+    assertThat(storage.getWorldStateBlockHash()).contains(blockHash);
+    assertThat(storage.getAccountStateTrieNode(Bytes.EMPTY, rootHash)).contains(rootNode);
+  }
+
   private BonsaiWorldStateKeyValueStorage emptyStorage() {
     return new BonsaiWorldStateKeyValueStorage(new InMemoryKeyValueStorageProvider());
   }
@@ -30,7 +30,6 @@ import org.hyperledger.besu.ethereum.core.MutableAccount;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.core.WorldUpdater;
 import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
-import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
 import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueSegmentIdentifier;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
@@ -178,8 +177,7 @@ public class LogRollingTests {
 
     final Optional<byte[]> value = trieLogStorage.get(headerOne.getHash().toArrayUnsafe());
 
-    final TrieLogLayer layer =
-        TrieLogLayer.readFrom(new BytesValueRLPInput(Bytes.wrap(value.get()), false));
+    final TrieLogLayer layer = TrieLogLayer.fromBytes(value.get());
 
     secondUpdater.rollForward(layer);
     secondUpdater.commit();
@@ -320,7 +318,7 @@ public class LogRollingTests {
   private TrieLogLayer getTrieLogLayer(final InMemoryKeyValueStorage storage, final Bytes key) {
     return storage
         .get(key.toArrayUnsafe())
-        .map(bytes -> TrieLogLayer.readFrom(new BytesValueRLPInput(Bytes.wrap(bytes), false)))
+        .map(TrieLogLayer::fromBytes)
         .get();
   }
 
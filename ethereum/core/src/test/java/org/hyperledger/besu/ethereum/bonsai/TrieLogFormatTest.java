@@ -0,0 +1,115 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.bonsai;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class TrieLogFormatTest {
+
+  private static final Address CREATED = Address.fromHexString("0x1000");
+  private static final Address UPDATED = Address.fromHexString("0x2000");
+  private static final Address DELETED = Address.fromHexString("0x3000");
+  private static final Hash STORAGE_ROOT = Hash.hash(Bytes.of(1));
+  private static final Hash CODE_HASH = Hash.hash(Bytes.of(2));
+
+  @Test
+  public void roundTripsTheChangesOfALayer() {
+    final TrieLogLayer layer = new TrieLogLayer();
+    layer.setBlockHash(Hash.hash(Bytes.of(3)));
+    layer.addAccountChange(CREATED, null, account(0, Wei.of(1), Hash.EMPTY_TRIE_HASH, Hash.EMPTY));
+    layer.addAccountChange(
+        UPDATED,
+        account(7, Wei.fromEth(5), STORAGE_ROOT, CODE_HASH),
+        account(8, Wei.fromEth(4), Hash.hash(Bytes.of(4)), CODE_HASH));
+    layer.addAccountChange(DELETED, account(1, Wei.ZERO, STORAGE_ROOT, Hash.EMPTY), null);
+    layer.addCodeChange(CREATED, null, Bytes.fromHexString("0x600100"), layer.getBlockHash());
+    layer.addStorageChange(UPDATED, Hash.hash(UInt256.ONE), null, UInt256.MAX_VALUE);
+    layer.addStorageChange(UPDATED, Hash.hash(UInt256.valueOf(2)), UInt256.ONE, UInt256.ZERO);
+    layer.addStorageChange(DELETED, Hash.hash(UInt256.ONE), UInt256.valueOf(42), null);
+
+    final byte[] encoded = layer.toBytes();
+    final TrieLogLayer decoded = TrieLogLayer.fromBytes(encoded);
+
+    assertThat(encoded[0]).isEqualTo(TrieLogFormat.COMPACT);
+    assertThat(rlp(decoded)).isEqualTo(rlp(layer));
+    assertThat(decoded.getBlockHash()).isEqualTo(layer.getBlockHash());
+    assertThat(decoded.getPriorAccount(CREATED)).isEmpty();
+    assertThat(decoded.getPriorAccount(UPDATED))
+        .contains(account(7, Wei.fromEth(5), STORAGE_ROOT, CODE_HASH));
+    assertThat(decoded.getAccount(DELETED)).isEmpty();
+    assertThat(decoded.getStorageBySlotHash(UPDATED, Hash.hash(UInt256.ONE)))
+        .contains(UInt256.MAX_VALUE);
+    assertThat(decoded.getPriorStorageBySlotHash(DELETED, Hash.hash(UInt256.ONE)))
+        .contains(UInt256.valueOf(42));
+    assertThat(encoded.length).isLessThan(rlp(layer).size());
+  }
+
+  @Test
+  public void compressesLargeTrieLogs() {
+    final TrieLogLayer layer = new TrieLogLayer();
+    layer.setBlockHash(Hash.hash(Bytes.of(3)));
+    for (int i = 0; i < 100; i++) {
+      final Address address = Address.fromHexString(String.format("0x%040x", i + 1));
+      layer.addAccountChange(
+          address,
+          account(i, Wei.fromEth(1), Hash.EMPTY_TRIE_HASH, Hash.EMPTY),
+          account(i + 1, Wei.fromEth(1), Hash.EMPTY_TRIE_HASH, Hash.EMPTY));
+      layer.addCodeChange(address, null, Bytes.repeat((byte) 0x5b, 64), layer.getBlockHash());
+    }
+
+    final byte[] encoded = layer.toBytes();
+
+    assertThat(encoded[0]).isEqualTo(TrieLogFormat.COMPACT_SNAPPY);
+    assertThat(rlp(TrieLogLayer.fromBytes(encoded))).isEqualTo(rlp(layer));
+  }
+
+  @Test
+  public void readsLegacyRlpTrieLogs() {
+    final TrieLogLayer layer = new TrieLogLayer();
+    layer.setBlockHash(Hash.hash(Bytes.of(3)));
+    layer.addAccountChange(
+        UPDATED,
+        account(7, Wei.fromEth(5), STORAGE_ROOT, CODE_HASH),
+        account(8, Wei.fromEth(4), STORAGE_ROOT, CODE_HASH));
+    layer.addStorageChange(UPDATED, Hash.hash(UInt256.ONE), null, UInt256.ONE);
+
+    final TrieLogLayer decoded = TrieLogLayer.fromBytes(rlp(layer).toArrayUnsafe());
+
+    assertThat(rlp(decoded)).isEqualTo(rlp(layer));
+    assertThat(decoded.getAccount(UPDATED))
+        .contains(account(8, Wei.fromEth(4), STORAGE_ROOT, CODE_HASH));
+  }
+
+  private static Bytes rlp(final TrieLogLayer layer) {
+    final BytesValueRLPOutput output = new BytesValueRLPOutput();
+    layer.writeTo(output);
+    return output.encoded();
+  }
+
+  private static StateTrieAccountValue account(
+      final long nonce, final Wei balance, final Hash storageRoot, final Hash codeHash) {
+    return new StateTrieAccountValue(nonce, balance, storageRoot, codeHash);
+  }
+}
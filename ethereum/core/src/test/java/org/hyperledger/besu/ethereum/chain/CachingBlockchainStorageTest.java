@@ -0,0 +1,155 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.chain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
+import org.hyperledger.besu.ethereum.storage.keyvalue.KeyValueStoragePrefixedKeyBlockchainStorage;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingBlockchainStorageTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator(1);
+  private final BlockchainStorage storage =
+      spy(
+          new KeyValueStoragePrefixedKeyBlockchainStorage(
+              new InMemoryKeyValueStorage(), new MainnetBlockHeaderFunctions()));
+
+  private List<Block> chain;
+  private MutableBlockchain blockchain;
+
+  @Before
+  public void setUp() {
+    chain = gen.blockSequence(4);
+    blockchain =
+        DefaultBlockchain.createMutable(chain.get(0), storage, new NoOpMetricsSystem(), 0, 16);
+    for (final Block block : chain.subList(1, chain.size())) {
+      blockchain.appendBlock(block, gen.receipts(block));
+    }
+    clearInvocations(storage);
+  }
+
+  @Test
+  public void servesAppendedBlocksWithoutReadingTheStorage() {
+    final Block block = chain.get(2);
+
+    assertThat(blockchain.getBlockHeader(block.getHeader().getNumber()))
+        .contains(block.getHeader());
+    assertThat(blockchain.getBlockHeader(block.getHash())).contains(block.getHeader());
+    assertThat(blockchain.getBlockBody(block.getHash())).contains(block.getBody());
+    assertThat(blockchain.getTxReceipts(block.getHash())).isPresent();
+
+    verify(storage, never()).getBlockHash(anyLong());
+    verify(storage, never()).getBlockHeader(any());
+    verify(storage, never()).getBlockBody(any());
+    verify(storage, never()).getTransactionReceipts(any());
+  }
+
+  @Test
+  public void batchesTheReceiptsMissingFromTheCache() {
+    final BlockchainStorage cachingStorage =
+        new CachingBlockchainStorage(storage, 16, new NoOpMetricsSystem());
+    final Block cachedBlock = chain.get(1);
+    final Block uncachedBlock = chain.get(2);
+    final Hash unknownHash = Hash.ZERO;
+    cachingStorage.getTransactionReceipts(cachedBlock.getHash());
+    clearInvocations(storage);
+
+    final List<Optional<List<TransactionReceipt>>> allReceipts =
+        cachingStorage.getAllTransactionReceipts(
+            List.of(cachedBlock.getHash(), unknownHash, uncachedBlock.getHash()));
+
+    assertThat(allReceipts.get(0)).isPresent();
+    assertThat(allReceipts.get(1)).isEmpty();
+    assertThat(allReceipts.get(2)).isPresent();
+    verify(storage).getAllTransactionReceipts(List.of(unknownHash, uncachedBlock.getHash()));
+    clearInvocations(storage);
+
+    assertThat(cachingStorage.getTransactionReceipts(uncachedBlock.getHash())).isPresent();
+    verify(storage, never()).getTransactionReceipts(any());
+  }
+
+  @Test
+  public void blockNumbersFollowTheCanonicalChainAcrossReorgs() {
+    final Block fork =
+        gen.block(
+            new BlockDataGenerator.BlockOptions()
+                .setParentHash(chain.get(1).getHash())
+                .setBlockNumber(2)
+                .setDifficulty(
+                    chain
+                        .get(2)
+                        .getHeader()
+                        .getDifficulty()
+                        .add(chain.get(3).getHeader().getDifficulty())
+                        .add(1L)));
+    final List<TransactionReceipt> forkReceipts = gen.receipts(fork);
+    blockchain.appendBlock(fork, forkReceipts);
+
+    assertThat(blockchain.getChainHeadHash()).isEqualTo(fork.getHash());
+    assertThat(blockchain.getBlockHashByNumber(2)).contains(fork.getHash());
+    assertThat(blockchain.getBlockHeader(2)).contains(fork.getHeader());
+    assertThat(blockchain.getBlockHashByNumber(3)).isEmpty();
+    assertThat(blockchain.getTxReceipts(fork.getHash())).contains(forkReceipts);
+  }
+
+  @Test
+  public void blockNumbersAreRemovedWhenRewinding() {
+    blockchain.rewindToBlock(1);
+
+    assertThat(blockchain.getChainHeadHash()).isEqualTo(chain.get(1).getHash());
+    assertThat(blockchain.getBlockHashByNumber(1)).contains(chain.get(1).getHash());
+    assertThat(blockchain.getBlockHashByNumber(2)).isEmpty();
+    assertThat(blockchain.getBlockHeader(3)).isEmpty();
+    assertThat(
+            chain.stream()
+                .map(block -> blockchain.getBlockHeader(block.getHash()))
+                .collect(Collectors.toList()))
+        .allMatch(header -> header.isPresent());
+  }
+
+  @Test
+  public void rolledBackUpdatesAreNotCached() {
+    final Block block = gen.block(new BlockDataGenerator.BlockOptions().setBlockNumber(100));
+    final BlockchainStorage cachingStorage =
+        new CachingBlockchainStorage(storage, 16, new NoOpMetricsSystem());
+    final BlockchainStorage.Updater updater = cachingStorage.updater();
+    updater.putBlockHeader(block.getHash(), block.getHeader());
+    updater.putBlockHash(block.getHeader().getNumber(), block.getHash());
+    updater.rollback();
+
+    assertThat(cachingStorage.getBlockHeader(block.getHash())).isEmpty();
+    assertThat(cachingStorage.getBlockHash(block.getHeader().getNumber())).isEmpty();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.chain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class RecentCanonicalHashesTest {
+
+  private final Map<Hash, BlockHeader> headers = new HashMap<>();
+  private final List<Hash> headerReads = new ArrayList<>();
+  private final RecentCanonicalHashes recentHashes = new RecentCanonicalHashes(8);
+
+  @Test
+  public void servesAncestorsOfTheHead() {
+    final List<BlockHeader> chain = chain(genesis(), 5, "a");
+    moveTo(chain.get(5));
+
+    assertThat(ancestorHash(chain.get(5), 0)).contains(chain.get(0).getHash());
+    assertThat(ancestorHash(chain.get(3), 2)).contains(chain.get(2).getHash());
+    assertThat(ancestorHash(chain.get(3), 4)).isEmpty();
+  }
+
+  @Test
+  public void appendingReadsNoHeaders() {
+    final List<BlockHeader> chain = chain(genesis(), 5, "a");
+    moveTo(chain.get(4));
+    headerReads.clear();
+
+    moveTo(chain.get(5));
+
+    assertThat(headerReads).isEmpty();
+    assertThat(ancestorHash(chain.get(5), 4)).contains(chain.get(4).getHash());
+  }
+
+  @Test
+  public void onlyHoldsTheMostRecentHashes() {
+    final List<BlockHeader> chain = chain(genesis(), 20, "a");
+    moveTo(chain.get(20));
+
+    assertThat(ancestorHash(chain.get(20), 13)).contains(chain.get(13).getHash());
+    assertThat(ancestorHash(chain.get(20), 12)).isEmpty();
+  }
+
+  @Test
+  public void ancestorsOutsideTheWindowOfTheBlockAreNotServed() {
+    final List<BlockHeader> chain = chain(genesis(), 9, "a");
+    moveTo(chain.get(9));
+
+    assertThat(ancestorHash(chain.get(9), 2)).contains(chain.get(2).getHash());
+    assertThat(ancestorHash(chain.get(9), 1)).isEmpty();
+    assertThat(ancestorHash(chain.get(9), -1)).isEmpty();
+  }
+
+  @Test
+  public void reorgOnlyRewritesTheNewBranch() {
+    final List<BlockHeader> chain = chain(genesis(), 5, "a");
+    final List<BlockHeader> fork = chain(chain.get(2), 3, "b");
+    moveTo(chain.get(5));
+    headerReads.clear();
+
+    moveTo(fork.get(3));
+
+    assertThat(headerReads).containsExactly(fork.get(2).getHash(), fork.get(1).getHash());
+    assertThat(ancestorHash(fork.get(3), 4)).contains(fork.get(2).getHash());
+    assertThat(ancestorHash(fork.get(3), 1)).contains(chain.get(1).getHash());
+    assertThat(ancestorHash(chain.get(5), 1)).isEmpty();
+  }
+
+  @Test
+  public void hashesAboveARewoundHeadAreDropped() {
+    final List<BlockHeader> chain = chain(genesis(), 6, "a");
+    final List<BlockHeader> fork = chain(chain.get(1), 3, "b");
+    moveTo(chain.get(6));
+    moveTo(chain.get(2));
+    moveTo(fork.get(3));
+    // Back to an extension of the original chain, whose ancestors were overwritten by the fork.
+    final BlockHeader extension = chain(chain.get(6), 1, "c").get(1);
+    moveTo(extension);
+
+    assertThat(ancestorHash(extension, 3)).contains(chain.get(3).getHash());
+    assertThat(ancestorHash(extension, 2)).contains(chain.get(2).getHash());
+  }
+
+  private void moveTo(final BlockHeader head) {
+    recentHashes.moveTo(
+        head,
+        hash -> {
+          headerReads.add(hash);
+          return Optional.ofNullable(headers.get(hash));
+        });
+  }
+
+  private Optional<Hash> ancestorHash(final BlockHeader block, final long ancestorNumber) {
+    return recentHashes.getAncestorHash(block.getHash(), block.getNumber(), ancestorNumber);
+  }
+
+  private BlockHeader genesis() {
+    final BlockHeader genesis = new BlockHeaderTestFixture().number(0).buildHeader();
+    headers.put(genesis.getHash(), genesis);
+    return genesis;
+  }
+
+  private List<BlockHeader> chain(final BlockHeader start, final int length, final String name) {
+    final List<BlockHeader> chain = new ArrayList<>(List.of(start));
+    for (int i = 0; i < length; i++) {
+      final BlockHeader parent = chain.get(i);
+      final BlockHeader header =
+          new BlockHeaderTestFixture()
+              .number(parent.getNumber() + 1)
+              .parentHash(parent.getHash())
+              .extraData(Bytes.wrap(name.getBytes(StandardCharsets.UTF_8)))
+              .buildHeader();
+      headers.put(header.getHash(), header);
+      chain.add(header);
+    }
+    return chain;
+  }
+}
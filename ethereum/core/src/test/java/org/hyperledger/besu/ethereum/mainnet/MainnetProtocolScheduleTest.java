@@ -15,7 +15,9 @@
 package org.hyperledger.besu.ethereum.mainnet;
 
 import org.hyperledger.besu.config.GenesisConfigFile;
+import org.hyperledger.besu.ethereum.core.PrivacyParameters;
 import org.hyperledger.besu.ethereum.core.ProtocolScheduleFixture;
+import org.hyperledger.besu.ethereum.vm.LimbOperandStack;
 
 import java.nio.charset.StandardCharsets;
 
@@ -144,4 +146,21 @@ public class MainnetProtocolScheduleTest {
     Assertions.assertThat(sched.getByBlockNumber(8_897_988L).getName()).isEqualTo("London");
     Assertions.assertThat(sched.getByBlockNumber(Long.MAX_VALUE).getName()).isEqualTo("London");
   }
+
+  @Test
+  public void shouldUseTheConfiguredOperandStack() {
+    final ProtocolSchedule sched =
+        MainnetProtocolSchedule.fromConfig(
+            GenesisConfigFile.mainnet().getConfigOptions(),
+            PrivacyParameters.DEFAULT,
+            false,
+            ImmutableEvmConfiguration.builder()
+                .operandStackFactory(LimbOperandStack::new)
+                .build());
+    Assertions.assertThat(
+            sched.getByBlockNumber(Long.MAX_VALUE).getEvm().getOperandStackFactory().apply(4))
+        .isInstanceOf(LimbOperandStack.class);
+    Assertions.assertThat(sched.getByBlockNumber(1L).getEvm().getOperandStackFactory().apply(4))
+        .isInstanceOf(LimbOperandStack.class);
+  }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.mainnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import org.hyperledger.besu.config.GenesisConfigFile;
+import org.hyperledger.besu.crypto.KeyPair;
+import org.hyperledger.besu.crypto.SignatureAlgorithmFactory;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Address;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.PrivacyParameters;
+import org.hyperledger.besu.ethereum.core.ProtocolScheduleFixture;
+import org.hyperledger.besu.ethereum.core.Transaction;
+import org.hyperledger.besu.ethereum.core.TransactionTestFixture;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.core.WorldUpdater;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelTransactionExecutorTest {
+
+  private static final long BERLIN_BLOCK = 12_244_000L;
+  private static final Wei INITIAL_BALANCE = Wei.fromEth(1);
+
+  // PUSH1 0 SLOAD PUSH1 1 ADD PUSH1 0 SSTORE STOP
+  private static final Bytes COUNTER_CODE = Bytes.fromHexString("0x60005460010160005500");
+  private static final Address COUNTER = Address.fromHexString("0xc0ffee");
+  private static final Address COINBASE = Address.fromHexString("0xcb");
+
+  private final KeyPair alice = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private final KeyPair bob = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private final KeyPair carol = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private final KeyPair dave = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+  private final KeyPair erin = SignatureAlgorithmFactory.getInstance().generateKeyPair();
+
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final BlockHeader blockHeader =
+      new BlockHeaderTestFixture()
+          .number(BERLIN_BLOCK)
+          .gasLimit(10_000_000L)
+          .coinbase(COINBASE)
+          .buildHeader();
+
+  private ParallelTransactionExecutor parallelTransactionExecutor;
+
+  @After
+  public void closeExecutor() {
+    if (parallelTransactionExecutor != null) {
+      parallelTransactionExecutor.close();
+    }
+  }
+
+  @Test
+  public void parallelExecutionMatchesSequentialExecution() {
+    final List<Transaction> transactions =
+        List.of(
+            transfer(alice, 0, address(bob), 1),
+            // Same sender, conflicts on the nonce and balance of alice.
+            transfer(alice, 1, address(carol), 2),
+            transfer(dave, 0, address(erin), 1_000_000_000_000_000L),
+            // Funded by the previous transaction, invalid when executed speculatively.
+            transfer(erin, 0, address(bob), 1_000L),
+            // Observes the balance of the mining beneficiary.
+            transfer(carol, 0, COINBASE, 4),
+            call(bob, 0, COUNTER),
+            // Conflicts on the counter's storage slot.
+            call(dave, 1, COUNTER));
+
+    final MutableWorldState sequentialState = createWorldState();
+    final BlockProcessor.Result sequential =
+        processBlock(ProtocolScheduleFixture.MAINNET, sequentialState, transactions);
+
+    final MutableWorldState parallelState = createWorldState();
+    final BlockProcessor.Result parallel =
+        processBlock(parallelProtocolSchedule(4), parallelState, transactions);
+
+    assertThat(sequential.isSuccessful()).isTrue();
+    assertThat(parallel.isSuccessful()).isTrue();
+    assertThat(parallel.getReceipts()).isEqualTo(sequential.getReceipts());
+    assertThat(parallelState.rootHash()).isEqualTo(sequentialState.rootHash());
+    assertThat(parallelState.get(COUNTER).getStorageValue(UInt256.ZERO))
+        .isEqualTo(UInt256.valueOf(2));
+  }
+
+  @Test
+  public void parallelExecutionRejectsInvalidBlocks() {
+    final List<Transaction> transactions =
+        List.of(transfer(alice, 0, address(bob), 1), transfer(alice, 0, address(carol), 2));
+
+    final BlockProcessor.Result result =
+        processBlock(parallelProtocolSchedule(2), createWorldState(), transactions);
+
+    assertThat(result.isSuccessful()).isFalse();
+  }
+
+  @Test
+  public void feeCreditIsNotAnObservationOfTheMiningBeneficiary() {
+    final SpeculativeWorldUpdater updater =
+        new SpeculativeWorldUpdater(createWorldState(), COINBASE);
+
+    updater.getOrCreate(COINBASE).getMutable().incrementBalance(Wei.of(10));
+
+    assertThat(updater.isMiningBeneficiaryOnlyCredited()).isTrue();
+    assertThat(updater.getAccountReads()).containsExactly(COINBASE);
+  }
+
+  @Test
+  public void readingTheMiningBeneficiaryBeforeTheFeeCreditIsAnObservation() {
+    final SpeculativeWorldUpdater updater =
+        new SpeculativeWorldUpdater(createWorldState(), COINBASE);
+
+    final WorldUpdater child = updater.updater();
+    child.get(COINBASE);
+    updater.getOrCreate(COINBASE).getMutable().incrementBalance(Wei.of(10));
+
+    assertThat(updater.isMiningBeneficiaryOnlyCredited()).isFalse();
+  }
+
+  @Test
+  public void recordsStorageReads() {
+    final SpeculativeWorldUpdater updater =
+        new SpeculativeWorldUpdater(createWorldState(), COINBASE);
+
+    updater.updater().getAccount(COUNTER).getStorageValue(UInt256.ONE);
+
+    assertThat(updater.getAccountReads()).containsExactly(COUNTER);
+    assertThat(updater.getStorageReads()).containsOnlyKeys(COUNTER);
+    assertThat(updater.getStorageReads().get(COUNTER)).containsExactly(UInt256.ONE);
+  }
+
+  @Test
+  public void commitLeavesTheWorldStateUnchangedAndPreventsReplay() {
+    final MutableWorldState worldState = createWorldState();
+    final SpeculativeWorldUpdater updater = new SpeculativeWorldUpdater(worldState, COINBASE);
+
+    updater.getOrCreate(COINBASE).getMutable().incrementBalance(Wei.of(10));
+    updater.commit();
+
+    assertThat(worldState.get(COINBASE)).isNull();
+    assertThatThrownBy(() -> updater.replayOnto(worldState.updater()))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private ProtocolSchedule parallelProtocolSchedule(final int threads) {
+    parallelTransactionExecutor = new ParallelTransactionExecutor(threads);
+    return MainnetProtocolSchedule.fromConfig(
+        GenesisConfigFile.mainnet().getConfigOptions(),
+        PrivacyParameters.DEFAULT,
+        false,
+        ImmutableEvmConfiguration.builder()
+            .parallelTransactionExecutor(parallelTransactionExecutor)
+            .build());
+  }
+
+  private BlockProcessor.Result processBlock(
+      final ProtocolSchedule protocolSchedule,
+      final MutableWorldState worldState,
+      final List<Transaction> transactions) {
+    final ProtocolSpec protocolSpec = protocolSchedule.getByBlockNumber(BERLIN_BLOCK);
+    return protocolSpec
+        .getBlockProcessor()
+        .processBlock(blockchain, worldState, blockHeader, transactions, Collections.emptyList());
+  }
+
+  private MutableWorldState createWorldState() {
+    final MutableWorldState worldState = InMemoryKeyValueStorageProvider.createInMemoryWorldState();
+    final WorldUpdater updater = worldState.updater();
+    for (final KeyPair keyPair : List.of(alice, bob, carol, dave)) {
+      updater.createAccount(address(keyPair), 0, INITIAL_BALANCE);
+    }
+    updater.createAccount(COUNTER).getMutable().setCode(COUNTER_CODE);
+    updater.commit();
+    return worldState;
+  }
+
+  private static Transaction transfer(
+      final KeyPair sender, final long nonce, final Address to, final long value) {
+    return new TransactionTestFixture()
+        .nonce(nonce)
+        .to(Optional.of(to))
+        .value(Wei.of(value))
+        .gasLimit(21_000L)
+        .chainId(Optional.of(BigInteger.ONE))
+        .createTransaction(sender);
+  }
+
+  private static Transaction call(final KeyPair sender, final long nonce, final Address to) {
+    return new TransactionTestFixture()
+        .nonce(nonce)
+        .to(Optional.of(to))
+        .value(Wei.ZERO)
+        .gasLimit(100_000L)
+        .chainId(Optional.of(BigInteger.ONE))
+        .createTransaction(sender);
+  }
+
+  private static Address address(final KeyPair keyPair) {
+    return Address.extract(keyPair.getPublicKey());
+  }
+}
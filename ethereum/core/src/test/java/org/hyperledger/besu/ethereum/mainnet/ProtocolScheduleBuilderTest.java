@@ -55,7 +55,8 @@ public class ProtocolScheduleBuilderTest {
             ProtocolSpecAdapters.create(2, modifier),
             new PrivacyParameters(),
             false,
-            false);
+            false,
+            EvmConfiguration.DEFAULT);
 
     final MutableProtocolSchedule schedule =
         (MutableProtocolSchedule) builder.createProtocolSchedule();
@@ -83,7 +84,8 @@ public class ProtocolScheduleBuilderTest {
             ProtocolSpecAdapters.create(2, modifier),
             new PrivacyParameters(),
             false,
-            false);
+            false,
+            EvmConfiguration.DEFAULT);
 
     final MutableProtocolSchedule schedule =
         (MutableProtocolSchedule) builder.createProtocolSchedule();
@@ -111,7 +113,8 @@ public class ProtocolScheduleBuilderTest {
             ProtocolSpecAdapters.create(5, modifier),
             new PrivacyParameters(),
             false,
-            false);
+            false,
+            EvmConfiguration.DEFAULT);
 
     final MutableProtocolSchedule schedule =
         (MutableProtocolSchedule) builder.createProtocolSchedule();
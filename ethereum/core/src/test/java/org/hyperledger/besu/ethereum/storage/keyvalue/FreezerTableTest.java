@@ -0,0 +1,115 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FreezerTableTest {
+
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void readsAppendedEntriesAcrossFiles() throws IOException {
+    final Path directory = tmp.getRoot().toPath();
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 10)) {
+      for (int i = 0; i < 10; i++) {
+        table.append(entry(i));
+      }
+
+      assertThat(table.size()).isEqualTo(10);
+      for (int i = 0; i < 10; i++) {
+        assertThat(table.get(i)).contains(entry(i));
+      }
+      assertThat(table.get(10)).isEmpty();
+      assertThat(Files.exists(directory.resolve("test.0001.dat"))).isTrue();
+    }
+  }
+
+  @Test
+  public void entriesSurviveReopening() throws IOException {
+    final Path directory = tmp.getRoot().toPath();
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 10)) {
+      for (int i = 0; i < 5; i++) {
+        table.append(entry(i));
+      }
+      table.sync();
+    }
+
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 10)) {
+      assertThat(table.size()).isEqualTo(5);
+      table.append(entry(5));
+      for (int i = 0; i < 6; i++) {
+        assertThat(table.get(i)).contains(entry(i));
+      }
+    }
+  }
+
+  @Test
+  public void truncateDropsLaterEntriesAndFiles() throws IOException {
+    final Path directory = tmp.getRoot().toPath();
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 10)) {
+      for (int i = 0; i < 10; i++) {
+        table.append(entry(i));
+      }
+
+      table.truncate(3);
+      table.append(entry(7));
+
+      assertThat(table.size()).isEqualTo(4);
+      assertThat(table.get(2)).contains(entry(2));
+      assertThat(table.get(3)).contains(entry(7));
+      assertThat(table.get(4)).isEmpty();
+      assertThat(Files.exists(directory.resolve("test.0003.dat"))).isFalse();
+    }
+  }
+
+  @Test
+  public void incompleteIndexEntryIsDroppedOnOpening() throws IOException {
+    final Path directory = tmp.getRoot().toPath();
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 1024)) {
+      table.append(entry(0));
+      table.append(entry(1));
+    }
+    try (final FileChannel index =
+        FileChannel.open(directory.resolve("test.idx"), StandardOpenOption.WRITE)) {
+      index.write(ByteBuffer.wrap(new byte[] {1, 2, 3}), index.size());
+    }
+
+    try (final FreezerTable table = FreezerTable.open(directory, "test", 1024)) {
+      assertThat(table.size()).isEqualTo(2);
+      table.append(entry(2));
+      assertThat(table.get(2)).contains(entry(2));
+    }
+  }
+
+  private static byte[] entry(final int i) {
+    final byte[] entry = new byte[3 + i % 4];
+    for (int j = 0; j < entry.length; j++) {
+      entry[j] = (byte) (i * 31 + j);
+    }
+    return entry;
+  }
+}
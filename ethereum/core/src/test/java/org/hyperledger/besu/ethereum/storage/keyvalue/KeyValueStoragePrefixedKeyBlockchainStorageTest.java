@@ -0,0 +1,185 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.storage.keyvalue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+import org.hyperledger.besu.ethereum.chain.DefaultBlockchain;
+import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
+import org.hyperledger.besu.ethereum.core.Block;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.TransactionReceipt;
+import org.hyperledger.besu.ethereum.mainnet.MainnetBlockHeaderFunctions;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KeyValueStoragePrefixedKeyBlockchainStorageTest {
+
+  @Rule public final TemporaryFolder tmp = new TemporaryFolder();
+
+  private final BlockDataGenerator gen = new BlockDataGenerator(1);
+  private final KeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+  private final Map<Hash, List<TransactionReceipt>> receipts = new HashMap<>();
+  private Path freezerDirectory;
+  private BlockFreezer blockFreezer;
+  private KeyValueStoragePrefixedKeyBlockchainStorage storage;
+  private List<Block> chain;
+
+  @Before
+  public void setUp() {
+    freezerDirectory = tmp.getRoot().toPath();
+    blockFreezer = BlockFreezer.open(freezerDirectory, 64);
+    storage = createStorage(blockFreezer);
+    chain = gen.blockSequence(6);
+    final MutableBlockchain blockchain =
+        DefaultBlockchain.createMutable(chain.get(0), storage, new NoOpMetricsSystem(), 0);
+    receipts.put(chain.get(0).getHash(), List.of());
+    for (final Block block : chain.subList(1, chain.size())) {
+      final List<TransactionReceipt> blockReceipts = gen.receipts(block);
+      receipts.put(block.getHash(), blockReceipts);
+      blockchain.appendBlock(block, blockReceipts);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    blockFreezer.close();
+  }
+
+  @Test
+  public void frozenBlocksAreReadFromTheFreezer() {
+    assertThat(storage.freezeBlocks(4)).isEqualTo(4);
+
+    assertThat(storage.getFrozenBlockCount()).isEqualTo(4);
+    assertThat(blockFreezer.getBlockCount()).isEqualTo(4);
+    assertAllBlocksReadable(storage);
+    // the frozen blocks are no longer in the key-value storage
+    final KeyValueStoragePrefixedKeyBlockchainStorage withoutFreezer =
+        new KeyValueStoragePrefixedKeyBlockchainStorage(
+            keyValueStorage, new MainnetBlockHeaderFunctions());
+    assertThat(withoutFreezer.getBlockBody(chain.get(3).getHash())).isEmpty();
+    assertThat(withoutFreezer.getBlockBody(chain.get(4).getHash())).isPresent();
+  }
+
+  @Test
+  public void freezingResumesAfterReopening() {
+    storage.freezeBlocks(2);
+    blockFreezer.close();
+
+    blockFreezer = BlockFreezer.open(freezerDirectory, 64);
+    storage = createStorage(blockFreezer);
+
+    assertThat(storage.getFrozenBlockCount()).isEqualTo(2);
+    assertThat(storage.freezeBlocks(5)).isEqualTo(3);
+    assertAllBlocksReadable(storage);
+  }
+
+  @Test
+  public void blocksAppendedButNotCommittedAreDroppedOnReopening() {
+    storage.freezeBlocks(2);
+    // as if the node stopped after writing the freezer but before committing the batch
+    blockFreezer.append(2, Bytes.of(1), Bytes.of(2));
+    blockFreezer.close();
+
+    blockFreezer = BlockFreezer.open(freezerDirectory, 64);
+    storage = createStorage(blockFreezer);
+
+    assertThat(blockFreezer.getBlockCount()).isEqualTo(2);
+    assertThat(storage.freezeBlocks(3)).isEqualTo(1);
+    assertAllBlocksReadable(storage);
+  }
+
+  @Test
+  public void blocksStayInTheKeyValueStorageWhenTheCommitFails() {
+    final KeyValueStorage failingStorage = spy(keyValueStorage);
+    final KeyValueStorageTransaction failingBatch = mock(KeyValueStorageTransaction.class);
+    doThrow(new StorageException("commit failed")).when(failingBatch).commit();
+    doReturn(failingBatch).when(failingStorage).startWriteBatch();
+    storage =
+        new KeyValueStoragePrefixedKeyBlockchainStorage(
+            failingStorage, new MainnetBlockHeaderFunctions(), blockFreezer);
+
+    assertThatThrownBy(() -> storage.freezeBlocks(3)).isInstanceOf(StorageException.class);
+
+    assertThat(storage.getFrozenBlockCount()).isZero();
+    assertThat(blockFreezer.getBlockCount()).isZero();
+    assertAllBlocksReadable(storage);
+  }
+
+  @Test
+  public void frozenBlocksRequireTheFreezer() {
+    storage.freezeBlocks(2);
+
+    assertThatThrownBy(
+            () ->
+                new KeyValueStoragePrefixedKeyBlockchainStorage(
+                    keyValueStorage, new MainnetBlockHeaderFunctions()))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("block freezer");
+  }
+
+  @Test
+  public void nonCanonicalBlocksAreNotReadFromTheFreezer() {
+    storage.freezeBlocks(3);
+    final Block fork =
+        gen.block(
+            new BlockDataGenerator.BlockOptions()
+                .setParentHash(chain.get(1).getHash())
+                .setBlockNumber(2));
+    final KeyValueStoragePrefixedKeyBlockchainStorage.Updater updater = storage.updater();
+    updater.putBlockHeader(fork.getHash(), fork.getHeader());
+    updater.commit();
+
+    assertThat(storage.getBlockBody(fork.getHash())).isEmpty();
+  }
+
+  private void assertAllBlocksReadable(final KeyValueStoragePrefixedKeyBlockchainStorage storage) {
+    for (final Block block : chain) {
+      assertThat(storage.getBlockBody(block.getHash())).contains(block.getBody());
+      assertThat(storage.getTransactionReceipts(block.getHash()))
+          .contains(receipts.get(block.getHash()));
+    }
+    final List<Hash> blockHashes = chain.stream().map(Block::getHash).collect(Collectors.toList());
+    assertThat(storage.getAllTransactionReceipts(blockHashes))
+        .allMatch(blockReceipts -> blockReceipts.isPresent());
+  }
+
+  private KeyValueStoragePrefixedKeyBlockchainStorage createStorage(final BlockFreezer freezer) {
+    return new KeyValueStoragePrefixedKeyBlockchainStorage(
+        keyValueStorage, new MainnetBlockHeaderFunctions(), freezer);
+  }
+}
@@ -14,7 +14,10 @@
  */
 package org.hyperledger.besu.ethereum.vm;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -106,9 +109,40 @@ public class BlockHashLookupTest {
     verify(blockchain).getBlockHeader(headers[CURRENT_BLOCK_NUMBER - 1].getHash());
     verify(blockchain).getBlockHeader(headers[CURRENT_BLOCK_NUMBER - 2].getHash());
     verify(blockchain).getBlockHeader(headers[CURRENT_BLOCK_NUMBER - 3].getHash());
+    verify(blockchain, atLeastOnce()).getRecentCanonicalAncestorHash(any(), anyLong(), anyLong());
     verifyNoMoreInteractions(blockchain);
   }
 
+  @Test
+  public void shouldGetHashFromRecentCanonicalHashesWithoutReadingHeaders() {
+    final BlockHeader parent = headers[CURRENT_BLOCK_NUMBER - 1];
+    when(blockchain.getRecentCanonicalAncestorHash(
+            parent.getHash(), parent.getNumber(), CURRENT_BLOCK_NUMBER - 100))
+        .thenReturn(Optional.of(headers[CURRENT_BLOCK_NUMBER - 100].getHash()));
+
+    assertHashForBlockNumber(CURRENT_BLOCK_NUMBER - 100);
+    verify(blockchain, never()).getBlockHeader(any(Hash.class));
+  }
+
+  @Test
+  public void shouldWalkForkUntilItMeetsTheCanonicalChain() {
+    // The two most recent ancestors are on a fork, the canonical chain is known from the third.
+    final BlockHeader canonicalAncestor = headers[CURRENT_BLOCK_NUMBER - 3];
+    when(blockchain.getRecentCanonicalAncestorHash(
+            eq(canonicalAncestor.getHash()), eq(canonicalAncestor.getNumber()), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              final long ancestorNumber = invocation.getArgument(2);
+              return Optional.of(headers[(int) ancestorNumber].getHash());
+            });
+
+    assertHashForBlockNumber(CURRENT_BLOCK_NUMBER - 100);
+    assertHashForBlockNumber(CURRENT_BLOCK_NUMBER - 50);
+    verify(blockchain).getBlockHeader(headers[CURRENT_BLOCK_NUMBER - 1].getHash());
+    verify(blockchain).getBlockHeader(headers[CURRENT_BLOCK_NUMBER - 2].getHash());
+    verify(blockchain, never()).getBlockHeader(canonicalAncestor.getHash());
+  }
+
   private void assertHashForBlockNumber(final int blockNumber) {
     Assertions.assertThat(lookup.getBlockHash(blockNumber))
         .isEqualTo(headers[blockNumber].getHash());
@@ -0,0 +1,108 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.metrics.StubMetricsSystem;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class CodeCacheTest {
+
+  // PUSH1 0x5b, JUMPDEST, PUSH2 0x0102, JUMPDEST, PUSH3 0x0a (truncated)
+  private static final Bytes CODE = Bytes.fromHexString("0x605b5b6101025b620a");
+
+  @Test
+  public void returnsSameAnalysisForSameCodeHash() {
+    final CodeCache cache = new CodeCache();
+    final Hash codeHash = Hash.hash(CODE);
+
+    final Code first = cache.getOrAnalyze(codeHash, CODE);
+    final Code second = cache.getOrAnalyze(codeHash, CODE);
+
+    assertThat(second).isSameAs(first);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void countsHitsAndMisses() {
+    final StubMetricsSystem metricsSystem = new StubMetricsSystem();
+    final CodeCache cache = new CodeCache(metricsSystem);
+    final Hash codeHash = Hash.hash(CODE);
+
+    cache.getOrAnalyze(codeHash, CODE);
+    cache.getOrAnalyze(codeHash, CODE);
+    cache.getOrAnalyze(codeHash, CODE);
+
+    assertThat(metricsSystem.getCounterValue("code_cache_misses_total")).isEqualTo(1);
+    assertThat(metricsSystem.getCounterValue("code_cache_hits_total")).isEqualTo(2);
+  }
+
+  @Test
+  public void emptyCodeIsNotCached() {
+    final CodeCache cache = new CodeCache();
+
+    final Code code = cache.getOrAnalyze(Hash.EMPTY, Bytes.EMPTY);
+
+    assertThat(code.getSize()).isZero();
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void evictsEntriesBeyondMaximumWeight() {
+    final CodeCache cache = new CodeCache(CODE.size(), new NoOpMetricsSystem());
+
+    cache.getOrAnalyze(Hash.hash(CODE), CODE);
+    final Bytes otherCode = Bytes.fromHexString("0x600160020100");
+    cache.getOrAnalyze(Hash.hash(otherCode), otherCode);
+
+    assertThat(cache.size()).isLessThanOrEqualTo(1);
+  }
+
+  @Test
+  public void analyzedCodeSkipsPushDataForJumpDestinations() {
+    final Code code = Code.analyzed(CODE);
+
+    assertThat(code.isValidJumpDestination(null, null, UInt256.valueOf(1))).isFalse();
+    assertThat(code.isValidJumpDestination(null, null, UInt256.valueOf(2))).isTrue();
+    assertThat(code.isValidJumpDestination(null, null, UInt256.valueOf(6))).isTrue();
+    assertThat(code.isValidJumpDestination(null, null, UInt256.valueOf(9))).isFalse();
+  }
+
+  @Test
+  public void analyzedCodeDecodesPushImmediates() {
+    final Code code = Code.analyzed(CODE);
+
+    assertThat(code.getPushValue(0, 1)).isEqualTo(UInt256.valueOf(0x5b));
+    assertThat(code.getPushValue(3, 2)).isEqualTo(UInt256.valueOf(0x0102));
+    // Missing immediate bytes are treated as zeros on the right.
+    assertThat(code.getPushValue(7, 3)).isEqualTo(UInt256.valueOf(0x0a0000));
+  }
+
+  @Test
+  public void pushValuesMatchUnanalyzedCode() {
+    final Code analyzed = Code.analyzed(CODE);
+    final Code unanalyzed = new Code(CODE);
+
+    assertThat(analyzed.getPushValue(0, 1)).isEqualTo(unanalyzed.getPushValue(0, 1));
+    assertThat(analyzed.getPushValue(3, 2)).isEqualTo(unanalyzed.getPushValue(3, 2));
+    assertThat(analyzed.getPushValue(7, 3)).isEqualTo(unanalyzed.getPushValue(7, 3));
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ */
+package org.hyperledger.besu.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.vm.FixedStack.OverflowException;
+import org.hyperledger.besu.ethereum.vm.FixedStack.UnderflowException;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Test;
+
+public class LimbOperandStackTest {
+
+  private static final List<UInt256> EDGE_VALUES =
+      List.of(
+          UInt256.ZERO,
+          UInt256.ONE,
+          UInt256.MAX_VALUE,
+          UInt256.valueOf(Long.MAX_VALUE),
+          UInt256.fromHexString("0xffffffffffffffff"),
+          UInt256.fromHexString("0x10000000000000000"),
+          UInt256.fromHexString(
+              "0x8000000000000000000000000000000000000000000000000000000000000000"),
+          UInt256.fromHexString(
+              "0x7fffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff"));
+
+  @Test
+  public void construction() {
+    final LimbOperandStack stack = new LimbOperandStack(1);
+    assertThat(stack.size()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void construction_NegativeMaximumSize() {
+    new LimbOperandStack(-1);
+  }
+
+  @Test(expected = OverflowException.class)
+  public void push_StackOverflow() {
+    final LimbOperandStack stack = new LimbOperandStack(1);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+  }
+
+  @Test(expected = UnderflowException.class)
+  public void pop_StackUnderflow() {
+    final LimbOperandStack stack = new LimbOperandStack(1);
+    stack.pop();
+  }
+
+  @Test(expected = UnderflowException.class)
+  public void add_StackUnderflow() {
+    final LimbOperandStack stack = new LimbOperandStack(2);
+    stack.push(UInt256.ONE);
+    stack.add();
+  }
+
+  @Test(expected = OverflowException.class)
+  public void dup_StackOverflow() {
+    final LimbOperandStack stack = new LimbOperandStack(1);
+    stack.push(UInt256.ONE);
+    stack.dup(0);
+  }
+
+  @Test
+  public void pushPop() {
+    final LimbOperandStack stack = new LimbOperandStack(1);
+    stack.push(UInt256.MAX_VALUE);
+    assertThat(stack.size()).isEqualTo(1);
+    assertThat(stack.pop()).isEqualTo(UInt256.MAX_VALUE);
+  }
+
+  @Test
+  public void get() {
+    final LimbOperandStack stack = new LimbOperandStack(3);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+    stack.push(UInt256.fromHexString("0x03"));
+    assertThat(stack.size()).isEqualTo(3);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x03"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x01"));
+  }
+
+  @Test
+  public void set() {
+    final LimbOperandStack stack = new LimbOperandStack(3);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+    stack.push(UInt256.fromHexString("0x03"));
+    stack.set(2, UInt256.fromHexString("0x04"));
+    assertThat(stack.size()).isEqualTo(3);
+    assertThat(stack.get(0)).isEqualTo(Bytes32.fromHexString("0x03"));
+    assertThat(stack.get(1)).isEqualTo(Bytes32.fromHexString("0x02"));
+    assertThat(stack.get(2)).isEqualTo(Bytes32.fromHexString("0x04"));
+  }
+
+  @Test
+  public void dupAndSwap() {
+    final LimbOperandStack stack = new LimbOperandStack(4);
+    stack.push(UInt256.fromHexString("0x01"));
+    stack.push(UInt256.fromHexString("0x02"));
+    stack.dup(1);
+    assertThat(stack.get(0)).isEqualTo(UInt256.ONE);
+    stack.swap(1);
+    assertThat(stack.get(0)).isEqualTo(UInt256.valueOf(2));
+    assertThat(stack.get(1)).isEqualTo(UInt256.ONE);
+    assertThat(stack.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void binaryOperationsMatchUInt256Stack() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 2_000; i++) {
+      final UInt256 a = randomValue(random);
+      final UInt256 b = randomValue(random);
+      assertBinaryOperationsMatch(a, b);
+    }
+    for (final UInt256 a : EDGE_VALUES) {
+      for (final UInt256 b : EDGE_VALUES) {
+        assertBinaryOperationsMatch(a, b);
+      }
+    }
+  }
+
+  @Test
+  public void unaryOperationsMatchUInt256Stack() {
+    for (final UInt256 a : EDGE_VALUES) {
+      assertOperationMatches(OperandStack::not, a);
+      assertOperationMatches(OperandStack::isZero, a);
+    }
+  }
+
+  private void assertBinaryOperationsMatch(final UInt256 a, final UInt256 b) {
+    assertOperationMatches(OperandStack::add, b, a);
+    assertOperationMatches(OperandStack::sub, b, a);
+    assertOperationMatches(OperandStack::mul, b, a);
+    assertOperationMatches(OperandStack::and, b, a);
+    assertOperationMatches(OperandStack::or, b, a);
+    assertOperationMatches(OperandStack::xor, b, a);
+    assertOperationMatches(OperandStack::lt, b, a);
+    assertOperationMatches(OperandStack::gt, b, a);
+    assertOperationMatches(OperandStack::slt, b, a);
+    assertOperationMatches(OperandStack::sgt, b, a);
+    assertOperationMatches(OperandStack::eq, b, a);
+    assertOperationMatches(OperandStack::eq, a, a);
+  }
+
+  private void assertOperationMatches(
+      final Consumer<OperandStack> operation, final UInt256... operands) {
+    final OperandStack expected = new OperandStack(operands.length);
+    final LimbOperandStack actual = new LimbOperandStack(operands.length);
+    for (final UInt256 operand : operands) {
+      expected.push(operand);
+      actual.push(operand);
+    }
+    operation.accept(expected);
+    operation.accept(actual);
+    assertThat(actual.size()).isEqualTo(expected.size());
+    assertThat(actual.get(0)).isEqualTo(expected.get(0));
+  }
+
+  private static UInt256 randomValue(final Random random) {
+    // Mix in short values so that carries and borrows between limbs are exercised.
+    final byte[] bytes = new byte[random.nextInt(33)];
+    random.nextBytes(bytes);
+    return UInt256.fromBytes(Bytes32.leftPad(Bytes.wrap(bytes)));
+  }
+}
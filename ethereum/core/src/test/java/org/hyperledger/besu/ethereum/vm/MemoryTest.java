@@ -147,6 +147,95 @@ public class MemoryTest {
     assertThat(memory.getWord(UInt256.valueOf(64))).isEqualTo(Bytes32.ZERO);
   }
 
+  @Test
+  public void shouldTrackActiveWordsIndependentlyOfCapacity() {
+    memory.setWord(UInt256.ZERO, WORD1);
+    memory.setWord(UInt256.valueOf(32), WORD2);
+    memory.setWord(UInt256.valueOf(64), WORD3);
+
+    assertThat(memory.getActiveWords()).isEqualTo(UInt256.valueOf(3));
+    assertThat(memory.getActiveBytes()).isEqualTo(96);
+    assertThat(memory.toString()).isEqualTo(Bytes.concatenate(WORD1, WORD2, WORD3).toHexString());
+  }
+
+  @Test
+  public void shouldReadZerosFromExpandedCapacity() {
+    memory.setWord(UInt256.ZERO, WORD1);
+    memory.setWord(UInt256.valueOf(32), WORD2);
+
+    assertThat(memory.getWord(UInt256.valueOf(64))).isEqualTo(Bytes32.ZERO);
+    assertThat(memory.getActiveWords()).isEqualTo(UInt256.valueOf(3));
+  }
+
+  @Test
+  public void shouldCompareOnlyActiveMemory() {
+    final Memory other = new Memory();
+    for (int i = 0; i < 5; i++) {
+      memory.setWord(UInt256.valueOf(i * 32L), WORD1);
+    }
+    other.setWord(UInt256.valueOf(128), WORD1);
+    for (int i = 0; i < 4; i++) {
+      other.setWord(UInt256.valueOf(i * 32L), WORD1);
+    }
+
+    assertThat(memory).isEqualTo(other);
+    assertThat(memory.hashCode()).isEqualTo(other.hashCode());
+  }
+
+  @Test
+  public void shouldReturnViewThatReflectsLaterWrites() {
+    memory.setWord(UInt256.ZERO, WORD1);
+    final Bytes view = memory.getBytesView(0, 32);
+    final Bytes copy = memory.getBytes(0, 32);
+
+    memory.setWord(UInt256.ZERO, WORD2);
+
+    assertThat(view).isEqualTo(WORD2);
+    assertThat(copy).isEqualTo(WORD1);
+  }
+
+  @Test
+  public void shouldExpandMemoryWhenReadingView() {
+    assertThat(memory.getBytesView(UInt256.valueOf(10), UInt256.valueOf(30)))
+        .isEqualTo(Bytes.wrap(new byte[30]));
+    assertThat(memory.getActiveWords()).isEqualTo(UInt256.valueOf(2));
+  }
+
+  @Test
+  public void shouldNotExpandMemoryForEmptyReads() {
+    assertThat(memory.getBytesView(UInt256.MAX_VALUE, UInt256.ZERO)).isEqualTo(Bytes.EMPTY);
+    assertThat(memory.getBytes(Long.MAX_VALUE, 0)).isEqualTo(Bytes.EMPTY);
+    assertThat(memory.getActiveWords()).isEqualTo(UInt256.ZERO);
+  }
+
+  @Test
+  public void longOverloadsShouldMatchUInt256Overloads() {
+    final Memory other = new Memory();
+    final Bytes value = Bytes.concatenate(WORD1, WORD2);
+
+    memory.setBytes(UInt256.valueOf(10), UInt256.valueOf(16), UInt256.valueOf(40), value);
+    other.setBytes(10, 16, 40, value);
+    memory.setBytes(UInt256.valueOf(100), UInt256.valueOf(80), value);
+    other.setBytes(100, 80, value);
+    memory.setBytes(UInt256.valueOf(200), UInt256.valueOf(64), UInt256.valueOf(8), value);
+    other.setBytes(200, 64, 8, value);
+
+    assertThat(other).isEqualTo(memory);
+    assertThat(other.getActiveWords()).isEqualTo(memory.getActiveWords());
+    assertThat(other.getBytes(0, 208))
+        .isEqualTo(memory.getBytes(UInt256.ZERO, UInt256.valueOf(208)));
+  }
+
+  @Test
+  public void shouldCopyOverlappingViewOfSameMemory() {
+    memory.setBytes(UInt256.ZERO, UInt256.valueOf(64), Bytes.concatenate(WORD1, WORD2));
+
+    memory.setBytes(16, 64, memory.getBytesView(0, 32));
+
+    assertThat(memory.getBytes(16, 32)).isEqualTo(WORD1);
+    assertThat(memory.getBytes(48, 32)).isEqualTo(Bytes.wrap(new byte[32]));
+  }
+
   private static Bytes32 fillBytes32(final long value) {
     return Bytes32.fromHexString(Strings.repeat(Long.toString(value), 64));
   }
@@ -93,6 +93,55 @@ public class VMReferenceTest extends AbstractRetryingTest {
   @Override
   protected void runTest() {
     final MutableWorldState worldState = new DefaultMutableWorldState(spec.getInitialWorldState());
+    final MessageFrame frame = execute(worldState, OperationTracer.NO_TRACING);
+
+    // The untraced fast path must behave exactly like the traced interpreter loop.
+    final MutableWorldState tracedWorldState =
+        new DefaultMutableWorldState(spec.getInitialWorldState());
+    final MessageFrame tracedFrame =
+        execute(tracedWorldState, (messageFrame, executeOperation) -> executeOperation.execute());
+    assertThat(frame.getState()).isEqualTo(tracedFrame.getState());
+    assertThat(frame.getExceptionalHaltReason()).isEqualTo(tracedFrame.getExceptionalHaltReason());
+    assertThat(frame.getRemainingGas()).isEqualTo(tracedFrame.getRemainingGas());
+    assertThat(frame.getOutputData()).isEqualTo(tracedFrame.getOutputData());
+    assertThat(frame.getLogs()).isEqualTo(tracedFrame.getLogs());
+
+    if (spec.isExceptionHaltExpected()) {
+      assertThat(frame.getState() == MessageFrame.State.EXCEPTIONAL_HALT)
+          .withFailMessage("VM should have exceptionally halted")
+          .isTrue();
+    } else {
+      // This is normally performed when the message processor executing the VM
+      // executes to completion successfully.
+      frame.getWorldState().commit();
+      tracedFrame.getWorldState().commit();
+      assertThat(worldState.rootHash()).isEqualTo(tracedWorldState.rootHash());
+
+      assertThat(frame.getState() == MessageFrame.State.EXCEPTIONAL_HALT)
+          .withFailMessage(
+              "VM should not have exceptionally halted with " + frame.getExceptionalHaltReason())
+          .isFalse();
+      assertThat(frame.getOutputData())
+          .withFailMessage("VM output differs")
+          .isEqualTo(spec.getOut());
+      assertThat(worldState.rootHash())
+          .withFailMessage("Final world state differs")
+          .isEqualTo(spec.getFinalWorldState().rootHash());
+
+      final Gas actualGas = frame.getRemainingGas();
+      final Gas expectedGas = spec.getFinalGas();
+      final Gas difference =
+          (expectedGas.compareTo(actualGas) > 0)
+              ? expectedGas.minus(actualGas)
+              : actualGas.minus(expectedGas);
+      assertThat(actualGas)
+          .withFailMessage("Final gas does not match, with difference of %s", difference)
+          .isEqualTo(expectedGas);
+    }
+  }
+
+  private MessageFrame execute(
+      final MutableWorldState worldState, final OperationTracer operationTracer) {
     final EnvironmentInformation execEnv = spec.getExec();
 
     final ProtocolSpec protocolSpec =
@@ -131,37 +180,7 @@ public class VMReferenceTest extends AbstractRetryingTest {
     // This is normally set inside the containing message executing the code.
     frame.setState(MessageFrame.State.CODE_EXECUTING);
 
-    protocolSpec.getEvm().runToHalt(frame, OperationTracer.NO_TRACING);
-
-    if (spec.isExceptionHaltExpected()) {
-      assertThat(frame.getState() == MessageFrame.State.EXCEPTIONAL_HALT)
-          .withFailMessage("VM should have exceptionally halted")
-          .isTrue();
-    } else {
-      // This is normally performed when the message processor executing the VM
-      // executes to completion successfully.
-      frame.getWorldState().commit();
-
-      assertThat(frame.getState() == MessageFrame.State.EXCEPTIONAL_HALT)
-          .withFailMessage(
-              "VM should not have exceptionally halted with " + frame.getExceptionalHaltReason())
-          .isFalse();
-      assertThat(frame.getOutputData())
-          .withFailMessage("VM output differs")
-          .isEqualTo(spec.getOut());
-      assertThat(worldState.rootHash())
-          .withFailMessage("Final world state differs")
-          .isEqualTo(spec.getFinalWorldState().rootHash());
-
-      final Gas actualGas = frame.getRemainingGas();
-      final Gas expectedGas = spec.getFinalGas();
-      final Gas difference =
-          (expectedGas.compareTo(actualGas) > 0)
-              ? expectedGas.minus(actualGas)
-              : actualGas.minus(expectedGas);
-      assertThat(actualGas)
-          .withFailMessage("Final gas does not match, with difference of %s", difference)
-          .isEqualTo(expectedGas);
-    }
+    protocolSpec.getEvm().runToHalt(frame, operationTracer);
+    return frame;
   }
 }
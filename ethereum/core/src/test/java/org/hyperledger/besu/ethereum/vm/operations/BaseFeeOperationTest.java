@@ -82,7 +82,7 @@ public class BaseFeeOperationTest {
 
   private MessageFrame createMessageFrame(final Gas initialGas, final Optional<Long> baseFee) {
     final MessageFrame frame = mock(MessageFrame.class);
-    when(frame.getRemainingGas()).thenReturn(initialGas);
+    when(frame.getRemainingGasAsLong()).thenReturn(initialGas.toLong());
     final BlockHeader blockHeader = mock(BlockHeader.class);
     when(blockHeader.getBaseFee()).thenReturn(baseFee);
     when(frame.getBlockHeader()).thenReturn(blockHeader);
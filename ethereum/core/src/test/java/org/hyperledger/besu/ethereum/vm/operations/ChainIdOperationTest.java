@@ -54,16 +54,16 @@ public class ChainIdOperationTest {
     chainId = Bytes32.fromHexString(chainIdString);
     this.expectedGas = expectedGas;
     operation = new ChainIdOperation(new ConstantinopleGasCalculator(), chainId);
-    when(messageFrame.getRemainingGas()).thenReturn(Gas.of(100));
+    when(messageFrame.getRemainingGasAsLong()).thenReturn(100L);
   }
 
   @SuppressWarnings("ResultOfMethodCallIgnored")
   @Test
   public void shouldReturnChainId() {
     final ArgumentCaptor<UInt256> arg = ArgumentCaptor.forClass(UInt256.class);
-    when(messageFrame.getRemainingGas()).thenReturn(Gas.of(100));
+    when(messageFrame.getRemainingGasAsLong()).thenReturn(100L);
     operation.execute(messageFrame, null);
-    Mockito.verify(messageFrame).getRemainingGas();
+    Mockito.verify(messageFrame).getRemainingGasAsLong();
     Mockito.verify(messageFrame).pushStackItem(arg.capture());
     Mockito.verifyNoMoreInteractions(messageFrame);
     assertThat(arg.getValue()).isEqualTo(chainId);
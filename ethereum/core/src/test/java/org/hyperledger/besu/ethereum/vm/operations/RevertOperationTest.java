@@ -18,7 +18,6 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.mainnet.ConstantinopleGasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
 
@@ -49,7 +48,7 @@ public class RevertOperationTest {
     when(messageFrame.readMemory(UInt256.ZERO, uint256_14)).thenReturn(revertReasonBytes);
     when(messageFrame.memoryWordSize()).thenReturn(UInt256.ZERO);
     when(messageFrame.calculateMemoryExpansion(any(), any())).thenReturn(uint256_14);
-    when(messageFrame.getRemainingGas()).thenReturn(Gas.of(10_000));
+    when(messageFrame.getRemainingGasAsLong()).thenReturn(10_000L);
   }
 
   @Test
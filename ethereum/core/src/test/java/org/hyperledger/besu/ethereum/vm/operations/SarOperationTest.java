@@ -18,7 +18,6 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import org.hyperledger.besu.ethereum.core.Gas;
 import org.hyperledger.besu.ethereum.mainnet.SpuriousDragonGasCalculator;
 import org.hyperledger.besu.ethereum.vm.GasCalculator;
 import org.hyperledger.besu.ethereum.vm.MessageFrame;
@@ -159,7 +158,7 @@ public class SarOperationTest {
   public void shiftOperation() {
     final MessageFrame frame = mock(MessageFrame.class);
     when(frame.stackSize()).thenReturn(2);
-    when(frame.getRemainingGas()).thenReturn(Gas.of(100));
+    when(frame.getRemainingGasAsLong()).thenReturn(100L);
     when(frame.popStackItem())
         .thenReturn(UInt256.fromBytes(Bytes32.fromHexStringLenient(shift)))
         .thenReturn(UInt256.fromHexString(number));
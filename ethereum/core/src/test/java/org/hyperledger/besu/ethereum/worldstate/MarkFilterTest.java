@@ -0,0 +1,82 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.junit.Test;
+
+public class MarkFilterTest {
+
+  private final MarkFilter filter = new MarkFilter(1024);
+
+  @Test
+  public void containsThePutHashes() {
+    final List<byte[]> hashes = hashes(0, 100);
+    hashes.forEach(filter::put);
+
+    assertThat(hashes).allMatch(filter::mightContain);
+  }
+
+  @Test
+  public void rejectsMostOtherHashes() {
+    hashes(0, 100).forEach(filter::put);
+
+    assertThat(hashes(100, 1100).stream().filter(filter::mightContain).count()).isLessThan(50);
+  }
+
+  @Test
+  public void clearRemovesAllHashes() {
+    final List<byte[]> hashes = hashes(0, 100);
+    hashes.forEach(filter::put);
+
+    filter.clear();
+
+    assertThat(hashes).noneMatch(filter::mightContain);
+  }
+
+  @Test
+  public void clearedFilterHasNoHashes() {
+    final List<byte[]> hashes = hashes(0, 100);
+    hashes.forEach(filter::put);
+
+    final MarkFilter smaller = filter.cleared(512);
+    assertThat(smaller.sizeInBytes()).isEqualTo(512);
+    assertThat(hashes).noneMatch(smaller::mightContain);
+
+    hashes.forEach(smaller::put);
+    final MarkFilter larger = smaller.cleared(2048);
+    assertThat(larger.sizeInBytes()).isEqualTo(2048);
+    assertThat(hashes).noneMatch(larger::mightContain);
+  }
+
+  @Test
+  public void shortKeysAreAlwaysChecked() {
+    assertThat(filter.mightContain(new byte[] {1, 2, 3})).isTrue();
+  }
+
+  private static List<byte[]> hashes(final int from, final int to) {
+    return IntStream.range(from, to)
+        .mapToObj(i -> Hash.hash(Bytes.ofUnsignedInt(i)).toArrayUnsafe())
+        .collect(Collectors.toList());
+  }
+}
@@ -28,6 +28,7 @@ public class EthProtocolConfiguration {
   public static final int DEFAULT_MAX_GET_NODE_DATA = 384;
   public static final int DEFAULT_MAX_GET_POOLED_TRANSACTIONS = 256;
   public static final boolean DEFAULT_LEGACY_ETH_64_FORK_ID_ENABLED = false;
+  public static final boolean DEFAULT_SNAP_SERVER_ENABLED = false;
 
   private final int maxGetBlockHeaders;
   private final int maxGetBlockBodies;
@@ -35,6 +36,7 @@ public class EthProtocolConfiguration {
   private final int maxGetNodeData;
   private final int maxGetPooledTransactions;
   private final boolean legacyEth64ForkIdEnabled;
+  private final boolean snapServerEnabled;
 
   public EthProtocolConfiguration(
       final int maxGetBlockHeaders,
@@ -43,12 +45,31 @@ public class EthProtocolConfiguration {
       final int maxGetNodeData,
       final int maxGetPooledTransactions,
       final boolean legacyEth64ForkIdEnabled) {
+    this(
+        maxGetBlockHeaders,
+        maxGetBlockBodies,
+        maxGetReceipts,
+        maxGetNodeData,
+        maxGetPooledTransactions,
+        legacyEth64ForkIdEnabled,
+        DEFAULT_SNAP_SERVER_ENABLED);
+  }
+
+  public EthProtocolConfiguration(
+      final int maxGetBlockHeaders,
+      final int maxGetBlockBodies,
+      final int maxGetReceipts,
+      final int maxGetNodeData,
+      final int maxGetPooledTransactions,
+      final boolean legacyEth64ForkIdEnabled,
+      final boolean snapServerEnabled) {
     this.maxGetBlockHeaders = maxGetBlockHeaders;
     this.maxGetBlockBodies = maxGetBlockBodies;
     this.maxGetReceipts = maxGetReceipts;
     this.maxGetNodeData = maxGetNodeData;
     this.maxGetPooledTransactions = maxGetPooledTransactions;
     this.legacyEth64ForkIdEnabled = legacyEth64ForkIdEnabled;
+    this.snapServerEnabled = snapServerEnabled;
   }
 
   public static EthProtocolConfiguration defaultConfig() {
@@ -58,7 +79,8 @@ public class EthProtocolConfiguration {
         DEFAULT_MAX_GET_RECEIPTS,
         DEFAULT_MAX_GET_NODE_DATA,
         DEFAULT_MAX_GET_POOLED_TRANSACTIONS,
-        DEFAULT_LEGACY_ETH_64_FORK_ID_ENABLED);
+        DEFAULT_LEGACY_ETH_64_FORK_ID_ENABLED,
+        DEFAULT_SNAP_SERVER_ENABLED);
   }
 
   public static Builder builder() {
@@ -89,6 +111,10 @@ public class EthProtocolConfiguration {
     return legacyEth64ForkIdEnabled;
   }
 
+  public boolean isSnapServerEnabled() {
+    return snapServerEnabled;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (this == o) {
@@ -102,12 +128,14 @@ public class EthProtocolConfiguration {
         && maxGetBlockBodies == that.maxGetBlockBodies
         && maxGetReceipts == that.maxGetReceipts
         && maxGetNodeData == that.maxGetNodeData
-        && maxGetPooledTransactions == that.maxGetPooledTransactions;
+        && maxGetPooledTransactions == that.maxGetPooledTransactions
+        && snapServerEnabled == that.snapServerEnabled;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(maxGetBlockHeaders, maxGetBlockBodies, maxGetReceipts, maxGetNodeData);
+    return Objects.hash(
+        maxGetBlockHeaders, maxGetBlockBodies, maxGetReceipts, maxGetNodeData, snapServerEnabled);
   }
 
   @Override
@@ -118,6 +146,7 @@ public class EthProtocolConfiguration {
         .add("maxGetReceipts", maxGetReceipts)
         .add("maxGetNodeData", maxGetNodeData)
         .add("maxGetPooledTransactions", maxGetPooledTransactions)
+        .add("snapServerEnabled", snapServerEnabled)
         .toString();
   }
 
@@ -140,6 +169,8 @@ public class EthProtocolConfiguration {
     private boolean legacyEth64ForkIdEnabled =
         EthProtocolConfiguration.DEFAULT_LEGACY_ETH_64_FORK_ID_ENABLED;
 
+    private boolean snapServerEnabled = EthProtocolConfiguration.DEFAULT_SNAP_SERVER_ENABLED;
+
     public Builder maxGetBlockHeaders(final PositiveNumber maxGetBlockHeaders) {
       this.maxGetBlockHeaders = maxGetBlockHeaders;
       return this;
@@ -170,6 +201,11 @@ public class EthProtocolConfiguration {
       return this;
     }
 
+    public Builder snapServerEnabled(final boolean snapServerEnabled) {
+      this.snapServerEnabled = snapServerEnabled;
+      return this;
+    }
+
     public EthProtocolConfiguration build() {
       return new EthProtocolConfiguration(
           maxGetBlockHeaders.getValue(),
@@ -177,7 +213,8 @@ public class EthProtocolConfiguration {
           maxGetReceipts.getValue(),
           maxGetNodeData.getValue(),
           maxGetPooledTransactions.getValue(),
-          legacyEth64ForkIdEnabled);
+          legacyEth64ForkIdEnabled,
+          snapServerEnabled);
     }
   }
 }
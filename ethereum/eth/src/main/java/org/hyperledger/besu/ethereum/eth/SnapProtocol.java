@@ -0,0 +1,90 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth;
+
+import org.hyperledger.besu.ethereum.eth.messages.SnapV1;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.Capability;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.SubProtocol;
+
+/**
+ * Snap protocol messages as defined in
+ * https://github.com/ethereum/devp2p/blob/master/caps/snap.md
+ *
+ * <p>The snap protocol runs side by side with the eth protocol, over the same connections, to
+ * download the state as ranges of accounts and storage slots.
+ */
+public class SnapProtocol implements SubProtocol {
+  public static final String NAME = "snap";
+  public static final Capability SNAP1 = Capability.create(NAME, SnapVersion.V1);
+
+  private static final SnapProtocol INSTANCE = new SnapProtocol();
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public int messageSpace(final int protocolVersion) {
+    switch (protocolVersion) {
+      case SnapVersion.V1:
+        return 8;
+      default:
+        return 0;
+    }
+  }
+
+  @Override
+  public boolean isValidMessageCode(final int protocolVersion, final int code) {
+    switch (protocolVersion) {
+      case SnapVersion.V1:
+        return code >= SnapV1.GET_ACCOUNT_RANGE && code <= SnapV1.TRIE_NODES;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public String messageName(final int protocolVersion, final int code) {
+    switch (code) {
+      case SnapV1.GET_ACCOUNT_RANGE:
+        return "GetAccountRange";
+      case SnapV1.ACCOUNT_RANGE:
+        return "AccountRange";
+      case SnapV1.GET_STORAGE_RANGES:
+        return "GetStorageRanges";
+      case SnapV1.STORAGE_RANGES:
+        return "StorageRanges";
+      case SnapV1.GET_BYTE_CODES:
+        return "GetByteCodes";
+      case SnapV1.BYTE_CODES:
+        return "ByteCodes";
+      case SnapV1.GET_TRIE_NODES:
+        return "GetTrieNodes";
+      case SnapV1.TRIE_NODES:
+        return "TrieNodes";
+      default:
+        return INVALID_MESSAGE_NAME;
+    }
+  }
+
+  public static SnapProtocol get() {
+    return INSTANCE;
+  }
+
+  public static class SnapVersion {
+    public static final int V1 = 1;
+  }
+}
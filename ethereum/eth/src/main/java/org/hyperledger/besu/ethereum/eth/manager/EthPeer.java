@@ -19,14 +19,18 @@ import static com.google.common.base.Preconditions.checkArgument;
 import org.hyperledger.besu.ethereum.core.Difficulty;
 import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.eth.EthProtocol;
+import org.hyperledger.besu.ethereum.eth.SnapProtocol;
 import org.hyperledger.besu.ethereum.eth.messages.EthPV62;
 import org.hyperledger.besu.ethereum.eth.messages.EthPV63;
 import org.hyperledger.besu.ethereum.eth.messages.EthPV65;
+import org.hyperledger.besu.ethereum.eth.messages.GetAccountRangeMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetBlockBodiesMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetBlockHeadersMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetNodeDataMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetPooledTransactionsMessage;
 import org.hyperledger.besu.ethereum.eth.messages.GetReceiptsMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetStorageRangesMessage;
+import org.hyperledger.besu.ethereum.eth.messages.SnapV1;
 import org.hyperledger.besu.ethereum.eth.peervalidation.PeerValidator;
 import org.hyperledger.besu.ethereum.p2p.rlpx.connections.PeerConnection;
 import org.hyperledger.besu.ethereum.p2p.rlpx.connections.PeerConnection.PeerNotConnected;
@@ -85,6 +89,8 @@ public class EthPeer {
   private final RequestManager receiptsRequestManager;
   private final RequestManager nodeDataRequestManager;
   private final RequestManager pooledTransactionsRequestManager;
+  private final RequestManager accountRangeRequestManager;
+  private final RequestManager storageRangesRequestManager;
 
   private final AtomicReference<Consumer<EthPeer>> onStatusesExchanged = new AtomicReference<>();
   private final PeerReputation reputation = new PeerReputation();
@@ -113,6 +119,9 @@ public class EthPeer {
     this.receiptsRequestManager = new RequestManager(this, supportsRequestId);
     this.nodeDataRequestManager = new RequestManager(this, supportsRequestId);
     this.pooledTransactionsRequestManager = new RequestManager(this, supportsRequestId);
+    // Snap messages carry their own request ids, matched by the requesting tasks.
+    this.accountRangeRequestManager = new RequestManager(this, false);
+    this.storageRangesRequestManager = new RequestManager(this, false);
   }
 
   public void markValidated(final PeerValidator validator) {
@@ -193,6 +202,19 @@ public class EthPeer {
     }
   }
 
+  /**
+   * Sends a message of another protocol running on the connection of this peer, such as the
+   * responses of the snap protocol.
+   *
+   * @param messageData the message to send
+   * @param protocolName the name of the protocol of the message
+   * @throws PeerNotConnected if the peer is disconnected
+   */
+  public void send(final MessageData messageData, final String protocolName)
+      throws PeerNotConnected {
+    connection.sendForProtocol(protocolName, messageData);
+  }
+
   public RequestManager.ResponseStream getHeadersByHash(
       final Hash hash, final int maxHeaders, final int skip, final boolean reverse)
       throws PeerNotConnected {
@@ -233,8 +255,26 @@ public class EthPeer {
     return sendRequest(pooledTransactionsRequestManager, message);
   }
 
+  public RequestManager.ResponseStream getAccountRange(final GetAccountRangeMessage message)
+      throws PeerNotConnected {
+    return sendRequest(accountRangeRequestManager, message, SnapProtocol.NAME);
+  }
+
+  public RequestManager.ResponseStream getStorageRanges(final GetStorageRangesMessage message)
+      throws PeerNotConnected {
+    return sendRequest(storageRangesRequestManager, message, SnapProtocol.NAME);
+  }
+
   private RequestManager.ResponseStream sendRequest(
       final RequestManager requestManager, final MessageData messageData) throws PeerNotConnected {
+    return sendRequest(requestManager, messageData, protocolName);
+  }
+
+  private RequestManager.ResponseStream sendRequest(
+      final RequestManager requestManager,
+      final MessageData messageData,
+      final String protocolName)
+      throws PeerNotConnected {
     lastRequestTimestamp = clock.millis();
     return requestManager.dispatchRequest(
         msgData -> connection.sendForProtocol(protocolName, msgData), messageData);
@@ -279,6 +319,30 @@ public class EthPeer {
     return true;
   }
 
+  boolean validateReceivedMessage(final EthMessage message, final String protocolName) {
+    if (!SnapProtocol.NAME.equals(protocolName)) {
+      return validateReceivedMessage(message);
+    }
+    checkArgument(message.getPeer().equals(this), "Mismatched message sent to peer for dispatch");
+    switch (message.getData().getCode()) {
+      case SnapV1.ACCOUNT_RANGE:
+        if (accountRangeRequestManager.outstandingRequests() == 0) {
+          LOG.warn("Unsolicited account range received.");
+          return false;
+        }
+        break;
+      case SnapV1.STORAGE_RANGES:
+        if (storageRangesRequestManager.outstandingRequests() == 0) {
+          LOG.warn("Unsolicited storage ranges received.");
+          return false;
+        }
+        break;
+      default:
+        // Nothing to do
+    }
+    return true;
+  }
+
   /**
    * Routes messages originating from this peer to listeners.
    *
@@ -310,6 +374,31 @@ public class EthPeer {
     }
   }
 
+  /**
+   * Routes messages of another protocol running on the connection of this peer to listeners.
+   *
+   * @param ethMessage the message to dispatch
+   * @param protocolName the name of the protocol of the message
+   */
+  void dispatch(final EthMessage ethMessage, final String protocolName) {
+    if (!SnapProtocol.NAME.equals(protocolName)) {
+      dispatch(ethMessage);
+      return;
+    }
+    checkArgument(
+        ethMessage.getPeer().equals(this), "Mismatched Eth message sent to peer for dispatch");
+    switch (ethMessage.getData().getCode()) {
+      case SnapV1.ACCOUNT_RANGE:
+        accountRangeRequestManager.dispatchResponse(ethMessage);
+        break;
+      case SnapV1.STORAGE_RANGES:
+        storageRangesRequestManager.dispatchResponse(ethMessage);
+        break;
+      default:
+        // Nothing to do
+    }
+  }
+
   public Map<Integer, AtomicInteger> timeoutCounts() {
     return reputation.timeoutCounts();
   }
@@ -320,6 +409,8 @@ public class EthPeer {
     receiptsRequestManager.close();
     nodeDataRequestManager.close();
     pooledTransactionsRequestManager.close();
+    accountRangeRequestManager.close();
+    storageRangesRequestManager.close();
   }
 
   public void registerKnownBlock(final Hash hash) {
@@ -415,7 +506,9 @@ public class EthPeer {
         + bodiesRequestManager.outstandingRequests()
         + receiptsRequestManager.outstandingRequests()
         + nodeDataRequestManager.outstandingRequests()
-        + pooledTransactionsRequestManager.outstandingRequests();
+        + pooledTransactionsRequestManager.outstandingRequests()
+        + accountRangeRequestManager.outstandingRequests()
+        + storageRangesRequestManager.outstandingRequests();
   }
 
   public long getLastRequestTimestamp() {
@@ -426,6 +519,10 @@ public class EthPeer {
     return outstandingRequests() < MAX_OUTSTANDING_REQUESTS;
   }
 
+  public boolean supportsSnap() {
+    return getAgreedCapabilities().contains(SnapProtocol.SNAP1);
+  }
+
   public Set<Capability> getAgreedCapabilities() {
     return connection.getAgreedCapabilities();
   }
@@ -114,8 +114,16 @@ public class EthPeers {
 
   public PendingPeerRequest executePeerRequest(
       final PeerRequest request, final long minimumBlockNumber, final Optional<EthPeer> peer) {
+    return executePeerRequest(request, minimumBlockNumber, peer, ethPeer -> true);
+  }
+
+  public PendingPeerRequest executePeerRequest(
+      final PeerRequest request,
+      final long minimumBlockNumber,
+      final Optional<EthPeer> peer,
+      final Predicate<EthPeer> peerFilter) {
     final PendingPeerRequest pendingPeerRequest =
-        new PendingPeerRequest(this, request, minimumBlockNumber, peer);
+        new PendingPeerRequest(this, request, minimumBlockNumber, peer, peerFilter);
     synchronized (this) {
       if (!pendingPeerRequest.attemptExecution()) {
         pendingRequests.add(pendingPeerRequest);
@@ -131,6 +139,14 @@ public class EthPeers {
     }
   }
 
+  public void dispatchMessage(
+      final EthPeer peer, final EthMessage ethMessage, final String protocolName) {
+    peer.dispatch(ethMessage, protocolName);
+    if (peer.hasAvailableRequestCapacity()) {
+      reattemptPendingPeerRequests();
+    }
+  }
+
   private void reattemptPendingPeerRequests() {
     synchronized (this) {
       pendingRequests.removeIf(PendingPeerRequest::attemptExecution);
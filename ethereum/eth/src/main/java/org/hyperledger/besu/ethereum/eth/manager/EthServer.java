@@ -166,17 +166,9 @@ class EthServer {
     final Iterable<Hash> hashes = getReceipts.hashes();
 
     final List<List<TransactionReceipt>> receipts = new ArrayList<>();
-    int count = 0;
-    for (final Hash hash : hashes) {
-      if (count >= requestLimit) {
-        break;
-      }
-      count++;
-      final Optional<List<TransactionReceipt>> maybeReceipts = blockchain.getTxReceipts(hash);
-      if (!maybeReceipts.isPresent()) {
-        continue;
-      }
-      receipts.add(maybeReceipts.get());
+    for (final Optional<List<TransactionReceipt>> maybeReceipts :
+        blockchain.getAllTxReceipts(limit(hashes, requestLimit))) {
+      maybeReceipts.ifPresent(receipts::add);
     }
     return ReceiptsMessage.create(receipts);
   }
@@ -211,15 +203,21 @@ class EthServer {
     final Iterable<Hash> hashes = getNodeDataMessage.hashes();
 
     final List<Bytes> nodeData = new ArrayList<>();
-    int count = 0;
+    for (final Optional<Bytes> maybeNodeData :
+        worldStateArchive.getAllNodeData(limit(hashes, requestLimit))) {
+      maybeNodeData.ifPresent(nodeData::add);
+    }
+    return NodeDataMessage.create(nodeData);
+  }
+
+  private static List<Hash> limit(final Iterable<Hash> hashes, final int requestLimit) {
+    final List<Hash> limited = new ArrayList<>();
     for (final Hash hash : hashes) {
-      if (count >= requestLimit) {
+      if (limited.size() >= requestLimit) {
         break;
       }
-      count++;
-
-      worldStateArchive.getNodeData(hash).ifPresent(nodeData::add);
+      limited.add(hash);
     }
-    return NodeDataMessage.create(nodeData);
+    return limited;
   }
 }
@@ -24,6 +24,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class PendingPeerRequest {
   private final EthPeers ethPeers;
@@ -31,16 +32,19 @@ public class PendingPeerRequest {
   private final CompletableFuture<ResponseStream> result = new CompletableFuture<>();
   private final long minimumBlockNumber;
   private final Optional<EthPeer> peer;
+  private final Predicate<EthPeer> peerFilter;
 
   PendingPeerRequest(
       final EthPeers ethPeers,
       final PeerRequest request,
       final long minimumBlockNumber,
-      final Optional<EthPeer> peer) {
+      final Optional<EthPeer> peer,
+      final Predicate<EthPeer> peerFilter) {
     this.ethPeers = ethPeers;
     this.request = request;
     this.minimumBlockNumber = minimumBlockNumber;
     this.peer = peer;
+    this.peerFilter = peerFilter;
   }
 
   /**
@@ -85,6 +89,7 @@ public class PendingPeerRequest {
         : ethPeers
             .streamAvailablePeers()
             .filter(peer -> peer.chainState().getEstimatedHeight() >= minimumBlockNumber)
+            .filter(peerFilter)
             .min(EthPeers.LEAST_TO_MOST_BUSY);
   }
 
@@ -0,0 +1,133 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.manager;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.hyperledger.besu.ethereum.eth.SnapProtocol;
+import org.hyperledger.besu.ethereum.p2p.network.ProtocolManager;
+import org.hyperledger.besu.ethereum.p2p.rlpx.connections.PeerConnection;
+import org.hyperledger.besu.ethereum.p2p.rlpx.connections.PeerConnection.PeerNotConnected;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.Capability;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.Message;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage.DisconnectReason;
+import org.hyperledger.besu.ethereum.rlp.RLPException;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Handles the snap protocol, which runs on the connections of the eth protocol. Peers are managed
+ * by the {@link EthProtocolManager}, the responses to our requests are routed to the requests of
+ * these peers, and the requests of the peers are served from the world state if enabled.
+ */
+public class SnapProtocolManager implements ProtocolManager {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final EthPeers ethPeers;
+  private final EthMessages snapMessages = new EthMessages();
+
+  public SnapProtocolManager(
+      final EthPeers ethPeers,
+      final WorldStateArchive worldStateArchive,
+      final boolean serverEnabled) {
+    this.ethPeers = ethPeers;
+    if (serverEnabled) {
+      new SnapServer(snapMessages, worldStateArchive);
+    }
+  }
+
+  @Override
+  public String getSupportedProtocol() {
+    return SnapProtocol.NAME;
+  }
+
+  @Override
+  public List<Capability> getSupportedCapabilities() {
+    return List.of(SnapProtocol.SNAP1);
+  }
+
+  @Override
+  public void stop() {}
+
+  @Override
+  public void awaitStop() {}
+
+  @Override
+  public void processMessage(final Capability cap, final Message message) {
+    checkArgument(
+        getSupportedCapabilities().contains(cap),
+        "Unsupported capability passed to processMessage(): " + cap);
+    final MessageData messageData = message.getData();
+    final EthPeer ethPeer = ethPeers.peer(message.getConnection());
+    if (ethPeer == null) {
+      LOG.debug(
+          "Ignoring message received from unknown peer connection: " + message.getConnection());
+      return;
+    }
+
+    if (messageData.getSize() > 10 * 1_000_000 /*10MB*/) {
+      LOG.debug("Received message over 10MB. Disconnecting from {}", ethPeer);
+      ethPeer.disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
+      return;
+    }
+
+    final EthMessage ethMessage = new EthMessage(ethPeer, messageData);
+    if (!ethPeer.validateReceivedMessage(ethMessage, SnapProtocol.NAME)) {
+      LOG.debug("Unsolicited message received from, disconnecting: {}", ethPeer);
+      ethPeer.disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
+      return;
+    }
+
+    // This will handle responses
+    ethPeers.dispatchMessage(ethPeer, ethMessage, SnapProtocol.NAME);
+
+    // This will handle requests
+    Optional<MessageData> maybeResponseData = Optional.empty();
+    try {
+      maybeResponseData = snapMessages.dispatch(ethMessage);
+    } catch (final RLPException e) {
+      LOG.debug(
+          "Received malformed message {} , disconnecting: {}", messageData.getData(), ethPeer, e);
+      ethPeer.disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
+    }
+    maybeResponseData.ifPresent(
+        responseData -> {
+          try {
+            ethPeer.send(responseData, SnapProtocol.NAME);
+          } catch (final PeerNotConnected __) {
+            // Peer disconnected before we could respond - nothing to do
+          }
+        });
+  }
+
+  @Override
+  public void handleNewConnection(final PeerConnection peerConnection) {
+    // Peers are registered by the eth protocol.
+  }
+
+  @Override
+  public void handleDisconnect(
+      final PeerConnection peerConnection,
+      final DisconnectReason disconnectReason,
+      final boolean initiatedByPeer) {
+    // Peers are unregistered by the eth protocol.
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.manager;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetAccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetStorageRangesMessage;
+import org.hyperledger.besu.ethereum.eth.messages.SnapV1;
+import org.hyperledger.besu.ethereum.eth.messages.StorageRangesMessage;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.MerkleTrieException;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/**
+ * Serves the account and storage ranges of the snap protocol from the trie nodes of the world
+ * state.
+ *
+ * <p>Ranges are read in key order until the requested limit is passed, so the last entry may be
+ * beyond the limit, or until the response reaches its size. The proofs of the first and last keys
+ * of a range are sent along so that it can be verified against the requested root. A root whose
+ * nodes are not available is answered with an empty response without proofs.
+ */
+class SnapServer {
+  static final long MAX_RESPONSE_BYTES = 2 * 1024 * 1024;
+  private static final int ENTRIES_PER_READ = 128;
+  private static final Bytes32 MAX_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final EthMessages snapMessages;
+  private final WorldStateArchive worldStateArchive;
+
+  SnapServer(final EthMessages snapMessages, final WorldStateArchive worldStateArchive) {
+    this.snapMessages = snapMessages;
+    this.worldStateArchive = worldStateArchive;
+    this.registerResponseConstructors();
+  }
+
+  private void registerResponseConstructors() {
+    snapMessages.registerResponseConstructor(
+        SnapV1.GET_ACCOUNT_RANGE,
+        messageData -> constructGetAccountRangeResponse(worldStateArchive, messageData));
+    snapMessages.registerResponseConstructor(
+        SnapV1.GET_STORAGE_RANGES,
+        messageData -> constructGetStorageRangesResponse(worldStateArchive, messageData));
+  }
+
+  static MessageData constructGetAccountRangeResponse(
+      final WorldStateArchive worldStateArchive, final MessageData message) {
+    final GetAccountRangeMessage getAccountRange = GetAccountRangeMessage.readFrom(message);
+    final long maxBytes = Math.min(getAccountRange.responseBytes(), MAX_RESPONSE_BYTES);
+    final MerklePatriciaTrie<Bytes32, Bytes> accountTrie =
+        trie(worldStateArchive, getAccountRange.rootHash());
+    final SortedMap<Bytes32, Bytes> accounts = new TreeMap<>();
+    try {
+      readRange(
+          accountTrie,
+          getAccountRange.startKeyHash(),
+          getAccountRange.limitKeyHash(),
+          maxBytes,
+          accounts);
+      return AccountRangeMessage.create(
+          getAccountRange.requestId(),
+          accounts,
+          proof(accountTrie, getAccountRange.startKeyHash(), accounts));
+    } catch (final MerkleTrieException e) {
+      return AccountRangeMessage.create(
+          getAccountRange.requestId(), new TreeMap<>(), Collections.emptyList());
+    }
+  }
+
+  static MessageData constructGetStorageRangesResponse(
+      final WorldStateArchive worldStateArchive, final MessageData message) {
+    final GetStorageRangesMessage getStorageRanges = GetStorageRangesMessage.readFrom(message);
+    long remainingBytes = Math.min(getStorageRanges.responseBytes(), MAX_RESPONSE_BYTES);
+    final MerklePatriciaTrie<Bytes32, Bytes> accountTrie =
+        trie(worldStateArchive, getStorageRanges.rootHash());
+    final List<SortedMap<Bytes32, Bytes>> slots = new ArrayList<>();
+    List<Bytes> proof = Collections.emptyList();
+    try {
+      // The boundaries of the range only apply to the first account.
+      Bytes32 startKeyHash = getStorageRanges.startKeyHash();
+      Bytes32 limitKeyHash = getStorageRanges.limitKeyHash();
+      for (final Bytes32 accountHash : getStorageRanges.accountHashes()) {
+        final Optional<Bytes> account = accountTrie.get(accountHash);
+        if (account.isEmpty() || remainingBytes <= 0) {
+          break;
+        }
+        final Hash storageRoot =
+            StateTrieAccountValue.readFrom(RLP.input(account.get())).getStorageRoot();
+        final MerklePatriciaTrie<Bytes32, Bytes> storageTrie =
+            trie(worldStateArchive, storageRoot);
+        final SortedMap<Bytes32, Bytes> accountSlots = new TreeMap<>();
+        final boolean complete =
+            readRange(storageTrie, startKeyHash, limitKeyHash, remainingBytes, accountSlots);
+        slots.add(accountSlots);
+        if (!complete || !startKeyHash.equals(Bytes32.ZERO)) {
+          // Only the last range can be partial, and only it is sent with proofs.
+          proof = proof(storageTrie, startKeyHash, accountSlots);
+          break;
+        }
+        remainingBytes -= size(accountSlots);
+        startKeyHash = Bytes32.ZERO;
+        limitKeyHash = MAX_KEY_HASH;
+      }
+    } catch (final MerkleTrieException e) {
+      slots.clear();
+      proof = Collections.emptyList();
+    }
+    return StorageRangesMessage.create(getStorageRanges.requestId(), slots, proof);
+  }
+
+  private static MerklePatriciaTrie<Bytes32, Bytes> trie(
+      final WorldStateArchive worldStateArchive, final Bytes32 rootHash) {
+    return new StoredMerklePatriciaTrie<>(
+        (location, hash) -> worldStateArchive.getNodeData(Hash.wrap(hash)),
+        rootHash,
+        Function.identity(),
+        Function.identity());
+  }
+
+  /**
+   * Reads the entries of a trie from a key, until the first one at or after a limit key, or until
+   * their size reaches a maximum.
+   *
+   * @return true if the entries were read up to the limit or the end of the trie
+   */
+  private static boolean readRange(
+      final MerklePatriciaTrie<Bytes32, Bytes> trie,
+      final Bytes32 startKeyHash,
+      final Bytes32 limitKeyHash,
+      final long maxBytes,
+      final SortedMap<Bytes32, Bytes> entries) {
+    long bytes = 0;
+    Bytes32 fromKeyHash = startKeyHash;
+    while (true) {
+      final Map<Bytes32, Bytes> read = trie.entriesFrom(fromKeyHash, ENTRIES_PER_READ);
+      for (final Map.Entry<Bytes32, Bytes> entry : read.entrySet()) {
+        entries.put(entry.getKey(), entry.getValue());
+        bytes += Bytes32.SIZE + entry.getValue().size();
+        if (entry.getKey().compareTo(limitKeyHash) >= 0) {
+          return true;
+        }
+        if (bytes >= maxBytes) {
+          return false;
+        }
+      }
+      if (read.size() < ENTRIES_PER_READ || entries.lastKey().equals(MAX_KEY_HASH)) {
+        return true;
+      }
+      fromKeyHash = UInt256.fromBytes(entries.lastKey()).add(1).toBytes();
+    }
+  }
+
+  private static List<Bytes> proof(
+      final MerklePatriciaTrie<Bytes32, Bytes> trie,
+      final Bytes32 startKeyHash,
+      final SortedMap<Bytes32, Bytes> entries) {
+    final Set<Bytes> proof =
+        new LinkedHashSet<>(trie.getValueWithProof(startKeyHash).getProofRelatedNodes());
+    if (!entries.isEmpty()) {
+      proof.addAll(trie.getValueWithProof(entries.lastKey()).getProofRelatedNodes());
+    }
+    return new ArrayList<>(proof);
+  }
+
+  private static long size(final SortedMap<Bytes32, Bytes> entries) {
+    return entries.values().stream().mapToLong(value -> Bytes32.SIZE + value.size()).sum();
+  }
+}
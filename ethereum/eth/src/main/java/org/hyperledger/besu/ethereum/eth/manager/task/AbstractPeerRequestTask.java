@@ -30,6 +30,7 @@ import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -90,6 +91,15 @@ public abstract class AbstractPeerRequestTask<R> extends AbstractPeerTask<R> {
     return ethContext.getEthPeers().executePeerRequest(request, minimumBlockNumber, assignedPeer);
   }
 
+  public PendingPeerRequest sendRequestToPeer(
+      final PeerRequest request,
+      final long minimumBlockNumber,
+      final Predicate<EthPeer> peerFilter) {
+    return ethContext
+        .getEthPeers()
+        .executePeerRequest(request, minimumBlockNumber, assignedPeer, peerFilter);
+  }
+
   private void handleMessage(
       final CompletableFuture<R> promise,
       final boolean streamClosed,
@@ -0,0 +1,103 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.manager.task;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.manager.EthContext;
+import org.hyperledger.besu.ethereum.eth.manager.EthPeer;
+import org.hyperledger.besu.ethereum.eth.manager.PendingPeerRequest;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetAccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.SnapV1;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes32;
+
+public class GetAccountRangeFromPeerTask extends AbstractPeerRequestTask<AccountRangeMessage> {
+
+  private static final Logger LOG = LogManager.getLogger();
+  static final long RESPONSE_BYTES = 512 * 1024;
+  private static final AtomicLong REQUEST_IDS = new AtomicLong();
+
+  private final long requestId = REQUEST_IDS.getAndIncrement();
+  private final Hash rootHash;
+  private final Bytes32 startKeyHash;
+  private final Bytes32 limitKeyHash;
+  private final long pivotBlockNumber;
+
+  private GetAccountRangeFromPeerTask(
+      final EthContext ethContext,
+      final Hash rootHash,
+      final Bytes32 startKeyHash,
+      final Bytes32 limitKeyHash,
+      final long pivotBlockNumber,
+      final MetricsSystem metricsSystem) {
+    super(ethContext, SnapV1.GET_ACCOUNT_RANGE, metricsSystem);
+    this.rootHash = rootHash;
+    this.startKeyHash = startKeyHash;
+    this.limitKeyHash = limitKeyHash;
+    this.pivotBlockNumber = pivotBlockNumber;
+  }
+
+  public static GetAccountRangeFromPeerTask forRange(
+      final EthContext ethContext,
+      final Hash rootHash,
+      final Bytes32 startKeyHash,
+      final Bytes32 limitKeyHash,
+      final long pivotBlockNumber,
+      final MetricsSystem metricsSystem) {
+    return new GetAccountRangeFromPeerTask(
+        ethContext, rootHash, startKeyHash, limitKeyHash, pivotBlockNumber, metricsSystem);
+  }
+
+  @Override
+  protected PendingPeerRequest sendRequest() {
+    final GetAccountRangeMessage message =
+        GetAccountRangeMessage.create(
+            requestId, rootHash, startKeyHash, limitKeyHash, RESPONSE_BYTES);
+    return sendRequestToPeer(
+        peer -> {
+          LOG.debug(
+              "Requesting accounts from {} to {} from peer {}.", startKeyHash, limitKeyHash, peer);
+          return peer.getAccountRange(message);
+        },
+        pivotBlockNumber,
+        EthPeer::supportsSnap);
+  }
+
+  @Override
+  protected Optional<AccountRangeMessage> processResponse(
+      final boolean streamClosed, final MessageData message, final EthPeer peer) {
+    if (streamClosed) {
+      // Handled as a response without proof, which peers send when they don't have the state.
+      return Optional.of(
+          AccountRangeMessage.create(requestId, new TreeMap<>(), Collections.emptyList()));
+    }
+    final AccountRangeMessage accountRangeMessage = AccountRangeMessage.readFrom(message);
+    if (accountRangeMessage.requestId() != requestId) {
+      // Can't be the response to our request
+      return Optional.empty();
+    }
+    return Optional.of(accountRangeMessage);
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.AbstractMessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The accounts of a range, along with the proofs of its boundaries.
+ *
+ * <p>Accounts are sent in the slim format of the snap protocol, where an empty storage root or code
+ * hash is sent as empty bytes. They are converted from and to the format of the account trie.
+ */
+public final class AccountRangeMessage extends AbstractMessageData {
+
+  public static AccountRangeMessage readFrom(final MessageData message) {
+    if (message instanceof AccountRangeMessage) {
+      return (AccountRangeMessage) message;
+    }
+    final int code = message.getCode();
+    if (code != SnapV1.ACCOUNT_RANGE) {
+      throw new IllegalArgumentException(
+          String.format("Message has code %d and thus is not an AccountRangeMessage.", code));
+    }
+    return new AccountRangeMessage(message.getData());
+  }
+
+  public static AccountRangeMessage create(
+      final long requestId, final SortedMap<Bytes32, Bytes> accounts, final List<Bytes> proof) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    tmp.writeLongScalar(requestId);
+    tmp.startList();
+    for (final Map.Entry<Bytes32, Bytes> account : accounts.entrySet()) {
+      tmp.startList();
+      tmp.writeBytes(account.getKey());
+      tmp.writeRLPBytes(toSlimAccount(account.getValue()));
+      tmp.endList();
+    }
+    tmp.endList();
+    tmp.writeList(proof, (node, out) -> out.writeBytes(node));
+    tmp.endList();
+    return new AccountRangeMessage(tmp.encoded());
+  }
+
+  private AccountRangeMessage(final Bytes data) {
+    super(data);
+  }
+
+  @Override
+  public int getCode() {
+    return SnapV1.ACCOUNT_RANGE;
+  }
+
+  public long requestId() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    return input.readLongScalar();
+  }
+
+  /**
+   * Returns the accounts of the range, in the format of the account trie.
+   *
+   * @return the accounts by account hash
+   */
+  public SortedMap<Bytes32, Bytes> accounts() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    final SortedMap<Bytes32, Bytes> accounts = new TreeMap<>();
+    input.enterList();
+    while (!input.isEndOfCurrentList()) {
+      input.enterList();
+      final Bytes32 accountHash = input.readBytes32();
+      accounts.put(accountHash, toFullAccount(input.readAsRlp()));
+      input.leaveList();
+    }
+    input.leaveList();
+    return accounts;
+  }
+
+  public List<Bytes> proof() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    input.skipNext();
+    return input.readList(RLPInput::readBytes);
+  }
+
+  private static Bytes toSlimAccount(final Bytes account) {
+    final RLPInput input = RLP.input(account);
+    final BytesValueRLPOutput output = new BytesValueRLPOutput();
+    input.enterList();
+    output.startList();
+    output.writeBytes(input.readBytes()); // nonce
+    output.writeBytes(input.readBytes()); // balance
+    final Bytes32 storageRoot = input.readBytes32();
+    output.writeBytes(storageRoot.equals(Hash.EMPTY_TRIE_HASH) ? Bytes.EMPTY : storageRoot);
+    final Bytes32 codeHash = input.readBytes32();
+    output.writeBytes(codeHash.equals(Hash.EMPTY) ? Bytes.EMPTY : codeHash);
+    output.endList();
+    input.leaveList();
+    return output.encoded();
+  }
+
+  private static Bytes toFullAccount(final RLPInput input) {
+    final BytesValueRLPOutput output = new BytesValueRLPOutput();
+    input.enterList();
+    output.startList();
+    output.writeBytes(input.readBytes()); // nonce
+    output.writeBytes(input.readBytes()); // balance
+    final Bytes storageRoot = input.readBytes();
+    output.writeBytes(storageRoot.isEmpty() ? Hash.EMPTY_TRIE_HASH : storageRoot);
+    final Bytes codeHash = input.readBytes();
+    output.writeBytes(codeHash.isEmpty() ? Hash.EMPTY : codeHash);
+    output.endList();
+    input.leaveList();
+    return output.encoded();
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.AbstractMessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+
+import java.util.List;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+public final class GetStorageRangesMessage extends AbstractMessageData {
+
+  private static final Bytes32 MAX_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  public static GetStorageRangesMessage readFrom(final MessageData message) {
+    if (message instanceof GetStorageRangesMessage) {
+      return (GetStorageRangesMessage) message;
+    }
+    final int code = message.getCode();
+    if (code != SnapV1.GET_STORAGE_RANGES) {
+      throw new IllegalArgumentException(
+          String.format("Message has code %d and thus is not a GetStorageRangesMessage.", code));
+    }
+    return new GetStorageRangesMessage(message.getData());
+  }
+
+  public static GetStorageRangesMessage create(
+      final long requestId,
+      final Hash rootHash,
+      final List<Bytes32> accountHashes,
+      final Bytes32 startKeyHash,
+      final Bytes32 limitKeyHash,
+      final long responseBytes) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    tmp.writeLongScalar(requestId);
+    tmp.writeBytes(rootHash);
+    tmp.writeList(accountHashes, (accountHash, out) -> out.writeBytes(accountHash));
+    tmp.writeBytes(startKeyHash);
+    tmp.writeBytes(limitKeyHash);
+    tmp.writeLongScalar(responseBytes);
+    tmp.endList();
+    return new GetStorageRangesMessage(tmp.encoded());
+  }
+
+  private GetStorageRangesMessage(final Bytes data) {
+    super(data);
+  }
+
+  @Override
+  public int getCode() {
+    return SnapV1.GET_STORAGE_RANGES;
+  }
+
+  public long requestId() {
+    return field(0).readLongScalar();
+  }
+
+  public Hash rootHash() {
+    return Hash.wrap(field(1).readBytes32());
+  }
+
+  public List<Bytes32> accountHashes() {
+    return field(2).readList(RLPInput::readBytes32);
+  }
+
+  public Bytes32 startKeyHash() {
+    // The boundaries of the range can be left empty for the whole storage.
+    final Bytes startKeyHash = field(3).readBytes();
+    return startKeyHash.isEmpty() ? Bytes32.ZERO : Bytes32.wrap(startKeyHash);
+  }
+
+  public Bytes32 limitKeyHash() {
+    final Bytes limitKeyHash = field(4).readBytes();
+    return limitKeyHash.isEmpty() ? MAX_KEY_HASH : Bytes32.wrap(limitKeyHash);
+  }
+
+  public long responseBytes() {
+    return field(5).readLongScalar();
+  }
+
+  private RLPInput field(final int index) {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    for (int i = 0; i < index; i++) {
+      input.skipNext();
+    }
+    return input;
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+public final class SnapV1 {
+
+  public static final int GET_ACCOUNT_RANGE = 0x00;
+
+  public static final int ACCOUNT_RANGE = 0x01;
+
+  public static final int GET_STORAGE_RANGES = 0x02;
+
+  public static final int STORAGE_RANGES = 0x03;
+
+  // Bytecodes and trie nodes are downloaded with the eth protocol's GetNodeData.
+  public static final int GET_BYTE_CODES = 0x04;
+
+  public static final int BYTE_CODES = 0x05;
+
+  public static final int GET_TRIE_NODES = 0x06;
+
+  public static final int TRIE_NODES = 0x07;
+
+  private SnapV1() {
+    // Holder for constants only
+  }
+}
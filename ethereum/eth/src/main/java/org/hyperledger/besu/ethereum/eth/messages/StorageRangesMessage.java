@@ -0,0 +1,122 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.AbstractMessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPInput;
+import org.hyperledger.besu.ethereum.rlp.BytesValueRLPOutput;
+import org.hyperledger.besu.ethereum.rlp.RLPInput;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The storage slots of consecutive accounts of a request. Only the slots of the last account can
+ * be partial, in which case the proofs of the boundaries of its range are included.
+ */
+public final class StorageRangesMessage extends AbstractMessageData {
+
+  public static StorageRangesMessage readFrom(final MessageData message) {
+    if (message instanceof StorageRangesMessage) {
+      return (StorageRangesMessage) message;
+    }
+    final int code = message.getCode();
+    if (code != SnapV1.STORAGE_RANGES) {
+      throw new IllegalArgumentException(
+          String.format("Message has code %d and thus is not a StorageRangesMessage.", code));
+    }
+    return new StorageRangesMessage(message.getData());
+  }
+
+  public static StorageRangesMessage create(
+      final long requestId,
+      final List<SortedMap<Bytes32, Bytes>> slots,
+      final List<Bytes> proof) {
+    final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
+    tmp.startList();
+    tmp.writeLongScalar(requestId);
+    tmp.startList();
+    for (final SortedMap<Bytes32, Bytes> accountSlots : slots) {
+      tmp.startList();
+      for (final Map.Entry<Bytes32, Bytes> slot : accountSlots.entrySet()) {
+        tmp.startList();
+        tmp.writeBytes(slot.getKey());
+        tmp.writeBytes(slot.getValue());
+        tmp.endList();
+      }
+      tmp.endList();
+    }
+    tmp.endList();
+    tmp.writeList(proof, (node, out) -> out.writeBytes(node));
+    tmp.endList();
+    return new StorageRangesMessage(tmp.encoded());
+  }
+
+  private StorageRangesMessage(final Bytes data) {
+    super(data);
+  }
+
+  @Override
+  public int getCode() {
+    return SnapV1.STORAGE_RANGES;
+  }
+
+  public long requestId() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    return input.readLongScalar();
+  }
+
+  /**
+   * Returns the storage slots of each account of the response, in the order of the request.
+   *
+   * @return the slots by slot hash, for each account
+   */
+  public List<SortedMap<Bytes32, Bytes>> slots() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    final List<SortedMap<Bytes32, Bytes>> slots = new ArrayList<>();
+    input.enterList();
+    while (!input.isEndOfCurrentList()) {
+      final SortedMap<Bytes32, Bytes> accountSlots = new TreeMap<>();
+      input.enterList();
+      while (!input.isEndOfCurrentList()) {
+        input.enterList();
+        accountSlots.put(input.readBytes32(), input.readBytes());
+        input.leaveList();
+      }
+      input.leaveList();
+      slots.add(accountSlots);
+    }
+    input.leaveList();
+    return slots;
+  }
+
+  public List<Bytes> proof() {
+    final RLPInput input = new BytesValueRLPInput(data, false);
+    input.enterList();
+    input.skipNext();
+    input.skipNext();
+    return input.readList(RLPInput::readBytes);
+  }
+}
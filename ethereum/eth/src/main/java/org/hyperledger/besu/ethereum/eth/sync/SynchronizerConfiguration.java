@@ -55,6 +55,7 @@ public class SynchronizerConfiguration {
   private final int worldStateRequestParallelism;
   private final int worldStateMaxRequestsWithoutProgress;
   private final int worldStateTaskCacheSize;
+  private final boolean snapSyncEnabled;
 
   // Block propagation config
   private final Range<Long> blockPropagationRange;
@@ -83,6 +84,7 @@ public class SynchronizerConfiguration {
       final int worldStateMaxRequestsWithoutProgress,
       final long worldStateMinMillisBeforeStalling,
       final int worldStateTaskCacheSize,
+      final boolean snapSyncEnabled,
       final Range<Long> blockPropagationRange,
       final SyncMode syncMode,
       final long downloaderChangeTargetThresholdByHeight,
@@ -102,6 +104,7 @@ public class SynchronizerConfiguration {
     this.worldStateMaxRequestsWithoutProgress = worldStateMaxRequestsWithoutProgress;
     this.worldStateMinMillisBeforeStalling = worldStateMinMillisBeforeStalling;
     this.worldStateTaskCacheSize = worldStateTaskCacheSize;
+    this.snapSyncEnabled = snapSyncEnabled;
     this.blockPropagationRange = blockPropagationRange;
     this.syncMode = syncMode;
     this.downloaderChangeTargetThresholdByHeight = downloaderChangeTargetThresholdByHeight;
@@ -215,6 +218,16 @@ public class SynchronizerConfiguration {
     return worldStateTaskCacheSize;
   }
 
+  /**
+   * Whether fast sync downloads the world state by ranges of accounts and storage slots from peers
+   * supporting the snap protocol, before downloading the remaining nodes one by one.
+   *
+   * @return true if the world state is downloaded by ranges
+   */
+  public boolean isSnapSyncEnabled() {
+    return snapSyncEnabled;
+  }
+
   public int getMaxTrailingPeers() {
     return maxTrailingPeers;
   }
@@ -243,6 +256,7 @@ public class SynchronizerConfiguration {
         DEFAULT_WORLD_STATE_MAX_REQUESTS_WITHOUT_PROGRESS;
     private long worldStateMinMillisBeforeStalling = DEFAULT_WORLD_STATE_MIN_MILLIS_BEFORE_STALLING;
     private int worldStateTaskCacheSize = DEFAULT_WORLD_STATE_TASK_CACHE_SIZE;
+    private boolean snapSyncEnabled = false;
 
     public Builder fastSyncPivotDistance(final int distance) {
       fastSyncPivotDistance = distance;
@@ -345,6 +359,11 @@ public class SynchronizerConfiguration {
       return this;
     }
 
+    public Builder snapSyncEnabled(final boolean snapSyncEnabled) {
+      this.snapSyncEnabled = snapSyncEnabled;
+      return this;
+    }
+
     public Builder maxTrailingPeers(final int maxTailingPeers) {
       this.maxTrailingPeers = maxTailingPeers;
       return this;
@@ -360,6 +379,7 @@ public class SynchronizerConfiguration {
           worldStateMaxRequestsWithoutProgress,
           worldStateMinMillisBeforeStalling,
           worldStateTaskCacheSize,
+          snapSyncEnabled,
           blockPropagationRange,
           syncMode,
           downloaderChangeTargetThresholdByHeight,
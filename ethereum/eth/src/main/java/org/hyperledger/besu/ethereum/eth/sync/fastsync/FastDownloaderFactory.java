@@ -20,6 +20,7 @@ import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.eth.manager.EthContext;
 import org.hyperledger.besu.ethereum.eth.sync.SyncMode;
 import org.hyperledger.besu.ethereum.eth.sync.SynchronizerConfiguration;
+import org.hyperledger.besu.ethereum.eth.sync.snapsync.SnapWorldStateDownloader;
 import org.hyperledger.besu.ethereum.eth.sync.state.SyncState;
 import org.hyperledger.besu.ethereum.eth.sync.worldstate.NodeDataRequest;
 import org.hyperledger.besu.ethereum.eth.sync.worldstate.WorldStateDownloader;
@@ -89,16 +90,27 @@ public class FastDownloaderFactory {
             metricsSystem,
             syncConfig.getWorldStateTaskCacheSize());
     final WorldStateDownloader worldStateDownloader =
-        new WorldStateDownloader(
-            ethContext,
-            worldStateStorage,
-            taskCollection,
-            syncConfig.getWorldStateHashCountPerRequest(),
-            syncConfig.getWorldStateRequestParallelism(),
-            syncConfig.getWorldStateMaxRequestsWithoutProgress(),
-            syncConfig.getWorldStateMinMillisBeforeStalling(),
-            clock,
-            metricsSystem);
+        syncConfig.isSnapSyncEnabled()
+            ? new SnapWorldStateDownloader(
+                ethContext,
+                worldStateStorage,
+                taskCollection,
+                syncConfig.getWorldStateHashCountPerRequest(),
+                syncConfig.getWorldStateRequestParallelism(),
+                syncConfig.getWorldStateMaxRequestsWithoutProgress(),
+                syncConfig.getWorldStateMinMillisBeforeStalling(),
+                clock,
+                metricsSystem)
+            : new WorldStateDownloader(
+                ethContext,
+                worldStateStorage,
+                taskCollection,
+                syncConfig.getWorldStateHashCountPerRequest(),
+                syncConfig.getWorldStateRequestParallelism(),
+                syncConfig.getWorldStateMaxRequestsWithoutProgress(),
+                syncConfig.getWorldStateMinMillisBeforeStalling(),
+                clock,
+                metricsSystem);
     final FastSyncDownloader fastSyncDownloader =
         new FastSyncDownloader(
             new FastSyncActions(
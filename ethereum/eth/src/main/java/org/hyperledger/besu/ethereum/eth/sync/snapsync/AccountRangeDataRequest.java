@@ -0,0 +1,155 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.RangeTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Lists;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/** A range of accounts of the account trie. */
+public class AccountRangeDataRequest extends SnapDataRequest {
+  static final int STORAGE_ACCOUNTS_PER_REQUEST = 128;
+
+  private final Bytes32 startKeyHash;
+  private final Bytes32 endKeyHash;
+  private SortedMap<Bytes32, Bytes> accounts = new TreeMap<>();
+  private Optional<RangeTrie<Bytes>> rangeTrie = Optional.empty();
+  private Bytes32 lastKeyHash;
+
+  AccountRangeDataRequest(
+      final Hash rootHash, final Bytes32 startKeyHash, final Bytes32 endKeyHash) {
+    super(rootHash);
+    this.startKeyHash = startKeyHash;
+    this.endKeyHash = endKeyHash;
+  }
+
+  public Bytes32 getStartKeyHash() {
+    return startKeyHash;
+  }
+
+  public Bytes32 getEndKeyHash() {
+    return endKeyHash;
+  }
+
+  /**
+   * Verifies a response against the state root and keeps its accounts if it is valid.
+   *
+   * <p>The accounts are proven from the start of the range to the last account of the response. A
+   * response without accounts proves that there are no accounts after the start of the range, a
+   * response without proof that the accounts are all the accounts of the trie.
+   *
+   * @param response the response of a peer
+   * @return true if the response is valid
+   */
+  public boolean addResponse(final AccountRangeMessage response) {
+    final SortedMap<Bytes32, Bytes> responseAccounts = response.accounts();
+    final List<Bytes> proof = response.proof();
+    if (responseAccounts.isEmpty()
+        && proof.isEmpty()
+        && !getRootHash().equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+      // The peer doesn't have the state.
+      return false;
+    }
+    final Bytes32 responseLastKeyHash =
+        responseAccounts.isEmpty() || proof.isEmpty() ? MAX_KEY_HASH : responseAccounts.lastKey();
+    rangeTrie =
+        RangeTrie.rebuild(
+            getRootHash(),
+            startKeyHash,
+            responseLastKeyHash,
+            responseAccounts,
+            proof,
+            Function.identity(),
+            Function.identity());
+    if (rangeTrie.isPresent()) {
+      accounts = responseAccounts;
+      lastKeyHash = responseLastKeyHash;
+    }
+    return rangeTrie.isPresent();
+  }
+
+  @Override
+  public boolean isResponseReceived() {
+    return rangeTrie.isPresent();
+  }
+
+  @Override
+  public void persist(
+      final WorldStateStorage worldStateStorage, final WorldStateStorage.Updater updater) {
+    rangeTrie.ifPresent(
+        trie ->
+            trie.commit(
+                (location, hash, value) -> {
+                  // The root is stored once all the ranges are, by the healing download.
+                  if (!location.isEmpty()) {
+                    updater.putAccountStateTrieNode(location, hash, value);
+                  }
+                }));
+    if (worldStateStorage instanceof BonsaiWorldStateKeyValueStorage) {
+      final BonsaiWorldStateKeyValueStorage.Updater bonsaiUpdater =
+          (BonsaiWorldStateKeyValueStorage.Updater) updater;
+      accounts.forEach(
+          (accountHash, value) -> bonsaiUpdater.putAccountInfoState(Hash.wrap(accountHash), value));
+    }
+  }
+
+  @Override
+  public Stream<SnapDataRequest> getChildRequests() {
+    final Stream.Builder<SnapDataRequest> builder = Stream.builder();
+    if (lastKeyHash.compareTo(endKeyHash) < 0) {
+      builder.add(new AccountRangeDataRequest(getRootHash(), nextKeyHash(lastKeyHash), endKeyHash));
+    }
+    // Accounts after the end of the range are also downloaded with the next range.
+    final List<Bytes32> storageAccountHashes = new ArrayList<>();
+    final List<Hash> storageRoots = new ArrayList<>();
+    for (final Map.Entry<Bytes32, Bytes> account : accounts.entrySet()) {
+      final Hash storageRoot =
+          StateTrieAccountValue.readFrom(RLP.input(account.getValue())).getStorageRoot();
+      if (account.getKey().compareTo(endKeyHash) <= 0
+          && !storageRoot.equals(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH)) {
+        storageAccountHashes.add(account.getKey());
+        storageRoots.add(storageRoot);
+      }
+    }
+    final List<List<Bytes32>> accountHashBatches =
+        Lists.partition(storageAccountHashes, STORAGE_ACCOUNTS_PER_REQUEST);
+    final List<List<Hash>> storageRootBatches =
+        Lists.partition(storageRoots, STORAGE_ACCOUNTS_PER_REQUEST);
+    for (int i = 0; i < accountHashBatches.size(); i++) {
+      builder.add(
+          new StorageRangeDataRequest(
+              getRootHash(), accountHashBatches.get(i), storageRootBatches.get(i), Bytes32.ZERO));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage.Updater;
+import org.hyperledger.besu.services.tasks.Task;
+
+public class PersistRangeStep {
+  private final WorldStateStorage worldStateStorage;
+
+  public PersistRangeStep(final WorldStateStorage worldStateStorage) {
+    this.worldStateStorage = worldStateStorage;
+  }
+
+  public Task<SnapDataRequest> persist(final Task<SnapDataRequest> task) {
+    final SnapDataRequest request = task.getData();
+    if (request.isResponseReceived()) {
+      // Downloaded ranges are only written here, they do not need the isolation of a transaction.
+      final Updater updater = worldStateStorage.batchUpdater();
+      request.persist(worldStateStorage, updater);
+      updater.commit();
+    }
+    return task;
+  }
+}
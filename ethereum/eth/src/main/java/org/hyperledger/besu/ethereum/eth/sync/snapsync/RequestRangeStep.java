@@ -0,0 +1,129 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.eth.manager.EthContext;
+import org.hyperledger.besu.ethereum.eth.manager.exceptions.EthTaskException;
+import org.hyperledger.besu.ethereum.eth.manager.task.AbstractPeerTask.PeerTaskResult;
+import org.hyperledger.besu.ethereum.eth.manager.task.EthTask;
+import org.hyperledger.besu.ethereum.eth.manager.task.GetAccountRangeFromPeerTask;
+import org.hyperledger.besu.ethereum.eth.manager.task.GetStorageRangesFromPeerTask;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.StorageRangesMessage;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.services.tasks.Task;
+import org.hyperledger.besu.util.ExceptionUtils;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class RequestRangeStep {
+  private static final Logger LOG = LogManager.getLogger();
+  private final BiFunction<
+          AccountRangeDataRequest, Long, EthTask<PeerTaskResult<AccountRangeMessage>>>
+      getAccountRangeTaskFactory;
+  private final BiFunction<
+          StorageRangeDataRequest, Long, EthTask<PeerTaskResult<StorageRangesMessage>>>
+      getStorageRangesTaskFactory;
+
+  public RequestRangeStep(final EthContext ethContext, final MetricsSystem metricsSystem) {
+    this(
+        (request, pivotBlockNumber) ->
+            GetAccountRangeFromPeerTask.forRange(
+                ethContext,
+                request.getRootHash(),
+                request.getStartKeyHash(),
+                request.getEndKeyHash(),
+                pivotBlockNumber,
+                metricsSystem),
+        (request, pivotBlockNumber) ->
+            GetStorageRangesFromPeerTask.forStorageRanges(
+                ethContext,
+                request.getRootHash(),
+                request.getAccountHashes(),
+                request.getStartKeyHash(),
+                SnapDataRequest.MAX_KEY_HASH,
+                pivotBlockNumber,
+                metricsSystem));
+  }
+
+  RequestRangeStep(
+      final BiFunction<
+              AccountRangeDataRequest, Long, EthTask<PeerTaskResult<AccountRangeMessage>>>
+          getAccountRangeTaskFactory,
+      final BiFunction<
+              StorageRangeDataRequest, Long, EthTask<PeerTaskResult<StorageRangesMessage>>>
+          getStorageRangesTaskFactory) {
+    this.getAccountRangeTaskFactory = getAccountRangeTaskFactory;
+    this.getStorageRangesTaskFactory = getStorageRangesTaskFactory;
+  }
+
+  public CompletableFuture<Task<SnapDataRequest>> requestData(
+      final Task<SnapDataRequest> requestTask,
+      final BlockHeader blockHeader,
+      final SnapWorldDownloadState downloadState) {
+    final SnapDataRequest request = requestTask.getData();
+    if (request instanceof AccountRangeDataRequest) {
+      final AccountRangeDataRequest accountRangeRequest = (AccountRangeDataRequest) request;
+      return sendRequest(
+              getAccountRangeTaskFactory.apply(accountRangeRequest, blockHeader.getNumber()),
+              accountRangeRequest::addResponse,
+              downloadState)
+          .thenApply(madeProgress -> requestTask);
+    }
+    final StorageRangeDataRequest storageRangeRequest = (StorageRangeDataRequest) request;
+    return sendRequest(
+            getStorageRangesTaskFactory.apply(storageRangeRequest, blockHeader.getNumber()),
+            storageRangeRequest::addResponse,
+            downloadState)
+        .thenApply(madeProgress -> requestTask);
+  }
+
+  private <T> CompletableFuture<Boolean> sendRequest(
+      final EthTask<PeerTaskResult<T>> task,
+      final Predicate<T> responseHandler,
+      final SnapWorldDownloadState downloadState) {
+    downloadState.addOutstandingTask(task);
+    return task.run()
+        .handle(
+            (result, error) -> {
+              downloadState.removeOutstandingTask(task);
+              if (error != null) {
+                final Throwable rootCause = ExceptionUtils.rootCause(error);
+                if (!(rootCause instanceof TimeoutException
+                    || rootCause instanceof InterruptedException
+                    || rootCause instanceof CancellationException
+                    || rootCause instanceof EthTaskException)) {
+                  LOG.debug("Range request failed", error);
+                }
+                downloadState.requestComplete(false);
+                return false;
+              }
+              final boolean madeProgress = responseHandler.test(result.getResult());
+              if (!madeProgress) {
+                LOG.debug("Invalid range response from peer {}", result.getPeer());
+              }
+              downloadState.requestComplete(madeProgress);
+              return madeProgress;
+            });
+  }
+}
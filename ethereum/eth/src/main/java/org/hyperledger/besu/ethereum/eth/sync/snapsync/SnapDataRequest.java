@@ -0,0 +1,67 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+
+import java.util.stream.Stream;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+
+/** A range of the world state to download from peers, verified against a state root. */
+public abstract class SnapDataRequest {
+  static final Bytes32 MAX_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final Hash rootHash;
+
+  protected SnapDataRequest(final Hash rootHash) {
+    this.rootHash = rootHash;
+  }
+
+  public Hash getRootHash() {
+    return rootHash;
+  }
+
+  /**
+   * Whether a response proven against the state root was received for this request.
+   *
+   * @return true if the data of the response can be persisted
+   */
+  public abstract boolean isResponseReceived();
+
+  /**
+   * Stores the trie nodes rebuilt from the response.
+   *
+   * @param worldStateStorage the storage of the world state
+   * @param updater the updater storing the nodes
+   */
+  public abstract void persist(
+      WorldStateStorage worldStateStorage, WorldStateStorage.Updater updater);
+
+  /**
+   * Returns the requests for the data that remains to be downloaded after the response, such as
+   * the rest of the range or the storage of the accounts of the range.
+   *
+   * @return the requests to enqueue
+   */
+  public abstract Stream<SnapDataRequest> getChildRequests();
+
+  static Bytes32 nextKeyHash(final Bytes32 keyHash) {
+    return UInt256.fromBytes(keyHash).add(1).toBytes();
+  }
+}
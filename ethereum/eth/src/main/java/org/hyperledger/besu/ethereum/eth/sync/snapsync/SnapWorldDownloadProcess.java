@@ -0,0 +1,168 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hyperledger.besu.services.pipeline.PipelineBuilder.createPipelineFrom;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.plugin.services.metrics.Counter;
+import org.hyperledger.besu.plugin.services.metrics.LabelledMetric;
+import org.hyperledger.besu.services.pipeline.Pipeline;
+import org.hyperledger.besu.services.tasks.Task;
+import org.hyperledger.besu.util.ExceptionUtils;
+
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Establishes the pipeline downloading the world state by ranges:
+ *
+ * <pre>
+ *   Load from Pending Queue -> Request From Peers -> Verify and Persist -> Enqueue Remaining Ranges
+ * </pre>
+ *
+ * <p>Ranges are requested in parallel. A range whose response cannot be proven against the state
+ * root is enqueued again, to be requested from another peer.
+ */
+public class SnapWorldDownloadProcess {
+  private static final Logger LOG = LogManager.getLogger();
+  private final Pipeline<Task<SnapDataRequest>> downloadPipeline;
+
+  private SnapWorldDownloadProcess(final Pipeline<Task<SnapDataRequest>> downloadPipeline) {
+    this.downloadPipeline = downloadPipeline;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  public CompletableFuture<Void> start(final EthScheduler ethScheduler) {
+    final CompletableFuture<Void> downloadFuture = ethScheduler.startPipeline(downloadPipeline);
+    downloadFuture.exceptionally(
+        error -> {
+          if (!(ExceptionUtils.rootCause(error) instanceof CancellationException)) {
+            LOG.error("Pipeline failed", error);
+          }
+          return null;
+        });
+    return downloadFuture;
+  }
+
+  public void abort() {
+    downloadPipeline.abort();
+  }
+
+  public static class Builder {
+
+    private int maxOutstandingRequests;
+    private SnapWorldDownloadState downloadState;
+    private MetricsSystem metricsSystem;
+    private RequestRangeStep requestRangeStep;
+    private BlockHeader pivotBlockHeader;
+    private PersistRangeStep persistRangeStep;
+
+    public Builder maxOutstandingRequests(final int maxOutstandingRequests) {
+      this.maxOutstandingRequests = maxOutstandingRequests;
+      return this;
+    }
+
+    public Builder requestRangeStep(final RequestRangeStep requestRangeStep) {
+      this.requestRangeStep = requestRangeStep;
+      return this;
+    }
+
+    public Builder persistRangeStep(final PersistRangeStep persistRangeStep) {
+      this.persistRangeStep = persistRangeStep;
+      return this;
+    }
+
+    Builder downloadState(final SnapWorldDownloadState downloadState) {
+      this.downloadState = downloadState;
+      return this;
+    }
+
+    public Builder pivotBlockHeader(final BlockHeader pivotBlockHeader) {
+      this.pivotBlockHeader = pivotBlockHeader;
+      return this;
+    }
+
+    public Builder metricsSystem(final MetricsSystem metricsSystem) {
+      this.metricsSystem = metricsSystem;
+      return this;
+    }
+
+    public SnapWorldDownloadProcess build() {
+      checkNotNull(requestRangeStep);
+      checkNotNull(persistRangeStep);
+      checkNotNull(downloadState);
+      checkNotNull(pivotBlockHeader);
+      checkNotNull(metricsSystem);
+
+      // Room for the requests we expect to do in parallel plus some buffer but not unlimited.
+      final int bufferCapacity = maxOutstandingRequests * 2;
+      final LabelledMetric<Counter> outputCounter =
+          metricsSystem.createLabelledCounter(
+              BesuMetricCategory.SYNCHRONIZER,
+              "snap_world_state_pipeline_processed_total",
+              "Number of entries processed by each world state range download pipeline stage",
+              "step",
+              "action");
+
+      final Pipeline<Task<SnapDataRequest>> downloadPipeline =
+          createPipelineFrom(
+                  "rangeDequeued",
+                  new TaskQueueIterator(downloadState),
+                  bufferCapacity,
+                  outputCounter,
+                  true,
+                  "snap_world_state_download")
+              .thenProcessAsync(
+                  "rangeDownloadData",
+                  task -> requestRangeStep.requestData(task, pivotBlockHeader, downloadState),
+                  maxOutstandingRequests)
+              .thenProcess("rangePersistData", persistRangeStep::persist)
+              .andFinishWith("rangeDataDownloaded", downloadState::completeTask);
+
+      return new SnapWorldDownloadProcess(downloadPipeline);
+    }
+  }
+
+  private static class TaskQueueIterator implements Iterator<Task<SnapDataRequest>> {
+
+    private final SnapWorldDownloadState downloadState;
+
+    TaskQueueIterator(final SnapWorldDownloadState downloadState) {
+      this.downloadState = downloadState;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return downloadState.isDownloading();
+    }
+
+    @Override
+    public Task<SnapDataRequest> next() {
+      return downloadState.dequeueRequestBlocking();
+    }
+  }
+}
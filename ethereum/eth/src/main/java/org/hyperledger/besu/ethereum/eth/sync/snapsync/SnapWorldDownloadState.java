@@ -0,0 +1,209 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.ethereum.eth.manager.task.EthTask;
+import org.hyperledger.besu.ethereum.eth.sync.worldstate.StalledDownloadException;
+import org.hyperledger.besu.services.tasks.InMemoryTaskQueue;
+import org.hyperledger.besu.services.tasks.Task;
+import org.hyperledger.besu.util.ExceptionUtils;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The requests of a range download. Ranges are not persisted: an interrupted download starts over,
+ * keeping the nodes it already stored.
+ */
+class SnapWorldDownloadState {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final InMemoryTaskQueue<SnapDataRequest> pendingRequests = new InMemoryTaskQueue<>();
+  private final int maxRequestsWithoutProgress;
+  private final long minMillisBeforeStalling;
+  private final Clock clock;
+  private final Set<EthTask<?>> outstandingRequests =
+      Collections.newSetFromMap(new ConcurrentHashMap<>());
+  private final CompletableFuture<Void> internalFuture = new CompletableFuture<>();
+  private final CompletableFuture<Void> downloadFuture = new CompletableFuture<>();
+  // Volatile so monitoring can access it without having to synchronize.
+  private volatile int requestsSinceLastProgress = 0;
+  private volatile long timestampOfLastProgress;
+  private volatile long completedRequests = 0;
+  private SnapWorldDownloadProcess downloadProcess;
+
+  SnapWorldDownloadState(
+      final int maxRequestsWithoutProgress, final long minMillisBeforeStalling, final Clock clock) {
+    this.maxRequestsWithoutProgress = maxRequestsWithoutProgress;
+    this.minMillisBeforeStalling = minMillisBeforeStalling;
+    this.clock = clock;
+    this.timestampOfLastProgress = clock.millis();
+    this.internalFuture.whenComplete(this::cleanup);
+    this.downloadFuture.exceptionally(
+        error -> {
+          // Propagate cancellation back to our internal future.
+          if (error instanceof CancellationException) {
+            this.internalFuture.cancel(true);
+          }
+          return null;
+        });
+  }
+
+  private synchronized void cleanup(final Void result, final Throwable error) {
+    if (internalFuture.isCancelled()) {
+      LOG.info("World state range download cancelled");
+    } else if (error != null
+        && !(ExceptionUtils.rootCause(error) instanceof StalledDownloadException)) {
+      LOG.info("World state range download failed. ", error);
+    }
+    for (final EthTask<?> outstandingRequest : outstandingRequests) {
+      outstandingRequest.cancel();
+    }
+    pendingRequests.clear();
+    // There are no more inputs to process so wake up any threads waiting to dequeue.
+    notifyAll();
+
+    if (error != null) {
+      if (downloadProcess != null) {
+        downloadProcess.abort();
+      }
+      downloadFuture.completeExceptionally(error);
+    } else {
+      downloadFuture.complete(result);
+    }
+  }
+
+  void addOutstandingTask(final EthTask<?> task) {
+    outstandingRequests.add(task);
+  }
+
+  void removeOutstandingTask(final EthTask<?> task) {
+    outstandingRequests.remove(task);
+  }
+
+  int getOutstandingTaskCount() {
+    return outstandingRequests.size();
+  }
+
+  long getCompletedRequests() {
+    return completedRequests;
+  }
+
+  synchronized long getPendingRequests() {
+    return isDownloading() ? pendingRequests.size() : 0;
+  }
+
+  CompletableFuture<Void> getDownloadFuture() {
+    return downloadFuture;
+  }
+
+  synchronized void enqueueRequests(final Stream<SnapDataRequest> requests) {
+    if (!internalFuture.isDone()) {
+      requests.forEach(pendingRequests::add);
+      notifyAll();
+    }
+  }
+
+  synchronized Task<SnapDataRequest> dequeueRequestBlocking() {
+    while (!internalFuture.isDone()) {
+      final Task<SnapDataRequest> task = pendingRequests.remove();
+      if (task != null) {
+        return task;
+      }
+      try {
+        wait();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+    return null;
+  }
+
+  synchronized void requestComplete(final boolean madeProgress) {
+    if (madeProgress) {
+      requestsSinceLastProgress = 0;
+      timestampOfLastProgress = clock.millis();
+    } else {
+      requestsSinceLastProgress++;
+      if (requestsSinceLastProgress >= maxRequestsWithoutProgress
+          && timestampOfLastProgress + minMillisBeforeStalling < clock.millis()) {
+        internalFuture.completeExceptionally(
+            new StalledDownloadException(
+                "Download stalled due to too many failures to retrieve ranges (>"
+                    + maxRequestsWithoutProgress
+                    + " requests without making progress)"));
+      }
+    }
+  }
+
+  /**
+   * Enqueues the remaining requests of a request whose response was persisted, or enqueues the
+   * request again if no valid response was received, and completes the download once all the
+   * requests are.
+   *
+   * @param task the task of the request
+   */
+  synchronized void completeTask(final Task<SnapDataRequest> task) {
+    if (internalFuture.isDone()) {
+      return;
+    }
+    final SnapDataRequest request = task.getData();
+    if (request.isResponseReceived()) {
+      enqueueRequests(request.getChildRequests());
+      task.markCompleted();
+      completedRequests++;
+    } else {
+      task.markFailed();
+      notifyAll();
+    }
+    if (pendingRequests.allTasksCompleted()) {
+      LOG.info("Finished downloading world state ranges from peers");
+      internalFuture.complete(null);
+    }
+  }
+
+  synchronized boolean isDownloading() {
+    return !internalFuture.isDone();
+  }
+
+  CompletableFuture<Void> startDownload(
+      final SnapWorldDownloadProcess downloadProcess, final EthScheduler ethScheduler) {
+    synchronized (this) {
+      this.downloadProcess = downloadProcess;
+    }
+    downloadProcess
+        .start(ethScheduler)
+        .whenComplete(
+            (result, error) -> {
+              if (error != null
+                  && !(ExceptionUtils.rootCause(error) instanceof CancellationException)) {
+                // The pipeline is only ever cancelled by us or by the shutdown of the scheduler,
+                // neither of which is a failure of the download.
+                internalFuture.completeExceptionally(error);
+              }
+            });
+    return downloadFuture;
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.manager.EthContext;
+import org.hyperledger.besu.ethereum.eth.sync.worldstate.LoadLocalDataStep;
+import org.hyperledger.besu.ethereum.eth.sync.worldstate.NodeDataRequest;
+import org.hyperledger.besu.ethereum.eth.sync.worldstate.WorldStateDownloader;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.metrics.BesuMetricCategory;
+import org.hyperledger.besu.plugin.services.MetricsSystem;
+import org.hyperledger.besu.services.tasks.CachingTaskCollection;
+
+import java.time.Clock;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Downloads the world state by ranges of accounts and storage slots, then heals it.
+ *
+ * <p>The ranges are requested with the snap protocol and stored as the trie nodes rebuilt from
+ * them, which takes far fewer requests than downloading the nodes one by one. The root of the
+ * account trie is left out, so that the node by node download that follows walks the whole trie:
+ * it only requests the nodes that are not stored yet, such as the contract code and the nodes of
+ * ranges that could not be proven against the pivot block state root.
+ */
+public class SnapWorldStateDownloader extends WorldStateDownloader {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int INITIAL_RANGES = 16;
+
+  private final EthContext ethContext;
+  private final WorldStateStorage worldStateStorage;
+  private final CachingTaskCollection<NodeDataRequest> taskCollection;
+  private final int maxOutstandingRequests;
+  private final int maxRequestsWithoutProgress;
+  private final long minMillisBeforeStalling;
+  private final Clock clock;
+  private final MetricsSystem metricsSystem;
+
+  private final AtomicReference<SnapWorldDownloadState> snapDownloadState =
+      new AtomicReference<>();
+
+  public SnapWorldStateDownloader(
+      final EthContext ethContext,
+      final WorldStateStorage worldStateStorage,
+      final CachingTaskCollection<NodeDataRequest> taskCollection,
+      final int hashCountPerRequest,
+      final int maxOutstandingRequests,
+      final int maxRequestsWithoutProgress,
+      final long minMillisBeforeStalling,
+      final Clock clock,
+      final MetricsSystem metricsSystem) {
+    super(
+        ethContext,
+        worldStateStorage,
+        taskCollection,
+        hashCountPerRequest,
+        maxOutstandingRequests,
+        maxRequestsWithoutProgress,
+        minMillisBeforeStalling,
+        clock,
+        metricsSystem);
+    this.ethContext = ethContext;
+    this.worldStateStorage = worldStateStorage;
+    this.taskCollection = taskCollection;
+    this.maxOutstandingRequests = maxOutstandingRequests;
+    this.maxRequestsWithoutProgress = maxRequestsWithoutProgress;
+    this.minMillisBeforeStalling = minMillisBeforeStalling;
+    this.clock = clock;
+    this.metricsSystem = metricsSystem;
+
+    metricsSystem.createIntegerGauge(
+        BesuMetricCategory.SYNCHRONIZER,
+        "snap_world_state_inflight_requests_current",
+        "Number of in progress requests for world state ranges",
+        () -> {
+          final SnapWorldDownloadState state = snapDownloadState.get();
+          return state != null ? state.getOutstandingTaskCount() : 0;
+        });
+    metricsSystem.createLongGauge(
+        BesuMetricCategory.SYNCHRONIZER,
+        "snap_world_state_completed_ranges_current",
+        "Number of world state ranges downloaded and persisted",
+        () -> {
+          final SnapWorldDownloadState state = snapDownloadState.get();
+          return state != null ? state.getCompletedRequests() : 0;
+        });
+  }
+
+  @Override
+  public CompletableFuture<Void> run(final BlockHeader header) {
+    synchronized (this) {
+      final SnapWorldDownloadState oldDownloadState = snapDownloadState.get();
+      if (oldDownloadState != null && oldDownloadState.isDownloading()) {
+        final CompletableFuture<Void> failed = new CompletableFuture<>();
+        failed.completeExceptionally(
+            new IllegalStateException(
+                "Cannot run an already running " + this.getClass().getSimpleName()));
+        return failed;
+      }
+
+      final Hash stateRoot = header.getStateRoot();
+      if (!taskCollection.isEmpty()
+          || worldStateStorage.isWorldStateAvailable(stateRoot, header.getHash())) {
+        // Either the ranges were already downloaded and the healing was interrupted, or there is
+        // nothing to download at all.
+        return super.run(header);
+      }
+      LOG.info(
+          "Begin downloading world state ranges from peers for block {} ({}). State root {}",
+          header.getNumber(),
+          header.getHash(),
+          stateRoot);
+
+      final SnapWorldDownloadState newDownloadState =
+          new SnapWorldDownloadState(maxRequestsWithoutProgress, minMillisBeforeStalling, clock);
+      snapDownloadState.set(newDownloadState);
+      newDownloadState.enqueueRequests(
+          IntStream.range(0, INITIAL_RANGES)
+              .mapToObj(i -> new AccountRangeDataRequest(stateRoot, rangeStart(i), rangeEnd(i))));
+
+      final SnapWorldDownloadProcess downloadProcess =
+          SnapWorldDownloadProcess.builder()
+              .maxOutstandingRequests(maxOutstandingRequests)
+              .requestRangeStep(new RequestRangeStep(ethContext, metricsSystem))
+              .persistRangeStep(new PersistRangeStep(worldStateStorage))
+              .downloadState(newDownloadState)
+              .pivotBlockHeader(header)
+              .metricsSystem(metricsSystem)
+              .build();
+
+      final CompletableFuture<Void> result = new CompletableFuture<>();
+      newDownloadState
+          .startDownload(downloadProcess, ethContext.getScheduler())
+          .whenComplete(
+              (rangesResult, rangesError) -> {
+                if (rangesError != null) {
+                  result.completeExceptionally(rangesError);
+                  return;
+                }
+                LOG.info("Begin healing world state for block {}", header.getNumber());
+                super.run(header)
+                    .whenComplete(
+                        (healResult, healError) -> {
+                          if (healError != null) {
+                            result.completeExceptionally(healError);
+                          } else {
+                            result.complete(healResult);
+                          }
+                        });
+              });
+      result.exceptionally(
+          error -> {
+            // Propagate cancellation to whichever phase is running.
+            if (error instanceof CancellationException) {
+              cancel();
+            }
+            return null;
+          });
+      return result;
+    }
+  }
+
+  @Override
+  protected LoadLocalDataStep createLoadLocalDataStep(
+      final WorldStateStorage worldStateStorage, final MetricsSystem metricsSystem) {
+    // The nodes of the ranges may be stored by location, where a lookup by hash misses them.
+    return new LoadLocalDataStep(worldStateStorage, metricsSystem, true);
+  }
+
+  @Override
+  public void cancel() {
+    synchronized (this) {
+      final SnapWorldDownloadState downloadState = snapDownloadState.get();
+      if (downloadState != null) {
+        downloadState.getDownloadFuture().cancel(true);
+      }
+    }
+    super.cancel();
+  }
+
+  private static Bytes32 rangeStart(final int range) {
+    return Bytes32.rightPad(Bytes.of(range << 4));
+  }
+
+  private static Bytes32 rangeEnd(final int range) {
+    return Bytes32.wrap(
+        Bytes.concatenate(Bytes.of((range << 4) | 0x0f), SnapDataRequest.MAX_KEY_HASH.slice(1)));
+  }
+}
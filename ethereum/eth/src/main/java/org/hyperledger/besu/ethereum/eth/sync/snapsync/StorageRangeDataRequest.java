@@ -0,0 +1,164 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.messages.StorageRangesMessage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.RangeTrie;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The storage of consecutive accounts. The slots of the first account are requested from a start
+ * key, to continue a partial response.
+ */
+public class StorageRangeDataRequest extends SnapDataRequest {
+
+  private final List<Bytes32> accountHashes;
+  private final List<Hash> storageRoots;
+  private final Bytes32 startKeyHash;
+  private final List<SortedMap<Bytes32, Bytes>> slots = new ArrayList<>();
+  private final List<RangeTrie<Bytes>> rangeTries = new ArrayList<>();
+  private Bytes32 lastKeyHash;
+
+  StorageRangeDataRequest(
+      final Hash rootHash,
+      final List<Bytes32> accountHashes,
+      final List<Hash> storageRoots,
+      final Bytes32 startKeyHash) {
+    super(rootHash);
+    this.accountHashes = accountHashes;
+    this.storageRoots = storageRoots;
+    this.startKeyHash = startKeyHash;
+  }
+
+  public List<Bytes32> getAccountHashes() {
+    return accountHashes;
+  }
+
+  public Bytes32 getStartKeyHash() {
+    return startKeyHash;
+  }
+
+  /**
+   * Verifies a response against the storage roots of the accounts and keeps its slots if it is
+   * valid.
+   *
+   * <p>The slots of all the accounts but the last one are complete, and are proven without proof.
+   * The slots of the last account are proven up to its last slot by the proof of the response, if
+   * any.
+   *
+   * @param response the response of a peer
+   * @return true if the response is valid
+   */
+  public boolean addResponse(final StorageRangesMessage response) {
+    final List<SortedMap<Bytes32, Bytes>> responseSlots = response.slots();
+    final List<Bytes> proof = response.proof();
+    if (responseSlots.isEmpty()) {
+      // The peer doesn't have the state.
+      return false;
+    }
+    final List<RangeTrie<Bytes>> responseTries = new ArrayList<>();
+    Bytes32 responseLastKeyHash = MAX_KEY_HASH;
+    for (int i = 0; i < responseSlots.size(); i++) {
+      final SortedMap<Bytes32, Bytes> accountSlots = responseSlots.get(i);
+      final List<Bytes> accountProof =
+          i == responseSlots.size() - 1 ? proof : Collections.emptyList();
+      responseLastKeyHash =
+          accountSlots.isEmpty() || accountProof.isEmpty() ? MAX_KEY_HASH : accountSlots.lastKey();
+      final Optional<RangeTrie<Bytes>> rangeTrie =
+          RangeTrie.rebuild(
+              storageRoots.get(i),
+              i == 0 ? startKeyHash : Bytes32.ZERO,
+              responseLastKeyHash,
+              accountSlots,
+              accountProof,
+              Function.identity(),
+              Function.identity());
+      if (rangeTrie.isEmpty()) {
+        return false;
+      }
+      responseTries.add(rangeTrie.get());
+    }
+    slots.addAll(responseSlots);
+    rangeTries.addAll(responseTries);
+    lastKeyHash = responseLastKeyHash;
+    return true;
+  }
+
+  @Override
+  public boolean isResponseReceived() {
+    return !rangeTries.isEmpty();
+  }
+
+  @Override
+  public void persist(
+      final WorldStateStorage worldStateStorage, final WorldStateStorage.Updater updater) {
+    for (int i = 0; i < rangeTries.size(); i++) {
+      final Hash accountHash = Hash.wrap(accountHashes.get(i));
+      rangeTries
+          .get(i)
+          .commit(
+              (location, hash, value) ->
+                  updater.putAccountStorageTrieNode(accountHash, location, hash, value));
+      if (worldStateStorage instanceof BonsaiWorldStateKeyValueStorage) {
+        final BonsaiWorldStateKeyValueStorage.Updater bonsaiUpdater =
+            (BonsaiWorldStateKeyValueStorage.Updater) updater;
+        slots
+            .get(i)
+            .forEach(
+                (slotHash, value) ->
+                    bonsaiUpdater.putStorageValueBySlotHash(
+                        accountHash, Hash.wrap(slotHash), Bytes32.leftPad(RLP.decodeValue(value))));
+      }
+    }
+  }
+
+  @Override
+  public Stream<SnapDataRequest> getChildRequests() {
+    final Stream.Builder<SnapDataRequest> builder = Stream.builder();
+    final int lastIndex = rangeTries.size() - 1;
+    if (lastKeyHash.compareTo(MAX_KEY_HASH) < 0) {
+      // The storage of the last account is partial, continue it alone.
+      builder.add(
+          new StorageRangeDataRequest(
+              getRootHash(),
+              List.of(accountHashes.get(lastIndex)),
+              List.of(storageRoots.get(lastIndex)),
+              nextKeyHash(lastKeyHash)));
+    }
+    if (rangeTries.size() < accountHashes.size()) {
+      builder.add(
+          new StorageRangeDataRequest(
+              getRootHash(),
+              accountHashes.subList(rangeTries.size(), accountHashes.size()),
+              storageRoots.subList(rangeTries.size(), storageRoots.size()),
+              Bytes32.ZERO));
+    }
+    return builder.build();
+  }
+}
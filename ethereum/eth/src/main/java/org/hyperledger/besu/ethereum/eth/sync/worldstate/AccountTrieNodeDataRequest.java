@@ -46,6 +46,15 @@ class AccountTrieNodeDataRequest extends TrieNodeDataRequest {
     return worldStateStorage.getAccountTrieNodeData(getLocation().orElse(Bytes.EMPTY), getHash());
   }
 
+  @Override
+  public Optional<Bytes> getVerifiedExistingData(final WorldStateStorage worldStateStorage) {
+    // The root is always downloaded, it is stored last to mark the world state as available.
+    return getLocation()
+        .filter(location -> !location.isEmpty())
+        .flatMap(location -> worldStateStorage.getAccountStateTrieNode(location, getHash()))
+        .filter(this::matchesHash);
+  }
+
   @Override
   protected NodeDataRequest createChildNodeDataRequest(
       final Hash childHash, final Optional<Bytes> location) {
@@ -49,6 +49,11 @@ class CodeNodeDataRequest extends NodeDataRequest {
     return worldStateStorage.getCode(getHash(), accountHash.orElse(Hash.EMPTY));
   }
 
+  @Override
+  public Optional<Bytes> getVerifiedExistingData(final WorldStateStorage worldStateStorage) {
+    return getExistingData(worldStateStorage).filter(this::matchesHash);
+  }
+
   public Optional<Hash> getAccountHash() {
     return accountHash;
   }
@@ -21,19 +21,41 @@ import org.hyperledger.besu.plugin.services.metrics.Counter;
 import org.hyperledger.besu.services.pipeline.Pipe;
 import org.hyperledger.besu.services.tasks.Task;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
 
 public class LoadLocalDataStep {
 
   private final WorldStateStorage worldStateStorage;
+  private final boolean verifyExistingData;
   private final Counter existingNodeCounter;
 
   public LoadLocalDataStep(
       final WorldStateStorage worldStateStorage, final MetricsSystem metricsSystem) {
+    this(worldStateStorage, metricsSystem, false);
+  }
+
+  /**
+   * Creates the step.
+   *
+   * @param worldStateStorage the storage of the world state
+   * @param metricsSystem the metrics system
+   * @param verifyExistingData whether the data stored by location or account is looked up and
+   *     checked against the hash of the requests, such as the trie nodes rebuilt from the ranges
+   *     of a snap sync
+   */
+  public LoadLocalDataStep(
+      final WorldStateStorage worldStateStorage,
+      final MetricsSystem metricsSystem,
+      final boolean verifyExistingData) {
     this.worldStateStorage = worldStateStorage;
+    this.verifyExistingData = verifyExistingData;
     existingNodeCounter =
         metricsSystem.createCounter(
             BesuMetricCategory.SYNCHRONIZER,
@@ -41,17 +63,54 @@ public class LoadLocalDataStep {
             "Total number of node data requests completed using existing data");
   }
 
+  /**
+   * Looks up the data of a batch of requests already present in the world state storage.
+   *
+   * @param tasks the tasks of the requests to look up
+   * @param completedTasks the pipe receiving the tasks whose data is already present
+   * @return the tasks whose data has to be downloaded
+   */
   public Stream<Task<NodeDataRequest>> loadLocalData(
-      final Task<NodeDataRequest> task, final Pipe<Task<NodeDataRequest>> completedTasks) {
-    final NodeDataRequest request = task.getData();
-    final Optional<Bytes> existingData = request.getExistingData(worldStateStorage);
-    if (existingData.isPresent()) {
-      existingNodeCounter.inc();
-      request.setData(existingData.get());
-      request.setRequiresPersisting(false);
-      completedTasks.put(task);
-      return Stream.empty();
+      final List<Task<NodeDataRequest>> tasks, final Pipe<Task<NodeDataRequest>> completedTasks) {
+    final List<Optional<Bytes>> existingData = getExistingData(tasks);
+    final List<Task<NodeDataRequest>> missingTasks = new ArrayList<>();
+    for (int i = 0; i < tasks.size(); i++) {
+      if (!completeIfPresent(tasks.get(i), existingData.get(i), completedTasks)) {
+        missingTasks.add(tasks.get(i));
+      }
     }
-    return Stream.of(task);
+    return missingTasks.stream();
+  }
+
+  private List<Optional<Bytes>> getExistingData(final List<Task<NodeDataRequest>> tasks) {
+    if (worldStateStorage.isNodeDataKeyedByHash()) {
+      // A single batch read finds all the nodes and code.
+      final List<Bytes32> hashes =
+          tasks.stream().map(task -> task.getData().getHash()).collect(Collectors.toList());
+      return worldStateStorage.getAllNodeData(hashes);
+    }
+    // The data is stored by location or account, which only the requests know how to look up.
+    return tasks.stream()
+        .map(
+            task ->
+                verifyExistingData
+                    ? task.getData().getVerifiedExistingData(worldStateStorage)
+                    : task.getData().getExistingData(worldStateStorage))
+        .collect(Collectors.toList());
+  }
+
+  private boolean completeIfPresent(
+      final Task<NodeDataRequest> task,
+      final Optional<Bytes> existingData,
+      final Pipe<Task<NodeDataRequest>> completedTasks) {
+    if (existingData.isEmpty()) {
+      return false;
+    }
+    final NodeDataRequest request = task.getData();
+    existingNodeCounter.inc();
+    request.setData(existingData.get());
+    request.setRequiresPersisting(false);
+    completedTasks.put(task);
+    return true;
   }
 }
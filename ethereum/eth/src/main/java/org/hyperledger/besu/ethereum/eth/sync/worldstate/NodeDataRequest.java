@@ -145,4 +145,19 @@ public abstract class NodeDataRequest {
   public abstract Stream<NodeDataRequest> getChildRequests(WorldStateStorage worldStateStorage);
 
   public abstract Optional<Bytes> getExistingData(final WorldStateStorage worldStateStorage);
+
+  /**
+   * Looks up the data of this request where it is stored by location or account, as the trie
+   * nodes rebuilt from the ranges of a snap sync are. The storage may hold the data of another
+   * state there, so it is only returned if it matches the hash of the request.
+   *
+   * @param worldStateStorage the storage of the world state
+   * @return the data of the request, if stored
+   */
+  public abstract Optional<Bytes> getVerifiedExistingData(
+      final WorldStateStorage worldStateStorage);
+
+  protected boolean matchesHash(final Bytes data) {
+    return Hash.hash(data).equals(getHash());
+  }
 }
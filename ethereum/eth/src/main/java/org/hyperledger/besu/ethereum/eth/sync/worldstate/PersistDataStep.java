@@ -32,7 +32,8 @@ public class PersistDataStep {
       final List<Task<NodeDataRequest>> tasks,
       final BlockHeader blockHeader,
       final WorldDownloadState downloadState) {
-    final Updater updater = worldStateStorage.updater();
+    // Downloaded nodes are only written here, they do not need the isolation of a transaction.
+    final Updater updater = worldStateStorage.batchUpdater();
     tasks.stream()
         .map(Task::getData)
         .filter(request -> request.getData() != null)
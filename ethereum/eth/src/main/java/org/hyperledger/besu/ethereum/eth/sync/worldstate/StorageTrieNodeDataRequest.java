@@ -50,6 +50,11 @@ class StorageTrieNodeDataRequest extends TrieNodeDataRequest {
         getAccountHash().orElse(Hash.EMPTY), getLocation().orElse(Hash.EMPTY), getHash());
   }
 
+  @Override
+  public Optional<Bytes> getVerifiedExistingData(final WorldStateStorage worldStateStorage) {
+    return getExistingData(worldStateStorage).filter(this::matchesHash);
+  }
+
   @Override
   protected NodeDataRequest createChildNodeDataRequest(
       final Hash childHash, final Optional<Bytes> location) {
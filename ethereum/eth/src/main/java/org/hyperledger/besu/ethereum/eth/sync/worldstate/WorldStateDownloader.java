@@ -134,7 +134,7 @@ public class WorldStateDownloader implements WorldStateDownloadStatus {
           WorldStateDownloadProcess.builder()
               .hashCountPerRequest(hashCountPerRequest)
               .maxOutstandingRequests(maxOutstandingRequests)
-              .loadLocalDataStep(new LoadLocalDataStep(worldStateStorage, metricsSystem))
+              .loadLocalDataStep(createLoadLocalDataStep(worldStateStorage, metricsSystem))
               .requestDataStep(new RequestDataStep(ethContext, metricsSystem))
               .persistDataStep(new PersistDataStep(worldStateStorage))
               .completeTaskStep(maybeCompleteTask.get())
@@ -149,6 +149,11 @@ public class WorldStateDownloader implements WorldStateDownloadStatus {
     }
   }
 
+  protected LoadLocalDataStep createLoadLocalDataStep(
+      final WorldStateStorage worldStateStorage, final MetricsSystem metricsSystem) {
+    return new LoadLocalDataStep(worldStateStorage, metricsSystem);
+  }
+
   public void cancel() {
     synchronized (this) {
       final WorldDownloadState downloadState = this.downloadState.get();
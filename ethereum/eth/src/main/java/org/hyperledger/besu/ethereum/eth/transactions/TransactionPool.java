@@ -27,6 +27,7 @@ import org.hyperledger.besu.ethereum.chain.MutableBlockchain;
 import org.hyperledger.besu.ethereum.core.Account;
 import org.hyperledger.besu.ethereum.core.BlockHeader;
 import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.Wei;
 import org.hyperledger.besu.ethereum.eth.EthProtocol;
@@ -260,17 +261,19 @@ public class TransactionPool implements BlockAddedObserver {
       }
     }
 
-    return protocolContext
-        .getWorldStateArchive()
-        .getMutable(chainHeadBlockHeader.getStateRoot(), chainHeadBlockHeader.getHash(), false)
-        .map(
-            worldState -> {
-              final Account senderAccount = worldState.get(transaction.getSender());
-              return getTransactionValidator()
-                  .validateForSender(
-                      transaction, senderAccount, TransactionValidationParams.transactionPool());
-            })
-        .orElseGet(() -> ValidationResult.invalid(CHAIN_HEAD_WORLD_STATE_NOT_AVAILABLE));
+    try (final MutableWorldState worldState =
+        protocolContext
+            .getWorldStateArchive()
+            .getMutable(chainHeadBlockHeader.getStateRoot(), chainHeadBlockHeader.getHash(), false)
+            .orElse(null)) {
+      if (worldState == null) {
+        return ValidationResult.invalid(CHAIN_HEAD_WORLD_STATE_NOT_AVAILABLE);
+      }
+      final Account senderAccount = worldState.get(transaction.getSender());
+      return getTransactionValidator()
+          .validateForSender(
+              transaction, senderAccount, TransactionValidationParams.transactionPool());
+    }
   }
 
   public Optional<Transaction> getTransactionByHash(final Hash hash) {
@@ -33,6 +33,7 @@ import java.util.Optional;
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Answers;
 
 public class EthServerTest {
 
@@ -43,7 +44,8 @@ public class EthServerTest {
   private static final Hash HASH2 = Hash.hash(VALUE2);
   private static final Hash HASH3 = Hash.hash(VALUE3);
   private final Blockchain blockchain = mock(Blockchain.class);
-  private final WorldStateArchive worldStateArchive = mock(WorldStateArchive.class);
+  private final WorldStateArchive worldStateArchive =
+      mock(WorldStateArchive.class, Answers.CALLS_REAL_METHODS);
   private final TransactionPool transactionPool = mock(TransactionPool.class);
   private final EthPeer ethPeer = mock(EthPeer.class);
   private final EthMessages ethMessages = new EthMessages();
@@ -28,6 +28,7 @@ import org.hyperledger.besu.ethereum.core.Hash;
 import org.hyperledger.besu.ethereum.core.Transaction;
 import org.hyperledger.besu.ethereum.core.TransactionReceipt;
 import org.hyperledger.besu.ethereum.eth.EthProtocol;
+import org.hyperledger.besu.ethereum.eth.SnapProtocol;
 import org.hyperledger.besu.ethereum.eth.messages.BlockBodiesMessage;
 import org.hyperledger.besu.ethereum.eth.messages.BlockHeadersMessage;
 import org.hyperledger.besu.ethereum.eth.messages.EthPV62;
@@ -36,9 +37,11 @@ import org.hyperledger.besu.ethereum.eth.messages.EthPV65;
 import org.hyperledger.besu.ethereum.eth.messages.NodeDataMessage;
 import org.hyperledger.besu.ethereum.eth.messages.PooledTransactionsMessage;
 import org.hyperledger.besu.ethereum.eth.messages.ReceiptsMessage;
+import org.hyperledger.besu.ethereum.eth.messages.SnapV1;
 import org.hyperledger.besu.ethereum.eth.peervalidation.PeerValidator;
 import org.hyperledger.besu.ethereum.eth.transactions.TransactionPool;
 import org.hyperledger.besu.ethereum.mainnet.ProtocolSchedule;
+import org.hyperledger.besu.ethereum.p2p.network.ProtocolManager;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.Capability;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.DefaultMessage;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
@@ -67,14 +70,17 @@ public class RespondingEthPeer {
   private final EthPeer ethPeer;
   private final BlockingQueue<OutgoingMessage> outgoingMessages;
   private final EthProtocolManager ethProtocolManager;
+  private final Optional<SnapProtocolManager> snapProtocolManager;
   private final MockPeerConnection peerConnection;
 
   private RespondingEthPeer(
       final EthProtocolManager ethProtocolManager,
+      final Optional<SnapProtocolManager> snapProtocolManager,
       final MockPeerConnection peerConnection,
       final EthPeer ethPeer,
       final BlockingQueue<OutgoingMessage> outgoingMessages) {
     this.ethProtocolManager = ethProtocolManager;
+    this.snapProtocolManager = snapProtocolManager;
     this.peerConnection = peerConnection;
     this.ethPeer = ethPeer;
     this.outgoingMessages = outgoingMessages;
@@ -112,6 +118,7 @@ public class RespondingEthPeer {
 
   private static RespondingEthPeer create(
       final EthProtocolManager ethProtocolManager,
+      final Optional<SnapProtocolManager> snapProtocolManager,
       final Hash chainHeadHash,
       final Difficulty totalDifficulty,
       final OptionalLong estimatedHeight,
@@ -119,6 +126,7 @@ public class RespondingEthPeer {
     final EthPeers ethPeers = ethProtocolManager.ethContext().getEthPeers();
 
     final Set<Capability> caps = new HashSet<>(Collections.singletonList(EthProtocol.ETH63));
+    snapProtocolManager.ifPresent(manager -> caps.add(SnapProtocol.SNAP1));
     final BlockingQueue<OutgoingMessage> outgoingMessages = new ArrayBlockingQueue<>(1000);
     final MockPeerConnection peerConnection =
         new MockPeerConnection(
@@ -129,7 +137,8 @@ public class RespondingEthPeer {
     estimatedHeight.ifPresent(height -> peer.chainState().update(chainHeadHash, height));
     peer.registerStatusSent();
 
-    return new RespondingEthPeer(ethProtocolManager, peerConnection, peer, outgoingMessages);
+    return new RespondingEthPeer(
+        ethProtocolManager, snapProtocolManager, peerConnection, peer, outgoingMessages);
   }
 
   public EthPeer getEthPeer() {
@@ -196,9 +205,14 @@ public class RespondingEthPeer {
   private void respondToMessage(final Responder responder, final OutgoingMessage msg) {
     final Optional<MessageData> maybeResponse = responder.respond(msg.capability, msg.messageData);
     maybeResponse.ifPresent(
-        (response) ->
-            ethProtocolManager.processMessage(
-                msg.capability, new DefaultMessage(peerConnection, response)));
+        (response) -> {
+          final ProtocolManager protocolManager =
+              msg.capability.equals(SnapProtocol.SNAP1)
+                  ? snapProtocolManager.orElseThrow()
+                  : ethProtocolManager;
+          protocolManager.processMessage(
+              msg.capability, new DefaultMessage(peerConnection, response));
+        });
   }
 
   public Optional<MessageData> peekNextOutgoingRequest() {
@@ -247,6 +261,9 @@ public class RespondingEthPeer {
       final WorldStateArchive worldStateArchive,
       final TransactionPool transactionPool) {
     return (cap, msg) -> {
+      if (cap.equals(SnapProtocol.SNAP1)) {
+        return snapResponse(worldStateArchive, msg);
+      }
       MessageData response = null;
       switch (msg.getCode()) {
         case EthPV62.GET_BLOCK_HEADERS:
@@ -268,6 +285,20 @@ public class RespondingEthPeer {
     };
   }
 
+  private static Optional<MessageData> snapResponse(
+      final WorldStateArchive worldStateArchive, final MessageData msg) {
+    MessageData response = null;
+    switch (msg.getCode()) {
+      case SnapV1.GET_ACCOUNT_RANGE:
+        response = SnapServer.constructGetAccountRangeResponse(worldStateArchive, msg);
+        break;
+      case SnapV1.GET_STORAGE_RANGES:
+        response = SnapServer.constructGetStorageRangesResponse(worldStateArchive, msg);
+        break;
+    }
+    return Optional.ofNullable(response);
+  }
+
   public static Responder wrapResponderWithCollector(
       final Responder responder, final List<MessageData> messageCollector) {
     return (cap, msg) -> {
@@ -371,6 +402,7 @@ public class RespondingEthPeer {
 
   public static class Builder {
     private EthProtocolManager ethProtocolManager;
+    private Optional<SnapProtocolManager> snapProtocolManager = Optional.empty();
     private Hash chainHeadHash = gen.hash();
     private Difficulty totalDifficulty = Difficulty.of(1000L);
     private OptionalLong estimatedHeight = OptionalLong.of(1000L);
@@ -380,7 +412,12 @@ public class RespondingEthPeer {
       checkNotNull(ethProtocolManager, "Must configure EthProtocolManager");
 
       return RespondingEthPeer.create(
-          ethProtocolManager, chainHeadHash, totalDifficulty, estimatedHeight, peerValidators);
+          ethProtocolManager,
+          snapProtocolManager,
+          chainHeadHash,
+          totalDifficulty,
+          estimatedHeight,
+          peerValidators);
     }
 
     public Builder ethProtocolManager(final EthProtocolManager ethProtocolManager) {
@@ -389,6 +426,13 @@ public class RespondingEthPeer {
       return this;
     }
 
+    /** Makes the peer support the snap protocol, whose responses are routed to this manager. */
+    public Builder snapProtocolManager(final SnapProtocolManager snapProtocolManager) {
+      checkNotNull(snapProtocolManager);
+      this.snapProtocolManager = Optional.of(snapProtocolManager);
+      return this;
+    }
+
     public Builder chainHeadHash(final Hash chainHeadHash) {
       checkNotNull(chainHeadHash);
       this.chainHeadHash = chainHeadHash;
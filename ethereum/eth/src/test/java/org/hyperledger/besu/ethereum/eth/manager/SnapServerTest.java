@@ -0,0 +1,212 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.manager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetAccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.GetStorageRangesMessage;
+import org.hyperledger.besu.ethereum.eth.messages.StorageRangesMessage;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.trie.KeyValueMerkleStorage;
+import org.hyperledger.besu.ethereum.trie.MerkleStorage;
+import org.hyperledger.besu.ethereum.trie.RangeTrie;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SnapServerTest {
+
+  private static final Bytes32 MAX_KEY_HASH =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final MerkleStorage storage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+  private final WorldStateArchive worldStateArchive = mock(WorldStateArchive.class);
+  private final EthPeer ethPeer = mock(EthPeer.class);
+  private final EthMessages snapMessages = new EthMessages();
+  private final StoredMerklePatriciaTrie<Bytes32, Bytes> accountTrie = trie(Hash.EMPTY_TRIE_HASH);
+  private final StoredMerklePatriciaTrie<Bytes32, Bytes> storageTrie = trie(Hash.EMPTY_TRIE_HASH);
+
+  @Before
+  public void setUp() {
+    when(worldStateArchive.getNodeData(any()))
+        .thenAnswer(invocation -> storage.get(Bytes.EMPTY, invocation.getArgument(0)));
+    for (int i = 0; i < 100; i++) {
+      storageTrie.put(Hash.hash(Bytes.ofUnsignedInt(i)), RLP.encodeOne(Bytes.of(i + 1)));
+    }
+    storageTrie.commit(storage::put);
+    for (int i = 0; i < 100; i++) {
+      final Hash storageRoot =
+          i % 10 == 0 ? Hash.wrap(storageTrie.getRootHash()) : Hash.EMPTY_TRIE_HASH;
+      accountTrie.put(
+          accountHash(i),
+          RLP.encode(new StateTrieAccountValue(i, Wei.of(i), storageRoot, Hash.EMPTY)::writeTo));
+    }
+    accountTrie.commit(storage::put);
+    storage.commit();
+    new SnapServer(snapMessages, worldStateArchive);
+  }
+
+  @Test
+  public void servesAllTheAccountsOfARange() {
+    final AccountRangeMessage response =
+        accountRange(
+            GetAccountRangeMessage.create(1, rootHash(), Bytes32.ZERO, MAX_KEY_HASH, 1 << 20));
+
+    assertThat(response.requestId()).isEqualTo(1);
+    assertThat(response.accounts()).isEqualTo(accountTrie.entriesFrom(Bytes32.ZERO, 1000));
+    assertThat(rebuild(Bytes32.ZERO, response.accounts(), response.proof())).isPresent();
+  }
+
+  @Test
+  public void servesAPartialRangeWithProofs() {
+    final Bytes32 start = Bytes32.rightPad(Bytes.of(0x40));
+    final AccountRangeMessage response =
+        accountRange(GetAccountRangeMessage.create(2, rootHash(), start, MAX_KEY_HASH, 500));
+
+    final SortedMap<Bytes32, Bytes> accounts = response.accounts();
+    assertThat(accounts).isNotEmpty();
+    assertThat(accounts.size()).isLessThan(accountTrie.entriesFrom(start, 1000).size());
+    assertThat(accounts.firstKey()).isGreaterThanOrEqualTo(start);
+    assertThat(rebuild(start, accounts, response.proof())).isPresent();
+  }
+
+  @Test
+  public void stopsAtTheFirstAccountAfterTheLimit() {
+    final Bytes32 limit = Bytes32.rightPad(Bytes.of(0x80));
+    final AccountRangeMessage response =
+        accountRange(GetAccountRangeMessage.create(3, rootHash(), Bytes32.ZERO, limit, 1 << 20));
+
+    final SortedMap<Bytes32, Bytes> accounts = response.accounts();
+    assertThat(accounts.lastKey()).isGreaterThanOrEqualTo(limit);
+    assertThat(accounts.headMap(accounts.lastKey()).keySet())
+        .allMatch(accountHash -> accountHash.compareTo(limit) < 0);
+  }
+
+  @Test
+  public void servesAnEmptyResponseForAnUnknownRoot() {
+    final AccountRangeMessage response =
+        accountRange(
+            GetAccountRangeMessage.create(
+                4, Hash.hash(Bytes.of(1)), Bytes32.ZERO, MAX_KEY_HASH, 1 << 20));
+
+    assertThat(response.accounts()).isEmpty();
+    assertThat(response.proof()).isEmpty();
+  }
+
+  @Test
+  public void servesTheStorageOfSeveralAccounts() {
+    final StorageRangesMessage response =
+        storageRanges(
+            GetStorageRangesMessage.create(
+                5,
+                rootHash(),
+                List.of(accountHash(0), accountHash(1), accountHash(10)),
+                Bytes32.ZERO,
+                MAX_KEY_HASH,
+                1 << 20));
+
+    final SortedMap<Bytes32, Bytes> slots =
+        new TreeMap<>(storageTrie.entriesFrom(Bytes32.ZERO, 1000));
+    assertThat(response.requestId()).isEqualTo(5);
+    assertThat(response.slots()).containsExactly(slots, new TreeMap<>(), slots);
+    assertThat(response.proof()).isEmpty();
+  }
+
+  @Test
+  public void servesAPartialStorageRangeWithProofs() {
+    final StorageRangesMessage response =
+        storageRanges(
+            GetStorageRangesMessage.create(
+                6,
+                rootHash(),
+                List.of(accountHash(0), accountHash(10)),
+                Bytes32.ZERO,
+                MAX_KEY_HASH,
+                500));
+
+    assertThat(response.slots()).hasSize(1);
+    final SortedMap<Bytes32, Bytes> slots = response.slots().get(0);
+    assertThat(slots.size()).isLessThan(100);
+    assertThat(
+            RangeTrie.rebuild(
+                storageTrie.getRootHash(),
+                Bytes32.ZERO,
+                slots.lastKey(),
+                slots,
+                response.proof(),
+                Function.identity(),
+                Function.identity()))
+        .isPresent();
+  }
+
+  private AccountRangeMessage accountRange(final MessageData request) {
+    return AccountRangeMessage.readFrom(dispatch(request));
+  }
+
+  private StorageRangesMessage storageRanges(final MessageData request) {
+    return StorageRangesMessage.readFrom(dispatch(request));
+  }
+
+  private MessageData dispatch(final MessageData request) {
+    final Optional<MessageData> response = snapMessages.dispatch(new EthMessage(ethPeer, request));
+    assertThat(response).isPresent();
+    return response.get();
+  }
+
+  private Optional<RangeTrie<Bytes>> rebuild(
+      final Bytes32 start, final SortedMap<Bytes32, Bytes> accounts, final List<Bytes> proof) {
+    return RangeTrie.rebuild(
+        accountTrie.getRootHash(),
+        start,
+        accounts.lastKey(),
+        accounts,
+        proof,
+        Function.identity(),
+        Function.identity());
+  }
+
+  private Hash rootHash() {
+    return Hash.wrap(accountTrie.getRootHash());
+  }
+
+  private StoredMerklePatriciaTrie<Bytes32, Bytes> trie(final Bytes32 rootHash) {
+    return new StoredMerklePatriciaTrie<>(
+        storage::get, rootHash, Function.identity(), Function.identity());
+  }
+
+  private static Hash accountHash(final int i) {
+    return Hash.hash(Bytes.ofUnsignedInt(i));
+  }
+}
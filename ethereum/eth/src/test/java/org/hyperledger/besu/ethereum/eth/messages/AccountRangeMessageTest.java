@@ -0,0 +1,86 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.RawMessage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Test;
+
+public final class AccountRangeMessageTest {
+
+  @Test
+  public void roundTripTest() {
+    final SortedMap<Bytes32, Bytes> accounts = new TreeMap<>();
+    accounts.put(Hash.hash(Bytes.of(1)), account(1, Wei.of(2), Hash.EMPTY_TRIE_HASH, Hash.EMPTY));
+    accounts.put(
+        Hash.hash(Bytes.of(2)),
+        account(0, Wei.ZERO, Hash.hash(Bytes.of(3)), Hash.hash(Bytes.of(4))));
+    final List<Bytes> proof = List.of(Bytes.of(5), Bytes.of(6, 7));
+
+    final MessageData initialMessage = AccountRangeMessage.create(42, accounts, proof);
+    final MessageData raw = new RawMessage(SnapV1.ACCOUNT_RANGE, initialMessage.getData());
+    final AccountRangeMessage message = AccountRangeMessage.readFrom(raw);
+
+    assertThat(message.requestId()).isEqualTo(42);
+    assertThat(message.accounts()).isEqualTo(accounts);
+    assertThat(message.proof()).isEqualTo(proof);
+  }
+
+  @Test
+  public void emptyStorageRootAndCodeHashAreNotSent() {
+    final SortedMap<Bytes32, Bytes> accounts = new TreeMap<>();
+    accounts.put(Hash.hash(Bytes.of(1)), account(1, Wei.of(2), Hash.EMPTY_TRIE_HASH, Hash.EMPTY));
+
+    final MessageData message = AccountRangeMessage.create(1, accounts, List.of());
+
+    assertThat(message.getSize()).isLessThan(accounts.get(accounts.firstKey()).size());
+  }
+
+  @Test
+  public void requestRoundTripTest() {
+    final Hash rootHash = Hash.hash(Bytes.of(1));
+    final Bytes32 start = Hash.hash(Bytes.of(2));
+    final Bytes32 limit = Hash.hash(Bytes.of(3));
+
+    final MessageData initialMessage =
+        GetAccountRangeMessage.create(7, rootHash, start, limit, 512 * 1024);
+    final MessageData raw = new RawMessage(SnapV1.GET_ACCOUNT_RANGE, initialMessage.getData());
+    final GetAccountRangeMessage message = GetAccountRangeMessage.readFrom(raw);
+
+    assertThat(message.requestId()).isEqualTo(7);
+    assertThat(message.rootHash()).isEqualTo(rootHash);
+    assertThat(message.startKeyHash()).isEqualTo(start);
+    assertThat(message.limitKeyHash()).isEqualTo(limit);
+    assertThat(message.responseBytes()).isEqualTo(512 * 1024);
+  }
+
+  private static Bytes account(
+      final long nonce, final Wei balance, final Hash storageRoot, final Hash codeHash) {
+    return RLP.encode(new StateTrieAccountValue(nonce, balance, storageRoot, codeHash)::writeTo);
+  }
+}
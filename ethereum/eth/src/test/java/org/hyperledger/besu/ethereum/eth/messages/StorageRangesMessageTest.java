@@ -0,0 +1,72 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.messages;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.MessageData;
+import org.hyperledger.besu.ethereum.p2p.rlpx.wire.RawMessage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Test;
+
+public final class StorageRangesMessageTest {
+
+  @Test
+  public void roundTripTest() {
+    final SortedMap<Bytes32, Bytes> firstSlots = new TreeMap<>();
+    firstSlots.put(Hash.hash(Bytes.of(1)), RLP.encodeOne(Bytes.of(1)));
+    firstSlots.put(Hash.hash(Bytes.of(2)), RLP.encodeOne(Bytes.of(2, 3)));
+    final SortedMap<Bytes32, Bytes> secondSlots = new TreeMap<>();
+    secondSlots.put(Hash.hash(Bytes.of(3)), RLP.encodeOne(Bytes.of(4)));
+    final List<SortedMap<Bytes32, Bytes>> slots = List.of(firstSlots, secondSlots);
+    final List<Bytes> proof = List.of(Bytes.of(5));
+
+    final MessageData initialMessage = StorageRangesMessage.create(42, slots, proof);
+    final MessageData raw = new RawMessage(SnapV1.STORAGE_RANGES, initialMessage.getData());
+    final StorageRangesMessage message = StorageRangesMessage.readFrom(raw);
+
+    assertThat(message.requestId()).isEqualTo(42);
+    assertThat(message.slots()).isEqualTo(slots);
+    assertThat(message.proof()).isEqualTo(proof);
+  }
+
+  @Test
+  public void requestRoundTripTest() {
+    final Hash rootHash = Hash.hash(Bytes.of(1));
+    final List<Bytes32> accountHashes = List.of(Hash.hash(Bytes.of(2)), Hash.hash(Bytes.of(3)));
+    final Bytes32 start = Hash.hash(Bytes.of(4));
+    final Bytes32 limit = Hash.hash(Bytes.of(5));
+
+    final MessageData initialMessage =
+        GetStorageRangesMessage.create(7, rootHash, accountHashes, start, limit, 1024);
+    final MessageData raw = new RawMessage(SnapV1.GET_STORAGE_RANGES, initialMessage.getData());
+    final GetStorageRangesMessage message = GetStorageRangesMessage.readFrom(raw);
+
+    assertThat(message.requestId()).isEqualTo(7);
+    assertThat(message.rootHash()).isEqualTo(rootHash);
+    assertThat(message.accountHashes()).isEqualTo(accountHashes);
+    assertThat(message.startKeyHash()).isEqualTo(start);
+    assertThat(message.limitKeyHash()).isEqualTo(limit);
+    assertThat(message.responseBytes()).isEqualTo(1024);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.Wei;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.rlp.RLP;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.trie.KeyValueMerkleStorage;
+import org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.trie.MerkleStorage;
+import org.hyperledger.besu.ethereum.trie.StoredMerklePatriciaTrie;
+import org.hyperledger.besu.ethereum.worldstate.StateTrieAccountValue;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccountRangeDataRequestTest {
+
+  private static final Hash STORAGE_ROOT = Hash.hash(Bytes.of(1));
+
+  private final MerkleStorage storage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+  private final MerklePatriciaTrie<Bytes32, Bytes> accountTrie =
+      new StoredMerklePatriciaTrie<>(storage::get, Function.identity(), Function.identity());
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 100; i++) {
+      final Hash storageRoot = i % 3 == 0 ? STORAGE_ROOT : Hash.EMPTY_TRIE_HASH;
+      accountTrie.put(
+          Hash.hash(Bytes.ofUnsignedInt(i)),
+          RLP.encode(new StateTrieAccountValue(i, Wei.of(i), storageRoot, Hash.EMPTY)::writeTo));
+    }
+    accountTrie.commit(storage::put);
+    storage.commit();
+  }
+
+  @Test
+  public void requestsTheRestOfAPartialRange() {
+    final AccountRangeDataRequest request = request(Bytes32.ZERO);
+    final SortedMap<Bytes32, Bytes> accounts = entries(Bytes32.ZERO, 30);
+
+    assertThat(request.addResponse(response(Bytes32.ZERO, accounts))).isTrue();
+    assertThat(request.isResponseReceived()).isTrue();
+
+    final List<SnapDataRequest> childRequests =
+        request.getChildRequests().collect(Collectors.toList());
+    final List<AccountRangeDataRequest> accountRequests =
+        childRequests.stream()
+            .filter(AccountRangeDataRequest.class::isInstance)
+            .map(AccountRangeDataRequest.class::cast)
+            .collect(Collectors.toList());
+    assertThat(accountRequests).hasSize(1);
+    assertThat(accountRequests.get(0).getStartKeyHash())
+        .isEqualTo(SnapDataRequest.nextKeyHash(accounts.lastKey()));
+    assertThat(accountRequests.get(0).getEndKeyHash()).isEqualTo(SnapDataRequest.MAX_KEY_HASH);
+
+    final List<Bytes32> storageAccountHashes =
+        accounts.entrySet().stream()
+            .filter(
+                account ->
+                    StateTrieAccountValue.readFrom(RLP.input(account.getValue()))
+                        .getStorageRoot()
+                        .equals(STORAGE_ROOT))
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    assertThat(childRequests)
+        .filteredOn(StorageRangeDataRequest.class::isInstance)
+        .extracting(childRequest -> ((StorageRangeDataRequest) childRequest).getAccountHashes())
+        .containsExactly(storageAccountHashes);
+  }
+
+  @Test
+  public void completesTheRangeWithAnEmptyResponse() {
+    final Bytes32 start = SnapDataRequest.nextKeyHash(entries(Bytes32.ZERO, 1000).lastKey());
+    final AccountRangeDataRequest request = request(start);
+    final List<Bytes> proof = accountTrie.getValueWithProof(start).getProofRelatedNodes();
+
+    assertThat(request.addResponse(response(start, new TreeMap<>(), proof))).isTrue();
+
+    assertThat(request.getChildRequests()).isEmpty();
+  }
+
+  @Test
+  public void rejectsARangeWithAMissingAccount() {
+    final AccountRangeDataRequest request = request(Bytes32.ZERO);
+    final SortedMap<Bytes32, Bytes> accounts = entries(Bytes32.ZERO, 30);
+    final AccountRangeMessage response = response(Bytes32.ZERO, accounts);
+    accounts.remove(new ArrayList<>(accounts.keySet()).get(10));
+
+    assertThat(request.addResponse(response(Bytes32.ZERO, accounts, response.proof())))
+        .isFalse();
+    assertThat(request.isResponseReceived()).isFalse();
+  }
+
+  @Test
+  public void rejectsAnEmptyResponseWithoutProof() {
+    final AccountRangeDataRequest request = request(Bytes32.ZERO);
+
+    assertThat(request.addResponse(response(Bytes32.ZERO, new TreeMap<>(), List.of())))
+        .isFalse();
+  }
+
+  @Test
+  public void persistsTheNodesOfTheRangeButTheRoot() {
+    final WorldStateStorage worldStateStorage =
+        new WorldStateKeyValueStorage(new InMemoryKeyValueStorage());
+    final AccountRangeDataRequest request = request(Bytes32.ZERO);
+    final SortedMap<Bytes32, Bytes> accounts = entries(Bytes32.ZERO, 1000);
+    assertThat(request.addResponse(response(Bytes32.ZERO, accounts, List.of()))).isTrue();
+
+    final WorldStateStorage.Updater updater = worldStateStorage.updater();
+    request.persist(worldStateStorage, updater);
+    updater.commit();
+
+    final List<Bytes32> nodeHashes = new ArrayList<>();
+    accountTrie.visitAll(node -> nodeHashes.add(node.getHash()));
+    assertThat(nodeHashes.subList(1, nodeHashes.size()))
+        .allMatch(hash -> worldStateStorage.getNodeData(Bytes.EMPTY, hash).isPresent());
+    assertThat(worldStateStorage.isWorldStateAvailable(accountTrie.getRootHash(), null))
+        .isFalse();
+  }
+
+  private AccountRangeDataRequest request(final Bytes32 start) {
+    return new AccountRangeDataRequest(
+        Hash.wrap(accountTrie.getRootHash()), start, SnapDataRequest.MAX_KEY_HASH);
+  }
+
+  private AccountRangeMessage response(
+      final Bytes32 start, final SortedMap<Bytes32, Bytes> accounts) {
+    final List<Bytes> proof =
+        new ArrayList<>(accountTrie.getValueWithProof(start).getProofRelatedNodes());
+    proof.addAll(accountTrie.getValueWithProof(accounts.lastKey()).getProofRelatedNodes());
+    return response(start, accounts, proof);
+  }
+
+  private AccountRangeMessage response(
+      final Bytes32 start, final SortedMap<Bytes32, Bytes> accounts, final List<Bytes> proof) {
+    return AccountRangeMessage.create(1, accounts, proof);
+  }
+
+  private SortedMap<Bytes32, Bytes> entries(final Bytes32 start, final int limit) {
+    return new TreeMap<>(accountTrie.entriesFrom(start, limit));
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.BlockHeaderTestFixture;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.eth.manager.task.AbstractPeerTask.PeerTaskResult;
+import org.hyperledger.besu.ethereum.eth.manager.task.EthTask;
+import org.hyperledger.besu.ethereum.eth.messages.AccountRangeMessage;
+import org.hyperledger.besu.ethereum.eth.messages.StorageRangesMessage;
+import org.hyperledger.besu.services.tasks.Task;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RequestRangeStepTest {
+
+  private static final long BLOCK_NUMBER = 492L;
+
+  @SuppressWarnings("unchecked")
+  private final BiFunction<
+          AccountRangeDataRequest, Long, EthTask<PeerTaskResult<AccountRangeMessage>>>
+      getAccountRangeTaskFactory = mock(BiFunction.class);
+
+  @SuppressWarnings("unchecked")
+  private final BiFunction<
+          StorageRangeDataRequest, Long, EthTask<PeerTaskResult<StorageRangesMessage>>>
+      getStorageRangesTaskFactory = mock(BiFunction.class);
+
+  @SuppressWarnings("unchecked")
+  private final EthTask<PeerTaskResult<AccountRangeMessage>> ethTask = mock(EthTask.class);
+
+  @SuppressWarnings("unchecked")
+  private final Task<SnapDataRequest> task = mock(Task.class);
+
+  private final SnapWorldDownloadState downloadState = mock(SnapWorldDownloadState.class);
+  private final BlockHeader blockHeader =
+      new BlockHeaderTestFixture().number(BLOCK_NUMBER).buildHeader();
+  private final AccountRangeDataRequest request =
+      new AccountRangeDataRequest(
+          Hash.EMPTY_TRIE_HASH, Bytes32.ZERO, SnapDataRequest.MAX_KEY_HASH);
+  private final CompletableFuture<PeerTaskResult<AccountRangeMessage>> responseFuture =
+      new CompletableFuture<>();
+
+  private final RequestRangeStep requestRangeStep =
+      new RequestRangeStep(getAccountRangeTaskFactory, getStorageRangesTaskFactory);
+
+  @Before
+  public void setUp() {
+    when(task.getData()).thenReturn(request);
+    when(getAccountRangeTaskFactory.apply(request, BLOCK_NUMBER)).thenReturn(ethTask);
+    when(ethTask.run()).thenReturn(responseFuture);
+  }
+
+  @Test
+  public void shouldReportNoProgressWhenTaskFails() {
+    final CompletableFuture<Task<SnapDataRequest>> result =
+        requestRangeStep.requestData(task, blockHeader, downloadState);
+
+    assertThat(result).isNotDone();
+
+    responseFuture.completeExceptionally(new RuntimeException());
+
+    assertThat(result).isCompletedWithValue(task);
+    assertThat(request.isResponseReceived()).isFalse();
+    verify(downloadState).removeOutstandingTask(ethTask);
+    verify(downloadState).requestComplete(false);
+  }
+}
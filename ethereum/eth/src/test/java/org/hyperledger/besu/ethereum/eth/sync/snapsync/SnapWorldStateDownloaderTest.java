@@ -0,0 +1,241 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.eth.sync.snapsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.hyperledger.besu.ethereum.bonsai.BonsaiWorldStateArchive;
+import org.hyperledger.besu.ethereum.chain.Blockchain;
+import org.hyperledger.besu.ethereum.core.Account;
+import org.hyperledger.besu.ethereum.core.AccountStorageEntry;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator;
+import org.hyperledger.besu.ethereum.core.BlockDataGenerator.BlockOptions;
+import org.hyperledger.besu.ethereum.core.BlockHeader;
+import org.hyperledger.besu.ethereum.core.Hash;
+import org.hyperledger.besu.ethereum.core.InMemoryKeyValueStorageProvider;
+import org.hyperledger.besu.ethereum.core.MutableWorldState;
+import org.hyperledger.besu.ethereum.core.WorldState;
+import org.hyperledger.besu.ethereum.eth.SnapProtocol;
+import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManager;
+import org.hyperledger.besu.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import org.hyperledger.besu.ethereum.eth.manager.EthScheduler;
+import org.hyperledger.besu.ethereum.eth.manager.RespondingEthPeer;
+import org.hyperledger.besu.ethereum.eth.manager.SnapProtocolManager;
+import org.hyperledger.besu.ethereum.eth.sync.SynchronizerConfiguration;
+import org.hyperledger.besu.ethereum.eth.sync.worldstate.NodeDataRequest;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStateKeyValueStorage;
+import org.hyperledger.besu.ethereum.storage.keyvalue.WorldStatePreimageKeyValueStorage;
+import org.hyperledger.besu.ethereum.worldstate.DataStorageFormat;
+import org.hyperledger.besu.ethereum.worldstate.DefaultWorldStateArchive;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateArchive;
+import org.hyperledger.besu.ethereum.worldstate.WorldStateStorage;
+import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+import org.hyperledger.besu.services.tasks.CachingTaskCollection;
+import org.hyperledger.besu.services.tasks.InMemoryTaskQueue;
+import org.hyperledger.besu.testutil.TestClock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Maps;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+@RunWith(Parameterized.class)
+public class SnapWorldStateDownloaderTest {
+
+  @Rule public Timeout globalTimeout = Timeout.seconds(60); // 1 minute max per test
+
+  private final BlockDataGenerator dataGen = new BlockDataGenerator(1);
+  private final EthProtocolManager ethProtocolManager =
+      EthProtocolManagerTestUtil.create(new EthScheduler(1, 1, 1, 1, new NoOpMetricsSystem()));
+  private final SnapProtocolManager snapProtocolManager =
+      new SnapProtocolManager(
+          ethProtocolManager.ethContext().getEthPeers(), mock(WorldStateArchive.class), false);
+  private final InMemoryKeyValueStorageProvider localStorageProvider =
+      new InMemoryKeyValueStorageProvider();
+
+  @Parameters
+  public static Collection<Object[]> data() {
+    return Arrays.asList(new Object[][] {{DataStorageFormat.BONSAI}, {DataStorageFormat.FOREST}});
+  }
+
+  private final DataStorageFormat storageFormat;
+
+  public SnapWorldStateDownloaderTest(final DataStorageFormat storageFormat) {
+    this.storageFormat = storageFormat;
+  }
+
+  @After
+  public void tearDown() {
+    ethProtocolManager.stop();
+  }
+
+  @Test
+  public void downloadWorldStateFromOnePeer() {
+    downloadAvailableWorldStateFromPeers(1, 50, 1);
+  }
+
+  @Test
+  public void downloadWorldStateFromOnePeerWithManyRequests() {
+    downloadAvailableWorldStateFromPeers(1, 50, 10);
+  }
+
+  @Test
+  public void downloadWorldStateFromManyPeers() {
+    downloadAvailableWorldStateFromPeers(5, 100, 10);
+  }
+
+  private void downloadAvailableWorldStateFromPeers(
+      final int peerCount, final int accountCount, final int maxOutstandingRequests) {
+    // Setup "remote" state
+    final WorldStateArchive remoteWorldStateArchive =
+        new DefaultWorldStateArchive(
+            new WorldStateKeyValueStorage(new InMemoryKeyValueStorage()),
+            new WorldStatePreimageKeyValueStorage(new InMemoryKeyValueStorage()));
+    final MutableWorldState remoteWorldState = remoteWorldStateArchive.getMutable();
+
+    // Generate accounts with code and storage, and save corresponding state root
+    final List<Account> accounts =
+        dataGen.createRandomContractAccountsWithNonEmptyStorage(remoteWorldState, accountCount);
+    final Hash stateRoot = remoteWorldState.rootHash();
+    final BlockHeader header =
+        dataGen.block(BlockOptions.create().setStateRoot(stateRoot).setBlockNumber(10)).getHeader();
+
+    final WorldStateStorage localStorage =
+        localStorageProvider.createWorldStateStorage(storageFormat);
+    final SnapWorldStateDownloader downloader =
+        createDownloader(localStorage, maxOutstandingRequests);
+
+    final List<RespondingEthPeer> peers =
+        Stream.generate(
+                () ->
+                    RespondingEthPeer.builder()
+                        .ethProtocolManager(ethProtocolManager)
+                        .snapProtocolManager(snapProtocolManager)
+                        .estimatedHeight(header.getNumber())
+                        .build())
+            .limit(peerCount)
+            .collect(Collectors.toList());
+
+    final CompletableFuture<Void> result = downloader.run(header);
+
+    // Serve the ranges with snap, then the nodes left to heal with eth
+    final AtomicInteger snapRequests = new AtomicInteger();
+    final RespondingEthPeer.Responder blockchainResponder =
+        RespondingEthPeer.blockchainResponder(mock(Blockchain.class), remoteWorldStateArchive);
+    final RespondingEthPeer.Responder responder =
+        (cap, msg) -> {
+          if (cap.equals(SnapProtocol.SNAP1)) {
+            snapRequests.incrementAndGet();
+          }
+          return blockchainResponder.respond(cap, msg);
+        };
+    respondUntilDone(peers, responder, result);
+
+    assertThat(result).isCompleted();
+    assertThat(snapRequests.get()).isPositive();
+    assertThat(localStorage.isWorldStateAvailable(stateRoot, header.getHash())).isTrue();
+    final WorldState localWorldState =
+        createLocalWorldStateArchive(localStorage)
+            .getMutable(stateRoot, header.getHash())
+            .orElseThrow();
+    assertThat(localWorldState.rootHash()).isEqualTo(stateRoot);
+    assertAccountsMatch(localWorldState, accounts);
+  }
+
+  private void assertAccountsMatch(
+      final WorldState worldState, final List<Account> expectedAccounts) {
+    for (final Account expectedAccount : expectedAccounts) {
+      final Account actualAccount = worldState.get(expectedAccount.getAddress());
+      assertThat(actualAccount).isNotNull();
+      // Check each field
+      assertThat(actualAccount.getNonce()).isEqualTo(expectedAccount.getNonce());
+      assertThat(actualAccount.getCode()).isEqualTo(expectedAccount.getCode());
+      assertThat(actualAccount.getBalance()).isEqualTo(expectedAccount.getBalance());
+
+      // The keys of the slots are not downloaded, only their hashes
+      final Map<Bytes32, UInt256> actualStorage =
+          Maps.transformValues(
+              actualAccount.storageEntriesFrom(Bytes32.ZERO, 500), AccountStorageEntry::getValue);
+      final Map<Bytes32, UInt256> expectedStorage =
+          Maps.transformValues(
+              expectedAccount.storageEntriesFrom(Bytes32.ZERO, 500),
+              AccountStorageEntry::getValue);
+      assertThat(actualStorage).isNotEmpty().isEqualTo(expectedStorage);
+    }
+  }
+
+  private WorldStateArchive createLocalWorldStateArchive(final WorldStateStorage localStorage) {
+    if (storageFormat.equals(DataStorageFormat.BONSAI)) {
+      // The persisted Bonsai state is loaded from the storage when the archive is created.
+      return new BonsaiWorldStateArchive(localStorageProvider, mock(Blockchain.class));
+    }
+    return new DefaultWorldStateArchive(
+        localStorage, localStorageProvider.createWorldStatePreimageStorage());
+  }
+
+  private SnapWorldStateDownloader createDownloader(
+      final WorldStateStorage storage, final int maxOutstandingRequests) {
+    final SynchronizerConfiguration config = SynchronizerConfiguration.builder().build();
+    return new SnapWorldStateDownloader(
+        ethProtocolManager.ethContext(),
+        storage,
+        new CachingTaskCollection<>(new InMemoryTaskQueue<>()),
+        config.getWorldStateHashCountPerRequest(),
+        maxOutstandingRequests,
+        config.getWorldStateMaxRequestsWithoutProgress(),
+        config.getWorldStateMinMillisBeforeStalling(),
+        TestClock.fixed(),
+        new NoOpMetricsSystem());
+  }
+
+  private void respondUntilDone(
+      final List<RespondingEthPeer> peers,
+      final RespondingEthPeer.Responder responder,
+      final CompletableFuture<?> result) {
+    if (peers.size() == 1) {
+      // Use a blocking approach to waiting for the next message when we can.
+      peers.get(0).respondWhileOtherThreadsWork(responder, () -> !result.isDone());
+      return;
+    }
+    while (!result.isDone()) {
+      for (final RespondingEthPeer peer : peers) {
+        peer.respond(responder);
+      }
+      giveOtherThreadsAGo();
+    }
+  }
+
+  private void giveOtherThreadsAGo() {
+    LockSupport.parkNanos(200);
+  }
+}
@@ -16,7 +16,10 @@ package org.hyperledger.besu.ethereum.eth.sync.worldstate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hyperledger.besu.metrics.noop.NoOpMetricsSystem.NO_OP_COUNTER;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +29,7 @@ import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.services.pipeline.Pipe;
 import org.hyperledger.besu.services.tasks.Task;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -51,7 +55,7 @@ public class LoadLocalDataStepTest {
   @Test
   public void shouldReturnStreamWithUnchangedTaskWhenDataNotPresent() {
     final Stream<Task<NodeDataRequest>> output =
-        loadLocalDataStep.loadLocalData(task, completedTasks);
+        loadLocalDataStep.loadLocalData(List.of(task), completedTasks);
 
     assertThat(completedTasks.poll()).isNull();
     assertThat(output).containsExactly(task);
@@ -62,7 +66,7 @@ public class LoadLocalDataStepTest {
     when(worldStateStorage.getCode(HASH, Hash.EMPTY)).thenReturn(Optional.of(DATA));
 
     final Stream<Task<NodeDataRequest>> output =
-        loadLocalDataStep.loadLocalData(task, completedTasks);
+        loadLocalDataStep.loadLocalData(List.of(task), completedTasks);
 
     assertThat(completedTasks.poll()).isSameAs(task);
     assertThat(request.getData()).isEqualTo(DATA);
@@ -72,4 +76,64 @@ public class LoadLocalDataStepTest {
     request.persist(updater);
     verifyZeroInteractions(updater);
   }
+
+  @Test
+  public void shouldLookUpBatchesOfTasksTogetherWhenDataIsKeyedByHash() {
+    when(worldStateStorage.isNodeDataKeyedByHash()).thenReturn(true);
+    final Bytes otherData = Bytes.of(4, 5, 6);
+    final Task<NodeDataRequest> otherTask =
+        new StubTask(NodeDataRequest.createCodeRequest(Hash.hash(otherData), Optional.empty()));
+    when(worldStateStorage.getAllNodeData(List.of(HASH, Hash.hash(otherData))))
+        .thenReturn(List.of(Optional.of(DATA), Optional.empty()));
+
+    final Stream<Task<NodeDataRequest>> output =
+        loadLocalDataStep.loadLocalData(List.of(task, otherTask), completedTasks);
+
+    assertThat(completedTasks.poll()).isSameAs(task);
+    assertThat(completedTasks.poll()).isNull();
+    assertThat(request.getData()).isEqualTo(DATA);
+    assertThat(output).containsExactly(otherTask);
+  }
+
+  @Test
+  public void shouldLookUpEachTaskWhenDataIsNotKeyedByHash() {
+    final Hash accountHash = Hash.hash(Bytes.of(7));
+    final Task<NodeDataRequest> storageTask =
+        new StubTask(
+            NodeDataRequest.createStorageDataRequest(
+                HASH, Optional.of(accountHash), Optional.of(Bytes.of(1))));
+    when(worldStateStorage.getAccountStorageTrieNode(accountHash, Bytes.of(1), HASH))
+        .thenReturn(Optional.of(DATA));
+
+    final Stream<Task<NodeDataRequest>> output =
+        loadLocalDataStep.loadLocalData(List.of(task, storageTask), completedTasks);
+
+    assertThat(completedTasks.poll()).isSameAs(storageTask);
+    assertThat(completedTasks.poll()).isNull();
+    assertThat(output).containsExactly(task);
+    verify(worldStateStorage, never()).getAllNodeData(any());
+  }
+
+  @Test
+  public void shouldOnlyUseDataStoredByLocationMatchingTheRequestHashWhenVerifying() {
+    final LoadLocalDataStep verifyingStep =
+        new LoadLocalDataStep(worldStateStorage, new NoOpMetricsSystem(), true);
+    final Bytes otherData = Bytes.of(4, 5, 6);
+    final Task<NodeDataRequest> accountTask =
+        new StubTask(NodeDataRequest.createAccountDataRequest(HASH, Optional.of(Bytes.of(1))));
+    final Task<NodeDataRequest> staleAccountTask =
+        new StubTask(NodeDataRequest.createAccountDataRequest(HASH, Optional.of(Bytes.of(2))));
+    when(worldStateStorage.getAccountStateTrieNode(Bytes.of(1), HASH))
+        .thenReturn(Optional.of(DATA));
+    when(worldStateStorage.getAccountStateTrieNode(Bytes.of(2), HASH))
+        .thenReturn(Optional.of(otherData));
+
+    final Stream<Task<NodeDataRequest>> output =
+        verifyingStep.loadLocalData(List.of(accountTask, staleAccountTask), completedTasks);
+
+    assertThat(completedTasks.poll()).isSameAs(accountTask);
+    assertThat(completedTasks.poll()).isNull();
+    assertThat(accountTask.getData().getData()).isEqualTo(DATA);
+    assertThat(output).containsExactly(staleAccountTask);
+  }
 }
@@ -15,8 +15,6 @@
 package org.hyperledger.besu.ethereum.p2p.rlpx.framing;
 
 import static io.netty.buffer.ByteBufUtil.hexDump;
-import static io.netty.buffer.Unpooled.wrappedBuffer;
-import static org.bouncycastle.pqc.math.linearalgebra.ByteUtils.xor;
 
 import org.hyperledger.besu.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
 import org.hyperledger.besu.ethereum.p2p.rlpx.handshake.Handshaker;
@@ -52,6 +50,11 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
  * fragmented frames, as well as streams of multiple messages within the same incoming buffer, as
  * long as the order of incoming bytes matches the underlying TCP sequence.
  *
+ * <p>A framer is not thread-safe: it is owned by the event loop of its connection, which runs both
+ * the deframing of the incoming bytes and the framing of the outgoing messages. Frames are
+ * encrypted and decrypted in place, within the buffers they are written to or within pooled
+ * buffers, and the headers and MACs are processed in working arrays reused across frames.
+ *
  * @see <a href="https://github.com/ethereum/devp2p/blob/master/rlpx.md#framing">RLPx framing</a>
  */
 public class Framer {
@@ -63,6 +66,9 @@ public class Framer {
   private static final int LENGTH_FRAME_SIZE = 3;
   private static final int LENGTH_MESSAGE_ID = 1;
   private static final int LENGTH_MAX_MESSAGE_FRAME = 0xFFFFFF;
+  private static final int LENGTH_MAX_PADDING = 15;
+  // The RLP encoding of the message id 0, the ids up to 0x7f being encoded as themselves.
+  private static final int RLP_EMPTY_ITEM = 0x80;
 
   private static final byte[] IV = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
   private static final byte[] PROTOCOL_HEADER =
@@ -80,6 +86,10 @@ public class Framer {
   private final StreamCipher encryptor;
   private final StreamCipher decryptor;
   private final BlockCipher macEncryptor;
+  // Working arrays, reused for every frame.
+  private final byte[] header = new byte[LENGTH_HEADER_DATA];
+  private final byte[] receivedMac = new byte[LENGTH_MAC];
+  private final byte[] macBlock = new byte[LENGTH_MAC];
   private boolean headerProcessed;
   private int frameSize;
   private boolean compressionEnabled = false;
@@ -149,7 +159,7 @@ public class Framer {
    *     could be extracted yet.
    * @throws FramingException Thrown when a decryption or internal error occurs.
    */
-  public synchronized MessageData deframe(final ByteBuf buf) throws FramingException {
+  public MessageData deframe(final ByteBuf buf) throws FramingException {
     if (buf == null || !buf.isReadable()) {
       return null;
     }
@@ -161,7 +171,6 @@ public class Framer {
       }
       frameSize = processHeader(buf.readSlice(LENGTH_FULL_HEADER));
       headerProcessed = true;
-      buf.discardReadBytes();
     }
 
     final int size = frameSize + padding16(frameSize) + LENGTH_MAC;
@@ -170,7 +179,6 @@ public class Framer {
     }
 
     final MessageData msg = processFrame(buf.readSlice(size), frameSize);
-    buf.discardReadBytes();
     headerProcessed = false;
     return msg;
   }
@@ -192,50 +200,31 @@ public class Framer {
           LENGTH_FULL_HEADER, encryptedHeader.readableBytes());
     }
 
-    // Decrypt the header.
-    final byte[] hCipher = new byte[LENGTH_HEADER_DATA];
-    final byte[] hMac = new byte[LENGTH_MAC];
-    encryptedHeader.readBytes(hCipher).readBytes(hMac);
+    encryptedHeader.readBytes(header).readBytes(receivedMac);
 
     // Header MAC validation.
-    byte[] expectedMac = new byte[16];
-    macEncryptor.processBlock(secrets.getIngressMac(), 0, expectedMac, 0);
-    expectedMac = secrets.updateIngress(xor(expectedMac, hCipher)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
-
-    validateMac(hMac, expectedMac);
+    final byte[] expectedMac =
+        secrets.updateIngress(macBlock(secrets.getIngressMac(), header, 0)).getIngressMac();
+    validateMac(receivedMac, expectedMac);
 
     // Perform the header decryption.
-    decryptor.processBytes(hCipher, 0, hCipher.length, hCipher, 0);
-    final ByteBuf h = wrappedBuffer(hCipher);
+    decryptor.processBytes(header, 0, LENGTH_HEADER_DATA, header, 0);
 
     // Read the frame length.
-    final byte[] length = new byte[3];
-    h.readBytes(length);
-    int frameSize = length[0] & 0xff;
-    frameSize = (frameSize << 8) + (length[1] & 0xff);
-    frameSize = (frameSize << 8) + (length[2] & 0xff);
+    final int frameSize =
+        ((header[0] & 0xff) << 16) | ((header[1] & 0xff) << 8) | (header[2] & 0xff);
 
     // Discard the header data (RLP): being set to fixed value 0xc28080 (list of two null
-    // elements) by other clients.
-    final int headerDataLength = RLP.calculateSize(Bytes.wrapByteBuffer(h.nioBuffer()));
-    if (h.readableBytes() < headerDataLength) {
+    // elements) by other clients. The rest of the header is zero-filled to the 16-byte boundary.
+    final int remaining = LENGTH_HEADER_DATA - LENGTH_FRAME_SIZE;
+    final int headerDataLength =
+        RLP.calculateSize(Bytes.wrap(header, LENGTH_FRAME_SIZE, remaining));
+    if (remaining < headerDataLength) {
       throw error(
           "Expected at least %d readable bytes while processing header, remaining: %s",
-          headerDataLength, h.readableBytes());
-    }
-    h.skipBytes(headerDataLength);
-
-    // Discard padding in header (= zero-fill to 16-byte boundary).
-    h.skipBytes(padding16(LENGTH_FRAME_SIZE + headerDataLength));
-
-    if (h.readableBytes() != 0) {
-      throw error(
-          "Expected no more readable bytes while processing header, remaining: %s",
-          h.readableBytes());
+          headerDataLength, remaining);
     }
 
-    h.discardReadBytes();
     return frameSize;
   }
 
@@ -245,79 +234,109 @@ public class Framer {
    * <p>This method expects a well-formed frame, sized according to the length indicated in this
    * packet's header.
    *
+   * <p>An uncompressed frame is decrypted in the array of its message. A compressed frame is
+   * decrypted in a pooled buffer and decompressed into the array of its message.
+   *
    * @param f The buffer containing
    * @param frameSize The expected
    */
   private MessageData processFrame(final ByteBuf f, final int frameSize) {
-    final int pad = padding16(frameSize);
-    final int expectedSize = frameSize + pad + LENGTH_MAC;
+    final int frameLength = frameSize + padding16(frameSize);
+    final int expectedSize = frameLength + LENGTH_MAC;
     if (f.readableBytes() != expectedSize) {
       throw error("Expected %s bytes in header, got %s", expectedSize, f.readableBytes());
     }
+    if (frameSize < LENGTH_MESSAGE_ID) {
+      throw error("Expected a message id in a frame of %s bytes", frameSize);
+    }
+    final int messageLength = frameSize - LENGTH_MESSAGE_ID;
 
-    final byte[] frameData = new byte[frameSize + pad];
-    final byte[] fMac = new byte[LENGTH_MAC];
-    f.readBytes(frameData).readBytes(fMac);
+    if (!compressionEnabled) {
+      final byte[] frameData = new byte[frameLength];
+      final int id = decryptFrame(f, frameData, 0, frameLength);
+      return new RawMessage(id, Bytes.wrap(frameData, LENGTH_MESSAGE_ID, messageLength));
+    }
 
-    // Validate the frame's MAC.
-    final byte[] fMacSeed = secrets.updateIngress(frameData).getIngressMac();
-    final byte[] fMacSeedEnc = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMacSeedEnc, 0);
-    byte[] expectedMac = secrets.updateIngress(xor(fMacSeedEnc, fMacSeed)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
+    final ByteBuf frameBuffer = f.alloc().heapBuffer(frameLength);
+    try {
+      final byte[] frameData = frameBuffer.array();
+      final int offset = frameBuffer.arrayOffset();
+      final int id = decryptFrame(f, frameData, offset, frameLength);
+      return new RawMessage(id, decompress(frameData, offset + LENGTH_MESSAGE_ID, messageLength));
+    } finally {
+      frameBuffer.release();
+    }
+  }
+
+  /**
+   * Reads a frame into an array, validates its MAC and decrypts it in place.
+   *
+   * @return The id of the message of the frame.
+   */
+  private int decryptFrame(
+      final ByteBuf f, final byte[] frameData, final int offset, final int frameLength) {
+    f.readBytes(frameData, offset, frameLength).readBytes(receivedMac);
 
-    validateMac(fMac, expectedMac);
+    // Validate the frame's MAC.
+    final byte[] fMacSeed = secrets.updateIngress(frameData, offset, frameLength).getIngressMac();
+    final byte[] expectedMac =
+        secrets.updateIngress(macBlock(fMacSeed, fMacSeed, 0)).getIngressMac();
+    validateMac(receivedMac, expectedMac);
 
     // Decrypt frame data.
-    decryptor.processBytes(frameData, 0, frameData.length, frameData, 0);
-
-    // Read the id.
-    final Bytes idbv = RLP.decodeOne(Bytes.of(frameData[0]));
-    final int id = idbv.isZero() || idbv.size() == 0 ? 0 : idbv.get(0);
-
-    // Write message data to ByteBuf, decompressing as necessary
-    final Bytes data;
-    if (compressionEnabled) {
-      final byte[] compressedMessageData = Arrays.copyOfRange(frameData, 1, frameData.length - pad);
-      final int uncompressedLength = compressor.uncompressedLength(compressedMessageData);
-      if (uncompressedLength >= LENGTH_MAX_MESSAGE_FRAME) {
-        throw error("Message size %s in excess of maximum length.", uncompressedLength);
-      }
-      Bytes _data;
-      try {
-        final byte[] decompressedMessageData = compressor.decompress(compressedMessageData);
-        _data = Bytes.wrap(decompressedMessageData);
-        compressionSuccessful = true;
-      } catch (final FramingException fe) {
-        if (compressionSuccessful) {
-          throw fe;
-        } else {
-          // OpenEthereum/Parity does not implement EIP-706
-          // If failing on the first packet downgrade to uncompressed
-          compressionEnabled = false;
-          LOG.debug("Snappy decompression failed: downgrading to uncompressed");
-          final int messageLength = frameSize - LENGTH_MESSAGE_ID;
-          _data = Bytes.wrap(frameData, 1, messageLength);
-        }
-      }
-      data = _data;
-    } else {
-      // Move data to a ByteBuf
-      final int messageLength = frameSize - LENGTH_MESSAGE_ID;
-      data = Bytes.wrap(frameData, 1, messageLength);
+    decryptor.processBytes(frameData, offset, frameLength, frameData, offset);
+
+    // Read the id, a single byte RLP item.
+    final int id = frameData[offset] & 0xff;
+    if (id > RLP_EMPTY_ITEM) {
+      throw error("Expected a single byte message id, got %s", id);
     }
+    return id == RLP_EMPTY_ITEM ? 0 : id;
+  }
 
-    return new RawMessage(id, data);
+  private Bytes decompress(final byte[] frameData, final int offset, final int length) {
+    final int uncompressedLength = compressor.uncompressedLength(frameData, offset, length);
+    if (uncompressedLength >= LENGTH_MAX_MESSAGE_FRAME) {
+      throw error("Message size %s in excess of maximum length.", uncompressedLength);
+    }
+    try {
+      final byte[] data = new byte[uncompressedLength];
+      compressor.decompress(frameData, offset, length, data);
+      compressionSuccessful = true;
+      return Bytes.wrap(data);
+    } catch (final FramingException fe) {
+      if (compressionSuccessful) {
+        throw fe;
+      }
+      // OpenEthereum/Parity does not implement EIP-706
+      // If failing on the first packet downgrade to uncompressed
+      compressionEnabled = false;
+      LOG.debug("Snappy decompression failed: downgrading to uncompressed");
+      return Bytes.wrap(Arrays.copyOfRange(frameData, offset, offset + length));
+    }
   }
 
   private void validateMac(final byte[] candidateMac, final byte[] expectedMac) {
-    if (!Arrays.equals(expectedMac, candidateMac)) {
+    if (!Arrays.equals(expectedMac, 0, LENGTH_MAC, candidateMac, 0, LENGTH_MAC)) {
       throw error(
           "Frame MAC did not match expected MAC; expected: %s, received: %s",
-          hexDump(expectedMac), hexDump(candidateMac));
+          hexDump(expectedMac, 0, LENGTH_MAC), hexDump(candidateMac));
     }
   }
 
+  /**
+   * Encrypts the first block of a MAC with the MAC secret and xors it with a block of bytes.
+   *
+   * @return The resulting block, to update the MAC with.
+   */
+  private byte[] macBlock(final byte[] mac, final byte[] bytes, final int offset) {
+    macEncryptor.processBlock(mac, 0, macBlock, 0);
+    for (int i = 0; i < LENGTH_MAC; i++) {
+      macBlock[i] ^= bytes[offset + i];
+    }
+    return macBlock;
+  }
+
   /**
    * Frames a message for sending to an RLPx peer, encrypting it and calculating the appropriate
    * MACs.
@@ -325,63 +344,83 @@ public class Framer {
    * @param message The message to frame.
    * @param output The {@link ByteBuf} to write framed data to.
    */
-  public synchronized void frame(final MessageData message, final ByteBuf output) {
+  public void frame(final MessageData message, final ByteBuf output) {
     Preconditions.checkArgument(
         message.getSize() < LENGTH_MAX_MESSAGE_FRAME, "Message size in excess of maximum length.");
-    // Compress message
-    if (compressionEnabled) {
-      // Extract data from message
-      // Compress data
-      final byte[] compressed = compressor.compress(message.getData().toArrayUnsafe());
-      // Construct new, compressed message
-      frameMessage(new RawMessage(message.getCode(), Bytes.wrap(compressed)), output);
-    } else {
-      frameMessage(message, output);
-    }
+    frameMessage(message, output, compressionEnabled);
   }
 
   @VisibleForTesting
   void frameMessage(final MessageData message, final ByteBuf buf) {
-    final int frameSize = message.getSize() + LENGTH_MESSAGE_ID;
-    final int pad = padding16(frameSize);
+    frameMessage(message, buf, false);
+  }
 
-    final byte id = (byte) message.getCode();
+  private void frameMessage(final MessageData message, final ByteBuf buf, final boolean compress) {
+    final int dataSize = message.getSize();
+    final int maxFrameSize =
+        LENGTH_MESSAGE_ID + (compress ? compressor.maxCompressedLength(dataSize) : dataSize);
+    final int maxLength = LENGTH_FULL_HEADER + maxFrameSize + LENGTH_MAX_PADDING + LENGTH_MAC;
+    if (buf.hasArray()) {
+      buf.ensureWritable(maxLength);
+      frameMessageInPlace(message, buf, compress);
+      return;
+    }
+    // The frame is encrypted within an array, staged in a pooled buffer for a direct output.
+    final ByteBuf staging = buf.alloc().heapBuffer(maxLength);
+    try {
+      frameMessageInPlace(message, staging, compress);
+      buf.writeBytes(staging);
+    } finally {
+      staging.release();
+    }
+  }
+
+  private void frameMessageInPlace(
+      final MessageData message, final ByteBuf buf, final boolean compress) {
+    final byte[] array = buf.array();
+    final int start = buf.arrayOffset() + buf.writerIndex();
+    final int frameStart = start + LENGTH_FULL_HEADER;
+    final int dataStart = frameStart + LENGTH_MESSAGE_ID;
+
+    // Write the id, a single byte RLP item, and the message data.
+    final int id = message.getCode();
+    assert id >= 0 && id < RLP_EMPTY_ITEM : "Message id doesn't fit in a single byte";
+    array[frameStart] = (byte) (id == 0 ? RLP_EMPTY_ITEM : id);
+    final Bytes data = message.getData();
+    final int dataSize;
+    if (compress) {
+      dataSize = compressor.compress(data.toArrayUnsafe(), 0, data.size(), array, dataStart);
+    } else {
+      dataSize = data.size();
+      data.copyTo(MutableBytes.wrap(array, dataStart, dataSize));
+    }
+    final int frameSize = LENGTH_MESSAGE_ID + dataSize;
+    final int frameLength = frameSize + padding16(frameSize);
+    // Zero-padded to 16-byte boundary.
+    Arrays.fill(array, frameStart + frameSize, frameStart + frameLength, (byte) 0x00);
 
     // Generate the header data.
-    final byte[] h = new byte[LENGTH_HEADER_DATA];
-    h[0] = (byte) ((frameSize >> 16) & 0xff);
-    h[1] = (byte) ((frameSize >> 8) & 0xff);
-    h[2] = (byte) (frameSize & 0xff);
-    System.arraycopy(PROTOCOL_HEADER, 0, h, LENGTH_FRAME_SIZE, PROTOCOL_HEADER.length);
-    Arrays.fill(h, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, h.length - 1, (byte) 0x00);
-    encryptor.processBytes(h, 0, LENGTH_HEADER_DATA, h, 0);
+    header[0] = (byte) ((frameSize >> 16) & 0xff);
+    header[1] = (byte) ((frameSize >> 8) & 0xff);
+    header[2] = (byte) (frameSize & 0xff);
+    System.arraycopy(PROTOCOL_HEADER, 0, header, LENGTH_FRAME_SIZE, PROTOCOL_HEADER.length);
+    Arrays.fill(header, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, header.length, (byte) 0x00);
+    encryptor.processBytes(header, 0, LENGTH_HEADER_DATA, array, start);
 
     // Generate the header MAC.
-    byte[] hMac = Arrays.copyOf(secrets.getEgressMac(), LENGTH_MAC);
-    macEncryptor.processBlock(hMac, 0, hMac, 0);
-    hMac = secrets.updateEgress(xor(h, hMac)).getEgressMac();
-    hMac = Arrays.copyOf(hMac, LENGTH_MAC);
-    buf.writeBytes(h).writeBytes(hMac);
+    final byte[] hMac =
+        secrets.updateEgress(macBlock(secrets.getEgressMac(), array, start)).getEgressMac();
+    System.arraycopy(hMac, 0, array, start + LENGTH_HEADER_DATA, LENGTH_MAC);
 
     // Encrypt payload.
-    final MutableBytes f = MutableBytes.create(frameSize + pad);
-
-    final Bytes bv = id == 0 ? RLP.NULL : RLP.encodeOne(Bytes.of(id));
-    assert bv.size() == 1;
-    f.set(0, bv.get(0));
-
-    // Zero-padded to 16-byte boundary.
-    message.getData().copyTo(f, 1);
-    encryptor.processBytes(f.toArrayUnsafe(), 0, f.size(), f.toArrayUnsafe(), 0);
+    encryptor.processBytes(array, frameStart, frameLength, array, frameStart);
 
     // Calculate the frame MAC.
-    final byte[] fMacSeed =
-        Arrays.copyOf(secrets.updateEgress(f.toArrayUnsafe()).getEgressMac(), LENGTH_MAC);
-    byte[] fMac = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMac, 0);
-    fMac = Arrays.copyOf(secrets.updateEgress(xor(fMac, fMacSeed)).getEgressMac(), LENGTH_MAC);
+    final byte[] fMacSeed = secrets.updateEgress(array, frameStart, frameLength).getEgressMac();
+    final byte[] fMac = secrets.updateEgress(macBlock(fMacSeed, fMacSeed, 0)).getEgressMac();
+    System.arraycopy(fMac, 0, array, frameStart + frameLength, LENGTH_MAC);
 
-    buf.writeBytes(f.toArrayUnsafe()).writeBytes(fMac);
+    buf.writerIndex(buf.writerIndex() + LENGTH_FULL_HEADER + frameLength + LENGTH_MAC);
   }
 
   private static int padding16(final int size) {
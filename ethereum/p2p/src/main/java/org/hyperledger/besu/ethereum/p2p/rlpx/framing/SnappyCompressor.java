@@ -53,4 +53,62 @@ public class SnappyCompressor {
       throw new FramingException("Snappy uncompressedLength failed", e);
     }
   }
+
+  /**
+   * Compresses a range of an array into another array.
+   *
+   * @param uncompressed the array of the data to compress
+   * @param offset the offset of the data to compress
+   * @param length the length of the data to compress
+   * @param compressed the array to write the compressed data to, with at least {@link
+   *     #maxCompressedLength(int)} bytes from the compressed offset
+   * @param compressedOffset the offset to write the compressed data at
+   * @return the length of the compressed data
+   */
+  public int compress(
+      final byte[] uncompressed,
+      final int offset,
+      final int length,
+      final byte[] compressed,
+      final int compressedOffset) {
+    checkNotNull(uncompressed, "input data must not be null");
+    try {
+      return Snappy.rawCompress(uncompressed, offset, length, compressed, compressedOffset);
+    } catch (final IOException e) {
+      throw new FramingException("Snappy compression failed", e);
+    }
+  }
+
+  /**
+   * Decompresses a range of an array into another array.
+   *
+   * @param compressed the array of the data to decompress
+   * @param offset the offset of the data to decompress
+   * @param length the length of the data to decompress
+   * @param uncompressed the array to write the decompressed data to, sized from {@link
+   *     #uncompressedLength(byte[], int, int)}
+   * @return the length of the decompressed data
+   */
+  public int decompress(
+      final byte[] compressed, final int offset, final int length, final byte[] uncompressed) {
+    checkNotNull(compressed, "input data must not be null");
+    try {
+      return Snappy.uncompress(compressed, offset, length, uncompressed, 0);
+    } catch (final IOException e) {
+      throw new FramingException("Snappy decompression failed", e);
+    }
+  }
+
+  public int uncompressedLength(final byte[] compressed, final int offset, final int length) {
+    checkNotNull(compressed, "input data must not be null");
+    try {
+      return Snappy.uncompressedLength(compressed, offset, length);
+    } catch (final IOException e) {
+      throw new FramingException("Snappy uncompressedLength failed", e);
+    }
+  }
+
+  public int maxCompressedLength(final int length) {
+    return Snappy.maxCompressedLength(length);
+  }
 }
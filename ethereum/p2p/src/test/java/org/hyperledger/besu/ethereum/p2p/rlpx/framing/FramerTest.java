@@ -31,12 +31,14 @@ import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage;
 import org.hyperledger.besu.ethereum.p2p.rlpx.wire.messages.DisconnectMessage.DisconnectReason;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import org.apache.tuweni.bytes.Bytes;
 import org.junit.Test;
@@ -271,6 +273,52 @@ public class FramerTest {
     assertThat(receivingFramer.isCompressionSuccessful()).isTrue();
   }
 
+  @Test
+  public void framesAndDeframesInPooledDirectBuffers() {
+    final HandshakeSecrets secrets =
+        new HandshakeSecrets(
+            Bytes.fromHexString(
+                    "0x75b3ee95adff0c529a05efd7612aa1dbe5057eb9facdde0dfc837ad143da1d43")
+                .toArray(),
+            Bytes.fromHexString(
+                    "0x030dfd1566f4800c4842c177f7d476b64ae2b99a2aa0ab5600aa2f41a8710575")
+                .toArray(),
+            Bytes.fromHexString(
+                    "0xc9d3385b1588a5969cba312f8c29bedb4cb9d56ec0cf825436addc1ec644f1d6")
+                .toArray());
+    final Framer receivingFramer = new Framer(secrets);
+    final Framer sendingFramer = new Framer(secrets);
+    sendingFramer.enableCompression();
+    receivingFramer.enableCompression();
+
+    // Write several messages in the same direct buffer.
+    final Random random = new Random(1);
+    final List<MessageData> messages = new ArrayList<>();
+    final ByteBuf out = PooledByteBufAllocator.DEFAULT.directBuffer();
+    for (int i = 0; i < 10; i++) {
+      // Half random and half zeros, so that the data compresses.
+      final byte[] data = new byte[random.nextInt(5000)];
+      for (int j = 0; j < data.length / 2; j++) {
+        data[j] = (byte) random.nextInt();
+      }
+      final MessageData message = new RawMessage(0x10 + i, Bytes.wrap(data));
+      messages.add(message);
+      sendingFramer.frame(message, out);
+    }
+
+    try {
+      for (final MessageData message : messages) {
+        final MessageData received = receivingFramer.deframe(out);
+        assertThat(received.getCode()).isEqualTo(message.getCode());
+        assertThat(received.getData()).isEqualTo(message.getData());
+      }
+      assertThat(receivingFramer.deframe(out)).isNull();
+      assertThat(receivingFramer.isCompressionSuccessful()).isTrue();
+    } finally {
+      out.release();
+    }
+  }
+
   private HandshakeSecrets secretsFrom(final JsonNode td, final boolean swap) {
     final byte[] aes = decodeHexDump(td.get("aes_secret").asText());
     final byte[] mac = decodeHexDump(td.get("mac_secret").asText());
@@ -35,6 +35,25 @@ public class SnappyCompressorTest {
     assertThat(snappy.decompress(snappy.compress(data))).isEqualTo(data);
   }
 
+  @Test
+  public void roundTripArrayRanges() {
+    final byte[] data =
+        "Uncompressed sample text for round-trip compression/decompression"
+            .repeat(4)
+            .getBytes(StandardCharsets.UTF_8);
+    final byte[] input = new byte[data.length + 8];
+    System.arraycopy(data, 0, input, 4, data.length);
+
+    final byte[] compressed = new byte[4 + snappy.maxCompressedLength(data.length)];
+    final int compressedLength = snappy.compress(input, 4, data.length, compressed, 4);
+    assertThat(snappy.uncompressedLength(compressed, 4, compressedLength)).isEqualTo(data.length);
+
+    final byte[] decompressed = new byte[data.length];
+    assertThat(snappy.decompress(compressed, 4, compressedLength, decompressed))
+        .isEqualTo(data.length);
+    assertThat(decompressed).isEqualTo(data);
+  }
+
   @Test
   public void roundTripEmptyByteArray() {
     final byte[] data = new byte[0];
@@ -0,0 +1,100 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class TrieBatchUpdateBench {
+
+  @Param({"10000", "100000"})
+  public int entries;
+
+  @Param({"10", "1000"})
+  public int updates;
+
+  private MerkleStorage storage;
+  private Bytes32 rootHash;
+  private Map<Bytes32, Optional<Bytes>> batch;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(1);
+    storage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+    final StoredMerklePatriciaTrie<Bytes32, Bytes> trie =
+        createTrie(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+    final List<Bytes32> keys = new ArrayList<>(entries);
+    for (int i = 0; i < entries; i++) {
+      keys.add(randomKey(random));
+      trie.put(keys.get(i), Bytes.ofUnsignedInt(i));
+    }
+    trie.commit(storage::put);
+    storage.commit();
+    rootHash = trie.getRootHash();
+
+    batch = new HashMap<>();
+    for (int i = 0; i < updates; i++) {
+      // A tenth of removes of existing keys, the rest being puts of new keys.
+      if (i % 10 == 0) {
+        batch.put(keys.get(random.nextInt(entries)), Optional.empty());
+      } else {
+        batch.put(randomKey(random), Optional.of(Bytes.ofUnsignedInt(i)));
+      }
+    }
+  }
+
+  @Benchmark
+  public Bytes32 sequentialUpdates() {
+    final StoredMerklePatriciaTrie<Bytes32, Bytes> trie = createTrie(rootHash);
+    batch.forEach(
+        (key, value) -> value.ifPresentOrElse(v -> trie.put(key, v), () -> trie.remove(key)));
+    return trie.getRootHash();
+  }
+
+  @Benchmark
+  public Bytes32 batchUpdate() {
+    final StoredMerklePatriciaTrie<Bytes32, Bytes> trie = createTrie(rootHash);
+    trie.updateAll(batch);
+    return trie.getRootHash();
+  }
+
+  private StoredMerklePatriciaTrie<Bytes32, Bytes> createTrie(final Bytes32 root) {
+    return new StoredMerklePatriciaTrie<>(
+        storage::get, root, Function.identity(), Function.identity());
+  }
+
+  private static Bytes32 randomKey(final Random random) {
+    final byte[] key = new byte[Bytes32.SIZE];
+    random.nextBytes(key);
+    return Bytes32.wrap(key);
+  }
+}
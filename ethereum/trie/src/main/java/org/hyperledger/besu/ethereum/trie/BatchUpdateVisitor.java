@@ -0,0 +1,282 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import static org.hyperledger.besu.ethereum.trie.CompactEncoding.LEAF_TERMINATOR;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.apache.tuweni.bytes.Bytes;
+
+/**
+ * Applies a batch of puts and removes to a trie in one traversal.
+ *
+ * <p>The updates are sorted by path, so that the updates below a node form a contiguous run of the
+ * batch. Each node on the paths of the updates is visited once with all the updates below it and
+ * rebuilt at most once, where applying the updates one by one rebuilds the upper nodes for every
+ * key. The resulting trie is the same as the one of sequential puts and removes.
+ *
+ * @param <V> the type of the values of the trie
+ */
+class BatchUpdateVisitor<V> implements PathNodeVisitor<V> {
+
+  private static final Comparator<Bytes> PATH_ORDER = BatchUpdateVisitor::comparePaths;
+
+  private final NodeFactory<V> nodeFactory;
+  private final List<Update<V>> updates;
+  private final int depth;
+
+  private BatchUpdateVisitor(
+      final NodeFactory<V> nodeFactory, final List<Update<V>> updates, final int depth) {
+    this.nodeFactory = nodeFactory;
+    this.updates = updates;
+    this.depth = depth;
+  }
+
+  /**
+   * Applies updates to a trie.
+   *
+   * @param nodeFactory the factory of the trie
+   * @param root the root of the trie
+   * @param updates the updates by key, a value being put and an empty value removing the key
+   * @param <K> the type of the keys of the trie
+   * @param <V> the type of the values of the trie
+   * @return the updated root of the trie
+   */
+  static <K extends Bytes, V> Node<V> updateAll(
+      final NodeFactory<V> nodeFactory, final Node<V> root, final Map<K, Optional<V>> updates) {
+    final List<Update<V>> sortedUpdates =
+        updates.entrySet().stream()
+            .map(
+                entry ->
+                    new Update<>(CompactEncoding.bytesToPath(entry.getKey()), entry.getValue()))
+            .sorted(Comparator.comparing(update -> update.path, PATH_ORDER))
+            .collect(Collectors.toList());
+    return update(nodeFactory, root, sortedUpdates, 0);
+  }
+
+  private static <V> Node<V> update(
+      final NodeFactory<V> nodeFactory,
+      final Node<V> node,
+      final List<Update<V>> updates,
+      final int depth) {
+    if (updates.isEmpty()) {
+      return node;
+    } else if (updates.size() == 1) {
+      // Nothing to share with a single key.
+      final Update<V> update = updates.get(0);
+      return update
+          .value
+          .map(value -> node.accept(new PutVisitor<>(nodeFactory, value), update.path.slice(depth)))
+          .orElseGet(() -> node.accept(new RemoveVisitor<>(), update.path.slice(depth)));
+    }
+    return node.accept(new BatchUpdateVisitor<>(nodeFactory, updates, depth), Bytes.EMPTY);
+  }
+
+  @Override
+  public Node<V> visit(final ExtensionNode<V> extensionNode, final Bytes path) {
+    final Bytes extensionPath = extensionNode.getPath();
+    final int commonPathLength = commonPathLength(extensionPath);
+
+    if (commonPathLength == extensionPath.size()) {
+      final Node<V> child = extensionNode.getChild();
+      final Node<V> updatedChild =
+          update(nodeFactory, child, updates, depth + extensionPath.size());
+      return updatedChild == child ? extensionNode : withPrefix(extensionPath, updatedChild);
+    }
+
+    // Some paths diverge before the end of the extension, which is split at the first of them.
+    final ArrayList<Node<V>> children =
+        new ArrayList<>(Collections.<Node<V>>nCopies(BranchNode.RADIX, NullNode.instance()));
+    children.set(
+        extensionPath.get(commonPathLength),
+        extensionNode.replacePath(extensionPath.slice(commonPathLength + 1)));
+    return updateBranch(children, Optional.empty(), depth + commonPathLength)
+        .map(branch -> withPrefix(extensionPath.slice(0, commonPathLength), branch))
+        .orElse(extensionNode);
+  }
+
+  @Override
+  public Node<V> visit(final BranchNode<V> branchNode, final Bytes path) {
+    final ArrayList<Node<V>> children = new ArrayList<>(branchNode.getChildren());
+    return updateBranch(children, branchNode.getValue(), depth).orElse(branchNode);
+  }
+
+  @Override
+  public Node<V> visit(final LeafNode<V> leafNode, final Bytes path) {
+    final Bytes leafPath =
+        Bytes.concatenate(updates.get(0).path.slice(0, depth), leafNode.getPath());
+    final Update<V> leafEntry = new Update<>(leafPath, leafNode.getValue());
+    final List<Update<V>> puts = new ArrayList<>(updates.size() + 1);
+    boolean leafHandled = false;
+    for (final Update<V> update : updates) {
+      final int order = comparePaths(update.path, leafPath);
+      if (order == 0) {
+        // The entry of the leaf is replaced or removed.
+        leafHandled = true;
+      } else if (order > 0 && !leafHandled) {
+        puts.add(leafEntry);
+        leafHandled = true;
+      }
+      if (update.value.isPresent()) {
+        puts.add(update);
+      }
+    }
+    if (!leafHandled) {
+      puts.add(leafEntry);
+    }
+    if (puts.size() == 1 && puts.get(0) == leafEntry) {
+      // Only removes of other keys.
+      return leafNode;
+    }
+    return build(puts, depth);
+  }
+
+  @Override
+  public Node<V> visit(final NullNode<V> nullNode, final Bytes path) {
+    return build(
+        updates.stream().filter(update -> update.value.isPresent()).collect(Collectors.toList()),
+        depth);
+  }
+
+  /**
+   * Applies the updates to the children and value of a branch at the given depth.
+   *
+   * @return the updated node, or empty if no update changed the branch
+   */
+  private Optional<Node<V>> updateBranch(
+      final ArrayList<Node<V>> children, final Optional<V> value, final int branchDepth) {
+    boolean changed = false;
+    Optional<V> updatedValue = value;
+    int start = 0;
+    while (start < updates.size()) {
+      final byte index = updates.get(start).path.get(branchDepth);
+      int end = start + 1;
+      while (end < updates.size() && updates.get(end).path.get(branchDepth) == index) {
+        end++;
+      }
+      if (index == LEAF_TERMINATOR) {
+        updatedValue = updates.get(start).value;
+        changed = true;
+      } else {
+        final Node<V> child = children.get(index);
+        final Node<V> updatedChild =
+            update(nodeFactory, child, updates.subList(start, end), branchDepth + 1);
+        if (updatedChild != child) {
+          children.set(index, updatedChild);
+          changed = true;
+        }
+      }
+      start = end;
+    }
+    return changed ? Optional.of(branch(children, updatedValue)) : Optional.empty();
+  }
+
+  /** Builds the subtrie of entries sorted by path, all with the same first nibbles up to depth. */
+  private Node<V> build(final List<Update<V>> puts, final int buildDepth) {
+    if (puts.isEmpty()) {
+      return NullNode.instance();
+    } else if (puts.size() == 1) {
+      final Update<V> put = puts.get(0);
+      return nodeFactory.createLeaf(put.path.slice(buildDepth), put.value.orElseThrow());
+    }
+    // Sorted paths, so the prefix of the first and last ones is common to all of them.
+    final Bytes firstPath = puts.get(0).path.slice(buildDepth);
+    final Bytes lastPath = puts.get(puts.size() - 1).path.slice(buildDepth);
+    final int commonPathLength = firstPath.commonPrefixLength(lastPath);
+    final int branchDepth = buildDepth + commonPathLength;
+
+    final ArrayList<Node<V>> children =
+        new ArrayList<>(Collections.<Node<V>>nCopies(BranchNode.RADIX, NullNode.instance()));
+    Optional<V> value = Optional.empty();
+    int start = 0;
+    while (start < puts.size()) {
+      final byte index = puts.get(start).path.get(branchDepth);
+      int end = start + 1;
+      while (end < puts.size() && puts.get(end).path.get(branchDepth) == index) {
+        end++;
+      }
+      if (index == LEAF_TERMINATOR) {
+        value = puts.get(start).value;
+      } else {
+        children.set(index, build(puts.subList(start, end), branchDepth + 1));
+      }
+      start = end;
+    }
+    return withPrefix(
+        firstPath.slice(0, commonPathLength), nodeFactory.createBranch(children, value));
+  }
+
+  /** Creates a branch, collapsing it when it has a single child or only a value. */
+  private Node<V> branch(final ArrayList<Node<V>> children, final Optional<V> value) {
+    int onlyChildIndex = -1;
+    int childCount = 0;
+    for (int i = 0; i < BranchNode.RADIX; i++) {
+      if (!(children.get(i) instanceof NullNode)) {
+        onlyChildIndex = i;
+        childCount++;
+      }
+    }
+    if (childCount == 0) {
+      return value
+          .map(v -> nodeFactory.createLeaf(Bytes.of(LEAF_TERMINATOR), v))
+          .orElse(NullNode.instance());
+    } else if (childCount == 1 && value.isEmpty()) {
+      return withPrefix(Bytes.of(onlyChildIndex), children.get(onlyChildIndex));
+    }
+    return nodeFactory.createBranch(children, value);
+  }
+
+  private static <V> Node<V> withPrefix(final Bytes prefix, final Node<V> node) {
+    if (prefix.isEmpty() || node instanceof NullNode) {
+      return node;
+    }
+    return node.replacePath(Bytes.concatenate(prefix, node.getPath()));
+  }
+
+  private int commonPathLength(final Bytes extensionPath) {
+    int commonPathLength = extensionPath.size();
+    for (final Update<V> update : updates) {
+      commonPathLength =
+          Math.min(commonPathLength, extensionPath.commonPrefixLength(update.path.slice(depth)));
+    }
+    return commonPathLength;
+  }
+
+  /** Orders paths nibble by nibble, unlike the numeric order of {@link Bytes#compareTo}. */
+  private static int comparePaths(final Bytes path1, final Bytes path2) {
+    final int commonPathLength = path1.commonPrefixLength(path2);
+    if (commonPathLength < path1.size() && commonPathLength < path2.size()) {
+      return Byte.compare(path1.get(commonPathLength), path2.get(commonPathLength));
+    }
+    return Integer.compare(path1.size(), path2.size());
+  }
+
+  private static class Update<V> {
+    private final Bytes path;
+    private final Optional<V> value;
+
+    private Update(final Bytes path, final Optional<V> value) {
+      this.path = path;
+      this.value = value;
+    }
+  }
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -65,6 +66,17 @@ public interface MerklePatriciaTrie<K, V> {
    */
   void remove(K key);
 
+  /**
+   * Applies a batch of updates, putting the present values and deleting the keys of the empty ones.
+   * The resulting trie is the same as the one of applying the updates one by one, implementations
+   * may share the traversal of the nodes common to several keys.
+   *
+   * @param updates The values to associate the keys with, or empty to delete them.
+   */
+  default void updateAll(final Map<K, Optional<V>> updates) {
+    updates.forEach((key, value) -> value.ifPresentOrElse(v -> put(key, v), () -> remove(key)));
+  }
+
   /**
    * Returns the KECCAK256 hash of the root node of the trie.
    *
@@ -72,6 +84,17 @@ public interface MerklePatriciaTrie<K, V> {
    */
   Bytes32 getRootHash();
 
+  /**
+   * Returns the KECCAK256 hash of the root node of the trie, hashing the changed subtries in
+   * parallel when the trie supports it.
+   *
+   * @param forkJoinPool the pool hashing the subtries
+   * @return The KECCAK256 hash of the root node of the trie.
+   */
+  default Bytes32 getRootHash(final ForkJoinPool forkJoinPool) {
+    return getRootHash();
+  }
+
   /**
    * Commits any pending changes to the underlying storage.
    *
@@ -79,6 +102,17 @@ public interface MerklePatriciaTrie<K, V> {
    */
   void commit(NodeUpdater nodeUpdater);
 
+  /**
+   * Commits any pending changes to the underlying storage, hashing the changed subtries in parallel
+   * when the trie supports it. The nodes are stored by the calling thread.
+   *
+   * @param nodeUpdater used to store the node values
+   * @param forkJoinPool the pool hashing the subtries
+   */
+  default void commit(final NodeUpdater nodeUpdater, final ForkJoinPool forkJoinPool) {
+    commit(nodeUpdater);
+  }
+
   /**
    * Retrieve up to {@code limit} storage entries beginning from the first entry with hash equal to
    * or greater than {@code startKeyHash}.
@@ -0,0 +1,62 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Visits all the nodes below a node as a fork/join task.
+ *
+ * <p>The nodes of the first levels are split into one subtask per child, the subtries below them
+ * are visited sequentially by an {@link AllNodesVisitor}. Idle threads of the pool steal the
+ * subtasks of the busy ones, so that a few large subtries do not leave the other threads idle.
+ */
+class ParallelAllNodesVisitTask<V> extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Node<V> node;
+  private final transient Consumer<Node<V>> nodeConsumer;
+  private final int splitDepth;
+
+  ParallelAllNodesVisitTask(
+      final Node<V> node, final Consumer<Node<V>> nodeConsumer, final int splitDepth) {
+    this.node = node;
+    this.nodeConsumer = nodeConsumer;
+    this.splitDepth = splitDepth;
+  }
+
+  @Override
+  protected void compute() {
+    if (splitDepth <= 0) {
+      node.accept(new AllNodesVisitor<>(nodeConsumer));
+      node.unload();
+      return;
+    }
+    if (node instanceof NullNode) {
+      return;
+    }
+    nodeConsumer.accept(node);
+    final List<ParallelAllNodesVisitTask<V>> subtasks =
+        node.getChildren().stream()
+            .map(child -> new ParallelAllNodesVisitTask<>(child, nodeConsumer, splitDepth - 1))
+            .collect(Collectors.toList());
+    invokeAll(subtasks);
+    node.unload();
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * Hashes the changed nodes below a node as a fork/join task, buffering the nodes to store if
+ * requested.
+ *
+ * <p>The changed children of the branches of the first levels are hashed by one subtask each, the
+ * subtries below them sequentially, by a {@link CommitVisitor} when the nodes are stored. A node is
+ * only hashed once all its children are, so that it only has to encode their references. Node
+ * updaters are not thread safe: the buffered nodes are stored afterwards by the calling thread, in
+ * the order of a sequential commit.
+ */
+class ParallelCommitTask<V> extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient Node<V> node;
+  private final transient Bytes location;
+  private final int splitDepth;
+  private final boolean bufferNodes;
+  private final transient List<ParallelCommitTask<V>> subtasks = new ArrayList<>();
+  private final transient List<NodeWrite> writes = new ArrayList<>();
+
+  ParallelCommitTask(
+      final Node<V> node, final Bytes location, final int splitDepth, final boolean bufferNodes) {
+    this.node = node;
+    this.location = location;
+    this.splitDepth = splitDepth;
+    this.bufferNodes = bufferNodes;
+  }
+
+  @Override
+  protected void compute() {
+    if (!node.isDirty()) {
+      return;
+    }
+    if (splitDepth <= 0 || node instanceof LeafNode) {
+      if (bufferNodes) {
+        node.accept(location, new CommitVisitor<>(this::bufferNode));
+      } else {
+        node.getHash();
+      }
+      return;
+    }
+    if (node instanceof ExtensionNode) {
+      // An extension has a single child, it is split at the next branch.
+      final ExtensionNode<V> extensionNode = (ExtensionNode<V>) node;
+      addSubtask(
+          extensionNode.getChild(),
+          Bytes.concatenate(location, extensionNode.getPath()),
+          splitDepth);
+    } else if (node instanceof BranchNode) {
+      final BranchNode<V> branchNode = (BranchNode<V>) node;
+      for (byte i = 0; i < BranchNode.RADIX; ++i) {
+        addSubtask(branchNode.child(i), Bytes.concatenate(location, Bytes.of(i)), splitDepth - 1);
+      }
+    }
+    invokeAll(subtasks);
+    if (bufferNodes) {
+      new CommitVisitor<V>(this::bufferNode).maybeStoreNode(location, node);
+    } else {
+      node.getHash();
+    }
+  }
+
+  /**
+   * Stores the buffered nodes of this task and its subtasks, children first.
+   *
+   * @param nodeUpdater the updater storing the nodes
+   */
+  void storeNodes(final NodeUpdater nodeUpdater) {
+    for (final ParallelCommitTask<V> subtask : subtasks) {
+      subtask.storeNodes(nodeUpdater);
+    }
+    for (final NodeWrite write : writes) {
+      nodeUpdater.store(write.location, write.hash, write.value);
+    }
+  }
+
+  private void addSubtask(final Node<V> child, final Bytes childLocation, final int depth) {
+    if (child.isDirty()) {
+      subtasks.add(new ParallelCommitTask<>(child, childLocation, depth, bufferNodes));
+    }
+  }
+
+  private void bufferNode(final Bytes location, final Bytes32 hash, final Bytes value) {
+    writes.add(new NodeWrite(location, hash, value));
+  }
+
+  private static class NodeWrite {
+    private final Bytes location;
+    private final Bytes32 hash;
+    private final Bytes value;
+
+    NodeWrite(final Bytes location, final Bytes32 hash, final Bytes value) {
+      this.location = location;
+      this.hash = hash;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import static org.hyperledger.besu.crypto.Hash.keccak256;
+import static org.hyperledger.besu.ethereum.trie.MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH;
+
+import org.hyperledger.besu.ethereum.rlp.RLPException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * The part of a trie covering a range of keys, rebuilt from all the entries of the range and the
+ * proofs of its first and last keys.
+ *
+ * <p>The proofs give the nodes on the paths to the boundaries of the range. The subtries between
+ * these paths are removed and rebuilt from the entries, the subtries outside of the range are kept
+ * as the hashes referenced by the proofs. The range is only accepted if the rebuilt trie has the
+ * expected root hash, which proves that the entries are exactly the ones of the range. A range
+ * covering all the keys needs no proof.
+ *
+ * <p>Once accepted, the nodes of the range and the nodes on the paths to its boundaries can be
+ * committed, so that the trie can be stored range by range without downloading its nodes.
+ *
+ * @param <V> the type of the values of the trie
+ */
+public class RangeTrie<V> {
+
+  private final Node<V> root;
+
+  private RangeTrie(final Node<V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Rebuilds the part of a trie covering a range of keys.
+   *
+   * @param rootHash the root hash of the trie
+   * @param startKeyHash the first key of the range
+   * @param endKeyHash the last key of the range
+   * @param entries all the entries of the trie within the range
+   * @param proof the nodes of the proofs of the first and last keys of the range
+   * @param valueSerializer a function for serializing values to bytes
+   * @param valueDeserializer a function for deserializing values from bytes
+   * @param <V> the type of the values of the trie
+   * @return the rebuilt part of the trie, or empty if the entries and proof do not match the root
+   *     hash
+   */
+  public static <V> Optional<RangeTrie<V>> rebuild(
+      final Bytes32 rootHash,
+      final Bytes32 startKeyHash,
+      final Bytes32 endKeyHash,
+      final SortedMap<Bytes32, V> entries,
+      final List<Bytes> proof,
+      final Function<V, Bytes> valueSerializer,
+      final Function<Bytes, V> valueDeserializer) {
+    if (startKeyHash.compareTo(endKeyHash) > 0
+        || (!entries.isEmpty()
+            && (entries.firstKey().compareTo(startKeyHash) < 0
+                || entries.lastKey().compareTo(endKeyHash) > 0))) {
+      return Optional.empty();
+    }
+    final Map<Bytes32, Bytes> proofNodes = new HashMap<>();
+    proof.forEach(node -> proofNodes.put(keccak256(node), node));
+    final StoredNodeFactory<V> nodeFactory =
+        new StoredNodeFactory<>(
+            (location, hash) -> Optional.ofNullable(proofNodes.get(hash)),
+            valueSerializer,
+            valueDeserializer);
+    final Node<V> proofRoot =
+        rootHash.equals(EMPTY_TRIE_NODE_HASH)
+            ? NullNode.instance()
+            : new StoredNode<>(nodeFactory, Bytes.EMPTY, rootHash);
+    try {
+      Node<V> root =
+          new RemoveRangeVisitor<>(nodeFactory, path(startKeyHash), path(endKeyHash))
+              .remove(proofRoot, Bytes.EMPTY);
+      for (final Map.Entry<Bytes32, V> entry : entries.entrySet()) {
+        root =
+            root.accept(
+                new PutVisitor<>(nodeFactory, entry.getValue()),
+                CompactEncoding.bytesToPath(entry.getKey()));
+      }
+      return root.getHash().equals(rootHash)
+          ? Optional.of(new RangeTrie<>(root))
+          : Optional.empty();
+    } catch (final MerkleTrieException | RLPException e) {
+      // A node on the path to a boundary is missing from the proof or is malformed.
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the nodes of the range and the nodes on the paths to its boundaries.
+   *
+   * @param nodeUpdater the updater storing the nodes
+   */
+  public void commit(final NodeUpdater nodeUpdater) {
+    root.accept(Bytes.EMPTY, new CommitVisitor<>(nodeUpdater));
+    if (root.isDirty() && root.getRlpRef().size() < 32) {
+      nodeUpdater.store(Bytes.EMPTY, root.getHash(), root.getRlpRef());
+    }
+  }
+
+  private static Bytes path(final Bytes32 keyHash) {
+    final Bytes path = CompactEncoding.bytesToPath(keyHash);
+    // Without the leaf terminator.
+    return path.slice(0, path.size() - 1);
+  }
+
+  /**
+   * Removes the subtries whose keys are all within a range, keeping the ones whose keys are all
+   * outside of it untouched. Only the nodes with keys on both sides of a boundary are loaded, from
+   * the proof of that boundary, and they are recreated so that they are committed with the range.
+   */
+  private static class RemoveRangeVisitor<V> implements PathNodeVisitor<V> {
+
+    private final StoredNodeFactory<V> nodeFactory;
+    private final Bytes startPath;
+    private final Bytes endPath;
+
+    RemoveRangeVisitor(
+        final StoredNodeFactory<V> nodeFactory, final Bytes startPath, final Bytes endPath) {
+      this.nodeFactory = nodeFactory;
+      this.startPath = startPath;
+      this.endPath = endPath;
+    }
+
+    Node<V> remove(final Node<V> node, final Bytes location) {
+      final int length = location.size();
+      final int toStart = location.compareTo(startPath.slice(0, length));
+      final int toEnd = location.compareTo(endPath.slice(0, length));
+      if (toStart < 0 || toEnd > 0) {
+        // All the keys below the location are before the start or after the end of the range.
+        return node;
+      }
+      final boolean fromStart = toStart > 0 || isAll(startPath.slice(length), (byte) 0);
+      final boolean toLast = toEnd < 0 || isAll(endPath.slice(length), (byte) 0x0f);
+      if (fromStart && toLast) {
+        return NullNode.instance();
+      }
+      return node.accept(this, location);
+    }
+
+    @Override
+    public Node<V> visit(final ExtensionNode<V> extensionNode, final Bytes location) {
+      final Node<V> child = extensionNode.getChild();
+      final Node<V> remaining = remove(child, Bytes.concatenate(location, extensionNode.getPath()));
+      if (remaining == child) {
+        return extensionNode;
+      } else if (remaining instanceof NullNode) {
+        return remaining;
+      }
+      return nodeFactory.createExtension(extensionNode.getPath(), remaining);
+    }
+
+    @Override
+    public Node<V> visit(final BranchNode<V> branchNode, final Bytes location) {
+      final ArrayList<Node<V>> children = new ArrayList<>(BranchNode.RADIX);
+      for (byte i = 0; i < BranchNode.RADIX; i++) {
+        children.add(remove(branchNode.child(i), Bytes.concatenate(location, Bytes.of(i))));
+      }
+      return nodeFactory.createBranch(children, branchNode.getValue());
+    }
+
+    @Override
+    public Node<V> visit(final LeafNode<V> leafNode, final Bytes location) {
+      final Bytes leafPath = leafNode.getPath();
+      final Bytes keyPath = Bytes.concatenate(location, leafPath.slice(0, leafPath.size() - 1));
+      if (keyPath.compareTo(startPath) < 0 || keyPath.compareTo(endPath) > 0) {
+        return leafNode;
+      }
+      return NullNode.instance();
+    }
+
+    @Override
+    public Node<V> visit(final NullNode<V> nullNode, final Bytes location) {
+      return nullNode;
+    }
+
+    private static boolean isAll(final Bytes nibbles, final byte nibble) {
+      for (int i = 0; i < nibbles.size(); i++) {
+        if (nibbles.get(i) != nibble) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -82,6 +82,18 @@ public class SimpleMerklePatriciaTrie<K extends Bytes, V> implements MerklePatri
     this.root = root.accept(removeVisitor, bytesToPath(key));
   }
 
+  /**
+   * Applies a batch of updates in one traversal of the trie, each node on the paths of the updated
+   * keys being rebuilt at most once.
+   *
+   * @param updates The values to associate the keys with, or empty to delete them.
+   */
+  @Override
+  public void updateAll(final Map<K, Optional<V>> updates) {
+    checkNotNull(updates);
+    this.root = BatchUpdateVisitor.updateAll(nodeFactory, root, updates);
+  }
+
   @Override
   public Bytes32 getRootHash() {
     return root.getHash();
@@ -23,6 +23,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -38,6 +40,9 @@ import org.apache.tuweni.bytes.Bytes32;
  */
 public class StoredMerklePatriciaTrie<K extends Bytes, V> implements MerklePatriciaTrie<K, V> {
 
+  // Up to 256 subtries, enough to keep the threads of a pool busy.
+  private static final int PARALLEL_COMMIT_SPLIT_DEPTH = 2;
+
   private final GetVisitor<V> getVisitor = new GetVisitor<>();
   private final RemoveVisitor<V> removeVisitor = new RemoveVisitor<>();
   private final StoredNodeFactory<V> nodeFactory;
@@ -108,10 +113,45 @@ public class StoredMerklePatriciaTrie<K extends Bytes, V> implements MerklePatri
     this.root = root.accept(removeVisitor, bytesToPath(key));
   }
 
+  /**
+   * Applies a batch of updates in one traversal of the trie, each node on the paths of the updated
+   * keys being rebuilt at most once.
+   *
+   * @param updates The values to associate the keys with, or empty to delete them.
+   */
+  @Override
+  public void updateAll(final Map<K, Optional<V>> updates) {
+    checkNotNull(updates);
+    this.root = BatchUpdateVisitor.updateAll(nodeFactory, root, updates);
+  }
+
   @Override
   public void commit(final NodeUpdater nodeUpdater) {
     final CommitVisitor<V> commitVisitor = new CommitVisitor<>(nodeUpdater);
     root.accept(Bytes.EMPTY, commitVisitor);
+    storeRootAndReset(nodeUpdater);
+  }
+
+  /**
+   * Commits any pending changes like {@link #commit(NodeUpdater)}, hashing the changed subtries of
+   * the first levels of the trie in parallel on a fork/join pool.
+   *
+   * <p>The nodes to store are buffered while they are hashed, then stored by the calling thread in
+   * the same order as by {@link #commit(NodeUpdater)}.
+   *
+   * @param nodeUpdater used to store the node values
+   * @param forkJoinPool the pool hashing the subtries
+   */
+  @Override
+  public void commit(final NodeUpdater nodeUpdater, final ForkJoinPool forkJoinPool) {
+    final ParallelCommitTask<V> task =
+        new ParallelCommitTask<>(root, Bytes.EMPTY, PARALLEL_COMMIT_SPLIT_DEPTH, true);
+    invoke(task, forkJoinPool);
+    task.storeNodes(nodeUpdater);
+    storeRootAndReset(nodeUpdater);
+  }
+
+  private void storeRootAndReset(final NodeUpdater nodeUpdater) {
     // Make sure root node was stored
     if (root.isDirty() && root.getRlpRef().size() < 32) {
       nodeUpdater.store(Bytes.EMPTY, root.getHash(), root.getRlpRef());
@@ -159,6 +199,30 @@ public class StoredMerklePatriciaTrie<K extends Bytes, V> implements MerklePatri
             .toArray(CompletableFuture[]::new));
   }
 
+  /**
+   * Visits all the nodes of the trie on a fork/join pool.
+   *
+   * <p>The nodes of the first {@code splitDepth} levels are visited by one task per child so that
+   * the threads of the pool can steal the subtries of each other. When called from a thread of the
+   * pool, for example by the consumer of another visit, the visit joins the work of that thread.
+   *
+   * @param nodeConsumer the consumer of the nodes, called concurrently
+   * @param forkJoinPool the pool visiting the nodes
+   * @param splitDepth the number of levels of the trie split into separate tasks
+   */
+  public void visitAllInParallel(
+      final Consumer<Node<V>> nodeConsumer, final ForkJoinPool forkJoinPool, final int splitDepth) {
+    invoke(new ParallelAllNodesVisitTask<>(root, nodeConsumer, splitDepth), forkJoinPool);
+  }
+
+  private static void invoke(final ForkJoinTask<?> task, final ForkJoinPool forkJoinPool) {
+    if (ForkJoinTask.getPool() == forkJoinPool) {
+      task.invoke();
+    } else {
+      forkJoinPool.invoke(task);
+    }
+  }
+
   @Override
   public void visitLeafs(final TrieIterator.LeafHandler<V> handler) {
     final TrieIterator<V> visitor = new TrieIterator<>(handler, true);
@@ -170,6 +234,21 @@ public class StoredMerklePatriciaTrie<K extends Bytes, V> implements MerklePatri
     return root.getHash();
   }
 
+  /**
+   * Returns the hash of the root node, hashing the changed subtries of the first levels of the trie
+   * in parallel on a fork/join pool.
+   *
+   * @param forkJoinPool the pool hashing the subtries
+   * @return the hash of the root node
+   */
+  @Override
+  public Bytes32 getRootHash(final ForkJoinPool forkJoinPool) {
+    invoke(
+        new ParallelCommitTask<>(root, Bytes.EMPTY, PARALLEL_COMMIT_SPLIT_DEPTH, false),
+        forkJoinPool);
+    return root.getHash();
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "[" + getRootHash() + "]";
@@ -0,0 +1,194 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.hyperledger.besu.crypto.Hash.keccak256;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+
+/**
+ * A cache of trie nodes shared by all the tries reading from the same storage, bounded by the
+ * estimated bytes of the nodes it holds.
+ *
+ * <p>Nodes are keyed either by hash, when the storage holds them by hash, or by location, when the
+ * storage only holds the latest node of each location. Location keys are prefixed with the account
+ * of a storage trie. A cached node is only returned for its own hash, so a location whose node has
+ * changed since it was cached is a miss rather than a stale node, and a node read by location is
+ * only cached once checked against its hash.
+ *
+ * <p>The nodes of the first levels of a trie are read by every traversal. When requested, they are
+ * held within a separate part of the budget so that the churn of the lower levels does not evict
+ * them.
+ *
+ * <p>The nodes are cached encoded rather than decoded: a decoded node references the node factory
+ * of its trie and loads its children lazily, so it cannot be shared between tries.
+ */
+public class TrieNodeCache {
+
+  /** A cache that holds no nodes and reads them all from the storage. */
+  public static final TrieNodeCache DISABLED = new TrieNodeCache(0);
+
+  /** The deepest level counted on its own, the lookups of deeper levels are counted with it. */
+  public static final int MAX_LEVEL = 8;
+
+  private static final int RESIDENT_LEVELS = 3;
+  private static final int RESIDENT_BUDGET_DIVISOR = 4;
+  // Estimated size of an entry besides the bytes of its key and node.
+  private static final int ENTRY_OVERHEAD = 96;
+
+  private final boolean enabled;
+  private final Cache<Bytes, CachedNode> nodes;
+  private final Cache<Bytes, CachedNode> residentNodes;
+  private final LongAdder[] hits = new LongAdder[MAX_LEVEL + 1];
+  private final LongAdder[] misses = new LongAdder[MAX_LEVEL + 1];
+
+  /**
+   * Creates a cache holding at most the given estimated bytes of nodes, a quarter of which is kept
+   * for the first levels of the tries.
+   *
+   * @param maxSizeInBytes the budget of the cache, 0 to disable it
+   */
+  public TrieNodeCache(final long maxSizeInBytes) {
+    checkArgument(maxSizeInBytes >= 0, "cache size must not be negative");
+    this.enabled = maxSizeInBytes > 0;
+    final long residentSizeInBytes = maxSizeInBytes / RESIDENT_BUDGET_DIVISOR;
+    this.nodes = createCache(maxSizeInBytes - residentSizeInBytes);
+    this.residentNodes = createCache(residentSizeInBytes);
+    for (int level = 0; level <= MAX_LEVEL; level++) {
+      hits[level] = new LongAdder();
+      misses[level] = new LongAdder();
+    }
+  }
+
+  private static Cache<Bytes, CachedNode> createCache(final long maxSizeInBytes) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(maxSizeInBytes)
+        .weigher(
+            (final Bytes key, final CachedNode node) ->
+                key.size() + Bytes32.SIZE + node.rlp.size() + ENTRY_OVERHEAD)
+        .build();
+  }
+
+  /**
+   * Returns a node of a trie stored by hash, loading it on a miss.
+   *
+   * @param location the location of the node, or null if unknown
+   * @param hash the hash of the node
+   * @param keepUpperLevels whether the first levels of the trie are kept apart from the others
+   * @param loader the loader reading the node from the storage
+   * @return the encoded node, or empty if it is not in the storage
+   */
+  public Optional<Bytes> getNodeByHash(
+      final Bytes location,
+      final Bytes32 hash,
+      final boolean keepUpperLevels,
+      final NodeLoader loader) {
+    return getNode(hash, location, hash, keepUpperLevels, false, loader);
+  }
+
+  /**
+   * Returns a node of a trie stored by location, loading it on a miss.
+   *
+   * @param prefix the prefix of the locations of the trie, empty for the account trie
+   * @param location the location of the node
+   * @param hash the hash of the node
+   * @param keepUpperLevels whether the first levels of the trie are kept apart from the others
+   * @param loader the loader reading the node from the storage
+   * @return the encoded node, or empty if it is not in the storage
+   */
+  public Optional<Bytes> getNodeByLocation(
+      final Bytes prefix,
+      final Bytes location,
+      final Bytes32 hash,
+      final boolean keepUpperLevels,
+      final NodeLoader loader) {
+    return getNode(
+        Bytes.concatenate(prefix, location), location, hash, keepUpperLevels, true, loader);
+  }
+
+  private Optional<Bytes> getNode(
+      final Bytes key,
+      final Bytes location,
+      final Bytes32 hash,
+      final boolean keepUpperLevels,
+      final boolean checkHash,
+      final NodeLoader loader) {
+    if (!enabled) {
+      return loader.getNode(location, hash);
+    }
+    final int level = location == null ? MAX_LEVEL : Math.min(location.size(), MAX_LEVEL);
+    final Cache<Bytes, CachedNode> cache =
+        keepUpperLevels && level < RESIDENT_LEVELS ? residentNodes : nodes;
+    final CachedNode cached = cache.getIfPresent(key);
+    if (cached != null && cached.hash.equals(hash)) {
+      hits[level].increment();
+      return Optional.of(cached.rlp);
+    }
+    misses[level].increment();
+    final Optional<Bytes> rlp = loader.getNode(location, hash);
+    rlp.filter(node -> !checkHash || keccak256(node).equals(hash))
+        .ifPresent(node -> cache.put(key.copy(), new CachedNode(hash, node)));
+    return rlp;
+  }
+
+  /**
+   * Removes a node stored by hash, which is no longer in the storage.
+   *
+   * @param hash the hash of the node
+   */
+  public void invalidateNodeByHash(final Bytes32 hash) {
+    nodes.invalidate(hash);
+    residentNodes.invalidate(hash);
+  }
+
+  /** Removes all the nodes. */
+  public void clear() {
+    nodes.invalidateAll();
+    residentNodes.invalidateAll();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Returns the ratio of the lookups of a level of the tries served from the cache.
+   *
+   * @param level the level, the lookups deeper than {@link #MAX_LEVEL} being counted with it
+   * @return the ratio of the lookups served from the cache, 1 if there were none
+   */
+  public double getHitRatio(final int level) {
+    final long levelHits = hits[level].sum();
+    final long lookups = levelHits + misses[level].sum();
+    return lookups == 0 ? 1.0 : (double) levelHits / lookups;
+  }
+
+  private static class CachedNode {
+    private final Bytes32 hash;
+    private final Bytes rlp;
+
+    private CachedNode(final Bytes32 hash, final Bytes rlp) {
+      this.hash = hash;
+      this.rlp = rlp;
+    }
+  }
+}
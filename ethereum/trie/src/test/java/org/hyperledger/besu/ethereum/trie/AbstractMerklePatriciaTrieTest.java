@@ -21,8 +21,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
 import org.apache.tuweni.bytes.Bytes;
 import org.apache.tuweni.bytes.Bytes32;
@@ -408,4 +411,45 @@ public abstract class AbstractMerklePatriciaTrieTest {
     final String nodeValue = new String(nodes.get(0).getValue().get().toArray(), UTF_8);
     assertThat(nodeValue).isEqualTo(value1);
   }
+
+  @Test
+  public void updateAllMatchesSequentialUpdates() {
+    final MerklePatriciaTrie<Bytes, String> sequentialTrie = createTrie();
+    final Random random = new Random(1);
+    for (int i = 0; i < 200; i++) {
+      // Short keys, so that many of them share nibbles.
+      final Bytes key = Bytes.ofUnsignedShort(random.nextInt(1024));
+      trie.put(key, "value" + i);
+      sequentialTrie.put(key, "value" + i);
+    }
+
+    final Map<Bytes, Optional<String>> updates = new HashMap<>();
+    for (int i = 0; i < 300; i++) {
+      final Bytes key = Bytes.ofUnsignedShort(random.nextInt(1024));
+      updates.put(key, random.nextInt(3) == 0 ? Optional.empty() : Optional.of("updated" + i));
+    }
+    trie.updateAll(updates);
+    updates.forEach(
+        (key, value) ->
+            value.ifPresentOrElse(
+                v -> sequentialTrie.put(key, v), () -> sequentialTrie.remove(key)));
+
+    assertThat(trie.getRootHash()).isEqualTo(sequentialTrie.getRootHash());
+    updates.forEach((key, value) -> assertThat(trie.get(key)).isEqualTo(value));
+  }
+
+  @Test
+  public void updateAllRemovesAllTheKeys() {
+    final Map<Bytes, Optional<String>> updates = new HashMap<>();
+    for (int i = 0; i < 50; i++) {
+      final Bytes key = Bytes.of(0xfe, i);
+      trie.put(key, "value" + i);
+      updates.put(key, Optional.empty());
+    }
+    updates.put(Bytes.of(0xfe, 0xff), Optional.empty());
+
+    trie.updateAll(updates);
+
+    assertThat(trie.getRootHash()).isEqualTo(MerklePatriciaTrie.EMPTY_TRIE_NODE_HASH);
+  }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.apache.tuweni.units.bigints.UInt256;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RangeTrieTest {
+
+  private static final Bytes32 MAX_KEY =
+      Bytes32.fromHexString("0xffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff");
+
+  private final MerkleStorage storage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+  private final StoredMerklePatriciaTrie<Bytes32, Bytes> trie =
+      new StoredMerklePatriciaTrie<>(storage::get, Function.identity(), Function.identity());
+
+  @Before
+  public void setUp() {
+    final Random random = new Random(1);
+    for (int i = 0; i < 200; i++) {
+      final byte[] key = new byte[Bytes32.SIZE];
+      random.nextBytes(key);
+      trie.put(Bytes32.wrap(key), Bytes.ofUnsignedInt(i));
+    }
+    trie.commit(storage::put);
+    storage.commit();
+  }
+
+  @Test
+  public void acceptsAllTheEntriesOfARange() {
+    final Bytes32 start = key("0x40");
+    final SortedMap<Bytes32, Bytes> entries = entries(start, 30);
+
+    assertThat(rebuild(start, entries.lastKey(), entries)).isPresent();
+  }
+
+  @Test
+  public void rejectsARangeWithAMissingEntry() {
+    final Bytes32 start = key("0x40");
+    final SortedMap<Bytes32, Bytes> entries = entries(start, 30);
+    final Bytes32 end = entries.lastKey();
+    entries.remove(new ArrayList<>(entries.keySet()).get(10));
+
+    assertThat(rebuild(start, end, entries)).isEmpty();
+  }
+
+  @Test
+  public void rejectsARangeWithAnAlteredValue() {
+    final Bytes32 start = key("0x40");
+    final SortedMap<Bytes32, Bytes> entries = entries(start, 30);
+    entries.put(new ArrayList<>(entries.keySet()).get(10), Bytes.of(1));
+
+    assertThat(rebuild(start, entries.lastKey(), entries)).isEmpty();
+  }
+
+  @Test
+  public void rejectsAPartialRangeWithoutProof() {
+    final SortedMap<Bytes32, Bytes> entries = entries(Bytes32.ZERO, 30);
+
+    assertThat(
+            RangeTrie.rebuild(
+                trie.getRootHash(),
+                Bytes32.ZERO,
+                entries.lastKey(),
+                entries,
+                List.of(),
+                Function.identity(),
+                Function.identity()))
+        .isEmpty();
+  }
+
+  @Test
+  public void acceptsAllTheEntriesWithoutProof() {
+    final SortedMap<Bytes32, Bytes> entries = entries(Bytes32.ZERO, Integer.MAX_VALUE);
+
+    assertThat(
+            RangeTrie.rebuild(
+                trie.getRootHash(),
+                Bytes32.ZERO,
+                MAX_KEY,
+                entries,
+                List.of(),
+                Function.identity(),
+                Function.identity()))
+        .isPresent();
+  }
+
+  @Test
+  public void acceptsAnEmptyRangeAfterTheLastKey() {
+    final Bytes32 lastKey = entries(Bytes32.ZERO, Integer.MAX_VALUE).lastKey();
+    final Bytes32 start = next(lastKey);
+
+    assertThat(rebuild(start, MAX_KEY, new TreeMap<>())).isPresent();
+    assertThat(rebuild(lastKey, MAX_KEY, new TreeMap<>())).isEmpty();
+  }
+
+  @Test
+  public void committedRangesRebuildTheTrie() {
+    final MerkleStorage rebuiltStorage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+    Bytes32 start = Bytes32.ZERO;
+    while (true) {
+      final SortedMap<Bytes32, Bytes> entries = entries(start, 30);
+      final Bytes32 end = entries.isEmpty() ? MAX_KEY : entries.lastKey();
+      final Optional<RangeTrie<Bytes>> range = rebuild(start, end, entries);
+      assertThat(range).isPresent();
+      range.get().commit(rebuiltStorage::put);
+      if (entries.isEmpty()) {
+        break;
+      }
+      start = next(end);
+    }
+    rebuiltStorage.commit();
+
+    final StoredMerklePatriciaTrie<Bytes32, Bytes> rebuiltTrie =
+        new StoredMerklePatriciaTrie<>(
+            rebuiltStorage::get, trie.getRootHash(), Function.identity(), Function.identity());
+    final List<Bytes32> nodeHashes = new ArrayList<>();
+    rebuiltTrie.visitAll(node -> nodeHashes.add(node.getHash()));
+    assertThat(rebuiltTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE))
+        .isEqualTo(trie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE));
+    assertThat(nodeHashes).hasSizeGreaterThan(200);
+  }
+
+  private Optional<RangeTrie<Bytes>> rebuild(
+      final Bytes32 start, final Bytes32 end, final SortedMap<Bytes32, Bytes> entries) {
+    final List<Bytes> proof = new ArrayList<>(trie.getValueWithProof(start).getProofRelatedNodes());
+    proof.addAll(trie.getValueWithProof(end).getProofRelatedNodes());
+    return RangeTrie.rebuild(
+        trie.getRootHash(), start, end, entries, proof, Function.identity(), Function.identity());
+  }
+
+  private SortedMap<Bytes32, Bytes> entries(final Bytes32 start, final int limit) {
+    return new TreeMap<>(trie.entriesFrom(start, limit));
+  }
+
+  private static Bytes32 key(final String prefix) {
+    return Bytes32.rightPad(Bytes.fromHexString(prefix));
+  }
+
+  private static Bytes32 next(final Bytes32 key) {
+    return UInt256.fromBytes(key).add(1).toBytes();
+  }
+}
@@ -20,7 +20,13 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.services.kvstore.InMemoryKeyValueStorage;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import org.apache.tuweni.bytes.Bytes;
@@ -120,4 +126,86 @@ public class StoredMerklePatriciaTrieTest extends AbstractMerklePatriciaTrieTest
     assertThat(trie.get(key2)).isEqualTo(Optional.of("value2"));
     assertThat(trie.get(key3)).isEqualTo(Optional.of("value3"));
   }
+
+  @Test
+  public void parallelCommitStoresTheSameNodesAsCommit() {
+    final ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+    final MerkleStorage parallelStorage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+    final MerkleStorage sequentialStorage =
+        new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+    final MerklePatriciaTrie<Bytes, String> parallelTrie =
+        new StoredMerklePatriciaTrie<>(parallelStorage::get, valueSerializer, valueDeserializer);
+    final MerklePatriciaTrie<Bytes, String> sequentialTrie =
+        new StoredMerklePatriciaTrie<>(sequentialStorage::get, valueSerializer, valueDeserializer);
+    final List<Bytes> parallelWrites = new ArrayList<>();
+    final List<Bytes> sequentialWrites = new ArrayList<>();
+
+    final Random random = new Random(1);
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 500; i++) {
+        final byte[] key = new byte[Bytes32.SIZE];
+        random.nextBytes(key);
+        parallelTrie.put(Bytes.wrap(key), "value" + i);
+        sequentialTrie.put(Bytes.wrap(key), "value" + i);
+      }
+      assertThat(parallelTrie.getRootHash(forkJoinPool)).isEqualTo(sequentialTrie.getRootHash());
+
+      parallelTrie.commit(
+          (location, hash, value) -> {
+            parallelWrites.add(Bytes.concatenate(location, hash, value));
+            parallelStorage.put(location, hash, value);
+          },
+          forkJoinPool);
+      sequentialTrie.commit(
+          (location, hash, value) -> {
+            sequentialWrites.add(Bytes.concatenate(location, hash, value));
+            sequentialStorage.put(location, hash, value);
+          });
+
+      assertThat(parallelTrie.getRootHash()).isEqualTo(sequentialTrie.getRootHash());
+      assertThat(parallelWrites).isEqualTo(sequentialWrites);
+    }
+    forkJoinPool.shutdown();
+  }
+
+  @Test
+  public void updateAllOnAStoredTrieMatchesSequentialUpdates() {
+    final Random random = new Random(1);
+    for (int i = 0; i < 500; i++) {
+      final byte[] key = new byte[Bytes32.SIZE];
+      random.nextBytes(key);
+      trie.put(Bytes.wrap(key), "value" + i);
+    }
+    trie.commit(merkleStorage::put);
+    final Bytes32 rootHash = trie.getRootHash();
+
+    final Map<Bytes, Optional<String>> updates = new HashMap<>();
+    trie.entriesFrom(Bytes32.ZERO, 100)
+        .keySet()
+        .forEach(keyHash -> updates.put(keyHash, Optional.empty()));
+    trie.entriesFrom(Bytes32.rightPad(Bytes.of(0x80)), 100)
+        .keySet()
+        .forEach(keyHash -> updates.put(keyHash, Optional.of("updated")));
+    for (int i = 0; i < 100; i++) {
+      final byte[] key = new byte[Bytes32.SIZE];
+      random.nextBytes(key);
+      updates.put(Bytes.wrap(key), Optional.of("new" + i));
+    }
+
+    final MerklePatriciaTrie<Bytes, String> batchTrie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, rootHash, valueSerializer, valueDeserializer);
+    final MerklePatriciaTrie<Bytes, String> sequentialTrie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, rootHash, valueSerializer, valueDeserializer);
+    batchTrie.updateAll(updates);
+    updates.forEach(
+        (key, value) ->
+            value.ifPresentOrElse(
+                v -> sequentialTrie.put(key, v), () -> sequentialTrie.remove(key)));
+
+    assertThat(batchTrie.getRootHash()).isEqualTo(sequentialTrie.getRootHash());
+    assertThat(batchTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE))
+        .isEqualTo(sequentialTrie.entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE));
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.ethereum.trie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hyperledger.besu.crypto.Hash.keccak256;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.tuweni.bytes.Bytes;
+import org.apache.tuweni.bytes.Bytes32;
+import org.junit.Test;
+
+public class TrieNodeCacheTest {
+
+  private final List<Bytes> loadedLocations = new ArrayList<>();
+
+  @Test
+  public void servesNodesByHashFromTheCache() {
+    final TrieNodeCache cache = new TrieNodeCache(1024 * 1024);
+    final Bytes node = node(1);
+
+    assertThat(cache.getNodeByHash(Bytes.of(1), keccak256(node), false, loader(node)))
+        .contains(node);
+    assertThat(cache.getNodeByHash(Bytes.of(1, 2), keccak256(node), false, loader(node)))
+        .contains(node);
+
+    assertThat(loadedLocations).hasSize(1);
+    assertThat(cache.getHitRatio(1)).isEqualTo(0.0);
+    assertThat(cache.getHitRatio(2)).isEqualTo(1.0);
+  }
+
+  @Test
+  public void missesWhenTheNodeOfALocationHasChanged() {
+    final TrieNodeCache cache = new TrieNodeCache(1024 * 1024);
+    final Bytes oldNode = node(1);
+    final Bytes newNode = node(2);
+    final Bytes prefix = Bytes32.ZERO;
+
+    cache.getNodeByLocation(prefix, Bytes.of(1), keccak256(oldNode), false, loader(oldNode));
+    assertThat(
+            cache.getNodeByLocation(
+                prefix, Bytes.of(1), keccak256(newNode), false, loader(newNode)))
+        .contains(newNode);
+    assertThat(
+            cache.getNodeByLocation(
+                prefix, Bytes.of(1), keccak256(newNode), false, loader(newNode)))
+        .contains(newNode);
+
+    assertThat(loadedLocations).hasSize(2);
+  }
+
+  @Test
+  public void keysLocationsByPrefix() {
+    final TrieNodeCache cache = new TrieNodeCache(1024 * 1024);
+    final Bytes node = node(1);
+
+    cache.getNodeByLocation(Bytes32.ZERO, Bytes.of(1), keccak256(node), false, loader(node));
+    cache.getNodeByLocation(Bytes.EMPTY, Bytes.of(1), keccak256(node), false, loader(node));
+
+    assertThat(loadedLocations).hasSize(2);
+  }
+
+  @Test
+  public void doesNotCacheANodeReadByLocationWithAnotherHash() {
+    final TrieNodeCache cache = new TrieNodeCache(1024 * 1024);
+    final Bytes node = node(1);
+    final Bytes32 expectedHash = keccak256(node(2));
+
+    cache.getNodeByLocation(Bytes.EMPTY, Bytes.of(1), expectedHash, false, loader(node));
+    cache.getNodeByLocation(Bytes.EMPTY, Bytes.of(1), expectedHash, false, loader(node));
+
+    assertThat(loadedLocations).hasSize(2);
+  }
+
+  @Test
+  public void evictsNodesBeyondTheBudget() {
+    final TrieNodeCache cache = new TrieNodeCache(64 * 1024);
+
+    for (int i = 0; i < 1000; i++) {
+      final Bytes node = node(i);
+      cache.getNodeByHash(Bytes.of(1, 2, 3), keccak256(node), false, loader(node));
+    }
+    loadedLocations.clear();
+    for (int i = 0; i < 1000; i++) {
+      final Bytes node = node(i);
+      cache.getNodeByHash(Bytes.of(1, 2, 3), keccak256(node), false, loader(node));
+    }
+
+    assertThat(loadedLocations).hasSizeGreaterThan(900);
+  }
+
+  @Test
+  public void keepsTheUpperLevelsApartFromTheLowerOnes() {
+    final TrieNodeCache cache = new TrieNodeCache(64 * 1024);
+    final Bytes rootNode = node(-1);
+
+    cache.getNodeByHash(Bytes.EMPTY, keccak256(rootNode), true, loader(rootNode));
+    for (int i = 0; i < 1000; i++) {
+      final Bytes node = node(i);
+      cache.getNodeByHash(Bytes.of(1, 2, 3), keccak256(node), true, loader(node));
+    }
+    loadedLocations.clear();
+    cache.getNodeByHash(Bytes.EMPTY, keccak256(rootNode), true, loader(rootNode));
+
+    assertThat(loadedLocations).isEmpty();
+  }
+
+  @Test
+  public void removesInvalidatedNodes() {
+    final TrieNodeCache cache = new TrieNodeCache(1024 * 1024);
+    final Bytes node = node(1);
+
+    cache.getNodeByHash(Bytes.of(1), keccak256(node), false, loader(node));
+    cache.invalidateNodeByHash(keccak256(node));
+    assertThat(cache.getNodeByHash(Bytes.of(1), keccak256(node), false, loader(node)))
+        .contains(node);
+
+    assertThat(loadedLocations).hasSize(2);
+  }
+
+  @Test
+  public void disabledCacheReadsAllTheNodes() {
+    final Bytes node = node(1);
+
+    TrieNodeCache.DISABLED.getNodeByHash(Bytes.of(1), keccak256(node), true, loader(node));
+    TrieNodeCache.DISABLED.getNodeByHash(Bytes.of(1), keccak256(node), true, loader(node));
+
+    assertThat(loadedLocations).hasSize(2);
+    assertThat(TrieNodeCache.DISABLED.isEnabled()).isFalse();
+  }
+
+  private NodeLoader loader(final Bytes node) {
+    return (location, hash) -> {
+      loadedLocations.add(location);
+      return Optional.of(node);
+    };
+  }
+
+  private static Bytes node(final int index) {
+    final Bytes32 seed = keccak256(Bytes.ofUnsignedInt(index & 0xFFFFFFFFL));
+    return Bytes.concatenate(seed, seed, seed, seed, seed, seed, seed, seed, seed, seed);
+  }
+}
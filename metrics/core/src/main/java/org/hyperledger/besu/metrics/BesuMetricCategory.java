@@ -25,6 +25,7 @@ import com.google.common.collect.ImmutableSet;
 public enum BesuMetricCategory implements MetricCategory {
   BLOCKCHAIN("blockchain"),
   ETHEREUM("ethereum", false),
+  EVM("evm"),
   EXECUTORS("executors"),
   NETWORK("network"),
   PEERS("peers"),
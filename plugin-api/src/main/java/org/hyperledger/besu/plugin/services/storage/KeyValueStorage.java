@@ -18,9 +18,13 @@ import org.hyperledger.besu.plugin.Unstable;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 
 import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -61,6 +65,21 @@ public interface KeyValueStorage extends Closeable {
    */
   Optional<byte[]> get(byte[] key) throws StorageException;
 
+  /**
+   * Retrieves the values associated with several keys at once.
+   *
+   * <p>Storages able to look up keys in a batch should override this method, by default the keys
+   * are looked up one by one.
+   *
+   * @param keys whose associated values are being retrieved.
+   * @return a list holding, at the position of each key, an {@link Optional} containing the value
+   *     associated with the key, otherwise empty.
+   * @throws StorageException problem encountered during the retrieval attempt.
+   */
+  default List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    return keys.stream().map(this::get).collect(Collectors.toList());
+  }
+
   /**
    * Returns a stream of all keys.
    *
@@ -69,6 +88,26 @@ public interface KeyValueStorage extends Closeable {
    */
   Stream<byte[]> streamKeys() throws StorageException;
 
+  /**
+   * Returns a stream of the entries whose key is equal to or greater than the given key, in
+   * ascending order of the keys compared as unsigned bytes. The stream must be closed once no
+   * longer needed.
+   *
+   * <p>Storages able to seek to a key should override this method, by default all the keys are
+   * streamed and sorted before their values are looked up.
+   *
+   * @param startKey the key at which to start streaming.
+   * @return A stream of the entries from the given key onwards.
+   * @throws StorageException problem encountered during the retrieval attempt.
+   */
+  default Stream<Map.Entry<byte[], byte[]>> streamFromKey(final byte[] startKey)
+      throws StorageException {
+    return streamKeys()
+        .filter(key -> Arrays.compareUnsigned(key, startKey) >= 0)
+        .sorted(Arrays::compareUnsigned)
+        .flatMap(key -> get(key).map(value -> Map.entry(key, value)).stream());
+  }
+
   /**
    * Delete the value corresponding to the given key if a write lock can be instantly acquired on
    * the underlying storage. Do nothing otherwise.
@@ -89,6 +128,21 @@ public interface KeyValueStorage extends Closeable {
    */
   Set<byte[]> getAllKeysThat(Predicate<byte[]> returnCondition);
 
+  /**
+   * Takes a point-in-time view of the storage, unaffected by the updates committed afterwards. The
+   * snapshot must only be read from, and must be closed once no longer needed so that the storage
+   * can release the data it retains for it.
+   *
+   * <p>Storages unable to take snapshots return an empty {@link Optional}, which they do by
+   * default.
+   *
+   * @return the snapshot of the storage, if the storage supports snapshots.
+   * @throws StorageException problem encountered when taking the snapshot.
+   */
+  default Optional<KeyValueStorage> takeSnapshot() throws StorageException {
+    return Optional.empty();
+  }
+
   /**
    * Begins a fresh transaction, for sequencing operations for later atomic execution.
    *
@@ -96,4 +150,34 @@ public interface KeyValueStorage extends Closeable {
    * @throws StorageException problem encountered when starting a new transaction.
    */
   KeyValueStorageTransaction startTransaction() throws StorageException;
+
+  /**
+   * Begins a batch of writes, applied atomically when committed but without the isolation of a
+   * transaction: no lock is held on the written keys while the batch is built. Suited to bulk
+   * writers whose keys are not updated concurrently by other writers.
+   *
+   * <p>Storages without a cheaper way to write batches return a transaction, which they do by
+   * default.
+   *
+   * @return batch to sequence key-value operations.
+   * @throws StorageException problem encountered when starting a new batch.
+   */
+  default KeyValueStorageTransaction startWriteBatch() throws StorageException {
+    return startTransaction();
+  }
+
+  /**
+   * Begins a batch of writes like {@link #startWriteBatch()}, whose writes may additionally be
+   * lost if the process stops before the storage flushes them. Only suited to bulk loads that are
+   * restarted from scratch after a crash.
+   *
+   * <p>Storages that always make their writes durable return a regular batch, which they do by
+   * default.
+   *
+   * @return batch to sequence key-value operations.
+   * @throws StorageException problem encountered when starting a new batch.
+   */
+  default KeyValueStorageTransaction startUnloggedWriteBatch() throws StorageException {
+    return startWriteBatch();
+  }
 }
@@ -47,4 +47,14 @@ public interface SegmentIdentifier {
   default boolean includeInDatabaseVersion(final int version) {
     return true;
   }
+
+  /**
+   * Describes the access pattern of the segment, which storage implementations may use to tune how
+   * the segment is stored.
+   *
+   * @return the tuning profile of the segment
+   */
+  default SegmentTuningProfile getTuningProfile() {
+    return SegmentTuningProfile.DEFAULT;
+  }
 }
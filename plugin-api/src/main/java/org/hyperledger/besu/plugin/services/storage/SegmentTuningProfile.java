@@ -0,0 +1,45 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage;
+
+import org.hyperledger.besu.plugin.Unstable;
+
+/**
+ * Describes how the keys of a segment are shaped and how its data is accessed, so that storage
+ * implementations can tune the way they lay out and cache the segment.
+ */
+@Unstable
+public enum SegmentTuningProfile {
+  /** No particular access pattern is known for the segment. */
+  DEFAULT,
+
+  /**
+   * Keys are hashes read by point lookups, such as trie nodes keyed by their hash or accounts keyed
+   * by the hash of their address.
+   */
+  HASH_KEYED,
+
+  /**
+   * Keys start with the 32 byte hash of an account followed by a key of that account, and are
+   * often read together for the same account.
+   */
+  ACCOUNT_HASH_PREFIXED,
+
+  /**
+   * Data is mostly appended and rarely rewritten, such as blocks, receipts and trie logs, and
+   * values are large enough to be worth compressing.
+   */
+  APPEND_ONLY
+}
@@ -152,6 +152,7 @@ public class RocksDBKeyValueStorageFactory implements KeyValueStorageFactory {
     rocksDBConfiguration =
         RocksDBConfigurationBuilder.from(configuration.get())
             .databaseDir(storagePath(commonConfiguration))
+            .segments(segments)
             .build();
   }
 
@@ -14,6 +14,11 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
 import com.google.common.base.MoreObjects;
 import picocli.CommandLine;
 
@@ -30,6 +35,8 @@ public class RocksDBCLIOptions {
       "--Xplugin-rocksdb-max-background-compactions";
   private static final String BACKGROUND_THREAD_COUNT_FLAG =
       "--Xplugin-rocksdb-background-thread-count";
+  private static final String SEGMENT_TUNING_PROFILE_FLAG =
+      "--Xplugin-rocksdb-segment-tuning-profile";
 
   @CommandLine.Option(
       names = {MAX_OPEN_FILES_FLAG},
@@ -63,6 +70,17 @@ public class RocksDBCLIOptions {
       description = "Number of RocksDB background threads (default: ${DEFAULT-VALUE})")
   int backgroundThreadCount;
 
+  @CommandLine.Option(
+      names = {SEGMENT_TUNING_PROFILE_FLAG},
+      hidden = true,
+      split = ",",
+      paramLabel = "<SEGMENT=PROFILE>",
+      description =
+          "Overrides the tuning profile of the column family of a segment, one of DEFAULT, "
+              + "HASH_KEYED, ACCOUNT_HASH_PREFIXED or APPEND_ONLY "
+              + "(default: the profile declared by the segment)")
+  Map<String, SegmentTuningProfile> tuningProfileOverrides = new HashMap<>();
+
   private RocksDBCLIOptions() {}
 
   public static RocksDBCLIOptions create() {
@@ -75,12 +93,17 @@ public class RocksDBCLIOptions {
     options.cacheCapacity = config.getCacheCapacity();
     options.maxBackgroundCompactions = config.getMaxBackgroundCompactions();
     options.backgroundThreadCount = config.getBackgroundThreadCount();
+    options.tuningProfileOverrides = new HashMap<>(config.getTuningProfileOverrides());
     return options;
   }
 
   public RocksDBFactoryConfiguration toDomainObject() {
     return new RocksDBFactoryConfiguration(
-        maxOpenFiles, maxBackgroundCompactions, backgroundThreadCount, cacheCapacity);
+        maxOpenFiles,
+        maxBackgroundCompactions,
+        backgroundThreadCount,
+        cacheCapacity,
+        tuningProfileOverrides);
   }
 
   @Override
@@ -90,6 +113,7 @@ public class RocksDBCLIOptions {
         .add("cacheCapacity", cacheCapacity)
         .add("maxBackgroundCompactions", maxBackgroundCompactions)
         .add("backgroundThreadCount", backgroundThreadCount)
+        .add("tuningProfileOverrides", tuningProfileOverrides)
         .toString();
   }
 }
@@ -14,7 +14,11 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
+
 import java.nio.file.Path;
+import java.util.Map;
 
 public class RocksDBConfiguration {
 
@@ -24,6 +28,24 @@ public class RocksDBConfiguration {
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final Map<String, SegmentTuningProfile> tuningProfileOverrides;
+
+  public RocksDBConfiguration(
+      final Path databaseDir,
+      final int maxOpenFiles,
+      final int maxBackgroundCompactions,
+      final int backgroundThreadCount,
+      final long cacheCapacity,
+      final String label) {
+    this(
+        databaseDir,
+        maxOpenFiles,
+        maxBackgroundCompactions,
+        backgroundThreadCount,
+        cacheCapacity,
+        Map.of(),
+        label);
+  }
 
   public RocksDBConfiguration(
       final Path databaseDir,
@@ -31,12 +53,14 @@ public class RocksDBConfiguration {
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity,
+      final Map<String, SegmentTuningProfile> tuningProfileOverrides,
       final String label) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.databaseDir = databaseDir;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.tuningProfileOverrides = Map.copyOf(tuningProfileOverrides);
     this.label = label;
   }
 
@@ -60,6 +84,21 @@ public class RocksDBConfiguration {
     return cacheCapacity;
   }
 
+  public Map<String, SegmentTuningProfile> getTuningProfileOverrides() {
+    return tuningProfileOverrides;
+  }
+
+  /**
+   * The tuning profile to open a segment with, as overridden by the operator or else as declared by
+   * the segment itself.
+   *
+   * @param segment the segment to open
+   * @return the tuning profile of the segment
+   */
+  public SegmentTuningProfile getTuningProfile(final SegmentIdentifier segment) {
+    return tuningProfileOverrides.getOrDefault(segment.getName(), segment.getTuningProfile());
+  }
+
   public String getLabel() {
     return label;
   }
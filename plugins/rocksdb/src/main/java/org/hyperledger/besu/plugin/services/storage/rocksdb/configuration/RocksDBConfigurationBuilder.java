@@ -14,12 +14,20 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_BACKGROUND_THREAD_COUNT;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_CACHE_CAPACITY;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_BACKGROUND_COMPACTIONS;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_OPEN_FILES;
 
+import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
+
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class RocksDBConfigurationBuilder {
 
@@ -29,6 +37,8 @@ public class RocksDBConfigurationBuilder {
   private long cacheCapacity = DEFAULT_CACHE_CAPACITY;
   private int maxBackgroundCompactions = DEFAULT_MAX_BACKGROUND_COMPACTIONS;
   private int backgroundThreadCount = DEFAULT_BACKGROUND_THREAD_COUNT;
+  private Map<String, SegmentTuningProfile> tuningProfileOverrides = Map.of();
+  private List<SegmentIdentifier> segments = List.of();
 
   public RocksDBConfigurationBuilder databaseDir(final Path databaseDir) {
     this.databaseDir = databaseDir;
@@ -60,21 +70,45 @@ public class RocksDBConfigurationBuilder {
     return this;
   }
 
+  public RocksDBConfigurationBuilder tuningProfileOverrides(
+      final Map<String, SegmentTuningProfile> tuningProfileOverrides) {
+    this.tuningProfileOverrides = tuningProfileOverrides;
+    return this;
+  }
+
+  public RocksDBConfigurationBuilder segments(final List<SegmentIdentifier> segments) {
+    this.segments = segments;
+    return this;
+  }
+
   public static RocksDBConfigurationBuilder from(final RocksDBFactoryConfiguration configuration) {
     return new RocksDBConfigurationBuilder()
         .backgroundThreadCount(configuration.getBackgroundThreadCount())
         .cacheCapacity(configuration.getCacheCapacity())
         .maxBackgroundCompactions(configuration.getMaxBackgroundCompactions())
-        .maxOpenFiles(configuration.getMaxOpenFiles());
+        .maxOpenFiles(configuration.getMaxOpenFiles())
+        .tuningProfileOverrides(configuration.getTuningProfileOverrides());
   }
 
   public RocksDBConfiguration build() {
+    final Set<String> segmentNames =
+        segments.stream().map(SegmentIdentifier::getName).collect(Collectors.toSet());
+    tuningProfileOverrides
+        .keySet()
+        .forEach(
+            name ->
+                checkArgument(
+                    segmentNames.contains(name),
+                    "Unknown segment %s in the tuning profile overrides, expected one of %s",
+                    name,
+                    segmentNames));
     return new RocksDBConfiguration(
         databaseDir,
         maxOpenFiles,
         maxBackgroundCompactions,
         backgroundThreadCount,
         cacheCapacity,
+        tuningProfileOverrides,
         label);
   }
 }
@@ -14,22 +14,37 @@
  */
 package org.hyperledger.besu.plugin.services.storage.rocksdb.configuration;
 
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
+
+import java.util.Map;
+
 public class RocksDBFactoryConfiguration {
 
   private final int maxOpenFiles;
   private final int maxBackgroundCompactions;
   private final int backgroundThreadCount;
   private final long cacheCapacity;
+  private final Map<String, SegmentTuningProfile> tuningProfileOverrides;
 
   public RocksDBFactoryConfiguration(
       final int maxOpenFiles,
       final int maxBackgroundCompactions,
       final int backgroundThreadCount,
       final long cacheCapacity) {
+    this(maxOpenFiles, maxBackgroundCompactions, backgroundThreadCount, cacheCapacity, Map.of());
+  }
+
+  public RocksDBFactoryConfiguration(
+      final int maxOpenFiles,
+      final int maxBackgroundCompactions,
+      final int backgroundThreadCount,
+      final long cacheCapacity,
+      final Map<String, SegmentTuningProfile> tuningProfileOverrides) {
     this.maxBackgroundCompactions = maxBackgroundCompactions;
     this.backgroundThreadCount = backgroundThreadCount;
     this.maxOpenFiles = maxOpenFiles;
     this.cacheCapacity = cacheCapacity;
+    this.tuningProfileOverrides = Map.copyOf(tuningProfileOverrides);
   }
 
   public int getMaxOpenFiles() {
@@ -47,4 +62,8 @@ public class RocksDBFactoryConfiguration {
   public long getCacheCapacity() {
     return cacheCapacity;
   }
+
+  public Map<String, SegmentTuningProfile> getTuningProfileOverrides() {
+    return tuningProfileOverrides;
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb.segmented;
+
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rocksdb.AbstractNativeReference;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.Cache;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompressionType;
+import org.rocksdb.IndexType;
+
+/**
+ * Creates the options of the column families of a database from the tuning profiles of their
+ * segments. All column families share one block cache, and the options created are kept open until
+ * the factory is closed, which must only happen once the database is closed.
+ */
+class RocksDBColumnFamilyOptionsFactory implements AutoCloseable {
+
+  /** Length of the account hash keys of {@link SegmentTuningProfile#ACCOUNT_HASH_PREFIXED}. */
+  private static final int ACCOUNT_HASH_LENGTH = 32;
+
+  private static final double BLOOM_FILTER_BITS_PER_KEY = 10;
+  private static final double MEMTABLE_PREFIX_BLOOM_SIZE_RATIO = 0.1;
+  private static final long APPEND_ONLY_BLOCK_SIZE = 32 * 1024;
+
+  private final Cache blockCache;
+  private final List<AbstractNativeReference> resources = new ArrayList<>();
+
+  RocksDBColumnFamilyOptionsFactory(final Cache blockCache) {
+    this.blockCache = blockCache;
+  }
+
+  ColumnFamilyOptions create(final SegmentTuningProfile profile) {
+    final BlockBasedTableConfig tableConfig = new BlockBasedTableConfig().setBlockCache(blockCache);
+    final ColumnFamilyOptions options = track(new ColumnFamilyOptions());
+    switch (profile) {
+      case HASH_KEYED:
+        // Point lookups of keys that are mostly absent from most files, the bloom filters avoid
+        // reading those files and the partitioned index keeps the index of large files cached.
+        withBloomFilter(tableConfig)
+            .setPartitionFilters(true)
+            .setIndexType(IndexType.kTwoLevelIndexSearch)
+            .setCacheIndexAndFilterBlocks(true)
+            .setCacheIndexAndFilterBlocksWithHighPriority(true)
+            .setPinTopLevelIndexAndFilter(true);
+        break;
+      case ACCOUNT_HASH_PREFIXED:
+        // The storage of an account is read slot by slot and iterated from the account hash, so
+        // filters are built for the account hash prefix as well as for the whole key.
+        withBloomFilter(tableConfig).setWholeKeyFiltering(true);
+        options
+            .useCappedPrefixExtractor(ACCOUNT_HASH_LENGTH)
+            .setMemtablePrefixBloomSizeRatio(MEMTABLE_PREFIX_BLOOM_SIZE_RATIO);
+        break;
+      case APPEND_ONLY:
+        // Large values that are rarely rewritten compress well and are read sequentially often
+        // enough that bigger blocks pay off.
+        tableConfig.setBlockSize(APPEND_ONLY_BLOCK_SIZE);
+        options
+            .setCompressionType(CompressionType.LZ4_COMPRESSION)
+            .setBottommostCompressionType(CompressionType.ZSTD_COMPRESSION)
+            .setLevelCompactionDynamicLevelBytes(true);
+        break;
+      case DEFAULT:
+      default:
+        break;
+    }
+    return options.setTableFormatConfig(tableConfig);
+  }
+
+  private BlockBasedTableConfig withBloomFilter(final BlockBasedTableConfig tableConfig) {
+    return tableConfig.setFilterPolicy(track(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false)));
+  }
+
+  private <T extends AbstractNativeReference> T track(final T resource) {
+    resources.add(resource);
+    return resource;
+  }
+
+  @Override
+  public void close() {
+    resources.forEach(AbstractNativeReference::close);
+    resources.clear();
+  }
+}
@@ -20,9 +20,12 @@ import static java.util.stream.Collectors.toUnmodifiableSet;
 import org.hyperledger.besu.plugin.services.MetricsSystem;
 import org.hyperledger.besu.plugin.services.exception.StorageException;
 import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbEntryIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbKeyIterator;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbUtil;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfiguration;
@@ -31,10 +34,12 @@ import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorageTransaction
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -44,19 +49,19 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.tuweni.bytes.Bytes;
-import org.rocksdb.BlockBasedTableConfig;
 import org.rocksdb.ColumnFamilyDescriptor;
 import org.rocksdb.ColumnFamilyHandle;
-import org.rocksdb.ColumnFamilyOptions;
 import org.rocksdb.DBOptions;
 import org.rocksdb.Env;
 import org.rocksdb.LRUCache;
+import org.rocksdb.ReadOptions;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
 import org.rocksdb.Statistics;
 import org.rocksdb.Status;
 import org.rocksdb.TransactionDB;
 import org.rocksdb.TransactionDBOptions;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
 public class RocksDBColumnarKeyValueStorage
@@ -77,6 +82,11 @@ public class RocksDBColumnarKeyValueStorage
   private final Map<String, ColumnFamilyHandle> columnHandlesByName;
   private final RocksDBMetrics metrics;
   private final WriteOptions tryDeleteOptions = new WriteOptions().setNoSlowdown(true);
+  // The prefix extractors of some column families must not restrict iterations to one prefix.
+  private final ReadOptions iteratorReadOptions = new ReadOptions().setTotalOrderSeek(true);
+  private final LRUCache blockCache;
+  private final RocksDBColumnFamilyOptionsFactory columnFamilyOptionsFactory;
+  private final Set<RocksDBSnapshotKeyValueStorage> openSnapshots = ConcurrentHashMap.newKeySet();
 
   public RocksDBColumnarKeyValueStorage(
       final RocksDBConfiguration configuration,
@@ -85,16 +95,28 @@ public class RocksDBColumnarKeyValueStorage
       final RocksDBMetricsFactory rocksDBMetricsFactory)
       throws StorageException {
 
-    try (final ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions()) {
+    blockCache = new LRUCache(configuration.getCacheCapacity());
+    columnFamilyOptionsFactory = new RocksDBColumnFamilyOptionsFactory(blockCache);
+    try {
       final List<ColumnFamilyDescriptor> columnDescriptors =
           segments.stream()
-              .map(segment -> new ColumnFamilyDescriptor(segment.getId()))
+              .map(
+                  segment ->
+                      new ColumnFamilyDescriptor(
+                          segment.getId(),
+                          columnFamilyOptionsFactory.create(
+                              configuration.getTuningProfile(segment))))
               .collect(Collectors.toList());
       columnDescriptors.add(
           new ColumnFamilyDescriptor(
               DEFAULT_COLUMN.getBytes(StandardCharsets.UTF_8),
-              columnFamilyOptions.setTableFormatConfig(
-                  createBlockBasedTableConfig(configuration))));
+              columnFamilyOptionsFactory.create(SegmentTuningProfile.DEFAULT)));
+      segments.forEach(
+          segment ->
+              LOG.debug(
+                  "Opening column family {} with tuning profile {}",
+                  segment.getName(),
+                  configuration.getTuningProfile(segment)));
 
       final Statistics stats = new Statistics();
       options =
@@ -133,15 +155,12 @@ public class RocksDBColumnarKeyValueStorage
       }
       columnHandlesByName = builder.build();
     } catch (final RocksDBException e) {
+      columnFamilyOptionsFactory.close();
+      blockCache.close();
       throw new StorageException(e);
     }
   }
 
-  private BlockBasedTableConfig createBlockBasedTableConfig(final RocksDBConfiguration config) {
-    final LRUCache cache = new LRUCache(config.getCacheCapacity());
-    return new BlockBasedTableConfig().setBlockCache(cache);
-  }
-
   @Override
   public ColumnFamilyHandle getSegmentIdentifierByName(final SegmentIdentifier segment) {
     return columnHandlesByName.get(segment.getName());
@@ -159,6 +178,33 @@ public class RocksDBColumnarKeyValueStorage
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final ColumnFamilyHandle segment, final List<byte[]> keys)
+      throws StorageException {
+    throwIfClosed();
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return db.multiGetAsList(Collections.nCopies(keys.size(), segment), keys).stream()
+          .map(Optional::ofNullable)
+          .collect(Collectors.toList());
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public Optional<KeyValueStorage> takeSnapshot(final ColumnFamilyHandle segment)
+      throws StorageException {
+    throwIfClosed();
+    final RocksDBSnapshotKeyValueStorage snapshot =
+        new RocksDBSnapshotKeyValueStorage(db, segment, metrics, openSnapshots::remove);
+    openSnapshots.add(snapshot);
+    return Optional.of(snapshot);
+  }
+
   @Override
   public Transaction<ColumnFamilyHandle> startTransaction() throws StorageException {
     throwIfClosed();
@@ -167,13 +213,37 @@ public class RocksDBColumnarKeyValueStorage
         new RocksDbTransaction(db.beginTransaction(writeOptions), writeOptions));
   }
 
+  @Override
+  public Transaction<ColumnFamilyHandle> startWriteBatch() throws StorageException {
+    return startWriteBatch(new WriteOptions());
+  }
+
+  @Override
+  public Transaction<ColumnFamilyHandle> startUnloggedWriteBatch() throws StorageException {
+    return startWriteBatch(new WriteOptions().setDisableWAL(true));
+  }
+
+  private Transaction<ColumnFamilyHandle> startWriteBatch(final WriteOptions writeOptions) {
+    throwIfClosed();
+    return new SegmentedKeyValueStorageTransactionTransitionValidatorDecorator<>(
+        new RocksDbWriteBatch(new WriteBatch(), writeOptions));
+  }
+
   @Override
   public Stream<byte[]> streamKeys(final ColumnFamilyHandle segmentHandle) {
-    final RocksIterator rocksIterator = db.newIterator(segmentHandle);
+    final RocksIterator rocksIterator = db.newIterator(segmentHandle, iteratorReadOptions);
     rocksIterator.seekToFirst();
     return RocksDbKeyIterator.create(rocksIterator).toStream();
   }
 
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> streamFromKey(
+      final ColumnFamilyHandle segmentHandle, final byte[] startKey) {
+    final RocksIterator rocksIterator = db.newIterator(segmentHandle, iteratorReadOptions);
+    rocksIterator.seek(startKey);
+    return RocksDbEntryIterator.create(rocksIterator).toStream();
+  }
+
   @Override
   public boolean tryDelete(final ColumnFamilyHandle segmentHandle, final byte[] key) {
     try {
@@ -196,7 +266,7 @@ public class RocksDBColumnarKeyValueStorage
 
   @Override
   public void clear(final ColumnFamilyHandle segmentHandle) {
-    try (final RocksIterator rocksIterator = db.newIterator(segmentHandle)) {
+    try (final RocksIterator rocksIterator = db.newIterator(segmentHandle, iteratorReadOptions)) {
       rocksIterator.seekToFirst();
       if (rocksIterator.isValid()) {
         final byte[] firstKey = rocksIterator.key();
@@ -215,11 +285,16 @@ public class RocksDBColumnarKeyValueStorage
   @Override
   public void close() {
     if (closed.compareAndSet(false, true)) {
+      // snapshots can not be released once the database is closed
+      List.copyOf(openSnapshots).forEach(RocksDBSnapshotKeyValueStorage::close);
       txOptions.close();
       options.close();
       tryDeleteOptions.close();
+      iteratorReadOptions.close();
       columnHandlesByName.values().forEach(ColumnFamilyHandle::close);
       db.close();
+      columnFamilyOptionsFactory.close();
+      blockCache.close();
     }
   }
 
@@ -302,4 +377,64 @@ public class RocksDBColumnarKeyValueStorage
       options.close();
     }
   }
+
+  /**
+   * A batch of writes applied atomically on commit. Unlike a transaction, the written keys are not
+   * locked one by one as the batch is built, the transaction database only checks them once when
+   * the batch is written.
+   */
+  private class RocksDbWriteBatch implements Transaction<ColumnFamilyHandle> {
+
+    private final WriteBatch writeBatch;
+    private final WriteOptions options;
+
+    RocksDbWriteBatch(final WriteBatch writeBatch, final WriteOptions options) {
+      this.writeBatch = writeBatch;
+      this.options = options;
+    }
+
+    @Override
+    public void put(final ColumnFamilyHandle segment, final byte[] key, final byte[] value) {
+      try (final OperationTimer.TimingContext ignored = metrics.getWriteLatency().startTimer()) {
+        writeBatch.put(segment, key, value);
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      }
+    }
+
+    @Override
+    public void remove(final ColumnFamilyHandle segment, final byte[] key) {
+      try (final OperationTimer.TimingContext ignored = metrics.getRemoveLatency().startTimer()) {
+        writeBatch.delete(segment, key);
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      }
+    }
+
+    @Override
+    public void commit() throws StorageException {
+      try (final OperationTimer.TimingContext ignored = metrics.getCommitLatency().startTimer()) {
+        db.write(options, writeBatch);
+      } catch (final RocksDBException e) {
+        if (e.getMessage().contains(NO_SPACE_LEFT_ON_DEVICE)) {
+          LOG.error(e.getMessage());
+          System.exit(0);
+        }
+        throw new StorageException(e);
+      } finally {
+        close();
+      }
+    }
+
+    @Override
+    public void rollback() {
+      metrics.getRollbackCount().inc();
+      close();
+    }
+
+    private void close() {
+      writeBatch.close();
+      options.close();
+    }
+  }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.hyperledger.besu.plugin.services.storage.rocksdb.segmented;
+
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.metrics.OperationTimer;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetrics;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbEntryIterator;
+import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDbKeyIterator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ReadOptions;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.Snapshot;
+import org.rocksdb.TransactionDB;
+
+/** A read-only view of one column family as of the time a RocksDB snapshot was taken. */
+class RocksDBSnapshotKeyValueStorage implements KeyValueStorage {
+
+  private final TransactionDB db;
+  private final ColumnFamilyHandle segmentHandle;
+  private final RocksDBMetrics metrics;
+  private final Snapshot snapshot;
+  private final ReadOptions readOptions;
+  private final Consumer<RocksDBSnapshotKeyValueStorage> onClose;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  RocksDBSnapshotKeyValueStorage(
+      final TransactionDB db,
+      final ColumnFamilyHandle segmentHandle,
+      final RocksDBMetrics metrics,
+      final Consumer<RocksDBSnapshotKeyValueStorage> onClose) {
+    this.db = db;
+    this.segmentHandle = segmentHandle;
+    this.metrics = metrics;
+    this.onClose = onClose;
+    this.snapshot = db.getSnapshot();
+    this.readOptions = new ReadOptions().setSnapshot(snapshot).setTotalOrderSeek(true);
+  }
+
+  @Override
+  public Optional<byte[]> get(final byte[] key) throws StorageException {
+    throwIfClosed();
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return Optional.ofNullable(db.get(segmentHandle, readOptions, key));
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    throwIfClosed();
+    if (keys.isEmpty()) {
+      return List.of();
+    }
+
+    try (final OperationTimer.TimingContext ignored = metrics.getReadLatency().startTimer()) {
+      return db
+          .multiGetAsList(readOptions, Collections.nCopies(keys.size(), segmentHandle), keys)
+          .stream()
+          .map(Optional::ofNullable)
+          .collect(Collectors.toList());
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  @Override
+  public boolean containsKey(final byte[] key) throws StorageException {
+    return get(key).isPresent();
+  }
+
+  @Override
+  public Stream<byte[]> streamKeys() throws StorageException {
+    throwIfClosed();
+    final RocksIterator rocksIterator = db.newIterator(segmentHandle, readOptions);
+    rocksIterator.seekToFirst();
+    return RocksDbKeyIterator.create(rocksIterator).toStream();
+  }
+
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> streamFromKey(final byte[] startKey)
+      throws StorageException {
+    throwIfClosed();
+    final RocksIterator rocksIterator = db.newIterator(segmentHandle, readOptions);
+    rocksIterator.seek(startKey);
+    return RocksDbEntryIterator.create(rocksIterator).toStream();
+  }
+
+  @Override
+  public Set<byte[]> getAllKeysThat(final Predicate<byte[]> returnCondition) {
+    return streamKeys().filter(returnCondition).collect(toUnmodifiableSet());
+  }
+
+  @Override
+  public boolean tryDelete(final byte[] key) {
+    throw new UnsupportedOperationException("Snapshots are read-only");
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedOperationException("Snapshots are read-only");
+  }
+
+  @Override
+  public KeyValueStorageTransaction startTransaction() {
+    throw new UnsupportedOperationException("Snapshots are read-only");
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      db.releaseSnapshot(snapshot);
+      readOptions.close();
+      onClose.accept(this);
+    }
+  }
+
+  private void throwIfClosed() {
+    if (closed.get()) {
+      throw new IllegalStateException("Snapshot has been released");
+    }
+  }
+}
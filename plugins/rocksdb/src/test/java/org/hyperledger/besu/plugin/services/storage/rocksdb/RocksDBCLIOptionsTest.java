@@ -15,11 +15,13 @@
 package org.hyperledger.besu.plugin.services.storage.rocksdb;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_BACKGROUND_THREAD_COUNT;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_CACHE_CAPACITY;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_BACKGROUND_COMPACTIONS;
 import static org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions.DEFAULT_MAX_OPEN_FILES;
 
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBCLIOptions;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBFactoryConfiguration;
 
@@ -34,6 +36,8 @@ public class RocksDBCLIOptionsTest {
       "--Xplugin-rocksdb-max-background-compactions";
   private static final String BACKGROUND_THREAD_COUNT_FLAG =
       "--Xplugin-rocksdb-background-thread-count";
+  private static final String SEGMENT_TUNING_PROFILE_FLAG =
+      "--Xplugin-rocksdb-segment-tuning-profile";
 
   @Test
   public void defaultValues() {
@@ -48,6 +52,7 @@ public class RocksDBCLIOptionsTest {
     assertThat(configuration.getMaxBackgroundCompactions())
         .isEqualTo(DEFAULT_MAX_BACKGROUND_COMPACTIONS);
     assertThat(configuration.getMaxOpenFiles()).isEqualTo(DEFAULT_MAX_OPEN_FILES);
+    assertThat(configuration.getTuningProfileOverrides()).isEmpty();
   }
 
   @Test
@@ -115,4 +120,20 @@ public class RocksDBCLIOptionsTest {
         .isEqualTo(DEFAULT_MAX_BACKGROUND_COMPACTIONS);
     assertThat(configuration.getMaxOpenFiles()).isEqualTo(expectedMaxOpenFiles);
   }
+
+  @Test
+  public void customSegmentTuningProfiles() {
+    final RocksDBCLIOptions options = RocksDBCLIOptions.create();
+
+    new CommandLine(options)
+        .parse(SEGMENT_TUNING_PROFILE_FLAG, "WORLD_STATE=DEFAULT,TRIE_BRANCH_STORAGE=HASH_KEYED");
+
+    final RocksDBFactoryConfiguration configuration = options.toDomainObject();
+    assertThat(configuration).isNotNull();
+    assertThat(configuration.getTuningProfileOverrides())
+        .containsOnly(
+            entry("WORLD_STATE", SegmentTuningProfile.DEFAULT),
+            entry("TRIE_BRANCH_STORAGE", SegmentTuningProfile.HASH_KEYED));
+    assertThat(configuration.getCacheCapacity()).isEqualTo(DEFAULT_CACHE_CAPACITY);
+  }
 }
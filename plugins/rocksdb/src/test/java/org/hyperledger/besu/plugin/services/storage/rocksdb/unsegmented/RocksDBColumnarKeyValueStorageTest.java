@@ -15,11 +15,13 @@
 package org.hyperledger.besu.plugin.services.storage.rocksdb.unsegmented;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.hyperledger.besu.kvstore.AbstractKeyValueStorageTest;
 import org.hyperledger.besu.metrics.noop.NoOpMetricsSystem;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
+import org.hyperledger.besu.plugin.services.storage.SegmentTuningProfile;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.RocksDBMetricsFactory;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.configuration.RocksDBConfigurationBuilder;
 import org.hyperledger.besu.plugin.services.storage.rocksdb.segmented.RocksDBColumnarKeyValueStorage;
@@ -29,6 +31,7 @@ import org.hyperledger.besu.services.kvstore.SegmentedKeyValueStorageAdapter;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -140,6 +143,52 @@ public class RocksDBColumnarKeyValueStorageTest extends AbstractKeyValueStorageT
     store.close();
   }
 
+  @Test
+  public void segmentsCanBeOpenedWithEveryTuningProfile() throws Exception {
+    for (final SegmentTuningProfile profile : SegmentTuningProfile.values()) {
+      final SegmentedKeyValueStorage<ColumnFamilyHandle> store =
+          new RocksDBColumnarKeyValueStorage(
+              new RocksDBConfigurationBuilder()
+                  .databaseDir(folder.newFolder().toPath())
+                  .tuningProfileOverrides(Map.of(TestSegment.FOO.getName(), profile))
+                  .segments(Arrays.asList(TestSegment.FOO, TestSegment.BAR))
+                  .build(),
+              Arrays.asList(TestSegment.FOO, TestSegment.BAR),
+              new NoOpMetricsSystem(),
+              RocksDBMetricsFactory.PUBLIC_ROCKS_DB_METRICS);
+      final ColumnFamilyHandle fooSegment = store.getSegmentIdentifierByName(TestSegment.FOO);
+
+      // Keys both shorter and longer than the account hash prefix, under different prefixes.
+      final byte[] shortKey = bytesFromHexString("01");
+      final byte[] firstLongKey = bytesFromHexString("02".repeat(32) + "01");
+      final byte[] secondLongKey = bytesFromHexString("03".repeat(32) + "01");
+      final Transaction<ColumnFamilyHandle> tx = store.startTransaction();
+      tx.put(fooSegment, shortKey, bytesOf(1));
+      tx.put(fooSegment, firstLongKey, bytesOf(2));
+      tx.put(fooSegment, secondLongKey, bytesOf(3));
+      tx.commit();
+
+      assertThat(store.get(fooSegment, firstLongKey)).contains(bytesOf(2));
+      assertThat(store.get(fooSegment, bytesFromHexString("02".repeat(32) + "02"))).isEmpty();
+      assertThat(store.streamKeys(fooSegment))
+          .containsExactly(shortKey, firstLongKey, secondLongKey);
+
+      store.close();
+    }
+  }
+
+  @Test
+  public void tuningProfileOverridesOfUnknownSegmentsAreRejected() {
+    assertThatThrownBy(
+            () ->
+                new RocksDBConfigurationBuilder()
+                    .tuningProfileOverrides(Map.of("FOOO", SegmentTuningProfile.HASH_KEYED))
+                    .segments(Arrays.asList(TestSegment.FOO, TestSegment.BAR))
+                    .build())
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("FOOO");
+  }
+
   public enum TestSegment implements SegmentIdentifier {
     FOO(new byte[] {1}),
     BAR(new byte[] {2});
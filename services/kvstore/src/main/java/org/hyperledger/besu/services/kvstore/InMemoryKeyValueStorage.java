@@ -21,8 +21,11 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -30,6 +33,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableSet;
@@ -75,6 +79,21 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
     }
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      final List<Optional<byte[]>> values = new ArrayList<>(keys.size());
+      for (final byte[] key : keys) {
+        values.add(Optional.ofNullable(hashValueStore.get(Bytes.wrap(key))));
+      }
+      return values;
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public Set<byte[]> getAllKeysThat(final Predicate<byte[]> returnCondition) {
     return streamKeys().filter(returnCondition).collect(toUnmodifiableSet());
@@ -91,6 +110,22 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
     }
   }
 
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> streamFromKey(final byte[] startKey) {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      return hashValueStore.entrySet().stream()
+          .map(entry -> Map.entry(entry.getKey().toArrayUnsafe(), entry.getValue()))
+          .filter(entry -> Arrays.compareUnsigned(entry.getKey(), startKey) >= 0)
+          .sorted(Map.Entry.comparingByKey(Arrays::compareUnsigned))
+          .collect(Collectors.toList())
+          .stream();
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public boolean tryDelete(final byte[] key) {
     final Lock lock = rwLock.writeLock();
@@ -108,6 +143,17 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
   @Override
   public void close() {}
 
+  @Override
+  public Optional<KeyValueStorage> takeSnapshot() {
+    final Lock lock = rwLock.readLock();
+    lock.lock();
+    try {
+      return Optional.of(new InMemoryKeyValueStorage(new HashMap<>(hashValueStore)));
+    } finally {
+      lock.unlock();
+    }
+  }
+
   @Override
   public KeyValueStorageTransaction startTransaction() {
     return new KeyValueStorageTransactionTransitionValidatorDecorator(new InMemoryTransaction());
@@ -15,12 +15,17 @@
 package org.hyperledger.besu.services.kvstore;
 
 import org.hyperledger.besu.plugin.services.exception.StorageException;
+import org.hyperledger.besu.plugin.services.storage.KeyValueStorage;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 
 import java.io.Closeable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -41,10 +46,34 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
    */
   Optional<byte[]> get(S segment, byte[] key) throws StorageException;
 
+  /**
+   * Get the values from the associated segment and keys, looking the keys up one by one unless
+   * overridden with a batch lookup.
+   *
+   * @param segment the segment
+   * @param keys Indexes into persistent data repository.
+   * @return The values persisted at the key indexes, in the order of the keys.
+   */
+  default List<Optional<byte[]>> getAll(final S segment, final List<byte[]> keys)
+      throws StorageException {
+    return keys.stream().map(key -> get(segment, key)).collect(Collectors.toList());
+  }
+
   default boolean containsKey(final S segment, final byte[] key) throws StorageException {
     return get(segment, key).isPresent();
   }
 
+  /**
+   * Takes a point-in-time view of the segment, unaffected by the updates committed afterwards, if
+   * the storage supports snapshots.
+   *
+   * @param segment the segment
+   * @return The read-only snapshot of the segment, to be closed once no longer needed.
+   */
+  default Optional<KeyValueStorage> takeSnapshot(final S segment) throws StorageException {
+    return Optional.empty();
+  }
+
   /**
    * Begins a transaction. Returns a transaction object that can be updated and committed.
    *
@@ -52,6 +81,26 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
    */
   Transaction<S> startTransaction() throws StorageException;
 
+  /**
+   * Begins a batch of writes, committed atomically but without locking the written keys. By
+   * default a transaction is returned.
+   *
+   * @return An object representing the batch.
+   */
+  default Transaction<S> startWriteBatch() throws StorageException {
+    return startTransaction();
+  }
+
+  /**
+   * Begins a batch of writes that skips the write-ahead log, whose writes are lost if the process
+   * stops before they are flushed. By default a regular batch is returned.
+   *
+   * @return An object representing the batch.
+   */
+  default Transaction<S> startUnloggedWriteBatch() throws StorageException {
+    return startWriteBatch();
+  }
+
   /**
    * Returns a stream of all keys for the segment.
    *
@@ -60,6 +109,23 @@ public interface SegmentedKeyValueStorage<S> extends Closeable {
    */
   Stream<byte[]> streamKeys(final S segmentHandle);
 
+  /**
+   * Returns a stream of the entries of the segment from the given key onwards, in ascending order
+   * of the keys compared as unsigned bytes. By default all the keys of the segment are streamed and
+   * sorted before their values are looked up.
+   *
+   * @param segmentHandle The segment handle whose entries we want to stream.
+   * @param startKey The key at which to start streaming.
+   * @return A stream of the entries of the specified segment, to be closed once no longer needed.
+   */
+  default Stream<Map.Entry<byte[], byte[]>> streamFromKey(
+      final S segmentHandle, final byte[] startKey) {
+    return streamKeys(segmentHandle)
+        .filter(key -> Arrays.compareUnsigned(key, startKey) >= 0)
+        .sorted(Arrays::compareUnsigned)
+        .flatMap(key -> get(segmentHandle, key).map(value -> Map.entry(key, value)).stream());
+  }
+
   /**
    * Delete the value corresponding to the given key in the given segment if a write lock can be
    * instantly acquired on the underlying storage. Do nothing otherwise.
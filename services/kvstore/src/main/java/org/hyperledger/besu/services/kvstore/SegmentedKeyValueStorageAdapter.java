@@ -20,6 +20,8 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import org.hyperledger.besu.plugin.services.storage.SegmentIdentifier;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
@@ -50,6 +52,11 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.get(segmentHandle, key);
   }
 
+  @Override
+  public List<Optional<byte[]>> getAll(final List<byte[]> keys) throws StorageException {
+    return storage.getAll(segmentHandle, keys);
+  }
+
   @Override
   public Set<byte[]> getAllKeysThat(final Predicate<byte[]> returnCondition) {
     return storage.getAllKeysThat(segmentHandle, returnCondition);
@@ -60,11 +67,21 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
     return storage.streamKeys(segmentHandle);
   }
 
+  @Override
+  public Stream<Map.Entry<byte[], byte[]>> streamFromKey(final byte[] startKey) {
+    return storage.streamFromKey(segmentHandle, startKey);
+  }
+
   @Override
   public boolean tryDelete(final byte[] key) {
     return storage.tryDelete(segmentHandle, key);
   }
 
+  @Override
+  public Optional<KeyValueStorage> takeSnapshot() throws StorageException {
+    return storage.takeSnapshot(segmentHandle);
+  }
+
   @Override
   public void close() throws IOException {
     storage.close();
@@ -72,7 +89,21 @@ public class SegmentedKeyValueStorageAdapter<S> implements KeyValueStorage {
 
   @Override
   public KeyValueStorageTransaction startTransaction() throws StorageException {
-    final SegmentedKeyValueStorage.Transaction<S> transaction = storage.startTransaction();
+    return forSegment(storage.startTransaction());
+  }
+
+  @Override
+  public KeyValueStorageTransaction startWriteBatch() throws StorageException {
+    return forSegment(storage.startWriteBatch());
+  }
+
+  @Override
+  public KeyValueStorageTransaction startUnloggedWriteBatch() throws StorageException {
+    return forSegment(storage.startUnloggedWriteBatch());
+  }
+
+  private KeyValueStorageTransaction forSegment(
+      final SegmentedKeyValueStorage.Transaction<S> transaction) {
     return new KeyValueStorageTransaction() {
 
       @Override
@@ -24,6 +24,7 @@ import org.hyperledger.besu.plugin.services.storage.KeyValueStorageTransaction;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -118,6 +119,49 @@ public abstract class AbstractKeyValueStorageTest {
     assertThat(store.containsKey(key)).isTrue();
   }
 
+  @Test
+  public void getAll() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesFromHexString("0F"), bytesFromHexString("0ABC"));
+    tx.put(bytesFromHexString("11"), bytesFromHexString("0DEF"));
+    tx.commit();
+
+    final List<Optional<byte[]>> values =
+        store.getAll(
+            List.of(bytesFromHexString("11"), bytesFromHexString("10"), bytesFromHexString("0F")));
+
+    assertThat(values).hasSize(3);
+    assertThat(values.get(0)).contains(bytesFromHexString("0DEF"));
+    assertThat(values.get(1)).isEmpty();
+    assertThat(values.get(2)).contains(bytesFromHexString("0ABC"));
+    assertThat(store.getAll(List.of())).isEmpty();
+  }
+
+  @Test
+  public void streamFromKey() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction tx = store.startTransaction();
+    Stream.of("0F", "10", "80", "FF01", "11")
+        .forEach(key -> tx.put(bytesFromHexString(key), bytesFromHexString("0A" + key)));
+    tx.commit();
+
+    try (final Stream<Map.Entry<byte[], byte[]>> entries =
+        store.streamFromKey(bytesFromHexString("10"))) {
+      assertThat(entries.map(entry -> Bytes.wrap(entry.getKey()).toHexString()))
+          .containsExactly("0x10", "0x11", "0x80", "0xff01");
+    }
+    try (final Stream<Map.Entry<byte[], byte[]>> entries =
+        store.streamFromKey(bytesFromHexString("12"))) {
+      assertThat(entries.map(entry -> Bytes.wrap(entry.getValue()).toHexString()).limit(1))
+          .containsExactly("0x0a80");
+    }
+    try (final Stream<Map.Entry<byte[], byte[]>> entries =
+        store.streamFromKey(bytesFromHexString("FF02"))) {
+      assertThat(entries).isEmpty();
+    }
+  }
+
   @Test
   public void removeExisting() throws Exception {
     final KeyValueStorage store = createStore();
@@ -260,6 +304,54 @@ public abstract class AbstractKeyValueStorageTest {
     assertThat(store.get(bytesOf(4))).isEmpty();
   }
 
+  @Test
+  public void writeBatchCommit() throws Exception {
+    final KeyValueStorage store = createStore();
+    KeyValueStorageTransaction tx = store.startTransaction();
+    tx.put(bytesOf(1), bytesOf(1));
+    tx.put(bytesOf(2), bytesOf(2));
+    tx.commit();
+
+    final KeyValueStorageTransaction batch = store.startWriteBatch();
+    batch.put(bytesOf(1), bytesOf(3));
+    batch.remove(bytesOf(2));
+    batch.put(bytesOf(4), bytesOf(8));
+
+    // Check values before committing have not changed
+    assertThat(store.get(bytesOf(1))).contains(bytesOf(1));
+    assertThat(store.get(bytesOf(2))).contains(bytesOf(2));
+    assertThat(store.get(bytesOf(4))).isEmpty();
+
+    batch.commit();
+
+    assertThat(store.get(bytesOf(1))).contains(bytesOf(3));
+    assertThat(store.get(bytesOf(2))).isEmpty();
+    assertThat(store.get(bytesOf(4))).contains(bytesOf(8));
+  }
+
+  @Test
+  public void writeBatchRollback() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction batch = store.startWriteBatch();
+    batch.put(bytesOf(1), bytesOf(1));
+
+    batch.rollback();
+
+    assertThat(store.get(bytesOf(1))).isEmpty();
+  }
+
+  @Test
+  public void unloggedWriteBatchCommit() throws Exception {
+    final KeyValueStorage store = createStore();
+    final KeyValueStorageTransaction batch = store.startUnloggedWriteBatch();
+    batch.put(bytesOf(1), bytesOf(1));
+    batch.put(bytesOf(2), bytesOf(2));
+    batch.commit();
+
+    assertThat(store.get(bytesOf(1))).contains(bytesOf(1));
+    assertThat(store.get(bytesOf(2))).contains(bytesOf(2));
+  }
+
   @Test
   public void transactionCommitEmpty() throws Exception {
     final KeyValueStorage store = createStore();